@@ -0,0 +1,264 @@
+package com.example.drawit_app.data;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import android.database.Cursor;
+import android.util.Log;
+
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.Observer;
+import androidx.room.Room;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.example.drawit_app.model.Drawing;
+import com.example.drawit_app.model.Game;
+import com.example.drawit_app.model.Lobby;
+import com.example.drawit_app.model.OutboundAction;
+import com.example.drawit_app.model.User;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Checks that the DAO queries are served by an index.
+ * <p>
+ * Every abstract DAO method is called against a seeded in-memory database, and the statements
+ * Room actually sends to SQLite are captured through the query callback, so the SQL always
+ * matches the generated DAO implementations. Each captured statement is run through
+ * {@code EXPLAIN QUERY PLAN} with its bind arguments, and a plain {@code SCAN} of a table
+ * fails the test. Walking an index in order ({@code SCAN ... USING INDEX}) is fine: it is
+ * how ordered lists and LIMIT queries are served.
+ */
+@RunWith(AndroidJUnit4.class)
+public class QueryPlanTest {
+    private static final String TAG = "QueryPlanTest";
+
+    // Methods that read or clear a whole table by design
+    private static final Set<String> WHOLE_TABLE = new HashSet<>(Arrays.asList(
+            "LobbyDao.getAllLobbiesSync",
+            "LobbyDao.getAllLobbyIdsSync",
+            "LobbyDao.deleteAllLobbiesDirectly",
+            "UserDao.getAllUsers",
+            "UserDao.deleteAll",
+            // Looks for users that nothing points at, which means visiting all of them
+            "UserDao.deleteUnreferencedUsers",
+            "GameDao.getAllGameIds",
+            // Rowid order; the queue is short and drained from the front
+            "OutboundActionDao.getOldest",
+            "OutboundActionDao.deleteAll",
+            "OutboundActionDao.count"
+    ));
+
+    private final List<CapturedStatement> captured = Collections.synchronizedList(new ArrayList<>());
+    private DrawItDatabase database;
+    private int nextId;
+
+    @Before
+    public void setUp() {
+        database = Room.inMemoryDatabaseBuilder(ApplicationProvider.getApplicationContext(), DrawItDatabase.class)
+                .allowMainThreadQueries()
+                .setQueryExecutor(Runnable::run)
+                .setTransactionExecutor(Runnable::run)
+                .setQueryCallback((sql, args) -> captured.add(new CapturedStatement(sql, args)), Runnable::run)
+                .build();
+        seed();
+    }
+
+    @After
+    public void tearDown() {
+        database.close();
+    }
+
+    @Test
+    public void daoQueriesUseAnIndex() throws Exception {
+        List<Object> daos = Arrays.asList(database.userDao(), database.lobbyDao(), database.gameDao(),
+                database.drawingDao(), database.outboundActionDao());
+        Class<?>[] daoTypes = {UserDao.class, LobbyDao.class, GameDao.class, DrawingDao.class,
+                OutboundActionDao.class};
+
+        List<String> fullScans = new ArrayList<>();
+        List<String> silent = new ArrayList<>();
+        Set<String> checked = new HashSet<>();
+        for (int i = 0; i < daoTypes.length; i++) {
+            for (Method method : daoTypes[i].getDeclaredMethods()) {
+                // Default methods only combine the abstract ones, which are checked themselves
+                if (method.isDefault() || Modifier.isStatic(method.getModifiers())) {
+                    continue;
+                }
+                String name = daoTypes[i].getSimpleName() + "." + method.getName();
+                checked.add(name);
+
+                List<CapturedStatement> statements = invoke(daos.get(i), method);
+                if (statements.isEmpty()) {
+                    silent.add(name);
+                }
+                for (CapturedStatement statement : statements) {
+                    for (String detail : explain(statement)) {
+                        Log.d(TAG, name + ": " + detail);
+                        if (isFullScan(detail) && !WHOLE_TABLE.contains(name)) {
+                            fullScans.add(name + " -> " + detail + "\n    " + statement.sql);
+                        }
+                    }
+                }
+            }
+        }
+
+        Set<String> stale = new HashSet<>(WHOLE_TABLE);
+        stale.removeAll(checked);
+        assertTrue("Whole-table entries that match no DAO method: " + stale, stale.isEmpty());
+        assertTrue("DAO methods that sent no statement: " + silent, silent.isEmpty());
+        assertEquals("Full table scans in DAO queries:\n" + String.join("\n", fullScans),
+                0, fullScans.size());
+    }
+
+    // "SCAN drawings" on SQLite 3.36+, "SCAN TABLE drawings" before; virtual tables (FTS)
+    // are searched through their own index and report it as "VIRTUAL TABLE INDEX"
+    private static boolean isFullScan(String detail) {
+        return detail != null
+                && detail.startsWith("SCAN ")
+                && !detail.contains(" USING ")
+                && !detail.contains("VIRTUAL TABLE");
+    }
+
+    // A few rows in every table, so updates and deletes have something to match
+    private void seed() {
+        database.userDao().insert(new User("cat", "cat", null));
+        database.lobbyDao().insert(new Lobby("cat", "Lobby", "cat", 4, 3, 60));
+        database.gameDao().insert(new Game("cat", "cat", 3, 60));
+        Drawing drawing = new Drawing("cat", "cat", "cat", 1, "cat");
+        drawing.setTimestamp(new Date());
+        database.drawingDao().insertIfAbsent(drawing);
+        database.outboundActionDao().insert(new OutboundAction("cat", "cat", "guess", "{}", System.currentTimeMillis()));
+        captured.clear();
+    }
+
+    // Call a DAO method and return the statements it sent, leaving out Room's own bookkeeping
+    private List<CapturedStatement> invoke(Object dao, Method method) throws Exception {
+        Object[] args = new Object[method.getParameterCount()];
+        Type[] types = method.getGenericParameterTypes();
+        for (int i = 0; i < args.length; i++) {
+            args[i] = argumentFor(method, types[i]);
+        }
+
+        captured.clear();
+        Object result;
+        try {
+            result = method.invoke(dao, args);
+        } catch (InvocationTargetException e) {
+            throw new AssertionError("Calling " + method.getName() + " failed", e.getCause());
+        }
+        if (result instanceof LiveData) {
+            // Room runs LiveData queries once they have an observer
+            LiveData<?> liveData = (LiveData<?>) result;
+            Observer<Object> observer = value -> { };
+            InstrumentationRegistry.getInstrumentation().runOnMainSync(() -> {
+                liveData.observeForever(observer);
+                liveData.removeObserver(observer);
+            });
+        }
+
+        List<CapturedStatement> statements = new ArrayList<>();
+        synchronized (captured) {
+            for (CapturedStatement statement : captured) {
+                if (statement.isDaoStatement()) {
+                    statements.add(statement);
+                }
+            }
+        }
+        return statements;
+    }
+
+    private List<String> explain(CapturedStatement statement) {
+        SupportSQLiteDatabase db = database.getOpenHelper().getWritableDatabase();
+        List<String> details = new ArrayList<>();
+        try (Cursor cursor = db.query("EXPLAIN QUERY PLAN " + statement.sql, statement.args.toArray())) {
+            int detailColumn = cursor.getColumnIndexOrThrow("detail");
+            while (cursor.moveToNext()) {
+                details.add(cursor.getString(detailColumn));
+            }
+        }
+        return details;
+    }
+
+    private Object argumentFor(Method method, Type type) {
+        if (type == String.class) {
+            // Also a valid FTS MATCH expression
+            return "cat";
+        }
+        if (type == int.class) {
+            return 10;
+        }
+        if (type == float.class) {
+            return 4f;
+        }
+        if (type == Date.class) {
+            return new Date();
+        }
+        if (type == User.class) {
+            return new User(newId(), "user", null);
+        }
+        if (type == Lobby.class) {
+            return new Lobby(newId(), "Lobby", "cat", 4, 3, 60);
+        }
+        if (type == Game.class) {
+            return new Game(newId(), "cat", 3, 60);
+        }
+        if (type == Drawing.class) {
+            Drawing drawing = new Drawing(newId(), "cat", "cat", 1, "dog");
+            drawing.setTimestamp(new Date());
+            return drawing;
+        }
+        if (type == OutboundAction.class) {
+            return new OutboundAction(newId(), "cat", "guess", "{}", System.currentTimeMillis());
+        }
+        if (type instanceof ParameterizedType && ((ParameterizedType) type).getRawType() == List.class) {
+            Type element = ((ParameterizedType) type).getActualTypeArguments()[0];
+            return Arrays.asList(argumentFor(method, element), argumentFor(method, element));
+        }
+        throw new AssertionError("No sample argument of type " + type + " for " + method.getName()
+                + "; add one to QueryPlanTest");
+    }
+
+    private String newId() {
+        return "sample-" + (nextId++);
+    }
+
+    private static final class CapturedStatement {
+        final String sql;
+        final List<Object> args;
+
+        CapturedStatement(String sql, List<Object> args) {
+            this.sql = sql;
+            this.args = new ArrayList<>(args);
+        }
+
+        boolean isDaoStatement() {
+            String lower = sql.trim().toLowerCase(Locale.ROOT);
+            return (lower.startsWith("select") || lower.startsWith("insert")
+                    || lower.startsWith("update") || lower.startsWith("delete"))
+                    && !lower.contains("room_table_modification_log")
+                    && !lower.contains("room_master_table");
+        }
+    }
+}
@@ -2,6 +2,11 @@ package com.example.drawit_app;
 
 import android.app.Application;
 
+import com.example.drawit_app.repository.GameStatePersister;
+import com.example.drawit_app.repository.StorageMaintenance;
+
+import javax.inject.Inject;
+
 import dagger.hilt.android.HiltAndroidApp;
 
 /**
@@ -10,9 +15,26 @@ import dagger.hilt.android.HiltAndroidApp;
 @HiltAndroidApp
 public class DrawItApplication extends Application {
 
+    @Inject
+    GameStatePersister gamePersister;
+
+    @Inject
+    StorageMaintenance storageMaintenance;
+
     @Override
     public void onCreate() {
         super.onCreate();
         // Initialize any application-wide services or configurations here
+        storageMaintenance.scheduleIfDue();
+    }
+
+    @Override
+    public void onTrimMemory(int level) {
+        super.onTrimMemory(level);
+        // The UI went to the background; write game state now, the process may not come back
+        if (level >= TRIM_MEMORY_UI_HIDDEN) {
+            gamePersister.flush();
+            storageMaintenance.scheduleIfDue();
+        }
     }
 }
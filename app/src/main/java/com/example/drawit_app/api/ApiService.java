@@ -56,9 +56,23 @@ public interface ApiService {
     @GET("users/{userId}")
     Call<ApiResponse<User>> getUserById(@Header("Authorization") String token, @Path("userId") String userId);
     
+    // Variants taking a Cache-Control header, e.g. "only-if-cached" to read the HTTP cache;
+    // a null cacheControl sends a normal (conditional) request
+    @GET("users/{userId}")
+    Call<ApiResponse<User>> getUserById(@Header("Authorization") String token, @Path("userId") String userId,
+                                        @Header("Cache-Control") String cacheControl);
+    
     // Lobby endpoints
     @GET("lobbies")
     Call<ApiResponse<LobbyListResponse>> getLobbies(@Header("Authorization") String token);
+
+    // Filtered page of the lobby list; a null namePrefix is left out of the query
+    @GET("lobbies")
+    Call<ApiResponse<LobbyListResponse>> getLobbies(@Header("Authorization") String token,
+                                                    @Query("hasFreeSeats") boolean hasFreeSeats,
+                                                    @Query("namePrefix") String namePrefix,
+                                                    @Query("offset") int offset,
+                                                    @Query("limit") int limit);
     
     @POST("lobbies")
     Call<ApiResponse<Lobby>> createLobby(@Header("Authorization") String token, @Body CreateLobbyRequest request);
@@ -66,6 +80,10 @@ public interface ApiService {
     @GET("lobbies/{lobbyId}")
     Call<ApiResponse<Lobby>> getLobbyDetails(@Header("Authorization") String token, @Path("lobbyId") String lobbyId);
     
+    @GET("lobbies/{lobbyId}")
+    Call<ApiResponse<Lobby>> getLobbyDetails(@Header("Authorization") String token, @Path("lobbyId") String lobbyId,
+                                             @Header("Cache-Control") String cacheControl);
+    
     @POST("lobbies/{lobbyId}/join")
     Call<ApiResponse<Lobby>> joinLobby(@Header("Authorization") String token, @Path("lobbyId") String lobbyId, @Body JoinLobbyRequest joinLobbyRequest);
     
@@ -101,9 +119,24 @@ public interface ApiService {
     @GET("users/drawings")
     Call<ApiResponse<List<Drawing>>> getUserDrawings(@Header("Authorization") String token);
     
+    @GET("users/drawings")
+    Call<ApiResponse<List<Drawing>>> getUserDrawings(@Header("Authorization") String token,
+                                                     @Header("Cache-Control") String cacheControl);
+    
+    // Keyset page of the user's drawings, newest first; a null cursor fetches the first page
+    @GET("users/drawings/page")
+    Call<ApiResponse<List<Drawing>>> getUserDrawingsPage(@Header("Authorization") String token,
+                                                         @Query("beforeTimestamp") Long beforeTimestamp,
+                                                         @Query("beforeId") String beforeId,
+                                                         @Query("limit") int limit);
+    
     @GET("users/drawings/search/{word}")
     Call<ApiResponse<List<Drawing>>> searchUserDrawings(@Header("Authorization") String token, @Path("word") String word);
     
     @GET("drawings/{drawingId}")
     Call<ApiResponse<Drawing>> getDrawing(@Header("Authorization") String token, @Path("drawingId") String drawingId);
+    
+    @GET("drawings/{drawingId}")
+    Call<ApiResponse<Drawing>> getDrawing(@Header("Authorization") String token, @Path("drawingId") String drawingId,
+                                          @Header("Cache-Control") String cacheControl);
 }
@@ -0,0 +1,114 @@
+package com.example.drawit_app.api;
+
+import androidx.annotation.NonNull;
+
+import com.example.drawit_app.util.PerformanceMetrics;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.util.concurrent.ThreadPoolExecutor;
+
+import okhttp3.Call;
+import okhttp3.Connection;
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
+import okhttp3.EventListener;
+import okhttp3.Protocol;
+
+/**
+ * Per-client usage metrics for the shared OkHttp dispatcher and connection pool.
+ * <p>
+ * Every client derived from the shared core gets its own factory, so counters are
+ * prefixed with the client name (e.g. {@code net.rest.connect.cold}). Cold connects versus
+ * pooled reuse show whether the pool is big enough; the gauges sampled at the end of each
+ * call show how many connections and dispatcher threads the app actually holds.
+ */
+public class NetworkResourceMetrics implements EventListener.Factory {
+
+    private final String clientName;
+    private final Dispatcher dispatcher;
+    private final ConnectionPool connectionPool;
+    private final ThreadPoolExecutor callbackExecutor;
+
+    /**
+     * @param clientName       metric prefix, e.g. "rest" or "ws"
+     * @param callbackExecutor executor that delivers results to the app, or null if none
+     */
+    public NetworkResourceMetrics(String clientName, Dispatcher dispatcher, ConnectionPool connectionPool,
+                                  ThreadPoolExecutor callbackExecutor) {
+        this.clientName = clientName;
+        this.dispatcher = dispatcher;
+        this.connectionPool = connectionPool;
+        this.callbackExecutor = callbackExecutor;
+    }
+
+    @NonNull
+    @Override
+    public EventListener create(@NonNull Call call) {
+        return new Listener();
+    }
+
+    /**
+     * Sample pool and thread gauges into histograms under this client's prefix
+     */
+    public void recordResourceUsage() {
+        String prefix = "net." + clientName;
+        PerformanceMetrics.record(prefix + ".pool.connections", connectionPool.connectionCount());
+        PerformanceMetrics.record(prefix + ".pool.idle", connectionPool.idleConnectionCount());
+        PerformanceMetrics.record(prefix + ".dispatcher.running", dispatcher.runningCallsCount());
+        PerformanceMetrics.record(prefix + ".dispatcher.queued", dispatcher.queuedCallsCount());
+        if (callbackExecutor != null) {
+            PerformanceMetrics.record(prefix + ".callback.threads", callbackExecutor.getPoolSize());
+            PerformanceMetrics.record(prefix + ".callback.active", callbackExecutor.getActiveCount());
+            PerformanceMetrics.record(prefix + ".callback.queued", callbackExecutor.getQueue().size());
+        }
+    }
+
+    private class Listener extends EventListener {
+        private long callStartNanos;
+        private long connectStartNanos;
+
+        @Override
+        public void callStart(@NonNull Call call) {
+            callStartNanos = System.nanoTime();
+        }
+
+        @Override
+        public void connectStart(@NonNull Call call, @NonNull InetSocketAddress inetSocketAddress,
+                                 @NonNull Proxy proxy) {
+            connectStartNanos = System.nanoTime();
+        }
+
+        @Override
+        public void connectEnd(@NonNull Call call, @NonNull InetSocketAddress inetSocketAddress,
+                               @NonNull Proxy proxy, Protocol protocol) {
+            // A new TCP connection: the pool had nothing idle for this host
+            PerformanceMetrics.increment("net." + clientName + ".connect.cold");
+            PerformanceMetrics.record("net." + clientName + ".connect.ms",
+                    (System.nanoTime() - connectStartNanos) / 1_000_000);
+        }
+
+        @Override
+        public void connectionAcquired(@NonNull Call call, @NonNull Connection connection) {
+            PerformanceMetrics.increment("net." + clientName + ".connection.acquired");
+        }
+
+        @Override
+        public void callEnd(@NonNull Call call) {
+            finish(false);
+        }
+
+        @Override
+        public void callFailed(@NonNull Call call, @NonNull IOException ioe) {
+            finish(true);
+        }
+
+        private void finish(boolean failed) {
+            String prefix = "net." + clientName;
+            PerformanceMetrics.increment(failed ? prefix + ".call.failed" : prefix + ".call.completed");
+            PerformanceMetrics.record(prefix + ".call.ms", (System.nanoTime() - callStartNanos) / 1_000_000);
+            recordResourceUsage();
+        }
+    }
+}
@@ -1,10 +1,12 @@
 package com.example.drawit_app.api;
 
+import android.content.Context;
 import android.os.Handler;
 import android.os.Looper;
 import android.util.Log;
 
 import androidx.annotation.NonNull;
+import androidx.lifecycle.LifecycleOwner;
 
 import com.example.drawit_app.model.ChatMessage;
 import com.example.drawit_app.model.Drawing;
@@ -12,26 +14,37 @@ import com.example.drawit_app.model.Game;
 import com.example.drawit_app.model.Lobby;
 import com.example.drawit_app.api.message.ConnectionStatusMessage;
 import com.example.drawit_app.api.message.GameStateMessage;
+import com.example.drawit_app.api.message.LobbiesDeltaMessage;
 import com.example.drawit_app.api.message.LobbiesUpdateMessage;
 import com.example.drawit_app.api.message.LobbyStateMessage;
 import com.example.drawit_app.api.message.WebSocketMessage;
+import com.example.drawit_app.api.request.LobbySubscriptionRequest;
+import com.example.drawit_app.api.websocket.ClockSync;
+import com.example.drawit_app.api.websocket.FrameCompressor;
+import com.example.drawit_app.api.websocket.MessageDeduplicator;
+import com.example.drawit_app.api.websocket.ReconnectScheduler;
+import com.example.drawit_app.api.websocket.SessionResumeTracker;
+import com.example.drawit_app.api.websocket.WebSocketEventBus;
+import com.example.drawit_app.api.websocket.WebSocketEvents;
 import com.example.drawit_app.model.User;
 import com.example.drawit_app.repository.LobbyRepository;
+import com.example.drawit_app.util.PerformanceMetrics;
 import com.squareup.moshi.JsonAdapter;
 import com.squareup.moshi.Moshi;
 import com.squareup.moshi.Types;
 import com.squareup.moshi.adapters.PolymorphicJsonAdapterFactory;
 
+import org.json.JSONArray;
 import org.json.JSONObject;
 
 import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
-import java.util.HashSet;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
-import java.util.Set;
+import java.util.concurrent.Executor;
 
 import okhttp3.OkHttpClient;
 import okhttp3.Request;
@@ -51,23 +64,60 @@ public class WebSocketService {
     private WebSocket webSocket;
     private final WebSocketListener listener;
     private final Moshi moshi;
-    private final WebSocketCallback callback;
-    private LobbyUpdateCallback lobbyUpdateCallback;
-    private GameUpdateCallback gameUpdateCallback;
+    // Decoded events fan out to any number of typed subscribers
+    private final WebSocketEventBus eventBus = new WebSocketEventBus();
     private String currentLobbyId = null;
     private String activeGameId = null;
     private String pendingGameId = null;
     private String currentUserId = null; // New field for current user id
+    // Lobby list window the UI is showing; re-sent after every (re)connect
+    private volatile LobbySubscriptionRequest lobbySubscription = null;
     private com.example.drawit_app.repository.LobbyRepository lobbyRepository = null;
 
     // Connection state tracking
     private boolean isConnected = false;
     private boolean isConnecting = false;
     private boolean reconnectEnabled = true;
-    private int reconnectAttempts = 0;
-    private static final int MAX_RECONNECT_ATTEMPTS = 5;
-    private static final int RECONNECT_DELAY_MS = 3000; // 3 seconds
-    private final Handler reconnectHandler = new Handler(Looper.getMainLooper());
+    // Backoff with jitter, paused while offline and unlimited while a game is active
+    private final ReconnectScheduler reconnectScheduler = new ReconnectScheduler(() -> {
+        if (!isConnected && !isConnecting) {
+            connect();
+        }
+    });
+
+    // Frame compression: permessage-deflate when the server negotiates it, otherwise
+    // application-level dictionary deflate if the server echoes our compression header
+    private final boolean compressionEnabled;
+    private final FrameCompressor frameCompressor = new FrameCompressor();
+    private volatile boolean dictionaryCompressionActive = false;
+
+    // Session resume: last applied frame seq, sent on reconnect so the server replays only missed frames
+    private final SessionResumeTracker sessionTracker = new SessionResumeTracker();
+
+    // Drop copies of the same logical message, keyed on the server messageId (or seq)
+    private final MessageDeduplicator gameDeduplicator = new MessageDeduplicator("game", 64);
+    private final MessageDeduplicator chatDeduplicator = new MessageDeduplicator("chat", 128);
+    private final MessageDeduplicator lobbyDeduplicator = new MessageDeduplicator("lobby", 32);
+
+    // RTT and server clock offset, sampled with clock_ping frames: a quick burst after each
+    // connect, then a steady interval
+    private static final int CLOCK_PING_BURST = 3;
+    private static final long CLOCK_PING_BURST_INTERVAL_MS = 1000;
+    private static final long CLOCK_PING_INTERVAL_MS = 15000;
+    private final ClockSync clockSync = new ClockSync();
+    private final Handler clockPingHandler = new Handler(Looper.getMainLooper());
+    private int clockPingsSent = 0;
+    private final Runnable clockPingRunnable = new Runnable() {
+        @Override
+        public void run() {
+            if (!isConnected() || !sendFrame(clockSync.buildPing())) {
+                return;
+            }
+            clockPingsSent++;
+            clockPingHandler.postDelayed(this, clockPingsSent < CLOCK_PING_BURST
+                    ? CLOCK_PING_BURST_INTERVAL_MS : CLOCK_PING_INTERVAL_MS);
+        }
+    };
 
     // Message converter utility
     private final com.example.drawit_app.util.WebSocketMessageConverter messageConverter;
@@ -95,6 +145,12 @@ public class WebSocketService {
 
         void onLobbiesUpdated(LobbiesUpdateMessage message);
 
+        /**
+         * Incremental lobby list change; only the lobby list owner needs to handle it
+         */
+        default void onLobbiesDelta(LobbiesDeltaMessage message) {
+        }
+
         void onGameStateChanged(GameStateMessage message);
 
         void onError(String errorMessage);
@@ -109,10 +165,25 @@ public class WebSocketService {
         void onError(String errorMessage);
     }
 
-    public WebSocketService(String wsUrl, String authToken, WebSocketCallback callback) {
+    public WebSocketService(OkHttpClient baseClient, String wsUrl, String authToken, WebSocketCallback callback) {
+        this(baseClient, wsUrl, authToken, callback, false);
+    }
+
+    /**
+     * @param baseClient         WebSocket-tuned client sharing the app's dispatcher and connection pool
+     * @param compressionEnabled opt in to compressing frames of at least
+     *                           {@link FrameCompressor#MIN_COMPRESS_BYTES} bytes
+     */
+    public WebSocketService(OkHttpClient baseClient, String wsUrl, String authToken, WebSocketCallback callback,
+                            boolean compressionEnabled) {
         this.wsUrl = wsUrl;
         this.authToken = authToken;
-        this.callback = callback;
+        // Full lobby lists supersede each other, so the UI only needs the newest one per frame
+        eventBus.setConflated(LobbiesUpdateMessage.class);
+        if (callback != null) {
+            subscribe(callback);
+        }
+        this.compressionEnabled = compressionEnabled;
         // lobbyRepository will be set later via setter to avoid circular dependency
 
         this.moshi = new Moshi.Builder()
@@ -124,28 +195,53 @@ public class WebSocketService {
                 .build();
 
         this.messageConverter = new com.example.drawit_app.util.WebSocketMessageConverter(moshi);
-        this.client = new OkHttpClient.Builder().build();
+        // OkHttp always offers permessage-deflate; the threshold decides which outbound frames
+        // it actually compresses once the server accepts the extension
+        this.client = baseClient.newBuilder()
+                .minWebSocketMessageToCompress(compressionEnabled ? FrameCompressor.MIN_COMPRESS_BYTES : Long.MAX_VALUE)
+                .build();
         this.listener = new WebSocketListener() {
             @Override
             public void onOpen(WebSocket webSocket, Response response) {
                 Log.i(TAG, "WebSocket connected");
                 isConnected = true;
                 isConnecting = false;
-                reconnectAttempts = 0;
+                reconnectScheduler.onConnected();
+                detectCompressionMode(response);
+                startClockSync();
 
-                if (callback != null) {
-                    callback.onConnected();
-                }
+                eventBus.publish(WebSocketEvents.Connected.INSTANCE);
             }
 
             @Override
             public void onMessage(WebSocket webSocket, String text) {
+                // Keep the reader thread free: decoding and reducing happen on the dispatch thread
+                long receivedAt = System.currentTimeMillis();
+                eventBus.runOnDispatchThread(() -> processFrame(text, receivedAt));
+            }
+
+            // Decode a text frame and publish the resulting events; runs on the dispatch thread
+            private void processFrame(String text, long receivedAt) {
                 Log.d(TAG, "WebSocket message received: " + text);
 
                 try {
                     JSONObject jsonObject = new JSONObject(text);
                     String type = jsonObject.optString("type", "");
 
+                    // Drop frames we already applied, e.g. when a replay overlaps what arrived before the drop
+                    if (!"connection_established".equals(type)
+                            && !sessionTracker.shouldApply(jsonObject.optLong("seq", -1))) {
+                        Log.d(TAG, "Skipping already applied frame: " + type);
+                        return;
+                    }
+
+                    MessageDeduplicator deduplicator = deduplicatorFor(type);
+                    String messageId = jsonObject.optString("messageId", null);
+                    if (deduplicator != null && !deduplicator.isNew(messageId, jsonObject.optLong("seq", -1))) {
+                        Log.d(TAG, "🔄 Skipping duplicate " + type + " message with ID: " + messageId);
+                        return;
+                    }
+
                     switch (type) {
                         case "lobby_state":
                             handleLobbyStateMessage(text);
@@ -153,6 +249,9 @@ public class WebSocketService {
                         case "lobbies_update":
                             handleLobbiesUpdateMessage(text);
                             break;
+                        case "lobbies_delta":
+                            handleLobbiesDeltaMessage(jsonObject);
+                            break;
                         case "game_state":
                             handleGameStateMessage(text);
                             break;
@@ -174,6 +273,15 @@ public class WebSocketService {
                         case "chat_message":
                             handleChatMessage(text);
                             break;
+                        case "action_ack":
+                            handleActionAckMessage(jsonObject);
+                            break;
+                        case "clock_pong":
+                            clockSync.onPong(jsonObject.getLong("clientSendTime"),
+                                    jsonObject.getLong("serverReceiveTime"),
+                                    jsonObject.getLong("serverSendTime"),
+                                    receivedAt);
+                            break;
                         default:
                             Log.w(TAG, "Unknown message type: " + type);
                             notifyError("Unknown message type: " + type);
@@ -198,17 +306,7 @@ public class WebSocketService {
                         currentLobbyId = message.getLobbyPayload().getLobby().getLobbyId();
                     }
 
-                    // Notify callbacks
-                    if (callback != null) {
-                        callback.onLobbyStateChanged(message);
-                    }
-                    if (lobbyUpdateCallback != null) {
-                        lobbyUpdateCallback.onLobbyStateChanged(message);
-                    }
-
-                    if (callback == null && lobbyUpdateCallback == null) {
-                        Log.e(TAG, "No callbacks registered for lobby updates");
-                    }
+                    eventBus.publish(message);
                 } catch (Exception e) {
                     Log.e(TAG, "Error processing lobby_state message: " + e.getMessage());
                     notifyError("Error processing lobby_state message: " + e.getMessage());
@@ -224,67 +322,56 @@ public class WebSocketService {
                         return;
                     }
 
-                    // Convert any potential map objects to proper Lobby instances
-                    if (message.getLobbiesPayload() != null && message.getLobbiesPayload().getLobbies() != null) {
-                        List<Lobby> lobbies = messageConverter.convertToLobbyList(message.getLobbiesPayload().getLobbies());
-                        message.getLobbiesPayload().setLobbies(lobbies);
-                    }
-
-                    // Notify callbacks
-                    if (callback != null) {
-                        callback.onLobbiesUpdated(message);
-                    }
-
-                    if (lobbyUpdateCallback != null) {
-                        lobbyUpdateCallback.onLobbiesUpdated(message);
-
-                        // Also convert to lobby_state for current lobby if possible
-                        if (message.getLobbiesPayload() != null && currentLobbyId != null) {
-                            List<Lobby> lobbies = message.getLobbiesPayload().getLobbies();
-                            for (Lobby lobby : lobbies) {
-                                if (currentLobbyId.equals(lobby.getLobbyId())) {
-                                    lobbyUpdateCallback.onLobbyStateChanged(new LobbyStateMessage());
-                                    break;
-                                }
-                            }
+                    // Convert any potential map objects to proper Lobby instances, and keep the
+                    // converted payload so subscribers don't each convert the raw map again;
+                    // the list is shared by every subscriber, so it is unmodifiable
+                    LobbiesUpdateMessage.LobbiesUpdatePayload payload = message.getLobbiesPayload();
+                    if (payload != null) {
+                        if (payload.getLobbies() != null) {
+                            payload.setLobbies(Collections.unmodifiableList(
+                                    messageConverter.convertToLobbyList(payload.getLobbies())));
                         }
+                        message.setLobbiesPayload(payload);
                     }
+
+                    eventBus.publish(message);
                 } catch (Exception e) {
                     Log.e(TAG, "Error processing lobbies_update message: " + e.getMessage());
                     notifyError("Error processing lobbies_update message: " + e.getMessage());
                 }
             }
 
-            // Set to store recently processed message IDs to prevent duplicate processing
-            private final Set<String> recentlyProcessedMessageIds = new HashSet<>();
-            private static final int MAX_RECENT_MESSAGES = 10;
-            
-            // Process game state messages and notify all relevant callbacks
-            // Enhanced to ensure reliable delivery, especially for game start events
-            private void handleGameStateMessage(String json) {
+            // Process an incremental lobby list change
+            private void handleLobbiesDeltaMessage(JSONObject jsonObject) {
                 try {
-                    // Generate a message ID based on content hash to detect duplicates
-                    String messageId = String.valueOf(json.hashCode());
-                    
-                    // Check if we've recently processed this exact message
-                    if (recentlyProcessedMessageIds.contains(messageId)) {
-                        Log.d(TAG, "🔄 Skipping duplicate game state message with ID: " + messageId);
+                    JSONObject payloadJson = jsonObject.optJSONObject("payload");
+                    if (payloadJson == null) {
+                        Log.e(TAG, "lobbies_delta message without payload");
                         return;
                     }
-                    
-                    // Add to recently processed messages
-                    recentlyProcessedMessageIds.add(messageId);
-                    
-                    // Limit the size of the set to prevent memory leaks
-                    if (recentlyProcessedMessageIds.size() > MAX_RECENT_MESSAGES) {
-                        // Remove oldest entry (first one in the set)
-                        Iterator<String> iterator = recentlyProcessedMessageIds.iterator();
-                        if (iterator.hasNext()) {
-                            iterator.next();
-                            iterator.remove();
-                        }
+                    Type mapType = Types.newParameterizedType(Map.class, String.class, Object.class);
+                    JsonAdapter<Map<String, Object>> adapter = moshi.adapter(mapType);
+                    Map<String, Object> payload = adapter.fromJson(payloadJson.toString());
+                    if (payload == null) {
+                        return;
                     }
-                    
+
+                    LobbiesDeltaMessage message = LobbiesDeltaMessage.fromPayloadMap(payload);
+                    Log.d(TAG, "Lobby delta v" + message.getBaseVersion() + "->v" + message.getListVersion() +
+                            ": +" + message.getAdded().size() + " ~" + message.getUpdated().size() +
+                            " -" + message.getRemoved().size());
+                    PerformanceMetrics.increment("ws.lobbies.deltas");
+                    eventBus.publish(message);
+                } catch (Exception e) {
+                    Log.e(TAG, "Error processing lobbies_delta message: " + e.getMessage());
+                    notifyError("Error processing lobbies_delta message: " + e.getMessage());
+                }
+            }
+
+            // Process game state messages and notify all relevant callbacks
+            // Enhanced to ensure reliable delivery, especially for game start events
+            private void handleGameStateMessage(String json) {
+                try {
                     GameStateMessage message = messageConverter.parseGameStateMessage(json);
 
                     if (message == null) {
@@ -389,10 +476,11 @@ public class WebSocketService {
                     if (isGameStart) {
                         Log.i(TAG, "📢 CRITICAL GAME START EVENT received for game " + gameId + ", dispatching to ALL listeners");
                         
-                        // For game start events, ensure extra logging and send through ALL available channels
-                        Log.d(TAG, "📱 WebSocket callback registration status - General: " + (callback != null ? "registered" : "NULL") + 
-                              ", Game: " + (gameUpdateCallback != null ? "registered" : "NULL") +
-                              ", Lobby: " + (lobbyUpdateCallback != null ? "registered" : "NULL"));
+                        // If this was a recovery from a missed start_game message, it is handled now
+                        if (pendingGameId != null && pendingGameId.equals(gameId)) {
+                            pendingGameId = null;
+                            Log.d(TAG, "✅ Successfully handled pending game transition for " + gameId);
+                        }
                     } else if (isGameEnd) {
                         Log.i(TAG, "🎵 GAME END EVENT received for game " + gameId + ", lobby " + lobbyId + ", will reset inGame state");
                         
@@ -410,72 +498,7 @@ public class WebSocketService {
                         }
                     }
 
-                    // Create a flag to track if any callbacks were notified
-                    final boolean[] anyCallbacksNotified = {false};
-                    
-                    // Run notifications on main thread to avoid UI thread issues
-                    Handler mainHandler = new Handler(Looper.getMainLooper());
-                    boolean finalIsGameStart = isGameStart;
-                    mainHandler.post(() -> {
-                        if (finalIsGameStart && lobbyUpdateCallback != null) {
-                            try {
-                                Log.d(TAG, "🚨 PRIORITY notification to lobby callback for game state");
-                                lobbyUpdateCallback.onGameStateChanged(message);
-                                anyCallbacksNotified[0] = true;
-                                
-                                // If this was a recovery from a missed start_game message,
-                                // update tracking variables
-                                if (pendingGameId != null && pendingGameId.equals(gameId)) {
-                                    pendingGameId = null;
-                                    Log.d(TAG, "✅ Successfully handled pending game transition for " + gameId);
-                                }
-                            } catch (Exception e) {
-                                Log.e(TAG, "Error in lobby callback for game start: " + e.getMessage(), e);
-                            }
-                        }
-                        
-                        // Then notify general callback
-                        if (callback != null) {
-                            try {
-                                Log.d(TAG, "Notifying general WebSocket callback of game state event");
-                                callback.onGameStateChanged(message);
-                                anyCallbacksNotified[0] = true;
-                            } catch (Exception e) {
-                                Log.e(TAG, "Error in general callback for game state: " + e.getMessage(), e);
-                            }
-                        }
-
-                        if (gameUpdateCallback != null) {
-                            try {
-                                Log.d(TAG, "Notifying game update callback of game state event");
-                                gameUpdateCallback.onGameStateChanged(message);
-                                anyCallbacksNotified[0] = true;
-                            } catch (Exception e) {
-                                Log.e(TAG, "Error in game callback for game state: " + e.getMessage(), e);
-                            }
-                        }
-
-                        // For critical game start events, retry if no callbacks were successfully notified
-                        // or retry anyway for extra reliability with game start events
-                        if (finalIsGameStart) {
-                            if (!anyCallbacksNotified[0]) {
-                                Log.w(TAG, "⚠️ No callbacks successfully processed game start event! Retrying in 500ms");
-                                mainHandler.postDelayed(() -> handleGameStateMessage(json), 500);
-                            } else {
-                                // Even if callbacks were notified, schedule one retry for reliability
-                                Log.d(TAG, "🔄 Scheduling one extra delivery attempt for game start event");
-                                mainHandler.postDelayed(() -> {
-                                    // Only retry if we're still connected
-                                    if (isConnected && lobbyUpdateCallback != null) {
-                                        Log.d(TAG, "🔁 Performing extra delivery attempt for game start event");
-                                        try {
-                                            lobbyUpdateCallback.onGameStateChanged(message);
-                                        } catch (Exception ignored) {}
-                                    }
-                                }, 1000); // Wait 1 second before retry
-                            }
-                        }
-                    });
+                    eventBus.publish(message);
                 } catch (Exception e) {
                     Log.e(TAG, "Error processing game_state message: " + e.getMessage(), e);
                     notifyError("Error processing game_state message: " + e.getMessage());
@@ -531,13 +554,8 @@ public class WebSocketService {
                                          gameStateMessage.getGamePayload().getCurrentDrawer().getUserId() : "null"));
                 }
 
-                // Callback: Notify game state update for all players
-                if (gameUpdateCallback != null) {
-                    gameUpdateCallback.onGameStateChanged(gameStateMessage);
-                    Log.d(TAG, "Game state update sent to callback");
-                } else {
-                    Log.w(TAG, "Game update callback is null, cannot propagate game state update");
-                }
+                // Notify game state update for all players
+                eventBus.publish(gameStateMessage);
             }
 
             // Process connection established messages
@@ -550,8 +568,17 @@ public class WebSocketService {
                         return;
                     }
 
-                    if (callback != null) {
-                        callback.onConnected();
+                    JSONObject jsonObject = new JSONObject(json);
+                    boolean snapshotNeeded = sessionTracker.onSessionEstablished(
+                            jsonObject.optString("sessionId", null),
+                            jsonObject.optBoolean("resumed", false),
+                            jsonObject.optLong("seq", 0));
+                    if (snapshotNeeded) {
+                        requestStateSnapshot();
+                    }
+                    // Subscriptions live on the server connection, so a new one starts unscoped
+                    if (lobbySubscription != null) {
+                        sendLobbySubscription(lobbySubscription);
                     }
                 } catch (Exception e) {
                     Log.e(TAG, "Error processing connection_established message: " + e.getMessage());
@@ -559,6 +586,23 @@ public class WebSocketService {
                 }
             }
 
+            // Journaled actions the server has processed; the journal deletes them
+            private void handleActionAckMessage(JSONObject jsonObject) {
+                JSONArray keys = jsonObject.optJSONArray("keys");
+                if (keys == null || keys.length() == 0) {
+                    return;
+                }
+                List<String> actionKeys = new ArrayList<>(keys.length());
+                for (int i = 0; i < keys.length(); i++) {
+                    actionKeys.add(keys.optString(i));
+                }
+                JSONArray rejected = jsonObject.optJSONArray("rejected");
+                if (rejected != null && rejected.length() > 0) {
+                    Log.w(TAG, "Server rejected " + rejected.length() + " journaled actions");
+                }
+                eventBus.publish(new WebSocketEvents.ActionsAcknowledged(actionKeys));
+            }
+
             // Process drawing update messages
             private void handleDrawingUpdateMessage(String json) {
                 try {
@@ -589,8 +633,8 @@ public class WebSocketService {
                             gameId = messageMap.get("gameId").toString();
                         }
                         
-                        // Notify game update callback if registered
-                        if (gameUpdateCallback != null && pathsJson != null) {
+                        // Publish the paths as a drawing_update game state event
+                        if (pathsJson != null) {
                             // Create a game state message with the drawing paths
                             GameStateMessage gameStateMessage = new GameStateMessage();
                             gameStateMessage.setType("drawing_update");
@@ -609,11 +653,7 @@ public class WebSocketService {
                             
                             gameStateMessage.setGamePayload(payload);
                             
-                            // Notify the callback on the main thread
-                            Handler mainHandler = new Handler(Looper.getMainLooper());
-                            mainHandler.post(() -> {
-                                gameUpdateCallback.onGameStateChanged(gameStateMessage);
-                            });
+                            eventBus.publish(gameStateMessage);
                         }
                     }
                 } catch (Exception e) {
@@ -659,52 +699,40 @@ public class WebSocketService {
                 }
             }
 
-            // Notify all registered callbacks about an error on the main thread
+            // Publish an error event to every error subscriber
             private void notifyError(String errorMessage) {
-                // Always run callbacks on main thread to avoid crashes when showing UI elements like Toast
-                Handler mainHandler = new Handler(Looper.getMainLooper());
-                mainHandler.post(() -> {
-                    Log.e(TAG, "WebSocket error: " + errorMessage);
-                    
-                    if (callback != null) {
-                        try {
-                            callback.onError(errorMessage);
-                        } catch (Exception e) {
-                            Log.e(TAG, "Error in main callback's error handler: " + e.getMessage(), e);
-                        }
-                    }
-
-                    if (lobbyUpdateCallback != null) {
-                        try {
-                            lobbyUpdateCallback.onError(errorMessage);
-                        } catch (Exception e) {
-                            Log.e(TAG, "Error in lobby callback's error handler: " + e.getMessage(), e);
-                        }
-                    }
-
-                    if (gameUpdateCallback != null) {
-                        try {
-                            gameUpdateCallback.onError(errorMessage);
-                        } catch (Exception e) {
-                            Log.e(TAG, "Error in game callback's error handler: " + e.getMessage(), e);
-                        }
-                    }
-                });
+                Log.e(TAG, "WebSocket error: " + errorMessage);
+                publishError(errorMessage);
             }
 
             @Override
             public void onMessage(WebSocket webSocket, ByteString bytes) {
-                // Binary messages not used in this application
+                // Binary frames are only used for dictionary-compressed JSON
+                if (!dictionaryCompressionActive) {
+                    Log.w(TAG, "Ignoring unexpected binary frame of " + bytes.size() + " bytes");
+                    return;
+                }
+                long receivedAt = System.currentTimeMillis();
+                eventBus.runOnDispatchThread(() -> {
+                    String text;
+                    try {
+                        text = frameCompressor.decompress(bytes.toByteArray());
+                    } catch (Exception e) {
+                        Log.e(TAG, "Failed to decompress WebSocket frame: " + e.getMessage(), e);
+                        PerformanceMetrics.increment("ws.decompress.errors");
+                        return;
+                    }
+                    processFrame(text, receivedAt);
+                });
             }
 
             @Override
             public void onClosing(WebSocket webSocket, int code, String reason) {
                 Log.i(TAG, "WebSocket closing: code=" + code + ", reason=" + reason);
                 isConnected = false;
+                stopClockSync();
                 webSocket.close(NORMAL_CLOSURE_STATUS, null);
-                if (callback != null) {
-                    callback.onDisconnected(code, reason);
-                }
+                eventBus.publish(new WebSocketEvents.Disconnected(code, reason));
 
                 if (reconnectEnabled && code != NORMAL_CLOSURE_STATUS) {
                     attemptReconnect();
@@ -716,6 +744,7 @@ public class WebSocketService {
                 Log.e(TAG, "WebSocket failure: " + t.getMessage());
                 isConnected = false;
                 isConnecting = false;
+                stopClockSync();
 
                 String responseInfo = response != null ? " (HTTP " + response.code() + ")" : "";
                 String errorMsg = "WebSocket connection error" + responseInfo + ": " + t.getMessage();
@@ -744,18 +773,22 @@ public class WebSocketService {
         // Validate authentication token before connecting
         if (authToken == null || authToken.isEmpty() || authToken.equals("null")) {
             Log.e(TAG, "Cannot connect to WebSocket: Invalid authentication token");
-            if (callback != null) {
-                callback.onError("Authentication token is missing or invalid");
-            }
+            publishError("Authentication token is missing or invalid");
             return;
         }
 
         Log.i(TAG, "Connecting to WebSocket server: " + wsUrl);
 
-        Request request = new Request.Builder()
+        Request.Builder requestBuilder = new Request.Builder()
                 .url(wsUrl)
-                .header("Authorization", "Bearer " + authToken)
-                .build();
+                .header("Authorization", "Bearer " + authToken);
+        if (compressionEnabled) {
+            // Lets the server fall back to dictionary compression if permessage-deflate is unavailable
+            requestBuilder.header(FrameCompressor.HEADER_NAME, FrameCompressor.DICTIONARY_MODE);
+        }
+        // Ask the server to resume our previous session and replay only the frames we missed
+        sessionTracker.addResumeHeaders(requestBuilder);
+        Request request = requestBuilder.build();
 
         isConnecting = true;
         webSocket = client.newWebSocket(request, listener);
@@ -773,6 +806,8 @@ public class WebSocketService {
         isConnected = false;
         isConnecting = false;
         reconnectEnabled = false; // Don't auto-reconnect after manual disconnection
+        reconnectScheduler.cancel();
+        stopClockSync();
     }
 
     /**
@@ -791,35 +826,137 @@ public class WebSocketService {
         isConnected = false;
         isConnecting = false;
         reconnectEnabled = true;
-        reconnectAttempts = 0;
+        reconnectScheduler.cancel();
         
         // Start connection process
         connect();
     }
 
-    // Attempt to reconnect to the WebSocket server with exponential backoff
+    // Schedule the next reconnect attempt; gives up only outside an active game
     private void attemptReconnect() {
-        if (!reconnectEnabled || reconnectAttempts >= MAX_RECONNECT_ATTEMPTS) {
-            if (reconnectAttempts >= MAX_RECONNECT_ATTEMPTS) {
-                Log.e(TAG, "Maximum reconnection attempts reached");
-                if (callback != null) {
-                    callback.onError("Failed to reconnect after " + MAX_RECONNECT_ATTEMPTS + " attempts");
-                }
-            }
+        if (!reconnectEnabled) {
             return;
         }
 
-        reconnectAttempts++;
-        int delay = RECONNECT_DELAY_MS * reconnectAttempts;
+        reconnectScheduler.setUnlimited(activeGameId != null);
+        if (!reconnectScheduler.scheduleNext()) {
+            Log.e(TAG, "Maximum reconnection attempts reached");
+            publishError("Failed to reconnect after " + reconnectScheduler.getAttempts() + " attempts");
+        }
+    }
+
+    /**
+     * Make reconnects network-aware: pause while offline and retry immediately when
+     * connectivity returns. Called once with the application context.
+     */
+    public void enableNetworkAwareReconnect(Context context) {
+        reconnectScheduler.startMonitoring(context);
+    }
 
-        Log.i(TAG, "Attempting to reconnect in " + (delay / 1000) + " seconds (attempt " +
-                reconnectAttempts + "/" + MAX_RECONNECT_ATTEMPTS + ")");
+    private void startClockSync() {
+        clockPingHandler.removeCallbacks(clockPingRunnable);
+        clockPingsSent = 0;
+        clockPingHandler.post(clockPingRunnable);
+    }
 
-        reconnectHandler.postDelayed(() -> {
-            if (!isConnected && !isConnecting) {
-                connect();
-            }
-        }, delay);
+    private void stopClockSync() {
+        clockPingHandler.removeCallbacks(clockPingRunnable);
+    }
+
+    /**
+     * Best round-trip time estimate to the server, or -1 if no clock sample has arrived yet
+     */
+    public long getRttMillis() {
+        return clockSync.getRttMillis();
+    }
+
+    /**
+     * Current time on the server clock, for timers and stroke playback that must line up with
+     * server timestamps. Falls back to the local clock until the first sample arrives.
+     */
+    public long serverNowMillis() {
+        return clockSync.serverNowMillis();
+    }
+
+    /**
+     * Whether {@link #serverNowMillis()} is backed by at least one clock sample
+     */
+    public boolean isClockSynchronized() {
+        return clockSync.isSynchronized();
+    }
+
+    /**
+     * Pick the de-duplication window for a message type, or null for types that are never deduplicated
+     */
+    private MessageDeduplicator deduplicatorFor(String type) {
+        switch (type) {
+            case "game_state":
+            case "start_game":
+                return gameDeduplicator;
+            case "chat_message":
+                return chatDeduplicator;
+            case "lobby_state":
+            case "lobbies_update":
+            case "lobbies_delta":
+            case "lobby_joined":
+                return lobbyDeduplicator;
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Re-request the state we care about after a reconnect the server could not resume.
+     * The server already pushes a fresh lobbies list on every new session.
+     */
+    private void requestStateSnapshot() {
+        Log.i(TAG, "📥 Session not resumed, requesting state snapshot");
+        if (currentLobbyId != null && currentUserId != null) {
+            joinLobby(currentLobbyId, currentUserId);
+        }
+        if (activeGameId != null) {
+            sendMessage("game_state_request", activeGameId);
+        }
+    }
+
+    /**
+     * Pick the compression mode for the new connection from the upgrade response headers
+     */
+    private void detectCompressionMode(Response response) {
+        dictionaryCompressionActive = false;
+        if (!compressionEnabled || response == null) {
+            return;
+        }
+
+        String extensions = response.header("Sec-WebSocket-Extensions");
+        if (extensions != null && extensions.contains("permessage-deflate")) {
+            Log.i(TAG, "📦 permessage-deflate negotiated: " + extensions);
+            PerformanceMetrics.increment("ws.compression.permessage_deflate");
+        } else if (FrameCompressor.DICTIONARY_MODE.equals(response.header(FrameCompressor.HEADER_NAME))) {
+            Log.i(TAG, "📦 Using dictionary frame compression");
+            dictionaryCompressionActive = true;
+            PerformanceMetrics.increment("ws.compression.dictionary");
+        } else {
+            Log.i(TAG, "Server did not accept any frame compression");
+            PerformanceMetrics.increment("ws.compression.none");
+        }
+    }
+
+    /**
+     * Send a text frame on the current socket, compressing it first when dictionary mode is active
+     * and the frame is large enough to benefit
+     *
+     * @return true if the frame was queued
+     */
+    private boolean sendFrame(String text) {
+        WebSocket socket = webSocket;
+        if (socket == null) {
+            return false;
+        }
+        if (dictionaryCompressionActive && frameCompressor.shouldCompress(text)) {
+            return socket.send(ByteString.of(frameCompressor.compress(text)));
+        }
+        return socket.send(text);
     }
 
     /**
@@ -840,11 +977,9 @@ public class WebSocketService {
             try {
                 WebSocketMessage message = new WebSocketMessage("drawing", drawing);
                 String json = moshi.adapter(WebSocketMessage.class).toJson(message);
-                webSocket.send(json);
+                sendFrame(json);
             } catch (Exception e) {
-                if (callback != null) {
-                    callback.onError("Failed to send drawing: " + e.getMessage());
-                }
+                publishError("Failed to send drawing: " + e.getMessage());
             }
         }
     }
@@ -858,11 +993,9 @@ public class WebSocketService {
                 WebSocketMessage message = new WebSocketMessage("rating",
                         new WebSocketMessage.RatingPayload(gameId, drawingId, rating));
                 String json = moshi.adapter(WebSocketMessage.class).toJson(message);
-                webSocket.send(json);
+                sendFrame(json);
             } catch (Exception e) {
-                if (callback != null) {
-                    callback.onError("Failed to send rating: " + e.getMessage());
-                }
+                publishError("Failed to send rating: " + e.getMessage());
             }
         }
     }
@@ -886,18 +1019,44 @@ public class WebSocketService {
     public void sendMessage(String message) {
         if (webSocket != null) {
             try {
-                webSocket.send(message);
+                sendFrame(message);
             } catch (Exception e) {
                 Log.e(TAG, "Failed to send message: " + e.getMessage(), e);
-                if (callback != null) {
-                    callback.onError("Failed to send message: " + e.getMessage());
-                }
+                publishError("Failed to send message: " + e.getMessage());
             }
         } else {
             Log.e(TAG, "Cannot send message: WebSocket is not connected");
         }
     }
     
+    /**
+     * Ask the server for a full, versioned lobby list, e.g. after a lobbies_delta gap
+     */
+    public void requestLobbiesSnapshot() {
+        Log.d(TAG, "Requesting full lobby list snapshot");
+        sendMessage("{\"type\":\"request_lobbies_update\"}");
+    }
+
+    /**
+     * Scope lobby list updates to a filter and page window. The server answers with a
+     * lobbies_update for the window and afterwards only sends lobbies_delta messages for
+     * lobbies entering, changing in or leaving it. Kept and re-sent after reconnects.
+     */
+    public void subscribeLobbies(LobbySubscriptionRequest request) {
+        lobbySubscription = request;
+        if (isConnected()) {
+            sendLobbySubscription(request);
+        } else {
+            Log.d(TAG, "Lobby subscription stored, will be sent once connected");
+        }
+    }
+
+    private void sendLobbySubscription(LobbySubscriptionRequest request) {
+        Log.d(TAG, "Subscribing to lobby window offset=" + request.getOffset() +
+                " limit=" + request.getLimit());
+        sendMessage(moshi.adapter(LobbySubscriptionRequest.class).toJson(request));
+    }
+
     /**
      * Send a chat message for a specific game
      * 
@@ -921,12 +1080,10 @@ public class WebSocketService {
                 
                 // Send the message
                 Log.d(TAG, "📤 Sending chat message for game: " + gameId);
-                webSocket.send(jsonMessage);
+                sendFrame(jsonMessage);
             } catch (Exception e) {
                 Log.e(TAG, "Failed to send chat message: " + e.getMessage(), e);
-                if (callback != null) {
-                    callback.onError("Failed to send chat message: " + e.getMessage());
-                }
+                publishError("Failed to send chat message: " + e.getMessage());
             }
         } else {
             Log.e(TAG, "Cannot send chat message: WebSocket is not connected");
@@ -954,12 +1111,10 @@ public class WebSocketService {
                 
                 // Send the message
                 Log.d(TAG, "📤 Sending correct guess notification for game: " + gameId);
-                webSocket.send(jsonMessage);
+                sendFrame(jsonMessage);
             } catch (Exception e) {
                 Log.e(TAG, "Failed to send correct guess: " + e.getMessage(), e);
-                if (callback != null) {
-                    callback.onError("Failed to send correct guess: " + e.getMessage());
-                }
+                publishError("Failed to send correct guess: " + e.getMessage());
             }
         } else {
             Log.e(TAG, "Cannot send correct guess: WebSocket is not connected");
@@ -989,12 +1144,10 @@ public class WebSocketService {
                 
                 // Send the message
                 Log.d(TAG, "📤 Sending drawing update for game: " + gameId);
-                webSocket.send(jsonMessage);
+                sendFrame(jsonMessage);
             } catch (Exception e) {
                 Log.e(TAG, "Failed to send drawing update: " + e.getMessage(), e);
-                if (callback != null) {
-                    callback.onError("Failed to send drawing update: " + e.getMessage());
-                }
+                publishError("Failed to send drawing update: " + e.getMessage());
             }
         } else {
             Log.e(TAG, "Cannot send drawing update: WebSocket is not connected");
@@ -1038,12 +1191,10 @@ public class WebSocketService {
                 Log.d(TAG, "📤 Sending WebSocket message: " + messageType + " for game: " + gameId);
                 
                 // Send the message
-                webSocket.send(jsonMessage);
+                sendFrame(jsonMessage);
             } catch (Exception e) {
                 Log.e(TAG, "Failed to send " + messageType + " message: " + e.getMessage(), e);
-                if (callback != null) {
-                    callback.onError("Failed to send " + messageType + " message: " + e.getMessage());
-                }
+                publishError("Failed to send " + messageType + " message: " + e.getMessage());
             }
         } else {
             Log.e(TAG, "Cannot send " + messageType + " message: WebSocket is not connected");
@@ -1051,29 +1202,98 @@ public class WebSocketService {
     }
 
     /**
-     * Set lobby update callback for real-time lobby updates
+     * Typed event bus carrying every decoded server message and connection event
      */
-    public void setLobbyUpdateCallback(LobbyUpdateCallback lobbyUpdateCallback) {
-        this.lobbyUpdateCallback = lobbyUpdateCallback;
+    public WebSocketEventBus getEventBus() {
+        return eventBus;
     }
 
     /**
-     * Set game update callback for real-time game updates
+     * Subscribe a general callback to every event type it handles, delivered on the main thread
      */
-    public void setGameUpdateCallback(GameUpdateCallback callback) {
-        this.gameUpdateCallback = callback;
+    public WebSocketEventBus.Subscription subscribe(WebSocketCallback callback) {
+        Executor main = eventBus.mainThread();
+        WebSocketEventBus.Subscription[] subscriptions = {
+                eventBus.subscribe(WebSocketEvents.Connected.class, main, event -> callback.onConnected()),
+                eventBus.subscribe(WebSocketEvents.Disconnected.class, main,
+                        event -> callback.onDisconnected(event.getCode(), event.getReason())),
+                eventBus.subscribe(LobbyStateMessage.class, main, callback::onLobbyStateChanged),
+                eventBus.subscribe(GameStateMessage.class, main, callback::onGameStateChanged),
+                eventBus.subscribe(LobbiesUpdateMessage.class, main, callback::onLobbiesUpdated),
+                eventBus.subscribe(ChatMessage.class, main, callback::onChatMessageReceived),
+                eventBus.subscribe(WebSocketEvents.Error.class, main, event -> callback.onError(event.getMessage()))
+        };
+        return combine(subscriptions);
     }
 
     /**
-     * Remove lobby update callback when no longer needed
+     * Subscribe a lobby callback to lobby, lobby list, game state and error events
      *
-     * @param callback The callback to remove
+     * @param deliveryExecutor where the callback runs, see {@link WebSocketEventBus#DISPATCH_THREAD}
      */
-    public void removeLobbyUpdateCallback(LobbyUpdateCallback callback) {
-        if (this.lobbyUpdateCallback == callback) {
-            this.lobbyUpdateCallback = null;
-            Log.d(TAG, "Lobby update callback removed");
-        }
+    public WebSocketEventBus.Subscription subscribe(LobbyUpdateCallback callback, Executor deliveryExecutor) {
+        WebSocketEventBus.Subscription[] subscriptions = {
+                eventBus.subscribe(LobbyStateMessage.class, deliveryExecutor, callback::onLobbyStateChanged),
+                eventBus.subscribe(LobbiesUpdateMessage.class, deliveryExecutor, callback::onLobbiesUpdated),
+                eventBus.subscribe(LobbiesDeltaMessage.class, deliveryExecutor, callback::onLobbiesDelta),
+                eventBus.subscribe(GameStateMessage.class, deliveryExecutor, callback::onGameStateChanged),
+                eventBus.subscribe(WebSocketEvents.Error.class, deliveryExecutor,
+                        event -> callback.onError(event.getMessage()))
+        };
+        return combine(subscriptions);
+    }
+
+    /**
+     * Lifecycle-aware variant: delivered on the main thread and removed when the owner is destroyed
+     */
+    public WebSocketEventBus.Subscription subscribe(LifecycleOwner owner, LobbyUpdateCallback callback) {
+        WebSocketEventBus.Subscription[] subscriptions = {
+                eventBus.subscribe(owner, LobbyStateMessage.class, callback::onLobbyStateChanged),
+                eventBus.subscribe(owner, LobbiesUpdateMessage.class, callback::onLobbiesUpdated),
+                eventBus.subscribe(owner, LobbiesDeltaMessage.class, callback::onLobbiesDelta),
+                eventBus.subscribe(owner, GameStateMessage.class, callback::onGameStateChanged),
+                eventBus.subscribe(owner, WebSocketEvents.Error.class, event -> callback.onError(event.getMessage()))
+        };
+        return combine(subscriptions);
+    }
+
+    /**
+     * Subscribe a game callback to game state, chat and error events
+     *
+     * @param deliveryExecutor where the callback runs, see {@link WebSocketEventBus#DISPATCH_THREAD}
+     */
+    public WebSocketEventBus.Subscription subscribe(GameUpdateCallback callback, Executor deliveryExecutor) {
+        WebSocketEventBus.Subscription[] subscriptions = {
+                eventBus.subscribe(GameStateMessage.class, deliveryExecutor, callback::onGameStateChanged),
+                eventBus.subscribe(ChatMessage.class, deliveryExecutor, callback::onChatMessageReceived),
+                eventBus.subscribe(WebSocketEvents.Error.class, deliveryExecutor,
+                        event -> callback.onError(event.getMessage()))
+        };
+        return combine(subscriptions);
+    }
+
+    /**
+     * Lifecycle-aware variant: delivered on the main thread and removed when the owner is destroyed
+     */
+    public WebSocketEventBus.Subscription subscribe(LifecycleOwner owner, GameUpdateCallback callback) {
+        WebSocketEventBus.Subscription[] subscriptions = {
+                eventBus.subscribe(owner, GameStateMessage.class, callback::onGameStateChanged),
+                eventBus.subscribe(owner, ChatMessage.class, callback::onChatMessageReceived),
+                eventBus.subscribe(owner, WebSocketEvents.Error.class, event -> callback.onError(event.getMessage()))
+        };
+        return combine(subscriptions);
+    }
+
+    private static WebSocketEventBus.Subscription combine(WebSocketEventBus.Subscription[] subscriptions) {
+        return () -> {
+            for (WebSocketEventBus.Subscription subscription : subscriptions) {
+                subscription.unsubscribe();
+            }
+        };
+    }
+
+    private void publishError(String errorMessage) {
+        eventBus.publish(new WebSocketEvents.Error(errorMessage));
     }
 
     /**
@@ -1114,12 +1334,10 @@ public class WebSocketService {
             
             // Send the join message to the server
             Log.i(TAG, "Sending WebSocket join_lobby message for lobby: " + lobbyId + ", user: " + userId);
-            webSocket.send(joinMessage);
+            sendFrame(joinMessage);
         } catch (Exception e) {
             Log.e(TAG, "Failed to send join lobby message: " + e.getMessage(), e);
-            if (callback != null) {
-                callback.onError("Failed to join lobby via WebSocket: " + e.getMessage());
-            }
+            publishError("Failed to join lobby via WebSocket: " + e.getMessage());
         }
     }
     
@@ -1154,7 +1372,7 @@ public class WebSocketService {
             
             // Create and send the leave_lobby message
             String leaveMessage = String.format("{\"type\":\"leave_lobby\",\"lobbyId\":\"%s\"}", lobbyId);
-            webSocket.send(leaveMessage);
+            sendFrame(leaveMessage);
             Log.d(TAG, "Successfully sent leave_lobby message for lobby: " + lobbyId);
         } catch (Exception e) {
             Log.e(TAG, "Error leaving lobby: " + e.getMessage(), e);
@@ -1195,28 +1413,8 @@ public class WebSocketService {
                 // Create a lobby state message from this confirmation
                 LobbyStateMessage stateMessage = getLobbyStateMessage(lobbyId, userId);
 
-                // Notify callbacks on main thread
-                Handler mainHandler = new Handler(Looper.getMainLooper());
-                mainHandler.post(() -> {
-                    Log.d(TAG, "Notifying callbacks about successful lobby join");
-                    
-                    // Notify all registered callbacks
-                    if (callback != null) {
-                        try {
-                            callback.onLobbyStateChanged(stateMessage);
-                        } catch (Exception e) {
-                            Log.e(TAG, "Error notifying main callback about lobby joined: " + e.getMessage(), e);
-                        }
-                    }
-                    
-                    if (lobbyUpdateCallback != null) {
-                        try {
-                            lobbyUpdateCallback.onLobbyStateChanged(stateMessage);
-                        } catch (Exception e) {
-                            Log.e(TAG, "Error notifying lobby callback about lobby joined: " + e.getMessage(), e);
-                        }
-                    }
-                });
+                Log.d(TAG, "Publishing successful lobby join");
+                eventBus.publish(stateMessage);
                 
             } else {
                 Log.w(TAG, "Invalid lobby_joined message format");
@@ -1248,18 +1446,7 @@ public class WebSocketService {
             if (chatMessage.getGameId() != null &&
                     chatMessage.getGameId().equals(activeGameId)) {
                 
-                // Notify game update callback
-                if (gameUpdateCallback != null) {
-                    Log.d(TAG, "Notifying game callback about chat message");
-                    gameUpdateCallback.onChatMessageReceived(chatMessage);
-                } else {
-                    Log.w(TAG, "No game callback registered to receive chat message");
-                }
-                
-                // Also notify general callback if available
-                if (callback != null) {
-                    callback.onChatMessageReceived(chatMessage);
-                }
+                eventBus.publish(chatMessage);
             } else {
                 Log.d(TAG, "Ignoring chat message for inactive game: " + 
                       chatMessage.getGameId() + ", active game is: " + activeGameId);
@@ -1319,6 +1506,8 @@ public class WebSocketService {
         } else if (!hasValidToken && (isConnected || webSocket != null)) {
             Log.w(TAG, "⛔ Invalid token provided - disconnecting WebSocket");
             disconnect();
+            // Signed out: the next connection must not try to resume this user's session
+            sessionTracker.reset();
         }
     }
 }
\ No newline at end of file
@@ -0,0 +1,43 @@
+package com.example.drawit_app.api.auth;
+
+import androidx.annotation.NonNull;
+
+import java.io.IOException;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+
+/**
+ * Puts the current token from {@link AuthTokenStore} on every request as a Bearer
+ * Authorization header. A header set by the caller is replaced, so a call retried after a
+ * token refresh never goes out with the token it was created with.
+ */
+@Singleton
+public class AuthInterceptor implements Interceptor {
+    static final String HEADER_AUTHORIZATION = "Authorization";
+    static final String BEARER_PREFIX = "Bearer ";
+
+    private final AuthTokenStore tokenStore;
+
+    @Inject
+    public AuthInterceptor(AuthTokenStore tokenStore) {
+        this.tokenStore = tokenStore;
+    }
+
+    @NonNull
+    @Override
+    public Response intercept(@NonNull Chain chain) throws IOException {
+        Request request = chain.request();
+        String token = tokenStore.getToken();
+        if (token == null || TokenAuthenticator.isAuthEndpoint(request)) {
+            return chain.proceed(request);
+        }
+        return chain.proceed(request.newBuilder()
+                .header(HEADER_AUTHORIZATION, BEARER_PREFIX + token)
+                .build());
+    }
+}
@@ -0,0 +1,134 @@
+package com.example.drawit_app.api.auth;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.util.Log;
+
+import androidx.security.crypto.EncryptedSharedPreferences;
+import androidx.security.crypto.MasterKey;
+
+import java.io.IOException;
+import java.security.GeneralSecurityException;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import dagger.hilt.android.qualifiers.ApplicationContext;
+
+/**
+ * Holds the auth token and user ID in memory, backed by EncryptedSharedPreferences.
+ * <p>
+ * The encrypted preferences are opened and read once, on first access; after that reads are
+ * plain field reads, so the token can be fetched for every request without key store work.
+ * Writes update memory immediately and persist asynchronously.
+ */
+@Singleton
+public class AuthTokenStore {
+    private static final String TAG = "AuthTokenStore";
+
+    // Same file and keys UserRepository has always used, so existing sessions survive
+    private static final String PREF_NAME = "drawit_user_prefs";
+    private static final String KEY_AUTH_TOKEN = "auth_token";
+    private static final String KEY_USER_ID = "user_id";
+
+    private final Context context;
+    private final Object lock = new Object();
+
+    // Guarded by lock until loaded is set, then read freely
+    private SharedPreferences preferences;
+    private volatile boolean loaded = false;
+    private volatile String token;
+    private volatile String userId;
+
+    @Inject
+    public AuthTokenStore(@ApplicationContext Context context) {
+        this.context = context;
+    }
+
+    /**
+     * Current auth token, or null if signed out
+     */
+    public String getToken() {
+        ensureLoaded();
+        return token;
+    }
+
+    public void setToken(String newToken) {
+        ensureLoaded();
+        token = newToken;
+        persist(KEY_AUTH_TOKEN, newToken);
+    }
+
+    public void clearToken() {
+        setToken(null);
+    }
+
+    /**
+     * ID of the signed-in user, or null if signed out
+     */
+    public String getUserId() {
+        ensureLoaded();
+        return userId;
+    }
+
+    public void setUserId(String newUserId) {
+        ensureLoaded();
+        userId = newUserId;
+        persist(KEY_USER_ID, newUserId);
+    }
+
+    public void clearUserId() {
+        setUserId(null);
+    }
+
+    private void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        synchronized (lock) {
+            if (loaded) {
+                return;
+            }
+            long start = System.nanoTime();
+            preferences = openPreferences();
+            if (preferences != null) {
+                token = preferences.getString(KEY_AUTH_TOKEN, null);
+                userId = preferences.getString(KEY_USER_ID, null);
+            }
+            loaded = true;
+            Log.d(TAG, "Loaded auth state in " + (System.nanoTime() - start) / 1_000_000 + " ms");
+        }
+    }
+
+    private SharedPreferences openPreferences() {
+        try {
+            MasterKey masterKey = new MasterKey.Builder(context)
+                    .setKeyScheme(MasterKey.KeyScheme.AES256_GCM)
+                    .build();
+
+            return EncryptedSharedPreferences.create(
+                    context,
+                    PREF_NAME,
+                    masterKey,
+                    EncryptedSharedPreferences.PrefKeyEncryptionScheme.AES256_SIV,
+                    EncryptedSharedPreferences.PrefValueEncryptionScheme.AES256_GCM
+            );
+        } catch (GeneralSecurityException | IOException e) {
+            Log.e(TAG, "Could not open encrypted preferences, auth state kept in memory only", e);
+            return null;
+        }
+    }
+
+    private void persist(String key, String value) {
+        if (preferences == null) {
+            return;
+        }
+        SharedPreferences.Editor editor = preferences.edit();
+        if (value == null) {
+            editor.remove(key);
+        } else {
+            editor.putString(key, value);
+        }
+        editor.apply();
+    }
+}
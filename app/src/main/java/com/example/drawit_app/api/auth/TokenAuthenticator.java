@@ -0,0 +1,130 @@
+package com.example.drawit_app.api.auth;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.example.drawit_app.api.ApiService;
+import com.example.drawit_app.api.request.RefreshTokenRequest;
+import com.example.drawit_app.api.response.ApiResponse;
+import com.example.drawit_app.api.response.AuthResponse;
+import com.example.drawit_app.util.PerformanceMetrics;
+
+import java.io.IOException;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import dagger.Lazy;
+import okhttp3.Authenticator;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.Route;
+
+/**
+ * Refreshes an expired token when the server answers 401 and replays the request with it.
+ * <p>
+ * Refreshing is single-flight: requests that fail together wait on one lock, the first one
+ * performs the refresh and the others find the token already replaced and simply retry with
+ * it. A request is retried at most once, and auth endpoints are never retried, so a refresh
+ * that itself fails ends in the 401 reaching the caller.
+ */
+@Singleton
+public class TokenAuthenticator implements Authenticator {
+    private static final String TAG = "TokenAuthenticator";
+    private static final String AUTH_PATH_PREFIX = "/auth/";
+
+    private final AuthTokenStore tokenStore;
+    // Lazy because ApiService is built on the OkHttpClient this authenticator belongs to
+    private final Lazy<ApiService> apiService;
+    private final Object refreshLock = new Object();
+
+    @Inject
+    public TokenAuthenticator(AuthTokenStore tokenStore, Lazy<ApiService> apiService) {
+        this.tokenStore = tokenStore;
+        this.apiService = apiService;
+    }
+
+    @Nullable
+    @Override
+    public Request authenticate(@Nullable Route route, @NonNull Response response) throws IOException {
+        Request failed = response.request();
+        if (isAuthEndpoint(failed) || response.priorResponse() != null) {
+            // Login/refresh themselves, or a request that already failed with a refreshed token
+            return null;
+        }
+
+        String failedToken = tokenOf(failed);
+        synchronized (refreshLock) {
+            String current = tokenStore.getToken();
+            if (current == null) {
+                Log.d(TAG, "Got 401 while signed out, not retrying");
+                return null;
+            }
+            if (!current.equals(failedToken)) {
+                // Another request refreshed while this one was waiting
+                PerformanceMetrics.increment("auth.refresh.coalesced");
+                return withToken(failed, current);
+            }
+
+            String refreshed = refresh(current);
+            if (refreshed == null) {
+                PerformanceMetrics.increment("auth.refresh.failed");
+                return null;
+            }
+            PerformanceMetrics.increment("auth.refresh.succeeded");
+            return withToken(failed, refreshed);
+        }
+    }
+
+    /**
+     * Exchange the expired token for a new one; blocking, called under refreshLock
+     */
+    private String refresh(String expiredToken) {
+        Log.d(TAG, "Refreshing expired auth token");
+        try {
+            retrofit2.Response<ApiResponse<AuthResponse>> refreshResponse =
+                    apiService.get().refreshToken(new RefreshTokenRequest(expiredToken)).execute();
+            ApiResponse<AuthResponse> body = refreshResponse.body();
+            if (!refreshResponse.isSuccessful() || body == null || !body.isSuccess() || body.getData() == null) {
+                Log.e(TAG, "Token refresh rejected with HTTP " + refreshResponse.code());
+                return null;
+            }
+
+            AuthResponse auth = body.getData();
+            String newToken = auth.getToken();
+            if (newToken == null || newToken.isEmpty()) {
+                Log.e(TAG, "Token refresh response missing token");
+                return null;
+            }
+            tokenStore.setToken(newToken);
+            if (auth.getUser() != null) {
+                tokenStore.setUserId(auth.getUser().getUserId());
+            }
+            Log.d(TAG, "Token refreshed successfully");
+            return newToken;
+        } catch (IOException e) {
+            Log.e(TAG, "Token refresh network error: " + e.getMessage());
+            return null;
+        }
+    }
+
+    private static String tokenOf(Request request) {
+        String header = request.header(AuthInterceptor.HEADER_AUTHORIZATION);
+        if (header == null || !header.startsWith(AuthInterceptor.BEARER_PREFIX)) {
+            return null;
+        }
+        return header.substring(AuthInterceptor.BEARER_PREFIX.length());
+    }
+
+    private static Request withToken(Request request, String token) {
+        return request.newBuilder()
+                .header(AuthInterceptor.HEADER_AUTHORIZATION, AuthInterceptor.BEARER_PREFIX + token)
+                .build();
+    }
+
+    static boolean isAuthEndpoint(Request request) {
+        return request.url().encodedPath().startsWith(AUTH_PATH_PREFIX);
+    }
+}
@@ -201,6 +201,10 @@ public class GameStateMessage extends WebSocketMessage {
             game.setRoundDurationSeconds(((Number) map.get("roundDurationSeconds")).intValue());
         }
         
+        if (map.get("roundEndsAt") instanceof Number) {
+            game.setRoundEndsAt(((Number) map.get("roundEndsAt")).longValue());
+        }
+        
         // Extract currentDrawer if present
         if (map.containsKey("currentDrawer") && map.get("currentDrawer") instanceof Map) {
             User drawer = convertMapToUser((Map<?, ?>) map.get("currentDrawer"));
@@ -0,0 +1,131 @@
+package com.example.drawit_app.api.message;
+
+import com.example.drawit_app.model.Lobby;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * WebSocket message carrying only the lobbies that changed since the previous list version.
+ * <p>
+ * A delta applies on top of the list whose version equals {@link #getBaseVersion()} within the same
+ * {@link #getEpoch()}; a client holding any other version has missed something and must request a
+ * full lobbies_update.
+ */
+public class LobbiesDeltaMessage extends WebSocketMessage {
+    public static final String TYPE_LOBBIES_DELTA = "lobbies_delta";
+
+    private final long epoch;
+    private final long baseVersion;
+    private final long listVersion;
+    private final List<Lobby> added;
+    private final List<Lobby> updated;
+    private final List<String> removed;
+    // Viewport-scoped deltas only: lobby IDs of the window in server order, and matching total
+    private final List<String> order;
+    private final int total;
+
+    private LobbiesDeltaMessage(long epoch, long baseVersion, long listVersion, List<Lobby> added,
+                                List<Lobby> updated, List<String> removed, List<String> order, int total) {
+        super(TYPE_LOBBIES_DELTA, null);
+        this.epoch = epoch;
+        this.baseVersion = baseVersion;
+        this.listVersion = listVersion;
+        this.added = Collections.unmodifiableList(added);
+        this.updated = Collections.unmodifiableList(updated);
+        this.removed = Collections.unmodifiableList(removed);
+        this.order = Collections.unmodifiableList(order);
+        this.total = total;
+    }
+
+    /**
+     * Build a delta from the payload map produced by Moshi. The lists of the returned
+     * message are unmodifiable since it is shared by every subscriber.
+     */
+    public static LobbiesDeltaMessage fromPayloadMap(Map<?, ?> payload) {
+        return new LobbiesDeltaMessage(
+                toLong(payload.get("epoch")),
+                toLong(payload.get("baseVersion")),
+                toLong(payload.get("listVersion")),
+                toLobbies(payload.get("added")),
+                toLobbies(payload.get("updated")),
+                toIds(payload.get("removed")),
+                toIds(payload.get("order")),
+                payload.get("total") instanceof Number ? ((Number) payload.get("total")).intValue() : -1);
+    }
+
+    private static long toLong(Object value) {
+        return value instanceof Number ? ((Number) value).longValue() : 0;
+    }
+
+    private static List<String> toIds(Object rawList) {
+        List<String> ids = new ArrayList<>();
+        if (rawList instanceof List) {
+            for (Object lobbyId : (List<?>) rawList) {
+                if (lobbyId != null) {
+                    ids.add(lobbyId.toString());
+                }
+            }
+        }
+        return ids;
+    }
+
+    private static List<Lobby> toLobbies(Object rawList) {
+        List<Lobby> lobbies = new ArrayList<>();
+        if (rawList instanceof List) {
+            for (Object item : (List<?>) rawList) {
+                if (item instanceof Map) {
+                    Lobby lobby = LobbiesUpdateMessage.convertMapToLobby((Map<?, ?>) item);
+                    if (lobby != null) {
+                        lobbies.add(lobby);
+                    }
+                }
+            }
+        }
+        return lobbies;
+    }
+
+    /**
+     * Start time of the server's lobby index; list and lobby versions restart with each epoch
+     */
+    public long getEpoch() {
+        return epoch;
+    }
+
+    public long getBaseVersion() {
+        return baseVersion;
+    }
+
+    public long getListVersion() {
+        return listVersion;
+    }
+
+    public List<Lobby> getAdded() {
+        return added;
+    }
+
+    public List<Lobby> getUpdated() {
+        return updated;
+    }
+
+    public List<String> getRemoved() {
+        return removed;
+    }
+
+    /**
+     * Lobby IDs of the subscribed window after this delta, in server order; empty for
+     * unscoped deltas
+     */
+    public List<String> getOrder() {
+        return order;
+    }
+
+    /**
+     * Number of lobbies matching the subscription filter, or -1 for unscoped deltas
+     */
+    public int getTotal() {
+        return total;
+    }
+}
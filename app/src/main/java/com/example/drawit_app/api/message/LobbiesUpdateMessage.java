@@ -65,6 +65,18 @@ public class LobbiesUpdateMessage extends WebSocketMessage {
                     payload.setEvent(map.get("event").toString());
                 }
                 
+                if (map.get("listVersion") instanceof Number) {
+                    payload.setListVersion(((Number) map.get("listVersion")).longValue());
+                }
+                
+                if (map.get("epoch") instanceof Number) {
+                    payload.setEpoch(((Number) map.get("epoch")).longValue());
+                }
+                
+                if (map.get("total") instanceof Number) {
+                    payload.setTotal(((Number) map.get("total")).intValue());
+                }
+                
                 return payload;
             } catch (Exception e) {
                 Log.e(TAG, "Error converting Map to LobbiesUpdatePayload: " + e.getMessage(), e);
@@ -84,7 +96,7 @@ public class LobbiesUpdateMessage extends WebSocketMessage {
     /**
      * Helper method to convert a Map to a Lobby object
      */
-    private Lobby convertMapToLobby(Map<?, ?> map) {
+    static Lobby convertMapToLobby(Map<?, ?> map) {
         if (map == null) return null;
         
         Lobby lobby = new Lobby();
@@ -121,6 +133,10 @@ public class LobbiesUpdateMessage extends WebSocketMessage {
             lobby.setRoundDurationSeconds(((Number) map.get("roundDurationSeconds")).intValue());
         }
         
+        if (map.get("version") instanceof Number) {
+            lobby.setVersion(((Number) map.get("version")).longValue());
+        }
+        
         // Handle players list if present
         if (map.containsKey("players") && map.get("players") instanceof List) {
             List<?> playersList = (List<?>) map.get("players");
@@ -151,7 +167,7 @@ public class LobbiesUpdateMessage extends WebSocketMessage {
     /**
      * Helper method to convert a Map to a User object
      */
-    private User convertMapToUser(Map<?, ?> map) {
+    static User convertMapToUser(Map<?, ?> map) {
         if (map == null) return null;
         
         User user = new User();
@@ -185,6 +201,18 @@ public class LobbiesUpdateMessage extends WebSocketMessage {
         @Json(name = "event")
         private String event; // "created", "updated", "deleted"
         
+        // Version of the full list, the base for subsequent lobbies_delta messages; -1 if absent
+        @Json(name = "listVersion")
+        private long listVersion = -1;
+        
+        // Start time of the server's lobby index; versions only compare within one epoch
+        @Json(name = "epoch")
+        private long epoch;
+        
+        // Lobbies matching the subscription filter when the list is viewport-scoped; -1 if absent
+        @Json(name = "total")
+        private int total = -1;
+        
         public LobbiesUpdatePayload() {
         }
         
@@ -203,5 +231,29 @@ public class LobbiesUpdateMessage extends WebSocketMessage {
         public void setEvent(String event) {
             this.event = event;
         }
+        
+        public long getListVersion() {
+            return listVersion;
+        }
+        
+        public void setListVersion(long listVersion) {
+            this.listVersion = listVersion;
+        }
+        
+        public long getEpoch() {
+            return epoch;
+        }
+        
+        public void setEpoch(long epoch) {
+            this.epoch = epoch;
+        }
+        
+        public int getTotal() {
+            return total;
+        }
+        
+        public void setTotal(int total) {
+            this.total = total;
+        }
     }
 }
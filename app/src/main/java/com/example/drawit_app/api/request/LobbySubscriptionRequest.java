@@ -0,0 +1,118 @@
+package com.example.drawit_app.api.request;
+
+import com.squareup.moshi.Json;
+
+/**
+ * Request model for a viewport-scoped lobby list subscription (subscribe_lobbies).
+ * The server only sends lobbies matching the filter inside the offset/limit window,
+ * and the same values are used as query parameters for the paged REST lobby list.
+ */
+public class LobbySubscriptionRequest {
+    public static final String TYPE_SUBSCRIBE_LOBBIES = "subscribe_lobbies";
+    public static final int DEFAULT_PAGE_SIZE = 20;
+
+    @Json(name = "type")
+    private String type = TYPE_SUBSCRIBE_LOBBIES;
+
+    @Json(name = "filter")
+    private Filter filter;
+
+    @Json(name = "offset")
+    private int offset;
+
+    @Json(name = "limit")
+    private int limit;
+
+    public LobbySubscriptionRequest(Filter filter, int offset, int limit) {
+        this.filter = filter != null ? filter : new Filter();
+        this.offset = Math.max(0, offset);
+        this.limit = limit > 0 ? limit : DEFAULT_PAGE_SIZE;
+    }
+
+    /**
+     * Default lobby list view: joinable lobbies, first page
+     */
+    public static LobbySubscriptionRequest firstPage() {
+        return new LobbySubscriptionRequest(new Filter(), 0, DEFAULT_PAGE_SIZE);
+    }
+
+    /**
+     * Same filter and offset with a window one page larger
+     */
+    public LobbySubscriptionRequest withNextPage() {
+        return new LobbySubscriptionRequest(filter, offset, limit + DEFAULT_PAGE_SIZE);
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public Filter getFilter() {
+        return filter;
+    }
+
+    public int getOffset() {
+        return offset;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    /**
+     * Which lobbies the subscriber wants to see; evaluated on the server
+     */
+    public static class Filter {
+        @Json(name = "notInGame")
+        private boolean notInGame = true;
+
+        @Json(name = "notLocked")
+        private boolean notLocked = true;
+
+        @Json(name = "hasFreeSeats")
+        private boolean hasFreeSeats;
+
+        @Json(name = "namePrefix")
+        private String namePrefix;
+
+        public Filter() {
+        }
+
+        public Filter(boolean hasFreeSeats, String namePrefix) {
+            this.hasFreeSeats = hasFreeSeats;
+            this.namePrefix = namePrefix;
+        }
+
+        public boolean isNotInGame() {
+            return notInGame;
+        }
+
+        public void setNotInGame(boolean notInGame) {
+            this.notInGame = notInGame;
+        }
+
+        public boolean isNotLocked() {
+            return notLocked;
+        }
+
+        public void setNotLocked(boolean notLocked) {
+            this.notLocked = notLocked;
+        }
+
+        public boolean isHasFreeSeats() {
+            return hasFreeSeats;
+        }
+
+        public void setHasFreeSeats(boolean hasFreeSeats) {
+            this.hasFreeSeats = hasFreeSeats;
+        }
+
+        public String getNamePrefix() {
+            return namePrefix;
+        }
+
+        public void setNamePrefix(String namePrefix) {
+            this.namePrefix = namePrefix;
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.drawit_app.api.websocket;
+
+import android.util.Log;
+
+import com.example.drawit_app.util.PerformanceMetrics;
+
+/**
+ * Estimates round-trip time and the offset between the server clock and ours from
+ * clock_ping / clock_pong exchanges, NTP style.
+ * <p>
+ * Each exchange yields four timestamps: t0 (we send), t1 (server receives), t2 (server replies)
+ * and t3 (we receive). Only the sample with the lowest RTT in the recent window is trusted,
+ * because queueing delay inflates RTT and skews the offset of that same sample.
+ */
+public class ClockSync {
+    private static final String TAG = "ClockSync";
+
+    private static final int SAMPLE_WINDOW = 8;
+
+    private final long[] sampleRtts = new long[SAMPLE_WINDOW];
+    private final long[] sampleOffsets = new long[SAMPLE_WINDOW];
+    private int sampleCount = 0;
+    private int nextSample = 0;
+
+    private volatile long rttMillis = -1;
+    private volatile long offsetMillis = 0;
+
+    /**
+     * Build a ping frame stamped with our send time
+     */
+    public String buildPing() {
+        return "{\"type\":\"clock_ping\",\"clientSendTime\":" + System.currentTimeMillis() + "}";
+    }
+
+    /**
+     * Add a sample from a clock_pong frame
+     *
+     * @param clientSendTime    t0, echoed back by the server
+     * @param serverReceiveTime t1
+     * @param serverSendTime    t2
+     * @param clientReceiveTime t3, taken when the frame arrived
+     */
+    public synchronized void onPong(long clientSendTime, long serverReceiveTime,
+                                    long serverSendTime, long clientReceiveTime) {
+        long rtt = (clientReceiveTime - clientSendTime) - (serverSendTime - serverReceiveTime);
+        if (rtt < 0) {
+            Log.w(TAG, "Discarding clock sample with negative RTT: " + rtt);
+            return;
+        }
+        long offset = ((serverReceiveTime - clientSendTime) + (serverSendTime - clientReceiveTime)) / 2;
+        PerformanceMetrics.record("ws.rtt_ms", rtt);
+
+        sampleRtts[nextSample] = rtt;
+        sampleOffsets[nextSample] = offset;
+        nextSample = (nextSample + 1) % SAMPLE_WINDOW;
+        sampleCount = Math.min(sampleCount + 1, SAMPLE_WINDOW);
+
+        // Min filter: the least-delayed sample has the most trustworthy offset
+        int best = 0;
+        for (int i = 1; i < sampleCount; i++) {
+            if (sampleRtts[i] < sampleRtts[best]) {
+                best = i;
+            }
+        }
+        rttMillis = sampleRtts[best];
+        offsetMillis = sampleOffsets[best];
+        Log.d(TAG, "⏱️ Clock sample rtt=" + rtt + "ms offset=" + offset + "ms, using rtt=" +
+                rttMillis + "ms offset=" + offsetMillis + "ms");
+    }
+
+    /**
+     * Best current round-trip time estimate, or -1 before the first sample
+     */
+    public long getRttMillis() {
+        return rttMillis;
+    }
+
+    /**
+     * Server clock minus local clock
+     */
+    public long getOffsetMillis() {
+        return offsetMillis;
+    }
+
+    /**
+     * Current time on the server clock; equals the local clock until the first sample arrives
+     */
+    public long serverNowMillis() {
+        return System.currentTimeMillis() + offsetMillis;
+    }
+
+    public boolean isSynchronized() {
+        return rttMillis >= 0;
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.drawit_app.api.websocket;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.util.Log;
+import android.view.Choreographer;
+
+import androidx.annotation.NonNull;
+
+import com.example.drawit_app.util.PerformanceMetrics;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Main-thread executor that hands work to the UI at most once per display frame.
+ * <p>
+ * Tasks queued from any thread are drained together in a single {@link Choreographer} frame
+ * callback instead of one {@code Handler} message each. Tasks submitted with a conflation key
+ * replace any still-pending task with the same key, so a burst of snapshots (e.g. full lobby
+ * lists) only renders the latest one.
+ * <p>
+ * Queue time per task and processing time per frame are recorded under
+ * {@code <metricPrefix>.queue_ms} and {@code <metricPrefix>.process_ms}.
+ */
+public class FrameBatchingExecutor implements Executor {
+    private static final String TAG = "FrameBatchingExecutor";
+
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final ConcurrentLinkedQueue<PendingTask> pending = new ConcurrentLinkedQueue<>();
+    private final Map<Object, PendingTask> latestByKey = new ConcurrentHashMap<>();
+    private final AtomicBoolean frameScheduled = new AtomicBoolean(false);
+    private final Choreographer.FrameCallback frameCallback = frameTimeNanos -> drainFrame();
+    private final Runnable scheduleFrame = () -> Choreographer.getInstance().postFrameCallback(frameCallback);
+    private final String queueMetric;
+    private final String processMetric;
+    private final String batchMetric;
+
+    public FrameBatchingExecutor(String metricPrefix) {
+        this.queueMetric = metricPrefix + ".queue_ms";
+        this.processMetric = metricPrefix + ".process_ms";
+        this.batchMetric = metricPrefix + ".batch_size";
+    }
+
+    @Override
+    public void execute(@NonNull Runnable command) {
+        enqueue(new PendingTask(null, command));
+    }
+
+    /**
+     * Run on the next frame, superseding any pending task submitted with the same key
+     */
+    public void executeLatest(@NonNull Object conflationKey, @NonNull Runnable command) {
+        PendingTask task = new PendingTask(conflationKey, command);
+        PendingTask previous = latestByKey.put(conflationKey, task);
+        if (previous != null) {
+            previous.superseded = true;
+            PerformanceMetrics.increment("ws.pipeline.main.conflated");
+        }
+        enqueue(task);
+    }
+
+    private void enqueue(PendingTask task) {
+        pending.add(task);
+        if (frameScheduled.compareAndSet(false, true)) {
+            // Choreographer is per-looper, so the frame callback must be posted from the main thread
+            if (Looper.myLooper() == Looper.getMainLooper()) {
+                scheduleFrame.run();
+            } else {
+                mainHandler.post(scheduleFrame);
+            }
+        }
+    }
+
+    private void drainFrame() {
+        // Clear first so tasks queued while draining get the next frame rather than being lost
+        frameScheduled.set(false);
+        long frameStart = SystemClock.elapsedRealtime();
+        int executed = 0;
+
+        PendingTask task;
+        while ((task = pending.poll()) != null) {
+            if (task.conflationKey != null) {
+                latestByKey.remove(task.conflationKey, task);
+            }
+            if (task.superseded) {
+                continue;
+            }
+            PerformanceMetrics.record(queueMetric, frameStart - task.enqueuedAt);
+            try {
+                task.command.run();
+            } catch (Exception e) {
+                Log.e(TAG, "Main-thread task failed: " + e.getMessage(), e);
+            }
+            executed++;
+        }
+
+        if (executed > 0) {
+            PerformanceMetrics.record(processMetric, SystemClock.elapsedRealtime() - frameStart);
+            PerformanceMetrics.record(batchMetric, executed);
+        }
+    }
+
+    private static final class PendingTask {
+        final Object conflationKey;
+        final Runnable command;
+        final long enqueuedAt = SystemClock.elapsedRealtime();
+        volatile boolean superseded = false;
+
+        PendingTask(Object conflationKey, Runnable command) {
+            this.conflationKey = conflationKey;
+            this.command = command;
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package com.example.drawit_app.api.websocket;
+
+import android.os.Debug;
+import android.util.Log;
+
+import com.example.drawit_app.util.PerformanceMetrics;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Application-level WebSocket frame compression used when the server cannot negotiate
+ * permessage-deflate (for example behind a proxy that strips the extension header).
+ * <p>
+ * Large text frames are sent as binary frames: one version byte followed by raw deflate data
+ * primed with a preset dictionary of the JSON fragments that dominate drawing traffic.
+ * Frames below {@link #MIN_COMPRESS_BYTES} are left as plain text so small control
+ * messages never pay the CPU cost.
+ */
+public class FrameCompressor {
+    private static final String TAG = "FrameCompressor";
+
+    /** Header value advertised to the server and echoed back when dictionary mode is accepted */
+    public static final String HEADER_NAME = "X-DrawIt-Compression";
+    public static final String DICTIONARY_MODE = "deflate-dict-v1";
+
+    /** Frames smaller than this are sent uncompressed, both by us and by OkHttp's permessage-deflate */
+    public static final int MIN_COMPRESS_BYTES = 512;
+
+    private static final byte FORMAT_DEFLATE_DICT_V1 = 0x01;
+
+    /**
+     * Preset dictionary, hand-written from the shapes of the lobby, game_state, chat and
+     * drawing_update messages the server sends. zlib favours matches near the end of the
+     * dictionary, so the fragments expected to repeat most go last.
+     * Must stay byte-for-byte identical to DRAWING_DICTIONARY in server/compression.js;
+     * FrameCompressorTest compares the two.
+     */
+    static final byte[] PRESET_DICTIONARY = (
+            "{\"type\":\"lobbies_update\",\"payload\":{\"lobbies\":[{\"lobbyId\":\"\",\"name\":\"\"," +
+            "\"hostId\":\"\",\"maxPlayers\":8,\"isPrivate\":false,\"isLocked\":false,\"hostUser\":" +
+            "{\"type\":\"lobby_state\",\"payload\":{\"lobby\":{\"playerCount\":\"event\":\"updated\"," +
+            "{\"type\":\"chat_message\",\"game_id\":\"\",\"message\":\"\",\"sender\":{" +
+            "\"avatarUrl\":\"https://api.dicebear.com/7.x/avataaars/svg?seed=\",\"ready\":false}," +
+            "{\"type\":\"game_state\",\"gamePayload\":{\"event\":\"update\",\"game\":{\"gameId\":\"" +
+            "\",\"lobbyId\":\"\",\"players\":[{\"_id\":\"\",\"userId\":\"\",\"username\":\"\"}]," +
+            "\"currentRound\":1,\"maxRounds\":3,\"roundDurationSeconds\":60,\"wordToGuess\":\"\"," +
+            "\"timeRemaining\":60,\"playerScores\":[{\"userId\":\"\",\"username\":\"\",\"score\":0}]," +
+            "\"status\":\"active\",\"currentDrawer\":{\"isTransient\":true,\"createdAt\":\"" +
+            "{\"type\":\"drawing_update\",\"game_id\":\"\",\"timestamp\":17,\"paths\":\"[" +
+            "{\\\"color\\\":-16777216,\\\"strokeWidth\\\":8.0,\\\"points\\\":[" +
+            "{\\\"x\\\":0.0,\\\"y\\\":0.0},{\\\"x\\\":.0,\\\"y\\\":.5}]}," +
+            "{\"color\":-16777216,\"strokeWidth\":8.0,\"points\":[{\"x\":0.0,\"y\":0.0}," +
+            "{\"x\":.5,\"y\":.0},{\"x\":.5,\"y\":.5},{\"x\":.0,\"y\":.5}]}]\"," +
+            ".25,\"y\":.75},{\"x\":.75,\"y\":.25},{\"x\":"
+    ).getBytes(StandardCharsets.UTF_8);
+
+    private final Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+    private final Inflater inflater = new Inflater(true);
+    private final byte[] buffer = new byte[8192];
+
+    /**
+     * Whether a text frame of this size is worth compressing
+     */
+    public boolean shouldCompress(String text) {
+        // Cheap upper bound on the UTF-8 size; exact size is computed only for large frames
+        return text != null && text.length() * 3 >= MIN_COMPRESS_BYTES
+                && text.getBytes(StandardCharsets.UTF_8).length >= MIN_COMPRESS_BYTES;
+    }
+
+    /**
+     * Compress a text frame into the binary wire format
+     */
+    public synchronized byte[] compress(String text) {
+        long cpuStart = Debug.threadCpuTimeNanos();
+        byte[] input = text.getBytes(StandardCharsets.UTF_8);
+
+        deflater.reset();
+        deflater.setDictionary(PRESET_DICTIONARY);
+        deflater.setInput(input);
+        deflater.finish();
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, input.length / 4));
+        out.write(FORMAT_DEFLATE_DICT_V1);
+        while (!deflater.finished()) {
+            int count = deflater.deflate(buffer);
+            out.write(buffer, 0, count);
+        }
+        byte[] compressed = out.toByteArray();
+
+        PerformanceMetrics.add("ws.compress.bytes_in", input.length);
+        PerformanceMetrics.add("ws.compress.bytes_out", compressed.length);
+        PerformanceMetrics.record("ws.compress.cpu_us", (Debug.threadCpuTimeNanos() - cpuStart) / 1000);
+        return compressed;
+    }
+
+    /**
+     * Decompress a binary frame received from the server back into JSON text
+     *
+     * @throws DataFormatException if the frame is not in a supported format
+     */
+    public synchronized String decompress(byte[] frame) throws DataFormatException {
+        if (frame == null || frame.length < 2 || frame[0] != FORMAT_DEFLATE_DICT_V1) {
+            throw new DataFormatException("Unsupported compressed frame format");
+        }
+        long cpuStart = Debug.threadCpuTimeNanos();
+
+        inflater.reset();
+        inflater.setDictionary(PRESET_DICTIONARY);
+        // Raw inflate needs one trailing dummy byte to detect the end of the stream
+        byte[] input = new byte[frame.length];
+        System.arraycopy(frame, 1, input, 0, frame.length - 1);
+        inflater.setInput(input);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream(frame.length * 4);
+        while (!inflater.finished()) {
+            int count = inflater.inflate(buffer);
+            if (count == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                throw new DataFormatException("Truncated compressed frame");
+            }
+            out.write(buffer, 0, count);
+        }
+
+        PerformanceMetrics.add("ws.decompress.bytes_in", frame.length);
+        PerformanceMetrics.add("ws.decompress.bytes_out", out.size());
+        PerformanceMetrics.record("ws.decompress.cpu_us", (Debug.threadCpuTimeNanos() - cpuStart) / 1000);
+        return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Overall compression ratio (uncompressed / compressed) across both directions, or 1 if nothing
+     * has been compressed yet
+     */
+    public static double getCompressionRatio() {
+        long raw = PerformanceMetrics.getCount("ws.compress.bytes_in")
+                + PerformanceMetrics.getCount("ws.decompress.bytes_out");
+        long wire = PerformanceMetrics.getCount("ws.compress.bytes_out")
+                + PerformanceMetrics.getCount("ws.decompress.bytes_in");
+        return wire == 0 ? 1.0 : (double) raw / wire;
+    }
+
+    /**
+     * Log the compression ratio and CPU cost collected so far
+     */
+    public static void logStats() {
+        Log.i(TAG, String.format(java.util.Locale.US,
+                "📦 Frame compression ratio=%.2f, compress cpu(us) %s, decompress cpu(us) %s",
+                getCompressionRatio(),
+                PerformanceMetrics.histogram("ws.compress.cpu_us"),
+                PerformanceMetrics.histogram("ws.decompress.cpu_us")));
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.drawit_app.api.websocket;
+
+import com.example.drawit_app.util.PerformanceMetrics;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded LRU of recently processed server message IDs, used to drop copies of a message that
+ * reached us more than once (e.g. a game_state broadcast to both the game and its lobby).
+ * <p>
+ * Keys are the server-assigned {@code messageId}, falling back to the frame's {@code seq}.
+ * Frames that carry neither are never treated as duplicates. Hits and misses are counted under
+ * {@code ws.dedup.<name>.hits} / {@code ws.dedup.<name>.misses}.
+ */
+public class MessageDeduplicator {
+    private final String hitsMetric;
+    private final String missesMetric;
+    private final Map<String, Boolean> recentIds;
+
+    /**
+     * @param name     metric name suffix, e.g. "game"
+     * @param capacity number of message IDs to remember
+     */
+    public MessageDeduplicator(String name, final int capacity) {
+        this.hitsMetric = "ws.dedup." + name + ".hits";
+        this.missesMetric = "ws.dedup." + name + ".misses";
+        // Access order so an ID seen again is refreshed rather than evicted
+        this.recentIds = new LinkedHashMap<String, Boolean>(capacity + 1, 1f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    /**
+     * Record a message and report whether it is new
+     *
+     * @param messageId server message ID, may be null
+     * @param seq       frame sequence number, or a negative value if absent
+     * @return false if the message was already processed and should be skipped
+     */
+    public synchronized boolean isNew(String messageId, long seq) {
+        String key;
+        if (messageId != null && !messageId.isEmpty()) {
+            key = messageId;
+        } else if (seq >= 0) {
+            key = "seq:" + seq;
+        } else {
+            return true;
+        }
+
+        if (recentIds.put(key, Boolean.TRUE) != null) {
+            PerformanceMetrics.increment(hitsMetric);
+            return false;
+        }
+        PerformanceMetrics.increment(missesMetric);
+        return true;
+    }
+
+    public synchronized void clear() {
+        recentIds.clear();
+    }
+}
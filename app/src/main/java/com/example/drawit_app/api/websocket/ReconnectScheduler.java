@@ -0,0 +1,195 @@
+package com.example.drawit_app.api.websocket;
+
+import android.content.Context;
+import android.net.ConnectivityManager;
+import android.net.Network;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import com.example.drawit_app.util.PerformanceMetrics;
+
+import java.util.Random;
+
+/**
+ * Schedules WebSocket reconnect attempts with capped exponential backoff and full jitter.
+ * <p>
+ * While the device has no network no attempts are made at all; as soon as connectivity returns
+ * the next attempt runs immediately with a fresh backoff. Outside a game the scheduler gives up
+ * after {@link #MAX_ATTEMPTS}; during an active game it keeps trying forever, throttled to at
+ * most one attempt per {@link #IN_GAME_MIN_DELAY_MS}.
+ */
+public class ReconnectScheduler {
+    private static final String TAG = "ReconnectScheduler";
+
+    private static final long BASE_DELAY_MS = 500;
+    private static final long MAX_DELAY_MS = 30_000;
+    private static final int MAX_ATTEMPTS = 8;
+    // An active game never gives up, but attempts stay between these bounds
+    private static final long IN_GAME_MIN_DELAY_MS = 1_000;
+    private static final long IN_GAME_MAX_DELAY_MS = 8_000;
+
+    /**
+     * Action run on the main thread for each reconnect attempt
+     */
+    public interface ReconnectAction {
+        void reconnect();
+    }
+
+    private final ReconnectAction action;
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final Random random = new Random();
+    private final Runnable attemptRunnable = this::runAttempt;
+
+    private ConnectivityManager connectivityManager;
+    private ConnectivityManager.NetworkCallback networkCallback;
+    private boolean networkAvailable = true;
+
+    private boolean unlimited = false;
+    private int attempts = 0;
+    // Elapsed-realtime of the drop we are recovering from, 0 when connected or not reconnecting
+    private long disconnectedAt = 0;
+
+    public ReconnectScheduler(ReconnectAction action) {
+        this.action = action;
+    }
+
+    /**
+     * Start listening for connectivity changes so reconnects pause while offline and fire
+     * immediately when the network comes back
+     */
+    public synchronized void startMonitoring(Context context) {
+        if (networkCallback != null) {
+            return;
+        }
+        connectivityManager = (ConnectivityManager) context.getApplicationContext()
+                .getSystemService(Context.CONNECTIVITY_SERVICE);
+        if (connectivityManager == null) {
+            Log.w(TAG, "ConnectivityManager unavailable, reconnects will not be network-aware");
+            return;
+        }
+        networkAvailable = connectivityManager.getActiveNetwork() != null;
+        networkCallback = new ConnectivityManager.NetworkCallback() {
+            @Override
+            public void onAvailable(@NonNull Network network) {
+                onNetworkAvailable();
+            }
+
+            @Override
+            public void onLost(@NonNull Network network) {
+                onNetworkLost();
+            }
+        };
+        connectivityManager.registerDefaultNetworkCallback(networkCallback);
+    }
+
+    public synchronized void stopMonitoring() {
+        if (connectivityManager != null && networkCallback != null) {
+            connectivityManager.unregisterNetworkCallback(networkCallback);
+        }
+        networkCallback = null;
+        networkAvailable = true;
+    }
+
+    /**
+     * Never give up (throttled) while true; used for the duration of an active game
+     */
+    public synchronized void setUnlimited(boolean unlimited) {
+        this.unlimited = unlimited;
+    }
+
+    /**
+     * Schedule the next attempt after a failed connect or a dropped connection
+     *
+     * @return false if the scheduler has given up
+     */
+    public synchronized boolean scheduleNext() {
+        if (disconnectedAt == 0) {
+            disconnectedAt = SystemClock.elapsedRealtime();
+        }
+        if (!unlimited && attempts >= MAX_ATTEMPTS) {
+            Log.e(TAG, "Giving up after " + attempts + " reconnect attempts");
+            PerformanceMetrics.increment("ws.reconnect.gave_up");
+            return false;
+        }
+        if (!networkAvailable) {
+            // Nothing to do until the network callback tells us connectivity is back
+            Log.i(TAG, "No network, waiting for connectivity before reconnecting");
+            return true;
+        }
+
+        long delay = computeDelay(attempts);
+        attempts++;
+        Log.i(TAG, "Reconnect attempt " + attempts + (unlimited ? "" : "/" + MAX_ATTEMPTS) +
+                " in " + delay + " ms");
+        handler.removeCallbacks(attemptRunnable);
+        handler.postDelayed(attemptRunnable, delay);
+        return true;
+    }
+
+    /**
+     * Record a successful (re)connection and reset the backoff
+     */
+    public synchronized void onConnected() {
+        handler.removeCallbacks(attemptRunnable);
+        if (disconnectedAt != 0) {
+            PerformanceMetrics.record("ws.reconnect.attempts", attempts);
+            PerformanceMetrics.record("ws.reconnect.time_to_reconnect_ms",
+                    SystemClock.elapsedRealtime() - disconnectedAt);
+        }
+        attempts = 0;
+        disconnectedAt = 0;
+    }
+
+    /**
+     * Cancel any pending attempt, e.g. after a manual disconnect
+     */
+    public synchronized void cancel() {
+        handler.removeCallbacks(attemptRunnable);
+        attempts = 0;
+        disconnectedAt = 0;
+    }
+
+    public synchronized int getAttempts() {
+        return attempts;
+    }
+
+    /**
+     * Full jitter: a uniformly random delay between 0 and the capped exponential bound
+     */
+    private long computeDelay(int attempt) {
+        long cap = unlimited ? IN_GAME_MAX_DELAY_MS : MAX_DELAY_MS;
+        long bound = Math.min(cap, BASE_DELAY_MS << Math.min(attempt, 16));
+        long delay = (long) (random.nextDouble() * bound);
+        return unlimited ? Math.max(IN_GAME_MIN_DELAY_MS, delay) : delay;
+    }
+
+    private void runAttempt() {
+        action.reconnect();
+    }
+
+    private synchronized void onNetworkAvailable() {
+        boolean wasOffline = !networkAvailable;
+        networkAvailable = true;
+        if (disconnectedAt != 0) {
+            // Connectivity is back while we are trying to reconnect: retry now with a fresh backoff
+            Log.i(TAG, "🌐 Network available" + (wasOffline ? " again" : "") + ", reconnecting immediately");
+            PerformanceMetrics.increment("ws.reconnect.network_triggered");
+            attempts = 0;
+            handler.removeCallbacks(attemptRunnable);
+            handler.post(attemptRunnable);
+        }
+    }
+
+    private synchronized void onNetworkLost() {
+        networkAvailable = connectivityManager != null && connectivityManager.getActiveNetwork() != null;
+        if (!networkAvailable) {
+            // Stop hammering a dead network; onNetworkAvailable resumes the loop
+            Log.i(TAG, "Network lost, pausing reconnect attempts");
+            handler.removeCallbacks(attemptRunnable);
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.drawit_app.api.websocket;
+
+import android.util.Log;
+
+import com.example.drawit_app.util.PerformanceMetrics;
+
+import okhttp3.Request;
+
+/**
+ * Tracks the server session and the last applied frame sequence number so a dropped WebSocket can
+ * be resumed instead of refetching all state.
+ * <p>
+ * The server stamps every frame with a monotonically increasing {@code seq}. On reconnect the
+ * session id and last applied seq go out as upgrade headers; the server then either replays the
+ * missed frames (resumed) or starts a fresh session, in which case the caller must request a
+ * full snapshot.
+ */
+public class SessionResumeTracker {
+    private static final String TAG = "SessionResumeTracker";
+
+    public static final String SESSION_HEADER = "X-DrawIt-Session";
+    public static final String LAST_SEQ_HEADER = "X-DrawIt-Last-Seq";
+
+    private String sessionId = null;
+    private long lastAppliedSeq = 0;
+    private long reconnectStartedAt = 0;
+
+    /**
+     * Add the resume headers to an upgrade request if we have a session to resume
+     */
+    public synchronized void addResumeHeaders(Request.Builder requestBuilder) {
+        if (sessionId == null) {
+            return;
+        }
+        requestBuilder.header(SESSION_HEADER, sessionId)
+                .header(LAST_SEQ_HEADER, String.valueOf(lastAppliedSeq));
+        reconnectStartedAt = System.currentTimeMillis();
+    }
+
+    /**
+     * Handle the connection_established frame of a new connection
+     *
+     * @param newSessionId session id assigned by the server, or null for servers without resume support
+     * @param resumed      whether the server is replaying missed frames for our previous session
+     * @param serverSeq    last seq the server assigned in this session
+     * @return true if local state is stale and a full snapshot must be requested
+     */
+    public synchronized boolean onSessionEstablished(String newSessionId, boolean resumed, long serverSeq) {
+        boolean hadSession = sessionId != null;
+        if (reconnectStartedAt > 0) {
+            PerformanceMetrics.record("ws.resume.handshake_ms", System.currentTimeMillis() - reconnectStartedAt);
+            reconnectStartedAt = 0;
+        }
+
+        if (resumed && newSessionId != null && newSessionId.equals(sessionId)) {
+            Log.i(TAG, "🔁 Session resumed at seq " + lastAppliedSeq + ", server is at " + serverSeq);
+            PerformanceMetrics.increment("ws.resume.replayed");
+            PerformanceMetrics.record("ws.resume.missed_frames", serverSeq - lastAppliedSeq);
+            return false;
+        }
+
+        // New session: frames already sent in it are covered by the snapshot we are about to fetch
+        sessionId = newSessionId;
+        lastAppliedSeq = serverSeq;
+        if (hadSession) {
+            Log.i(TAG, "Session could not be resumed, full snapshot needed");
+            PerformanceMetrics.increment("ws.resume.snapshot");
+        }
+        return hadSession;
+    }
+
+    /**
+     * Record a received frame's sequence number
+     *
+     * @param seq sequence number from the frame, or a negative value if it had none
+     * @return false if the frame was already applied (e.g. overlapping replay) and must be dropped
+     */
+    public synchronized boolean shouldApply(long seq) {
+        if (seq < 0) {
+            return true;
+        }
+        if (seq <= lastAppliedSeq) {
+            PerformanceMetrics.increment("ws.resume.duplicate_frames");
+            return false;
+        }
+        if (seq > lastAppliedSeq + 1) {
+            Log.w(TAG, "Sequence gap: expected " + (lastAppliedSeq + 1) + " but got " + seq);
+            PerformanceMetrics.increment("ws.resume.gaps");
+        }
+        lastAppliedSeq = seq;
+        return true;
+    }
+
+    public synchronized long getLastAppliedSeq() {
+        return lastAppliedSeq;
+    }
+
+    /**
+     * Forget the session, e.g. when a different user signs in
+     */
+    public synchronized void reset() {
+        sessionId = null;
+        lastAppliedSeq = 0;
+        reconnectStartedAt = 0;
+    }
+}
@@ -0,0 +1,218 @@
+package com.example.drawit_app.api.websocket;
+
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.lifecycle.DefaultLifecycleObserver;
+import androidx.lifecycle.Lifecycle;
+import androidx.lifecycle.LifecycleOwner;
+
+import com.example.drawit_app.util.PerformanceMetrics;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Typed publish/subscribe hub for decoded WebSocket events.
+ * <p>
+ * Subscribers register for exact event classes and only receive those. Events are fanned out
+ * on a single dispatch thread per connection, so every subscriber sees events in the order
+ * they were published; each subscriber then gets them on the executor it asked for
+ * (the dispatch thread itself, or the main thread for UI). Subscriber lists are
+ * copy-on-write, so registering or unregistering during dispatch is safe.
+ * <p>
+ * The dispatch thread doubles as the decode worker: the socket reader hands raw frames over with
+ * {@link #runOnDispatchThread(Runnable)}, so parsing, reducing and fan-out all happen off both
+ * the OkHttp reader and the main thread. Main-thread delivery is batched to once per frame, and
+ * event types marked with {@link #setConflated(Class)} only deliver the newest pending event.
+ * One event instance reaches every subscriber, so the connection events and lobby deltas are
+ * immutable and the decoded lobby list of a lobbies_update is unmodifiable.
+ */
+public class WebSocketEventBus {
+    private static final String TAG = "WebSocketEventBus";
+
+    /** Deliver directly on the dispatch thread; for repositories that hand off their own work */
+    public static final Executor DISPATCH_THREAD = Runnable::run;
+
+    public interface Subscriber<T> {
+        void onEvent(T event);
+    }
+
+    /**
+     * Handle for a registration; unsubscribing is idempotent
+     */
+    public interface Subscription {
+        void unsubscribe();
+    }
+
+    private final Map<Class<?>, List<Registration<?>>> registrations = new ConcurrentHashMap<>();
+    private final Set<Class<?>> conflatedTypes = ConcurrentHashMap.newKeySet();
+    private volatile Thread dispatchThread;
+    private final ExecutorService dispatchExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        dispatchThread = new Thread(runnable, "ws-dispatch");
+        return dispatchThread;
+    });
+    private final FrameBatchingExecutor mainThreadExecutor = new FrameBatchingExecutor("ws.pipeline.main");
+
+    /**
+     * Executor that runs on the main thread, batched to once per frame, for UI subscribers without a lifecycle
+     */
+    public Executor mainThread() {
+        return mainThreadExecutor;
+    }
+
+    /**
+     * Only deliver the newest pending event of this type to main-thread subscribers each frame.
+     * Use for full snapshots where an older copy is useless once a newer one exists.
+     */
+    public void setConflated(Class<?> type) {
+        conflatedTypes.add(type);
+    }
+
+    /**
+     * Run work (typically decoding a frame) on the dispatch thread, in submission order.
+     * Queue and processing time are recorded under {@code ws.pipeline.worker.*}.
+     */
+    public void runOnDispatchThread(Runnable task) {
+        long enqueuedAt = SystemClock.elapsedRealtime();
+        dispatchExecutor.execute(() -> {
+            long startedAt = SystemClock.elapsedRealtime();
+            PerformanceMetrics.record("ws.pipeline.worker.queue_ms", startedAt - enqueuedAt);
+            try {
+                task.run();
+            } catch (Exception e) {
+                Log.e(TAG, "Dispatch thread task failed: " + e.getMessage(), e);
+            }
+            PerformanceMetrics.record("ws.pipeline.worker.process_ms", SystemClock.elapsedRealtime() - startedAt);
+        });
+    }
+
+    /**
+     * Subscribe to one event type
+     *
+     * @param deliveryExecutor where the subscriber runs, e.g. {@link #DISPATCH_THREAD} or {@link #mainThread()}
+     */
+    public <T> Subscription subscribe(Class<T> type, Executor deliveryExecutor, Subscriber<? super T> subscriber) {
+        Registration<T> registration = new Registration<>(type, deliveryExecutor, subscriber);
+        registrationsFor(type).add(registration);
+        return registration;
+    }
+
+    /**
+     * Subscribe to one event type on the main thread for as long as the owner is alive.
+     * Events are dropped while the owner is not at least CREATED and the subscription is
+     * removed automatically when it is destroyed. Must be called on the main thread.
+     */
+    public <T> Subscription subscribe(LifecycleOwner owner, Class<T> type, Subscriber<? super T> subscriber) {
+        Lifecycle lifecycle = owner.getLifecycle();
+        if (lifecycle.getCurrentState() == Lifecycle.State.DESTROYED) {
+            return () -> { };
+        }
+
+        Subscription subscription = subscribe(type, mainThreadExecutor, event -> {
+            if (lifecycle.getCurrentState().isAtLeast(Lifecycle.State.CREATED)) {
+                subscriber.onEvent(event);
+            }
+        });
+        lifecycle.addObserver(new DefaultLifecycleObserver() {
+            @Override
+            public void onDestroy(@NonNull LifecycleOwner source) {
+                subscription.unsubscribe();
+                source.getLifecycle().removeObserver(this);
+            }
+        });
+        return subscription;
+    }
+
+    /**
+     * Publish an event to every subscriber of its exact class. Called on the dispatch thread the
+     * event is fanned out immediately, otherwise it is queued behind pending work.
+     */
+    public void publish(Object event) {
+        if (event == null) {
+            return;
+        }
+        if (Thread.currentThread() == dispatchThread) {
+            dispatch(event);
+        } else {
+            dispatchExecutor.execute(() -> dispatch(event));
+        }
+    }
+
+    /**
+     * Whether anyone is listening for this event type
+     */
+    public boolean hasSubscribers(Class<?> type) {
+        List<Registration<?>> list = registrations.get(type);
+        return list != null && !list.isEmpty();
+    }
+
+    private void dispatch(Object event) {
+        List<Registration<?>> list = registrations.get(event.getClass());
+        if (list == null || list.isEmpty()) {
+            Log.d(TAG, "No subscribers for " + event.getClass().getSimpleName());
+            return;
+        }
+        for (Registration<?> registration : list) {
+            registration.deliver(event);
+        }
+    }
+
+    private List<Registration<?>> registrationsFor(Class<?> type) {
+        List<Registration<?>> list = registrations.get(type);
+        if (list == null) {
+            registrations.putIfAbsent(type, new CopyOnWriteArrayList<>());
+            list = registrations.get(type);
+        }
+        return list;
+    }
+
+    private final class Registration<T> implements Subscription {
+        private final Class<T> type;
+        private final Executor executor;
+        private final Subscriber<? super T> subscriber;
+        private volatile boolean active = true;
+
+        Registration(Class<T> type, Executor executor, Subscriber<? super T> subscriber) {
+            this.type = type;
+            this.executor = executor;
+            this.subscriber = subscriber;
+        }
+
+        void deliver(Object event) {
+            T typedEvent = type.cast(event);
+            Runnable delivery = () -> {
+                if (!active) {
+                    return;
+                }
+                try {
+                    subscriber.onEvent(typedEvent);
+                } catch (Exception e) {
+                    Log.e(TAG, "Subscriber for " + type.getSimpleName() + " failed: " + e.getMessage(), e);
+                }
+            };
+            if (executor == mainThreadExecutor && conflatedTypes.contains(type)) {
+                // Keyed by registration so each subscriber still gets the newest snapshot
+                mainThreadExecutor.executeLatest(this, delivery);
+            } else {
+                executor.execute(delivery);
+            }
+        }
+
+        @Override
+        public void unsubscribe() {
+            active = false;
+            List<Registration<?>> list = registrations.get(type);
+            if (list != null) {
+                list.remove(this);
+            }
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.drawit_app.api.websocket;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Connection-level events published on the {@link WebSocketEventBus} alongside the decoded
+ * server messages (LobbyStateMessage, LobbiesUpdateMessage, GameStateMessage, ChatMessage).
+ * Every event here is immutable, so subscribers on different threads can share one instance.
+ */
+public final class WebSocketEvents {
+
+    private WebSocketEvents() {
+    }
+
+    /**
+     * The socket is open and ready to send
+     */
+    public static final class Connected {
+        public static final Connected INSTANCE = new Connected();
+
+        private Connected() {
+        }
+    }
+
+    /**
+     * The socket was closed by either side
+     */
+    public static final class Disconnected {
+        private final int code;
+        private final String reason;
+
+        public Disconnected(int code, String reason) {
+            this.code = code;
+            this.reason = reason;
+        }
+
+        public int getCode() {
+            return code;
+        }
+
+        public String getReason() {
+            return reason;
+        }
+    }
+
+    /**
+     * A server error frame or a local failure, already formatted for display
+     */
+    public static final class Error {
+        private final String message;
+
+        public Error(String message) {
+            this.message = message;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+    }
+
+    /**
+     * The server applied (or rejected) journaled actions and they can be dropped locally
+     */
+    public static final class ActionsAcknowledged {
+        private final List<String> actionKeys;
+
+        public ActionsAcknowledged(List<String> actionKeys) {
+            this.actionKeys = Collections.unmodifiableList(new ArrayList<>(actionKeys));
+        }
+
+        public List<String> getActionKeys() {
+            return actionKeys;
+        }
+    }
+}
@@ -1,23 +1,32 @@
 package com.example.drawit_app.data;
 
+import android.content.ContentValues;
 import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
 
+import androidx.annotation.NonNull;
 import androidx.room.Database;
 import androidx.room.Room;
 import androidx.room.RoomDatabase;
 import androidx.room.TypeConverters;
+import androidx.room.migration.Migration;
+import androidx.sqlite.db.SupportSQLiteDatabase;
 
 import com.example.drawit_app.model.Drawing;
+import com.example.drawit_app.model.DrawingFts;
 import com.example.drawit_app.model.Game;
 import com.example.drawit_app.model.Lobby;
+import com.example.drawit_app.model.OutboundAction;
 import com.example.drawit_app.model.User;
 
 /**
  * Main database class for the DrawIt application.
  * Provides access to DAOs for all entity types.
  */
-@Database(entities = {User.class, Lobby.class, Game.class, Drawing.class}, 
-        version = 3, exportSchema = false)
+@Database(entities = {User.class, Lobby.class, Game.class, Drawing.class, DrawingFts.class,
+        OutboundAction.class},
+        version = 8, exportSchema = false)
 @TypeConverters({DateConverter.class, GameStateConverter.class, 
         PlayerScoreConverter.class, DrawingPathsConverter.class})
 public abstract class DrawItDatabase extends RoomDatabase {
@@ -30,6 +39,96 @@ public abstract class DrawItDatabase extends RoomDatabase {
     public abstract LobbyDao lobbyDao();
     public abstract GameDao gameDao();
     public abstract DrawingDao drawingDao();
+    public abstract OutboundActionDao outboundActionDao();
+
+    // Adds the outbound action journal; everything else is kept
+    static final Migration MIGRATION_3_4 = new Migration(3, 4) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE TABLE IF NOT EXISTS `outbound_actions` ("
+                    + "`id` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, "
+                    + "`actionKey` TEXT NOT NULL, `gameId` TEXT, `type` TEXT, "
+                    + "`payload` TEXT, `createdAt` INTEGER NOT NULL)");
+            db.execSQL("CREATE UNIQUE INDEX IF NOT EXISTS `index_outbound_actions_actionKey` "
+                    + "ON `outbound_actions` (`actionKey`)");
+        }
+    };
+
+    // Drawing paths move from a JSON TEXT column to a binary BLOB. SQLite cannot change a
+    // column's type in place, so the table is rebuilt and each row's paths are re-encoded.
+    static final Migration MIGRATION_4_5 = new Migration(4, 5) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE TABLE IF NOT EXISTS `drawings_new` ("
+                    + "`drawingId` TEXT NOT NULL, `userId` TEXT, `gameId` TEXT, "
+                    + "`roundNumber` INTEGER NOT NULL, `word` TEXT, `timestamp` INTEGER, "
+                    + "`averageRating` REAL NOT NULL, `ratingCount` INTEGER NOT NULL, "
+                    + "`userRating` INTEGER NOT NULL, `paths` BLOB, PRIMARY KEY(`drawingId`))");
+            db.execSQL("INSERT INTO `drawings_new` (drawingId, userId, gameId, roundNumber, word, "
+                    + "timestamp, averageRating, ratingCount, userRating) "
+                    + "SELECT drawingId, userId, gameId, roundNumber, word, "
+                    + "timestamp, averageRating, ratingCount, userRating FROM `drawings`");
+
+            try (Cursor cursor = db.query("SELECT drawingId, paths FROM `drawings` WHERE paths IS NOT NULL")) {
+                while (cursor.moveToNext()) {
+                    ContentValues values = new ContentValues();
+                    values.put("paths", DrawingPathsConverter.fromDrawingPaths(
+                            DrawingPathsConverter.fromLegacyJson(cursor.getString(1))));
+                    db.update("drawings_new", SQLiteDatabase.CONFLICT_NONE, values,
+                            "drawingId = ?", new Object[]{cursor.getString(0)});
+                }
+            }
+
+            db.execSQL("DROP TABLE `drawings`");
+            db.execSQL("ALTER TABLE `drawings_new` RENAME TO `drawings`");
+        }
+    };
+
+    // Full-text index over drawing words, kept in sync by the same triggers Room generates
+    // for an external-content FTS entity, then filled from the existing rows
+    static final Migration MIGRATION_5_6 = new Migration(5, 6) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE VIRTUAL TABLE IF NOT EXISTS `drawings_fts` USING FTS4(`word` TEXT, content=`drawings`)");
+            db.execSQL("CREATE TRIGGER IF NOT EXISTS room_fts_content_sync_drawings_fts_BEFORE_UPDATE "
+                    + "BEFORE UPDATE ON `drawings` BEGIN DELETE FROM `drawings_fts` WHERE `docid`=OLD.`rowid`; END");
+            db.execSQL("CREATE TRIGGER IF NOT EXISTS room_fts_content_sync_drawings_fts_BEFORE_DELETE "
+                    + "BEFORE DELETE ON `drawings` BEGIN DELETE FROM `drawings_fts` WHERE `docid`=OLD.`rowid`; END");
+            db.execSQL("CREATE TRIGGER IF NOT EXISTS room_fts_content_sync_drawings_fts_AFTER_UPDATE "
+                    + "AFTER UPDATE ON `drawings` BEGIN INSERT INTO `drawings_fts`(`docid`, `word`) "
+                    + "VALUES (NEW.`rowid`, NEW.`word`); END");
+            db.execSQL("CREATE TRIGGER IF NOT EXISTS room_fts_content_sync_drawings_fts_AFTER_INSERT "
+                    + "AFTER INSERT ON `drawings` BEGIN INSERT INTO `drawings_fts`(`docid`, `word`) "
+                    + "VALUES (NEW.`rowid`, NEW.`word`); END");
+            db.execSQL("INSERT INTO `drawings_fts`(`drawings_fts`) VALUES('rebuild')");
+        }
+    };
+
+    // Indices for the DAO queries that filter or sort; names match the ones Room derives
+    // from the entity annotations
+    static final Migration MIGRATION_6_7 = new Migration(6, 7) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_drawings_timestamp_drawingId` ON `drawings` (`timestamp`, `drawingId`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_drawings_userId_timestamp` ON `drawings` (`userId`, `timestamp`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_drawings_userId_averageRating` ON `drawings` (`userId`, `averageRating`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_drawings_gameId_roundNumber` ON `drawings` (`gameId`, `roundNumber`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_games_lobbyId` ON `games` (`lobbyId`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_games_startTime_gameState` ON `games` (`startTime`, `gameState`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_lobbies_inGame` ON `lobbies` (`inGame`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_lobbies_hostId` ON `lobbies` (`hostId`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_users_username` ON `users` (`username`)");
+        }
+    };
+
+    // The per-user archive pages also sort by drawingId, so it joins the userId/timestamp index
+    static final Migration MIGRATION_7_8 = new Migration(7, 8) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("DROP INDEX IF EXISTS `index_drawings_userId_timestamp`");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_drawings_userId_timestamp_drawingId` ON `drawings` (`userId`, `timestamp`, `drawingId`)");
+        }
+    };
 
     // Singleton pattern to prevent multiple instances of database opening at the same time
     public static synchronized DrawItDatabase getInstance(Context context) {
@@ -38,7 +137,10 @@ public abstract class DrawItDatabase extends RoomDatabase {
                     context.getApplicationContext(),
                     DrawItDatabase.class,
                     DATABASE_NAME)
-                    .fallbackToDestructiveMigration() // Recreate database if no migration found
+                    .addMigrations(MIGRATION_3_4, MIGRATION_4_5, MIGRATION_5_6, MIGRATION_6_7, MIGRATION_7_8)
+                    // Only databases from before the first migration are recreated; later
+                    // versions keep the user's archive
+                    .fallbackToDestructiveMigrationFrom(1, 2)
                     .build();
         }
         return instance;
@@ -6,10 +6,13 @@ import androidx.room.Delete;
 import androidx.room.Insert;
 import androidx.room.OnConflictStrategy;
 import androidx.room.Query;
+import androidx.room.Transaction;
 import androidx.room.Update;
 
 import com.example.drawit_app.model.Drawing;
+import com.example.drawit_app.model.DrawingSummary;
 
+import java.util.Date;
 import java.util.List;
 
 /**
@@ -18,11 +21,34 @@ import java.util.List;
 @Dao
 public interface DrawingDao {
     
-    @Insert(onConflict = OnConflictStrategy.REPLACE)
-    void insert(Drawing drawing);
+    // Every column except paths; list queries select these into DrawingSummary so stroke
+    // blobs are never read or decoded just to show a grid of drawings
+    String SUMMARY_COLUMNS = "drawingId, userId, gameId, roundNumber, word, timestamp, "
+            + "averageRating, ratingCount, userRating";
+    
+    // No REPLACE insert on purpose: it deletes and re-adds the row under a new rowid, which
+    // leaves the drawings_fts entry of the old rowid behind. Write drawings with upsert().
+    @Insert(onConflict = OnConflictStrategy.IGNORE)
+    long insertIfAbsent(Drawing drawing);
+    
+    /**
+     * Update a drawing in place, or insert it if it is new. Unlike a REPLACE insert this keeps
+     * the row's rowid, so the full-text index triggers update its entry instead of leaving a
+     * stale one behind. Drawings without a timestamp get epoch 0 so they have a place in the
+     * (timestamp, drawingId) archive order.
+     */
+    @Transaction
+    default void upsert(Drawing drawing) {
+        if (drawing.getTimestamp() == null) {
+            drawing.setTimestamp(new Date(0));
+        }
+        if (update(drawing) == 0) {
+            insertIfAbsent(drawing);
+        }
+    }
     
     @Update
-    void update(Drawing drawing);
+    int update(Drawing drawing);
     
     @Delete
     void delete(Drawing drawing);
@@ -30,17 +56,29 @@ public interface DrawingDao {
     @Query("SELECT * FROM drawings WHERE drawingId = :drawingId")
     LiveData<Drawing> getDrawingById(String drawingId);
     
-    @Query("SELECT * FROM drawings WHERE userId = :userId ORDER BY timestamp DESC")
-    LiveData<List<Drawing>> getDrawingsByUserId(String userId);
+    @Query("SELECT * FROM drawings WHERE drawingId = :drawingId")
+    Drawing getDrawingByIdSync(String drawingId);
+    
+    @Query("SELECT " + SUMMARY_COLUMNS + " FROM drawings WHERE userId = :userId ORDER BY timestamp DESC")
+    LiveData<List<DrawingSummary>> getDrawingsByUserId(String userId);
     
     @Query("SELECT * FROM drawings WHERE gameId = :gameId AND roundNumber = :roundNumber")
     LiveData<List<Drawing>> getDrawingsForGameRound(String gameId, int roundNumber);
     
-    @Query("SELECT * FROM drawings WHERE userId = :userId AND word LIKE '%' || :searchTerm || '%' ORDER BY timestamp DESC")
-    LiveData<List<Drawing>> searchDrawingsByWord(String userId, String searchTerm);
+    /**
+     * Full-text search on drawing words through the drawings_fts index.
+     * Ranked by exact match first, then shorter (closer) words, then newest.
+     * @param matchQuery FTS4 MATCH expression, e.g. "cat*"
+     * @param exactWord the typed word, for ranking exact matches first
+     */
+    @Query("SELECT " + SUMMARY_COLUMNS + " FROM drawings "
+            + "WHERE rowid IN (SELECT docid FROM drawings_fts WHERE drawings_fts MATCH :matchQuery) "
+            + "ORDER BY (word = :exactWord COLLATE NOCASE) DESC, length(word) ASC, timestamp DESC "
+            + "LIMIT :limit")
+    List<DrawingSummary> searchDrawingsByWord(String matchQuery, String exactWord, int limit);
     
-    @Query("SELECT * FROM drawings WHERE userId = :userId ORDER BY averageRating DESC LIMIT :limit")
-    LiveData<List<Drawing>> getTopRatedDrawings(String userId, int limit);
+    @Query("SELECT " + SUMMARY_COLUMNS + " FROM drawings WHERE userId = :userId ORDER BY averageRating DESC LIMIT :limit")
+    LiveData<List<DrawingSummary>> getTopRatedDrawings(String userId, int limit);
     
     @Query("UPDATE drawings SET averageRating = :rating, ratingCount = ratingCount + 1 WHERE drawingId = :drawingId")
     void updateDrawingRating(String drawingId, float rating);
@@ -48,6 +86,49 @@ public interface DrawingDao {
     @Query("DELETE FROM drawings WHERE gameId = :gameId")
     void deleteDrawingsForGame(String gameId);
     
-    @Query("SELECT * FROM drawings ORDER BY timestamp DESC")
-    LiveData<List<Drawing>> getAllDrawings();
+    @Query("DELETE FROM drawings WHERE gameId IN (:gameIds)")
+    int deleteDrawingsForGames(List<String> gameIds);
+    
+    // Drawings whose game is not stored locally, e.g. pages of the archive fetched from the server
+    @Query("DELETE FROM drawings WHERE timestamp < :before "
+            + "AND (gameId IS NULL OR gameId NOT IN (SELECT gameId FROM games))")
+    int deleteDrawingsWithoutGameBefore(Date before);
+    
+    @Query("SELECT drawingId FROM drawings "
+            + "WHERE gameId IS NULL OR gameId NOT IN (SELECT gameId FROM games) "
+            + "ORDER BY timestamp ASC LIMIT :limit")
+    List<String> getOldestDrawingIdsWithoutGame(int limit);
+    
+    @Query("DELETE FROM drawings WHERE drawingId IN (:drawingIds)")
+    int deleteDrawingsByIds(List<String> drawingIds);
+    
+    @Query("SELECT " + SUMMARY_COLUMNS + " FROM drawings ORDER BY timestamp DESC")
+    LiveData<List<DrawingSummary>> getAllDrawings();
+    
+    // Keyset pagination over one player's (timestamp, drawingId), newest first: each page starts
+    // right after the last row of the previous one, so deep pages cost the same as the first
+    @Query("SELECT " + SUMMARY_COLUMNS + " FROM drawings WHERE userId = :userId "
+            + "ORDER BY timestamp DESC, drawingId DESC LIMIT :limit")
+    List<DrawingSummary> getArchiveFirstPage(String userId, int limit);
+    
+    // The redundant "timestamp <=" bound lets the (userId, timestamp, drawingId) index seek to the page
+    @Query("SELECT " + SUMMARY_COLUMNS + " FROM drawings "
+            + "WHERE userId = :userId AND timestamp <= :beforeTimestamp "
+            + "AND (timestamp < :beforeTimestamp OR drawingId < :beforeId) "
+            + "ORDER BY timestamp DESC, drawingId DESC LIMIT :limit")
+    List<DrawingSummary> getArchivePageBefore(String userId, Date beforeTimestamp, String beforeId, int limit);
+    
+    @Query("SELECT COUNT(*) FROM drawings")
+    LiveData<Integer> getDrawingCount();
+    
+    @Query("SELECT paths FROM drawings WHERE drawingId = :drawingId")
+    byte[] getPathsBlob(String drawingId);
+    
+    /**
+     * Load and decode the strokes of one drawing; call off the main thread
+     * @return the paths, empty if the drawing is unknown or has none
+     */
+    default List<Drawing.DrawingPath> getPathsForDrawing(String drawingId) {
+        return DrawingPathsConverter.toDrawingPaths(getPathsBlob(drawingId));
+    }
 }
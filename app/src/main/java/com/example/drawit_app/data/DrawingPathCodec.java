@@ -0,0 +1,178 @@
+package com.example.drawit_app.data;
+
+import com.example.drawit_app.model.Drawing.DrawingPath;
+import com.example.drawit_app.model.Drawing.PointF;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compact binary encoding of drawing paths, used for the {@code paths} BLOB column.
+ * <p>
+ * Layout (all integers are unsigned LEB128 varints unless noted):
+ * <pre>
+ *   magic 'P', format version
+ *   path count
+ *   per path: color (4 bytes, big-endian ARGB), stroke width * SCALE, point count,
+ *             then per point zigzag(dx), zigzag(dy) in 1/SCALE pixels from the previous point
+ * </pre>
+ * Points are captured every few pixels, so deltas usually fit in one byte each: a point takes
+ * about 2 bytes instead of ~30 characters of JSON. Coordinates are quantized to 1/8 px, which is
+ * below what the canvas can show.
+ */
+public final class DrawingPathCodec {
+
+    private static final byte MAGIC = 'P';
+    private static final byte VERSION = 1;
+
+    // Fixed-point scale for coordinates and stroke widths
+    private static final float SCALE = 8f;
+
+    // Smallest encodings: color, width and point count for a path; dx and dy for a point
+    private static final int MIN_PATH_BYTES = 6;
+    private static final int MIN_POINT_BYTES = 2;
+
+    private DrawingPathCodec() {
+    }
+
+    /**
+     * Encode paths into the binary format
+     */
+    public static byte[] encode(List<DrawingPath> paths) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(estimateSize(paths));
+        out.write(MAGIC);
+        out.write(VERSION);
+        writeVarint(out, paths.size());
+
+        for (DrawingPath path : paths) {
+            int color = path.getColor();
+            out.write(color >>> 24);
+            out.write(color >>> 16);
+            out.write(color >>> 8);
+            out.write(color);
+            writeVarint(out, Math.max(0, Math.round(path.getStrokeWidth() * SCALE)));
+
+            List<PointF> points = path.getPoints();
+            int count = points != null ? points.size() : 0;
+            writeVarint(out, count);
+
+            int lastX = 0;
+            int lastY = 0;
+            for (int i = 0; i < count; i++) {
+                PointF point = points.get(i);
+                int x = Math.round(point.getX() * SCALE);
+                int y = Math.round(point.getY() * SCALE);
+                writeVarint(out, zigzag(x - lastX));
+                writeVarint(out, zigzag(y - lastY));
+                lastX = x;
+                lastY = y;
+            }
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Decode paths written by {@link #encode(List)}
+     *
+     * @throws IllegalArgumentException if the data is not in this format or is truncated
+     */
+    public static List<DrawingPath> decode(byte[] data) {
+        if (!isEncoded(data)) {
+            throw new IllegalArgumentException("Not a binary drawing path blob");
+        }
+        Reader in = new Reader(data, 2);
+        // Counts are checked against the bytes left before allocating, so a corrupt count
+        // fails fast instead of reserving a huge list
+        int pathCount = in.readCount(MIN_PATH_BYTES);
+        List<DrawingPath> paths = new ArrayList<>(pathCount);
+
+        for (int p = 0; p < pathCount; p++) {
+            int color = (in.readByte() << 24) | (in.readByte() << 16) | (in.readByte() << 8) | in.readByte();
+            DrawingPath path = new DrawingPath(color, in.readVarint() / SCALE);
+
+            int count = in.readCount(MIN_POINT_BYTES);
+            List<PointF> points = new ArrayList<>(count);
+            int x = 0;
+            int y = 0;
+            for (int i = 0; i < count; i++) {
+                x += unzigzag(in.readVarint());
+                y += unzigzag(in.readVarint());
+                points.add(new PointF(x / SCALE, y / SCALE));
+            }
+            path.setPoints(points);
+            paths.add(path);
+        }
+        return paths;
+    }
+
+    /**
+     * Check for the format header, e.g. to tell binary blobs from legacy JSON
+     */
+    public static boolean isEncoded(byte[] data) {
+        return data != null && data.length >= 2 && data[0] == MAGIC && data[1] == VERSION;
+    }
+
+    private static int estimateSize(List<DrawingPath> paths) {
+        int size = 8;
+        for (DrawingPath path : paths) {
+            size += 8 + (path.getPoints() != null ? path.getPoints().size() * 2 : 0);
+        }
+        return size;
+    }
+
+    private static int zigzag(int value) {
+        return (value << 1) ^ (value >> 31);
+    }
+
+    private static int unzigzag(int value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static void writeVarint(ByteArrayOutputStream out, int value) {
+        while ((value & ~0x7F) != 0) {
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+
+    private static final class Reader {
+        private final byte[] data;
+        private int position;
+
+        Reader(byte[] data, int position) {
+            this.data = data;
+            this.position = position;
+        }
+
+        int readByte() {
+            if (position >= data.length) {
+                throw new IllegalArgumentException("Truncated drawing path blob");
+            }
+            return data[position++] & 0xFF;
+        }
+
+        int readVarint() {
+            int result = 0;
+            for (int shift = 0; shift < 35; shift += 7) {
+                int b = readByte();
+                result |= (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return result;
+                }
+            }
+            throw new IllegalArgumentException("Malformed varint in drawing path blob");
+        }
+
+        // Element count followed by elements of at least minBytes each
+        int readCount(int minBytes) {
+            int count = readVarint();
+            if (count < 0 || count > (data.length - position) / minBytes) {
+                throw new IllegalArgumentException("Drawing path blob count " + count
+                        + " exceeds the remaining " + (data.length - position) + " bytes");
+            }
+            return count;
+        }
+    }
+}
@@ -7,43 +7,85 @@ import com.squareup.moshi.JsonAdapter;
 import com.squareup.moshi.Moshi;
 import com.squareup.moshi.Types;
 
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
 import java.io.IOException;
-import java.lang.reflect.Type;
 import java.util.ArrayList;
 import java.util.List;
 
 /**
- * Room TypeConverter for DrawingPath lists in Drawing class
+ * Room TypeConverter for DrawingPath lists in Drawing class.
+ * Paths are stored as a binary BLOB (see {@link DrawingPathCodec}); the JSON adapter reads the
+ * TEXT column of databases older than version 5 and writes drawings submitted to the server.
  */
 public class DrawingPathsConverter {
-    
-    private static final Moshi moshi = new Moshi.Builder().build();
-    
+
+    private static final JsonAdapter<List<DrawingPath>> legacyJsonAdapter = new Moshi.Builder().build()
+            .adapter(Types.newParameterizedType(List.class, DrawingPath.class));
+
     @TypeConverter
-    public static String fromDrawingPaths(List<DrawingPath> paths) {
+    public static byte[] fromDrawingPaths(List<DrawingPath> paths) {
         if (paths == null) {
             return null;
         }
-        
-        Type type = Types.newParameterizedType(List.class, DrawingPath.class);
-        JsonAdapter<List<DrawingPath>> adapter = moshi.adapter(type);
-        return adapter.toJson(paths);
+        return DrawingPathCodec.encode(paths);
     }
-    
+
     @TypeConverter
-    public static List<DrawingPath> toDrawingPaths(String pathsJson) {
+    public static List<DrawingPath> toDrawingPaths(byte[] pathsBlob) {
+        if (pathsBlob == null) {
+            return new ArrayList<>();
+        }
+
+        try {
+            return DrawingPathCodec.decode(pathsBlob);
+        } catch (IllegalArgumentException e) {
+            android.util.Log.e("DrawingPathsConverter", "Error decoding drawing paths blob", e);
+            return new ArrayList<>();
+        }
+    }
+
+    /**
+     * Parse the JSON TEXT representation used before database version 5
+     */
+    public static List<DrawingPath> fromLegacyJson(String pathsJson) {
         if (pathsJson == null) {
             return new ArrayList<>();
         }
-        
-        Type type = Types.newParameterizedType(List.class, DrawingPath.class);
-        JsonAdapter<List<DrawingPath>> adapter = moshi.adapter(type);
+
         try {
-            List<DrawingPath> result = adapter.fromJson(pathsJson);
+            List<DrawingPath> result = legacyJsonAdapter.fromJson(pathsJson);
             return result != null ? result : new ArrayList<>();
         } catch (IOException e) {
             android.util.Log.e("DrawingPathsConverter", "Error converting JSON to drawing paths", e);
             return new ArrayList<>();
         }
     }
+
+    /**
+     * JSON array of paths with their color, stroke width and points, the format the server
+     * stores and {@link #fromLegacyJson} reads
+     */
+    public static String toJson(List<DrawingPath> paths) {
+        return legacyJsonAdapter.toJson(paths != null ? paths : new ArrayList<>());
+    }
+
+    /**
+     * Parse the {@code {"paths": [...]}} snapshot that DrawingView sends over the WebSocket
+     */
+    public static List<DrawingPath> fromSnapshotJson(String snapshotJson) {
+        if (snapshotJson == null || snapshotJson.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        try {
+            JSONArray paths = new JSONObject(snapshotJson).optJSONArray("paths");
+            return paths != null ? fromLegacyJson(paths.toString()) : new ArrayList<>();
+        } catch (JSONException e) {
+            android.util.Log.e("DrawingPathsConverter", "Error parsing drawing snapshot", e);
+            return new ArrayList<>();
+        }
+    }
 }
@@ -10,6 +10,7 @@ import androidx.room.Update;
 
 import com.example.drawit_app.model.Game;
 
+import java.util.Date;
 import java.util.List;
 
 /**
@@ -21,6 +22,9 @@ public interface GameDao {
     @Insert(onConflict = OnConflictStrategy.REPLACE)
     void insert(Game game);
     
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    void insertAll(List<Game> games);
+    
     @Update
     void update(Game game);
     
@@ -50,4 +54,17 @@ public interface GameDao {
     
     @Query("UPDATE games SET currentWord = :word WHERE gameId = :gameId")
     void updateCurrentWord(String gameId, String word);
+    
+    // Eviction candidates for storage maintenance, oldest first
+    @Query("SELECT gameId FROM games WHERE gameState = 'FINISHED' ORDER BY startTime ASC LIMIT :limit")
+    List<String> getOldestFinishedGameIds(int limit);
+    
+    @Query("SELECT gameId FROM games WHERE gameState = 'FINISHED' AND startTime < :before")
+    List<String> getFinishedGameIdsStartedBefore(Date before);
+    
+    @Query("SELECT gameId FROM games")
+    List<String> getAllGameIds();
+    
+    @Query("DELETE FROM games WHERE gameId IN (:gameIds)")
+    int deleteGamesByIds(List<String> gameIds);
 }
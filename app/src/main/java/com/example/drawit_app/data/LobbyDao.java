@@ -6,11 +6,15 @@ import androidx.room.Delete;
 import androidx.room.Insert;
 import androidx.room.OnConflictStrategy;
 import androidx.room.Query;
+import androidx.room.Transaction;
 import androidx.room.Update;
 
 import com.example.drawit_app.model.Lobby;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Data Access Object for Lobby entities
@@ -50,4 +54,68 @@ public interface LobbyDao {
     
     @Query("DELETE FROM lobbies")
     void deleteAllLobbiesDirectly();
+    
+    @Query("SELECT * FROM lobbies")
+    List<Lobby> getAllLobbiesSync();
+    
+    @Query("SELECT lobbyId FROM lobbies")
+    List<String> getAllLobbyIdsSync();
+    
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    void insertAll(List<Lobby> lobbies);
+    
+    @Update
+    int updateAll(List<Lobby> lobbies);
+    
+    @Query("SELECT * FROM lobbies WHERE lobbyId IN (:lobbyIds)")
+    List<Lobby> getLobbiesByIdsSync(List<String> lobbyIds);
+    
+    @Query("DELETE FROM lobbies WHERE lobbyId IN (:lobbyIds)")
+    int deleteLobbiesByIds(List<String> lobbyIds);
+    
+    /**
+     * Persist a lobby list change in one transaction, so observers see a single invalidation.
+     * Incoming lobbies are compared with the stored rows first: new ones are inserted, changed
+     * ones updated in place, and identical ones not written at all. If nothing differs, no
+     * table is touched and observers are not invalidated.
+     * @return number of rows inserted, updated or deleted
+     */
+    @Transaction
+    default int applyChanges(List<Lobby> upserted, List<String> removedIds) {
+        int written = 0;
+        if (!removedIds.isEmpty()) {
+            written += deleteLobbiesByIds(removedIds);
+        }
+        if (upserted.isEmpty()) {
+            return written;
+        }
+        
+        List<String> ids = new ArrayList<>(upserted.size());
+        for (Lobby lobby : upserted) {
+            ids.add(lobby.getLobbyId());
+        }
+        Map<String, Lobby> stored = new HashMap<>();
+        for (Lobby lobby : getLobbiesByIdsSync(ids)) {
+            stored.put(lobby.getLobbyId(), lobby);
+        }
+        
+        List<Lobby> inserted = new ArrayList<>();
+        List<Lobby> changed = new ArrayList<>();
+        for (Lobby lobby : upserted) {
+            Lobby existing = stored.get(lobby.getLobbyId());
+            if (existing == null) {
+                inserted.add(lobby);
+            } else if (!existing.hasSameColumns(lobby)) {
+                changed.add(lobby);
+            }
+        }
+        if (!inserted.isEmpty()) {
+            insertAll(inserted);
+            written += inserted.size();
+        }
+        if (!changed.isEmpty()) {
+            written += updateAll(changed);
+        }
+        return written;
+    }
 }
@@ -0,0 +1,33 @@
+package com.example.drawit_app.data;
+
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.OnConflictStrategy;
+import androidx.room.Query;
+
+import com.example.drawit_app.model.OutboundAction;
+
+import java.util.List;
+
+/**
+ * Data Access Object for the outbound action journal
+ */
+@Dao
+public interface OutboundActionDao {
+
+    @Insert(onConflict = OnConflictStrategy.IGNORE)
+    void insert(OutboundAction action);
+
+    // Oldest first, so batches preserve the order actions were made in
+    @Query("SELECT * FROM outbound_actions ORDER BY id ASC LIMIT :limit")
+    List<OutboundAction> getOldest(int limit);
+
+    @Query("DELETE FROM outbound_actions WHERE actionKey IN (:actionKeys)")
+    int deleteByKeys(List<String> actionKeys);
+
+    @Query("DELETE FROM outbound_actions")
+    int deleteAll();
+
+    @Query("SELECT COUNT(*) FROM outbound_actions")
+    int count();
+}
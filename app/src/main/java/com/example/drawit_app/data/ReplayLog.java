@@ -0,0 +1,423 @@
+package com.example.drawit_app.data;
+
+import com.example.drawit_app.model.Drawing.DrawingPath;
+import com.example.drawit_app.model.ReplayEvent;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Append-only binary log of the strokes and guesses of a game, kept so finished rounds can be
+ * replayed as a time-lapse.
+ * <p>
+ * Each game has two files (all integers are unsigned LEB128 varints unless noted):
+ * <pre>
+ *   &lt;gameId&gt;.rpl  magic 'R', format version, then records:
+ *                   type (1 byte), round, timestamp (epoch ms), payload length, payload
+ *   &lt;gameId&gt;.rpx  fixed 12-byte entries: round (4 bytes), offset in .rpl (8 bytes), big-endian,
+ *                   one per run of records of the same round
+ * </pre>
+ * Payloads: a STROKE is one path in the {@link DrawingPathCodec} format; a GUESS is player,
+ * text (varint length + UTF-8) and a correct flag byte; a ROUND_START is drawer and word;
+ * CLEAR and ROUND_END are empty.
+ * <p>
+ * Reads map the data file read-only and use the index to jump straight to a round's records.
+ * A record cut short by the process dying is dropped when the log is next opened for writing.
+ */
+public final class ReplayLog {
+
+    static final String DATA_SUFFIX = ".rpl";
+    static final String INDEX_SUFFIX = ".rpx";
+
+    private static final byte MAGIC = 'R';
+    private static final byte VERSION = 1;
+    private static final int HEADER_SIZE = 2;
+    private static final int INDEX_ENTRY_SIZE = 12;
+
+    private static final ReplayEvent.Type[] TYPES = ReplayEvent.Type.values();
+
+    private ReplayLog() {
+    }
+
+    /**
+     * Open a game's log for appending, creating it if needed
+     */
+    public static Writer openWriter(File dir, String gameId) throws IOException {
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            throw new IOException("Cannot create replay directory " + dir);
+        }
+        File dataFile = dataFile(dir, gameId);
+        File indexFile = indexFile(dir, gameId);
+
+        long length = repair(dataFile, indexFile);
+        return new Writer(dataFile, indexFile, length);
+    }
+
+    /**
+     * Rounds that have records in a game's log, in ascending order; empty if there is no log
+     */
+    public static List<Integer> readRounds(File dir, String gameId) throws IOException {
+        TreeSet<Integer> rounds = new TreeSet<>();
+        for (long[] entry : readIndex(indexFile(dir, gameId))) {
+            rounds.add((int) entry[0]);
+        }
+        return new ArrayList<>(rounds);
+    }
+
+    /**
+     * All records of one round, oldest first; empty if the round was not recorded
+     */
+    public static List<ReplayEvent> readRound(File dir, String gameId, int round) throws IOException {
+        File dataFile = dataFile(dir, gameId);
+        List<long[]> index = readIndex(indexFile(dir, gameId));
+        if (index.isEmpty() || !dataFile.isFile()) {
+            return Collections.emptyList();
+        }
+
+        List<ReplayEvent> events = new ArrayList<>();
+        try (RandomAccessFile file = new RandomAccessFile(dataFile, "r");
+             FileChannel channel = file.getChannel()) {
+            long size = channel.size();
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            if (!hasHeader(buffer)) {
+                throw new IOException("Not a replay log: " + dataFile);
+            }
+
+            for (int i = 0; i < index.size(); i++) {
+                if (index.get(i)[0] != round) {
+                    continue;
+                }
+                long start = index.get(i)[1];
+                long end = i + 1 < index.size() ? index.get(i + 1)[1] : size;
+                if (start < HEADER_SIZE || start >= size) {
+                    continue;
+                }
+                buffer.limit((int) Math.min(end, size));
+                buffer.position((int) start);
+                while (buffer.hasRemaining()) {
+                    ReplayEvent event = readRecord(buffer);
+                    if (event == null) {
+                        break;
+                    }
+                    if (event.getRound() == round) {
+                        events.add(event);
+                    }
+                }
+                buffer.limit((int) size);
+            }
+        }
+        return events;
+    }
+
+    /**
+     * Delete a game's log
+     *
+     * @return the number of bytes freed
+     */
+    public static long delete(File dir, String gameId) {
+        long freed = 0;
+        for (File file : new File[]{dataFile(dir, gameId), indexFile(dir, gameId)}) {
+            long length = file.length();
+            if (file.delete()) {
+                freed += length;
+            }
+        }
+        return freed;
+    }
+
+    /**
+     * Delete the logs of games that are not in the given set and were last written before a
+     * given time
+     *
+     * @return the number of files deleted
+     */
+    public static int deleteOrphans(File dir, Set<String> keepGameIds, long modifiedBefore) {
+        File[] files = dir.listFiles();
+        if (files == null) {
+            return 0;
+        }
+        Set<String> keepNames = new HashSet<>();
+        for (String gameId : keepGameIds) {
+            keepNames.add(fileName(gameId));
+        }
+
+        int deleted = 0;
+        for (File file : files) {
+            String name = file.getName();
+            int suffixStart = name.lastIndexOf('.');
+            if (suffixStart < 0) {
+                continue;
+            }
+            String suffix = name.substring(suffixStart);
+            if (!DATA_SUFFIX.equals(suffix) && !INDEX_SUFFIX.equals(suffix)) {
+                continue;
+            }
+            if (!keepNames.contains(name.substring(0, suffixStart))
+                    && file.lastModified() < modifiedBefore && file.delete()) {
+                deleted++;
+            }
+        }
+        return deleted;
+    }
+
+    static File dataFile(File dir, String gameId) {
+        return new File(dir, fileName(gameId) + DATA_SUFFIX);
+    }
+
+    static File indexFile(File dir, String gameId) {
+        return new File(dir, fileName(gameId) + INDEX_SUFFIX);
+    }
+
+    // Game IDs come from the server; keep them from naming anything outside the directory
+    private static String fileName(String gameId) {
+        return gameId.replaceAll("[^A-Za-z0-9_-]", "_");
+    }
+
+    /**
+     * Write the header of a new log, or cut an existing one back to its last complete record
+     * and drop index entries past that point
+     *
+     * @return length of the data file
+     */
+    private static long repair(File dataFile, File indexFile) throws IOException {
+        try (RandomAccessFile file = new RandomAccessFile(dataFile, "rw");
+             FileChannel channel = file.getChannel()) {
+            long size = channel.size();
+            if (size == 0) {
+                file.write(new byte[]{MAGIC, VERSION});
+                indexFile.delete();
+                return HEADER_SIZE;
+            }
+
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            if (!hasHeader(buffer)) {
+                throw new IOException("Not a replay log: " + dataFile);
+            }
+            buffer.position(HEADER_SIZE);
+            long valid = HEADER_SIZE;
+            while (buffer.hasRemaining() && readRecord(buffer) != null) {
+                valid = buffer.position();
+            }
+            if (valid < size) {
+                channel.truncate(valid);
+            }
+
+            List<long[]> index = readIndex(indexFile);
+            int keep = 0;
+            while (keep < index.size() && index.get(keep)[1] < valid) {
+                keep++;
+            }
+            if (keep < index.size() || indexFile.length() % INDEX_ENTRY_SIZE != 0) {
+                try (RandomAccessFile indexRaf = new RandomAccessFile(indexFile, "rw")) {
+                    indexRaf.setLength((long) keep * INDEX_ENTRY_SIZE);
+                }
+            }
+            return valid;
+        }
+    }
+
+    private static boolean hasHeader(ByteBuffer buffer) {
+        return buffer.limit() >= HEADER_SIZE && buffer.get(0) == MAGIC && buffer.get(1) == VERSION;
+    }
+
+    // Index entries as {round, offset}; a torn last entry is ignored
+    private static List<long[]> readIndex(File indexFile) throws IOException {
+        if (!indexFile.isFile()) {
+            return Collections.emptyList();
+        }
+        try (RandomAccessFile file = new RandomAccessFile(indexFile, "r")) {
+            int count = (int) (file.length() / INDEX_ENTRY_SIZE);
+            byte[] bytes = new byte[count * INDEX_ENTRY_SIZE];
+            file.readFully(bytes);
+
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            List<long[]> entries = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                entries.add(new long[]{buffer.getInt(), buffer.getLong()});
+            }
+            return entries;
+        }
+    }
+
+    /**
+     * Read the record at the buffer's position
+     *
+     * @return the record, or null if it is truncated or malformed
+     */
+    private static ReplayEvent readRecord(ByteBuffer buffer) {
+        try {
+            int typeOrdinal = buffer.get() & 0xFF;
+            if (typeOrdinal >= TYPES.length) {
+                return null;
+            }
+            ReplayEvent.Type type = TYPES[typeOrdinal];
+            int round = (int) readVarint(buffer);
+            long timestamp = readVarint(buffer);
+            int payloadLength = (int) readVarint(buffer);
+            if (payloadLength < 0 || payloadLength > buffer.remaining()) {
+                return null;
+            }
+            int payloadEnd = buffer.position() + payloadLength;
+
+            ReplayEvent event;
+            switch (type) {
+                case STROKE: {
+                    byte[] payload = new byte[payloadLength];
+                    buffer.get(payload);
+                    List<DrawingPath> paths = DrawingPathCodec.decode(payload);
+                    if (paths.isEmpty()) {
+                        return null;
+                    }
+                    event = ReplayEvent.stroke(round, timestamp, paths.get(0));
+                    break;
+                }
+                case GUESS: {
+                    String player = readString(buffer);
+                    String text = readString(buffer);
+                    boolean correct = buffer.get() != 0;
+                    event = ReplayEvent.guess(round, timestamp, player, text, correct);
+                    break;
+                }
+                case ROUND_START: {
+                    String drawer = readString(buffer);
+                    String word = readString(buffer);
+                    event = ReplayEvent.roundStart(round, timestamp, drawer, word);
+                    break;
+                }
+                case CLEAR:
+                    event = ReplayEvent.clear(round, timestamp);
+                    break;
+                default:
+                    event = ReplayEvent.roundEnd(round, timestamp);
+                    break;
+            }
+            if (buffer.position() != payloadEnd) {
+                return null;
+            }
+            return event;
+        } catch (BufferUnderflowException | IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static long readVarint(ByteBuffer buffer) {
+        long result = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = buffer.get() & 0xFF;
+            result |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return result;
+            }
+        }
+        throw new IllegalArgumentException("Malformed varint in replay log");
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int length = (int) readVarint(buffer);
+        if (length < 0 || length > buffer.remaining()) {
+            throw new IllegalArgumentException("Truncated string in replay log");
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeVarint(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static void writeString(ByteArrayOutputStream out, String value) {
+        byte[] bytes = (value != null ? value : "").getBytes(StandardCharsets.UTF_8);
+        writeVarint(out, bytes.length);
+        out.write(bytes, 0, bytes.length);
+    }
+
+    /**
+     * Appends records to one game's log. Not thread-safe.
+     */
+    public static final class Writer implements Closeable {
+        private final FileOutputStream data;
+        private final FileOutputStream index;
+        private long length;
+        private int indexedRound = -1;
+
+        private Writer(File dataFile, File indexFile, long length) throws IOException {
+            this.data = new FileOutputStream(dataFile, true);
+            this.index = new FileOutputStream(indexFile, true);
+            this.length = length;
+        }
+
+        /**
+         * Append one record; each record reaches the file in a single write
+         */
+        public void append(ReplayEvent event) throws IOException {
+            ByteArrayOutputStream payload = new ByteArrayOutputStream();
+            switch (event.getType()) {
+                case STROKE: {
+                    byte[] path = DrawingPathCodec.encode(Collections.singletonList(event.getPath()));
+                    payload.write(path, 0, path.length);
+                    break;
+                }
+                case GUESS:
+                    writeString(payload, event.getPlayer());
+                    writeString(payload, event.getText());
+                    payload.write(event.isCorrect() ? 1 : 0);
+                    break;
+                case ROUND_START:
+                    writeString(payload, event.getPlayer());
+                    writeString(payload, event.getText());
+                    break;
+                default:
+                    break;
+            }
+
+            ByteArrayOutputStream record = new ByteArrayOutputStream(payload.size() + 16);
+            record.write(event.getType().ordinal());
+            writeVarint(record, event.getRound());
+            writeVarint(record, event.getTimestamp());
+            writeVarint(record, payload.size());
+            payload.writeTo(record);
+
+            if (event.getRound() != indexedRound) {
+                ByteBuffer entry = ByteBuffer.allocate(INDEX_ENTRY_SIZE);
+                entry.putInt(event.getRound()).putLong(length);
+                index.write(entry.array());
+                indexedRound = event.getRound();
+            }
+            data.write(record.toByteArray());
+            length += record.size();
+        }
+
+        public long length() {
+            return length;
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                data.close();
+            } finally {
+                index.close();
+            }
+        }
+    }
+}
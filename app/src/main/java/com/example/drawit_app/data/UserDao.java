@@ -44,4 +44,16 @@ public interface UserDao {
     
     @Query("UPDATE users SET totalGamesPlayed = totalGamesPlayed + 1 WHERE userId = :userId")
     void incrementGamesPlayed(String userId);
+    
+    /**
+     * Drop cached users that no stored drawing, lobby or game refers to, keeping the signed-in
+     * user. Reads every user row, so it is meant for storage maintenance, not for hot paths.
+     * @return number of users deleted
+     */
+    @Query("DELETE FROM users WHERE userId != :keepUserId "
+            + "AND userId NOT IN (SELECT userId FROM drawings WHERE userId IS NOT NULL) "
+            + "AND userId NOT IN (SELECT hostId FROM lobbies WHERE hostId IS NOT NULL) "
+            + "AND userId NOT IN (SELECT hostId FROM games WHERE hostId IS NOT NULL) "
+            + "AND userId NOT IN (SELECT currentDrawerId FROM games WHERE currentDrawerId IS NOT NULL)")
+    int deleteUnreferencedUsers(String keepUserId);
 }
@@ -6,6 +6,7 @@ import com.example.drawit_app.data.DrawItDatabase;
 import com.example.drawit_app.data.DrawingDao;
 import com.example.drawit_app.data.GameDao;
 import com.example.drawit_app.data.LobbyDao;
+import com.example.drawit_app.data.OutboundActionDao;
 import com.example.drawit_app.data.UserDao;
 
 import javax.inject.Singleton;
@@ -52,4 +53,10 @@ public class DatabaseModule {
     public DrawingDao provideDrawingDao(DrawItDatabase database) {
         return database.drawingDao();
     }
+    
+    @Provides
+    @Singleton
+    public OutboundActionDao provideOutboundActionDao(DrawItDatabase database) {
+        return database.outboundActionDao();
+    }
 }
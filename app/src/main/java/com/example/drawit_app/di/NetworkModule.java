@@ -1,10 +1,17 @@
 package com.example.drawit_app.di;
 
+import android.content.Context;
+
+import com.example.drawit_app.BuildConfig;
 import com.example.drawit_app.api.ApiService;
+import com.example.drawit_app.api.NetworkResourceMetrics;
 import com.example.drawit_app.api.WebSocketService;
+import com.example.drawit_app.api.auth.AuthInterceptor;
+import com.example.drawit_app.api.auth.TokenAuthenticator;
+import com.example.drawit_app.util.AppExecutors;
 import com.squareup.moshi.Moshi;
 
-import java.util.concurrent.Executors;
+import java.io.File;
 import java.util.concurrent.TimeUnit;
 
 import javax.inject.Singleton;
@@ -12,7 +19,12 @@ import javax.inject.Singleton;
 import dagger.Module;
 import dagger.Provides;
 import dagger.hilt.InstallIn;
+import dagger.hilt.android.qualifiers.ApplicationContext;
 import dagger.hilt.components.SingletonComponent;
+import okhttp3.Authenticator;
+import okhttp3.Cache;
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
 import okhttp3.OkHttpClient;
 import okhttp3.Request;
 import okhttp3.logging.HttpLoggingInterceptor;
@@ -29,22 +41,85 @@ public class NetworkModule {
     // WebSocket URL (for real-time communication)
     private static final String WS_URL = "ws://145.223.99.251:8080/ws";
     
-    private static final int THREADS = 3;
+    // One dispatcher and connection pool for REST and the WebSocket: keep-alive connections
+    // opened by either are reused, and there is a single set of OkHttp threads
+    private static final int MAX_IDLE_CONNECTIONS = 5;
+    private static final long CONNECTION_KEEP_ALIVE_MINUTES = 5;
+
+    // The WebSocket has no read timeout; pings detect a dead connection instead
+    private static final long WS_PING_INTERVAL_SECONDS = 20;
+    private static final long WS_CONNECT_TIMEOUT_SECONDS = 10;
+    private static final long WS_WRITE_TIMEOUT_SECONDS = 10;
+
+    // Opt in to compressing large WebSocket frames (drawing updates, full game states)
+    private static final boolean WS_COMPRESSION_ENABLED = true;
+
+    // On-disk HTTP cache; GET responses carry ETags and are revalidated with If-None-Match
+    private static final String HTTP_CACHE_DIR = "http_cache";
+    private static final long HTTP_CACHE_SIZE_BYTES = 10L * 1024 * 1024;
 
     @Provides
     @Singleton
-    public static OkHttpClient provideOkHttpClient() {
-        HttpLoggingInterceptor loggingInterceptor = new HttpLoggingInterceptor(message -> {
-            android.util.Log.d("OkHttp", message);
-        });
-        loggingInterceptor.setLevel(HttpLoggingInterceptor.Level.BODY);
-        
-        return new OkHttpClient.Builder()
-                .addInterceptor(loggingInterceptor)
+    public static Dispatcher provideDispatcher() {
+        return new Dispatcher();
+    }
+
+    @Provides
+    @Singleton
+    public static ConnectionPool provideConnectionPool() {
+        return new ConnectionPool(MAX_IDLE_CONNECTIONS, CONNECTION_KEEP_ALIVE_MINUTES, TimeUnit.MINUTES);
+    }
+
+    /**
+     * The REST client, and the core every other client is derived from with newBuilder()
+     * so they all share its dispatcher and connection pool
+     */
+    @Provides
+    @Singleton
+    public static OkHttpClient provideOkHttpClient(@ApplicationContext Context context,
+                                                   Dispatcher dispatcher,
+                                                   ConnectionPool connectionPool,
+                                                   AppExecutors appExecutors,
+                                                   AuthInterceptor authInterceptor,
+                                                   TokenAuthenticator tokenAuthenticator) {
+        OkHttpClient.Builder builder = new OkHttpClient.Builder()
+                .dispatcher(dispatcher)
+                .connectionPool(connectionPool)
+                .eventListenerFactory(new NetworkResourceMetrics("rest", dispatcher, connectionPool,
+                        appExecutors.networkIOPool()))
+                .cache(new Cache(new File(context.getCacheDir(), HTTP_CACHE_DIR), HTTP_CACHE_SIZE_BYTES))
+                // Current token on every request; one refresh-and-replay when it has expired
+                .addInterceptor(authInterceptor)
+                .authenticator(tokenAuthenticator)
+                // Ensure requests with a body have the correct Content-Type header
+                .addInterceptor(chain -> {
+                    Request original = chain.request();
+                    
+                    // Only add the header for POST, PUT requests which likely have a body
+                    if (original.method().equals("POST") || original.method().equals("PUT")) {
+                        Request request = original.newBuilder()
+                                .header("Content-Type", "application/json")
+                                .method(original.method(), original.body())
+                                .build();
+                        return chain.proceed(request);
+                    }
+                    
+                    return chain.proceed(original);
+                })
                 .connectTimeout(60, TimeUnit.SECONDS)
                 .readTimeout(60, TimeUnit.SECONDS)
-                .writeTimeout(60, TimeUnit.SECONDS)
-                .build();
+                .writeTimeout(60, TimeUnit.SECONDS);
+
+        // Body logging buffers every response in memory, so only debug builds get it
+        if (BuildConfig.DEBUG) {
+            HttpLoggingInterceptor loggingInterceptor = new HttpLoggingInterceptor(message -> {
+                android.util.Log.d("OkHttp", message);
+            });
+            loggingInterceptor.setLevel(HttpLoggingInterceptor.Level.BODY);
+            builder.addInterceptor(loggingInterceptor);
+        }
+
+        return builder.build();
     }
 
     @Provides
@@ -113,31 +188,13 @@ public class NetworkModule {
 
     @Provides
     @Singleton
-    public static Retrofit provideRetrofit(OkHttpClient okHttpClient, Moshi moshi) {
-        
-        // Add an interceptor to ensure all requests have the correct Content-Type header
-        OkHttpClient clientWithHeaders = okHttpClient.newBuilder()
-                .addInterceptor(chain -> {
-                    Request original = chain.request();
-                    
-                    // Only add the header for POST, PUT requests which likely have a body
-                    if (original.method().equals("POST") || original.method().equals("PUT")) {
-                        Request request = original.newBuilder()
-                                .header("Content-Type", "application/json")
-                                .method(original.method(), original.body())
-                                .build();
-                        return chain.proceed(request);
-                    }
-                    
-                    return chain.proceed(original);
-                })
-                .build();
-                
+    public static Retrofit provideRetrofit(OkHttpClient okHttpClient, Moshi moshi, AppExecutors appExecutors) {
         return new Retrofit.Builder()
                 .baseUrl(BASE_URL)
-                .client(clientWithHeaders)
+                .client(okHttpClient)
                 .addConverterFactory(MoshiConverterFactory.create(moshi))
-                .callbackExecutor(Executors.newFixedThreadPool(THREADS))
+                // Bounded, shared pool instead of a dedicated one per Retrofit instance
+                .callbackExecutor(appExecutors.networkIO())
                 .build();
     }
 
@@ -157,12 +214,32 @@ public class NetworkModule {
      * Provides a WebSocketService instance without LobbyRepository to break circular dependency
      * LobbyRepository will be injected later via setter
      * 
-     * @param client The OkHttpClient for network requests
+     * @param client The shared core OkHttpClient; the WebSocket derives its own settings from it
+     * @param context Application context used to watch connectivity for reconnect scheduling
      */
     @Provides
     @Singleton
-    public static WebSocketService provideWebSocketService(OkHttpClient client) {
-        return new WebSocketService(WS_URL, null, null);
+    public static WebSocketService provideWebSocketService(OkHttpClient client,
+                                                           @ApplicationContext Context context) {
+        // Same dispatcher and pool, but none of the REST-only cache, auth and logging layers:
+        // the socket sends its own Authorization header and reconnects on failure. Its handshakes
+        // are recorded under "ws" so they don't skew the REST call metrics; frames are handed to
+        // the event bus rather than a callback pool, so there is no callback executor to watch
+        OkHttpClient.Builder wsBuilder = client.newBuilder()
+                .eventListenerFactory(new NetworkResourceMetrics("ws", client.dispatcher(),
+                        client.connectionPool(), null))
+                .cache(null)
+                .authenticator(Authenticator.NONE)
+                .pingInterval(WS_PING_INTERVAL_SECONDS, TimeUnit.SECONDS)
+                .connectTimeout(WS_CONNECT_TIMEOUT_SECONDS, TimeUnit.SECONDS)
+                .readTimeout(0, TimeUnit.SECONDS)
+                .writeTimeout(WS_WRITE_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        wsBuilder.interceptors().clear();
+
+        WebSocketService webSocketService = new WebSocketService(wsBuilder.build(), WS_URL, null, null,
+                WS_COMPRESSION_ENABLED);
+        webSocketService.enableNetworkAwareReconnect(context);
+        return webSocketService;
     }
     
 
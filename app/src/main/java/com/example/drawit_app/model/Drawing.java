@@ -3,6 +3,7 @@ package com.example.drawit_app.model;
 import androidx.annotation.NonNull;
 import androidx.room.Entity;
 import androidx.room.Ignore;
+import androidx.room.Index;
 import androidx.room.PrimaryKey;
 import androidx.room.TypeConverters;
 
@@ -15,7 +16,16 @@ import java.util.List;
 /**
  * Represents a drawing created by a player in a game round.
  */
-@Entity(tableName = "drawings")
+@Entity(tableName = "drawings",
+        indices = {
+                // Archive pages and the full list, newest first
+                @Index(value = {"timestamp", "drawingId"}),
+                // A user's drawings by date (with the archive's keyset tie-break) and by rating
+                @Index(value = {"userId", "timestamp", "drawingId"}),
+                @Index(value = {"userId", "averageRating"}),
+                // Drawings of one round; the gameId prefix also serves deletes by game
+                @Index(value = {"gameId", "roundNumber"})
+        })
 @TypeConverters(DrawingPathsConverter.class)
 public class Drawing {
     
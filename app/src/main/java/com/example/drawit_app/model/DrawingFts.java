@@ -0,0 +1,24 @@
+package com.example.drawit_app.model;
+
+import androidx.room.Entity;
+import androidx.room.Fts4;
+
+/**
+ * Full-text index over {@link Drawing} words.
+ * External-content FTS4 table: Room keeps it in sync with the drawings table through triggers,
+ * and its docid is the rowid of the matching drawing.
+ */
+@Fts4(contentEntity = Drawing.class)
+@Entity(tableName = "drawings_fts")
+public class DrawingFts {
+
+    private String word;
+
+    public String getWord() {
+        return word;
+    }
+
+    public void setWord(String word) {
+        this.word = word;
+    }
+}
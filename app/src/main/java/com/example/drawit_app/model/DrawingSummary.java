@@ -0,0 +1,131 @@
+package com.example.drawit_app.model;
+
+import androidx.annotation.NonNull;
+
+import java.util.Date;
+
+/**
+ * Row projection of {@link Drawing} without the stroke data, for lists and grids.
+ * Paths are loaded separately, and only for the drawings that are actually rendered.
+ */
+public class DrawingSummary {
+
+    @NonNull
+    private String drawingId = "";
+
+    private String userId;
+    private String gameId;
+    private int roundNumber;
+    private String word;
+    private Date timestamp;
+    private float averageRating;
+    private int ratingCount;
+    private int userRating;
+
+    // Transient fields not stored in database
+    private transient User artist;
+
+    @NonNull
+    public String getDrawingId() {
+        return drawingId;
+    }
+
+    public void setDrawingId(@NonNull String drawingId) {
+        this.drawingId = drawingId;
+    }
+
+    public String getUserId() {
+        return userId;
+    }
+
+    public void setUserId(String userId) {
+        this.userId = userId;
+    }
+
+    public String getGameId() {
+        return gameId;
+    }
+
+    public void setGameId(String gameId) {
+        this.gameId = gameId;
+    }
+
+    public int getRoundNumber() {
+        return roundNumber;
+    }
+
+    public void setRoundNumber(int roundNumber) {
+        this.roundNumber = roundNumber;
+    }
+
+    public String getWord() {
+        return word;
+    }
+
+    public void setWord(String word) {
+        this.word = word;
+    }
+
+    public Date getTimestamp() {
+        return timestamp;
+    }
+
+    public void setTimestamp(Date timestamp) {
+        this.timestamp = timestamp;
+    }
+
+    public float getAverageRating() {
+        return averageRating;
+    }
+
+    public void setAverageRating(float averageRating) {
+        this.averageRating = averageRating;
+    }
+
+    public int getRatingCount() {
+        return ratingCount;
+    }
+
+    public void setRatingCount(int ratingCount) {
+        this.ratingCount = ratingCount;
+    }
+
+    public int getUserRating() {
+        return userRating;
+    }
+
+    public void setUserRating(int userRating) {
+        this.userRating = userRating;
+    }
+
+    /**
+     * Get the user who created this drawing
+     * @return User object of the artist, a placeholder if it has not been set
+     */
+    public User getArtist() {
+        if (artist == null) {
+            artist = new User();
+            artist.setUserId(userId);
+            artist.setUsername("Artist " + userId);
+        }
+        return artist;
+    }
+
+    public void setArtist(User artist) {
+        this.artist = artist;
+    }
+
+    /**
+     * Get the creation date of the drawing
+     */
+    public Date getCreatedAt() {
+        return timestamp;
+    }
+
+    /**
+     * Get the unique ID of this drawing
+     */
+    public String getId() {
+        return drawingId;
+    }
+}
@@ -3,6 +3,7 @@ package com.example.drawit_app.model;
 import androidx.annotation.NonNull;
 import androidx.room.Entity;
 import androidx.room.Ignore;
+import androidx.room.Index;
 import androidx.room.PrimaryKey;
 import androidx.room.TypeConverters;
 
@@ -18,7 +19,13 @@ import java.util.Map;
 /**
  * Represents a complete game session with all rounds and player scores.
  */
-@Entity(tableName = "games")
+@Entity(tableName = "games",
+        indices = {
+                @Index(value = "lobbyId"),
+                // Newest-first walk for the game list and the active game; gameState is
+                // included so the != 'FINISHED' filter is checked without reading the row
+                @Index(value = {"startTime", "gameState"})
+        })
 @TypeConverters({GameStateConverter.class, PlayerScoreConverter.class})
 public class Game {
     
@@ -55,6 +62,7 @@ public class Game {
     
     // Timer-related fields
     private transient int remainingTime; // Seconds remaining in current round
+    private transient long roundEndsAt; // Server epoch millis when the current round ends, 0 if unknown
     
     // Transient field for current drawer (not saved in database)
     private transient User currentDrawer;
@@ -198,6 +206,18 @@ public class Game {
         this.remainingTime = remainingTime;
     }
     
+    /**
+     * Get the server time at which the current round ends
+     * @return Epoch millis on the server clock, or 0 if the server did not send it
+     */
+    public long getRoundEndsAt() {
+        return roundEndsAt;
+    }
+    
+    public void setRoundEndsAt(long roundEndsAt) {
+        this.roundEndsAt = roundEndsAt;
+    }
+    
     public String getCurrentWord() {
         return currentWord;
     }
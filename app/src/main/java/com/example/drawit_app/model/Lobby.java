@@ -5,6 +5,7 @@ import androidx.annotation.Nullable;
 import androidx.room.ColumnInfo;
 import androidx.room.Entity;
 import androidx.room.Ignore;
+import androidx.room.Index;
 import androidx.room.PrimaryKey;
 
 import android.util.Log;
@@ -16,7 +17,8 @@ import java.util.List;
 /**
  * Represents a game lobby where players gather before starting a game.
  */
-@Entity(tableName = "lobbies")
+@Entity(tableName = "lobbies",
+        indices = {@Index(value = "inGame"), @Index(value = "hostId")})
 public class Lobby {
 
     @NonNull
@@ -64,6 +66,11 @@ public class Lobby {
     @Ignore
     @Json(name = "hostUser")
     private User hostUser;
+
+    // Server-assigned version, bumped whenever the lobby changes; 0 when unknown
+    @Ignore
+    @Json(name = "version")
+    private long version;
     
     public Lobby() {
         this.players = new ArrayList<>(); // Initialize to prevent null pointer exceptions
@@ -272,6 +279,62 @@ public class Lobby {
             Log.d("Lobby", "Lobby " + lobbyId + " game ended, lobby unlocked");
         }
     }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
+    /**
+     * Whether another copy of this lobby would render the same. Uses the server version when
+     * both copies have one, otherwise compares the visible fields and player IDs.
+     */
+    public boolean hasSameContent(Lobby other) {
+        if (other == this) {
+            return true;
+        }
+        if (other == null) {
+            return false;
+        }
+        if (version > 0 && other.version > 0) {
+            return version == other.version;
+        }
+        if (!hasSameColumns(other)) {
+            return false;
+        }
+        List<User> mine = getPlayers();
+        List<User> theirs = other.getPlayers();
+        if (mine.size() != theirs.size()) {
+            return false;
+        }
+        for (int i = 0; i < mine.size(); i++) {
+            User a = mine.get(i);
+            User b = theirs.get(i);
+            if (!java.util.Objects.equals(a != null ? a.getUserId() : null, b != null ? b.getUserId() : null)) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * Whether another copy of this lobby has the same values in every stored column.
+     * Players, host details and version are not stored, so they are not compared.
+     */
+    public boolean hasSameColumns(Lobby other) {
+        return other != null
+                && java.util.Objects.equals(lobbyId, other.lobbyId)
+                && java.util.Objects.equals(lobbyName, other.lobbyName)
+                && java.util.Objects.equals(hostId, other.hostId)
+                && maxPlayers == other.maxPlayers
+                && isLocked == other.isLocked
+                && inGame == other.inGame
+                && numRounds == other.numRounds
+                && roundDurationSeconds == other.roundDurationSeconds;
+    }
     
     public void addPlayer(User player) {
         // Check if lobby is already in game or at max capacity
@@ -0,0 +1,93 @@
+package com.example.drawit_app.model;
+
+import androidx.annotation.NonNull;
+import androidx.room.Entity;
+import androidx.room.Ignore;
+import androidx.room.Index;
+import androidx.room.PrimaryKey;
+
+/**
+ * A player action (drawing submission or rating) waiting to be delivered to the server.
+ * Rows are only ever appended and deleted once the server acknowledges their key, so the
+ * auto-increment ID gives the order the player made them in.
+ */
+@Entity(tableName = "outbound_actions",
+        indices = {@Index(value = "actionKey", unique = true)})
+public class OutboundAction {
+
+    @PrimaryKey(autoGenerate = true)
+    private long id;
+
+    // Client-generated idempotency key; the server acknowledges and deduplicates by it
+    @NonNull
+    private String actionKey = "";
+
+    private String gameId;
+    private String type;
+
+    // Complete JSON frame for the action, including the actionKey
+    private String payload;
+
+    private long createdAt;
+
+    public OutboundAction() {
+    }
+
+    @Ignore
+    public OutboundAction(@NonNull String actionKey, String gameId, String type, String payload, long createdAt) {
+        this.actionKey = actionKey;
+        this.gameId = gameId;
+        this.type = type;
+        this.payload = payload;
+        this.createdAt = createdAt;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public void setId(long id) {
+        this.id = id;
+    }
+
+    @NonNull
+    public String getActionKey() {
+        return actionKey;
+    }
+
+    public void setActionKey(@NonNull String actionKey) {
+        this.actionKey = actionKey;
+    }
+
+    public String getGameId() {
+        return gameId;
+    }
+
+    public void setGameId(String gameId) {
+        this.gameId = gameId;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public String getPayload() {
+        return payload;
+    }
+
+    public void setPayload(String payload) {
+        this.payload = payload;
+    }
+
+    public long getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(long createdAt) {
+        this.createdAt = createdAt;
+    }
+}
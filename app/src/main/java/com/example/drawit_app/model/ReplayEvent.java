@@ -0,0 +1,87 @@
+package com.example.drawit_app.model;
+
+/**
+ * One timestamped entry of a game's round replay log: a finished stroke, a cleared canvas,
+ * a chat guess, or a round boundary.
+ */
+public class ReplayEvent {
+
+    public enum Type {
+        ROUND_START,
+        STROKE,
+        CLEAR,
+        GUESS,
+        ROUND_END
+    }
+
+    private final Type type;
+    private final int round;
+    private final long timestamp;
+    // STROKE only
+    private final Drawing.DrawingPath path;
+    // GUESS: guessing player; ROUND_START: drawer
+    private final String player;
+    // GUESS: guess text; ROUND_START: word
+    private final String text;
+    // GUESS only
+    private final boolean correct;
+
+    public ReplayEvent(Type type, int round, long timestamp, Drawing.DrawingPath path,
+                       String player, String text, boolean correct) {
+        this.type = type;
+        this.round = round;
+        this.timestamp = timestamp;
+        this.path = path;
+        this.player = player;
+        this.text = text;
+        this.correct = correct;
+    }
+
+    public static ReplayEvent roundStart(int round, long timestamp, String drawer, String word) {
+        return new ReplayEvent(Type.ROUND_START, round, timestamp, null, drawer, word, false);
+    }
+
+    public static ReplayEvent stroke(int round, long timestamp, Drawing.DrawingPath path) {
+        return new ReplayEvent(Type.STROKE, round, timestamp, path, null, null, false);
+    }
+
+    public static ReplayEvent clear(int round, long timestamp) {
+        return new ReplayEvent(Type.CLEAR, round, timestamp, null, null, null, false);
+    }
+
+    public static ReplayEvent guess(int round, long timestamp, String player, String text, boolean correct) {
+        return new ReplayEvent(Type.GUESS, round, timestamp, null, player, text, correct);
+    }
+
+    public static ReplayEvent roundEnd(int round, long timestamp) {
+        return new ReplayEvent(Type.ROUND_END, round, timestamp, null, null, null, false);
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public int getRound() {
+        return round;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public Drawing.DrawingPath getPath() {
+        return path;
+    }
+
+    public String getPlayer() {
+        return player;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    public boolean isCorrect() {
+        return correct;
+    }
+}
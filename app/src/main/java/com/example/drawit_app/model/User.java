@@ -3,13 +3,15 @@ package com.example.drawit_app.model;
 import androidx.annotation.NonNull;
 import androidx.room.Entity;
 import androidx.room.Ignore;
+import androidx.room.Index;
 import androidx.room.PrimaryKey;
 
 /**
  * User entity representing a player in the DrawIt game.
  * Stores authentication and profile information.
  */
-@Entity(tableName = "users")
+@Entity(tableName = "users",
+        indices = {@Index(value = "username")})
 public class User {
     
     @PrimaryKey
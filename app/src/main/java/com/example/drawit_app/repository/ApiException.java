@@ -0,0 +1,28 @@
+package com.example.drawit_app.repository;
+
+/**
+ * Failure of a repository call: an error reported by the server, an HTTP error status or a
+ * network problem. The message is suitable for showing to the user.
+ */
+public class ApiException extends Exception {
+    // HTTP status code, or -1 if the request never got a response
+    private final int code;
+
+    public ApiException(String message) {
+        this(message, -1);
+    }
+
+    public ApiException(String message, int code) {
+        super(message);
+        this.code = code;
+    }
+
+    public ApiException(String message, Throwable cause) {
+        super(message, cause);
+        this.code = -1;
+    }
+
+    public int getCode() {
+        return code;
+    }
+}
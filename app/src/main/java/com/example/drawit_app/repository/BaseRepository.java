@@ -4,8 +4,18 @@ import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
 
 import com.example.drawit_app.api.response.ApiResponse;
-import com.example.drawit_app.api.response.LobbyListResponse;
+import com.example.drawit_app.util.PerformanceMetrics;
+import com.example.drawit_app.util.ResourceFutures;
 
+import org.json.JSONObject;
+
+import java.net.HttpURLConnection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.CacheControl;
 import retrofit2.Call;
 import retrofit2.Callback;
 import retrofit2.Response;
@@ -17,6 +27,32 @@ public abstract class BaseRepository {
     
     protected final MutableLiveData<String> errorMessage = new MutableLiveData<>();
     
+    // How long a failed lookup is answered from memory before the network is tried again
+    private static final long NEGATIVE_CACHE_TTL_MS = 5000;
+    // How long a stored copy is trusted before it is checked with the server again
+    private static final long REVALIDATE_TTL_MS = 60_000;
+    
+    // Response cache read for stale-while-revalidate: never touches the network and accepts
+    // responses of any age; OkHttp answers 504 when nothing is cached
+    private static final CacheControl CACHED_ANY_AGE = new CacheControl.Builder()
+            .onlyIfCached()
+            .maxStale(Integer.MAX_VALUE, TimeUnit.SECONDS)
+            .build();
+    
+    // Lookups currently on the network, keyed by request key; guarded by itself
+    private final Map<String, SharedResult<?>> inFlight = new HashMap<>();
+    // Recently failed lookups, guarded by inFlight
+    private final Map<String, FailedLookup> recentFailures = new HashMap<>();
+    // When each key was last revalidated, guarded by inFlight
+    private final Map<String, Long> lastRevalidated = new HashMap<>();
+    
+    /**
+     * Performs a lookup and settles the given result with success or error
+     */
+    protected interface Loader<T> {
+        void load(MutableLiveData<Resource<T>> result);
+    }
+    
     /**
      * Sets an error message to be displayed to the user
      * @param message The error message
@@ -33,122 +69,308 @@ public abstract class BaseRepository {
         return errorMessage;
     }
     
-    protected <T> LiveData<Resource<T>> callApi(Call<ApiResponse<T>> call) {
-        return callApi(call, false); // Default: not a retry
+    /**
+     * Run a lookup at most once at a time per key. Callers asking for a key that is already
+     * being loaded get the same LiveData instead of starting another network call, and a key
+     * that failed within the last few seconds is answered with that error straight away.
+     *
+     * @param key identifies the lookup, e.g. "user:" + userId
+     * @param loader starts the lookup; only invoked when nothing is in flight for the key
+     * @return LiveData shared by every caller of the same in-flight lookup
+     */
+    @SuppressWarnings("unchecked")
+    protected <T> LiveData<Resource<T>> singleFlight(String key, Loader<T> loader) {
+        SharedResult<T> shared;
+        synchronized (inFlight) {
+            FailedLookup failure = recentFailures.get(key);
+            if (failure != null) {
+                if (!failure.isExpired()) {
+                    PerformanceMetrics.increment("repo.singleflight.negative_hits");
+                    return new MutableLiveData<>(Resource.error(failure.message, null));
+                }
+                recentFailures.remove(key);
+            }
+            
+            SharedResult<?> pending = inFlight.get(key);
+            if (pending != null) {
+                PerformanceMetrics.increment("repo.singleflight.coalesced");
+                android.util.Log.d("BaseRepository", "Joining in-flight lookup " + key);
+                return (LiveData<Resource<T>>) pending;
+            }
+            
+            shared = new SharedResult<>(key);
+            inFlight.put(key, shared);
+        }
+        
+        PerformanceMetrics.increment("repo.singleflight.started");
+        loader.load(shared);
+        return shared;
     }
     
     /**
-     * Extended callApi method that supports token refresh and retry
+     * Whether a stored copy should be checked with the server now. Returns true at most once per
+     * key within {@link #REVALIDATE_TTL_MS}, so screens that look the same item up repeatedly
+     * are answered from the database in between.
+     *
+     * @param key identifies the item, e.g. "user:" + userId
+     */
+    protected boolean isRevalidationDue(String key) {
+        long now = System.currentTimeMillis();
+        synchronized (inFlight) {
+            Long last = lastRevalidated.get(key);
+            if (last != null && now - last < REVALIDATE_TTL_MS) {
+                PerformanceMetrics.increment("http.swr.throttled");
+                return false;
+            }
+            lastRevalidated.put(key, now);
+            return true;
+        }
+    }
+    
+    private void onLookupSettled(String key, SharedResult<?> shared, Resource<?> outcome) {
+        synchronized (inFlight) {
+            if (inFlight.get(key) == shared) {
+                inFlight.remove(key);
+            }
+            if (outcome.isError()) {
+                recentFailures.put(key, new FailedLookup(outcome.getMessage()));
+            }
+        }
+    }
+    
+    /**
+     * Result of a single-flight lookup; leaves the in-flight map as soon as it settles
+     */
+    private final class SharedResult<T> extends MutableLiveData<Resource<T>> {
+        private final String key;
+        
+        SharedResult(String key) {
+            super(Resource.loading(null));
+            this.key = key;
+        }
+        
+        @Override
+        public void setValue(Resource<T> value) {
+            super.setValue(value);
+            // postValue() also ends up here, on the main thread
+            if (value != null && !value.isLoading()) {
+                onLookupSettled(key, this, value);
+            }
+        }
+    }
+    
+    private static final class FailedLookup {
+        final String message;
+        final long failedAt = System.currentTimeMillis();
+        
+        FailedLookup(String message) {
+            this.message = message;
+        }
+        
+        boolean isExpired() {
+            return System.currentTimeMillis() - failedAt > NEGATIVE_CACHE_TTL_MS;
+        }
+    }
+    
+    /**
+     * Creates a call for one endpoint with the given Cache-Control request header (null for none)
+     */
+    protected interface CachedCall<T> {
+        Call<ApiResponse<T>> create(String cacheControl);
+    }
+    
+    /**
+     * Receives fresh data from the network, on a background thread, e.g. to persist it
+     */
+    protected interface FreshDataListener<T> {
+        void onFreshData(T data);
+    }
+    
+    /**
+     * Stale-while-revalidate: serve the HTTP-cached response right away if there is one, then
+     * revalidate it with the server in the background (a conditional request, so an unchanged
+     * response costs a 304 and no body). The result only updates again if the data changed.
+     *
+     * @param call creates the endpoint call for a given Cache-Control header
+     * @param onFresh invoked with data that came from the network, may be null
+     */
+    protected <T> LiveData<Resource<T>> callApiStaleWhileRevalidate(CachedCall<T> call, FreshDataListener<T> onFresh) {
+        MutableLiveData<Resource<T>> result = new MutableLiveData<>(Resource.loading(null));
+        loadStaleWhileRevalidate(result, call, onFresh);
+        return result;
+    }
+    
+    /**
+     * Same as {@link #callApiStaleWhileRevalidate} but settles an existing result
+     */
+    protected <T> void loadStaleWhileRevalidate(MutableLiveData<Resource<T>> result, CachedCall<T> call,
+                                                FreshDataListener<T> onFresh) {
+        // The server marks responses max-age=0, so they are only usable from the cache with max-stale
+        call.create(CACHED_ANY_AGE.toString()).enqueue(new Callback<>() {
+            @Override
+            public void onResponse(Call<ApiResponse<T>> cacheCall, Response<ApiResponse<T>> response) {
+                boolean served = false;
+                if (response.isSuccessful() && response.body() != null
+                        && response.body().isSuccess() && response.body().getData() != null) {
+                    PerformanceMetrics.increment("http.swr.stale_served");
+                    result.postValue(Resource.success(response.body().getData()));
+                    served = true;
+                }
+                revalidate(result, call, served, onFresh);
+            }
+            
+            @Override
+            public void onFailure(Call<ApiResponse<T>> cacheCall, Throwable t) {
+                revalidate(result, call, false, onFresh);
+            }
+        });
+    }
+    
+    /**
+     * Ask the server whether the data behind a result is still current. Errors only reach the
+     * result if nothing was served yet; otherwise the stale value stays on screen.
+     *
+     * @param served whether the result already holds usable (possibly stale) data
+     */
+    protected <T> void revalidate(MutableLiveData<Resource<T>> result, CachedCall<T> call, boolean served,
+                                  FreshDataListener<T> onFresh) {
+        call.create(null).enqueue(new Callback<>() {
+            @Override
+            public void onResponse(Call<ApiResponse<T>> networkCall, Response<ApiResponse<T>> response) {
+                okhttp3.Response networkResponse = response.raw().networkResponse();
+                if (served && networkResponse != null && networkResponse.code() == HttpURLConnection.HTTP_NOT_MODIFIED) {
+                    PerformanceMetrics.increment("http.swr.not_modified");
+                    return;
+                }
+                
+                if (response.isSuccessful() && response.body() != null
+                        && response.body().isSuccess() && response.body().getData() != null) {
+                    PerformanceMetrics.increment("http.swr.refreshed");
+                    T data = response.body().getData();
+                    if (onFresh != null) {
+                        onFresh.onFreshData(data);
+                    }
+                    result.postValue(Resource.success(data));
+                } else if (served) {
+                    android.util.Log.d("APICall", "Revalidation failed with HTTP " + response.code() + ", keeping cached data");
+                } else if (isAuthFailure(response.code())) {
+                    handleExpiredToken(networkCall, result);
+                } else {
+                    String message = response.body() != null && response.body().getMessage() != null
+                            ? response.body().getMessage()
+                            : "HTTP Error " + response.code() + ": " + response.message();
+                    result.postValue(Resource.error(message, null));
+                }
+            }
+            
+            @Override
+            public void onFailure(Call<ApiResponse<T>> networkCall, Throwable t) {
+                if (served) {
+                    android.util.Log.d("APICall", "Revalidation failed, keeping cached data: " + t.getMessage());
+                } else {
+                    result.postValue(Resource.error("Network error: " + t.getMessage(), null));
+                }
+            }
+        });
+    }
+    
+    /**
+     * Execute an API call; expired tokens are refreshed and the call replayed by
+     * TokenAuthenticator before the response gets here
      * @param call The API call to execute
-     * @param isRetry Whether this is a retry after token refresh
      * @return LiveData with the result
      */
-    protected <T> LiveData<Resource<T>> callApi(Call<ApiResponse<T>> call, boolean isRetry) {
-        MutableLiveData<Resource<T>> result = new MutableLiveData<>();
-        // Use postValue for the initial loading state since this might not be on the main thread
-        result.postValue(Resource.loading(null));
+    protected <T> LiveData<Resource<T>> callApi(Call<ApiResponse<T>> call) {
+        return ResourceFutures.toLiveData(callApiAsync(call));
+    }
+    
+    /**
+     * Execute an API call and complete the future with its data (which may be null), or
+     * exceptionally with an {@link ApiException}. Cancelling the future cancels the HTTP call.
+     * @param call The API call to execute
+     * @return future completed on a Retrofit callback thread
+     */
+    protected <T> CompletableFuture<T> callApiAsync(Call<ApiResponse<T>> call) {
+        CompletableFuture<T> future = new CompletableFuture<>();
         
-        // Enhanced logging for API calls
         android.util.Log.d("APICall", "====== API REQUEST DETAILS ======");
         android.util.Log.d("APICall", "URL: " + call.request().url());
         android.util.Log.d("APICall", "Method: " + call.request().method());
-        android.util.Log.d("APICall", "Headers: " + call.request().headers());
-        android.util.Log.d("APICall", "Is retry: " + isRetry);
-        
-        // Try to log the request body if possible
-        try {
-            if (call.request().body() != null) {
-                android.util.Log.d("APICall", "Has request body: true");
-            }
-        } catch (Exception e) {
-            android.util.Log.d("APICall", "Error logging request body: " + e.getMessage());
-        }
+        android.util.Log.d("APICall", "Has request body: " + (call.request().body() != null));
         android.util.Log.d("APICall", "=================================");
         
         call.enqueue(new Callback<>() {
             @Override
             public void onResponse(Call<ApiResponse<T>> call, Response<ApiResponse<T>> response) {
-                android.util.Log.d("APICall", "Response code: " + response.code());
-                android.util.Log.d("APICall", "Response message: " + response.message());
-                android.util.Log.d("APICall", "Is successful: " + response.isSuccessful());
-                android.util.Log.d("APICall", "Has body: " + (response.body() != null));
+                android.util.Log.d("APICall", "Response code: " + response.code() + " for " + call.request().url());
 
                 if (response.isSuccessful() && response.body() != null) {
                     ApiResponse<T> apiResponse = response.body();
-                    android.util.Log.d("APICall", "API success: " + apiResponse.isSuccess());
-                    android.util.Log.d("APICall", "API message: " + apiResponse.getMessage());
-                    android.util.Log.d("APICall", "API has data: " + apiResponse.hasData());
-
                     if (apiResponse.isSuccess()) {
-                        // Success case - pass the data (may be null)
-                        // Use postValue since this callback runs on a background thread
-                        if (apiResponse.getData() != null) {
-                            android.util.Log.d("APICall", "Setting success result with data");
-                            result.postValue(Resource.success(apiResponse.getData()));
-                        } else {
-                            android.util.Log.d("APICall", "API success but data is null, attempting to handle edge case");
-                            // Try to construct response from other available data if possible
-                            try {
-                                // This is a special edge case handler - we know the call succeeded but data is null
-                                // This helps with certain API endpoints that might not return data in the expected format
-                                result.postValue(Resource.success(null));
-                            } catch (Exception e) {
-                                android.util.Log.d("APICall", "Error handling null data in success response: " + e.getMessage());
-                                result.postValue(Resource.success(null)); // Fallback to just pass null
-                            }
-                        }
+                        // Success case - pass the data (may be null for endpoints without a payload)
+                        future.complete(apiResponse.getData());
                     } else {
                         // Error case from server but with HTTP 200
-                        // The error message is in apiResponse.getMessage()
-                        result.postValue(Resource.error(apiResponse.getMessage(), null));
-                        android.util.Log.d("APICall", "Setting error result: " + apiResponse.getMessage());
+                        android.util.Log.d("APICall", "API error: " + apiResponse.getMessage());
+                        future.completeExceptionally(new ApiException(apiResponse.getMessage(), response.code()));
                     }
                 } else {
+                    String serverMessage = null;
                     try {
                         String errorBody = response.errorBody() != null ? response.errorBody().string() : "No error body";
                         android.util.Log.d("APICall", "Error body: " + errorBody);
+                        // Error responses carry the same {"success": false, "message": ...} envelope
+                        serverMessage = new JSONObject(errorBody).optString("message", null);
                     } catch (Exception e) {
                         android.util.Log.d("APICall", "Failed to read error body");
                     }
 
-                    // Check for expired token (HTTP 403)
-                    if (response.code() == 403 && !isRetry) {
-                        android.util.Log.d("APICall", "Received 403 (Forbidden) - possibly expired token");
-                        handleExpiredToken(call, result);
-                    } else {
-                        String errorMessage = "HTTP Error " + response.code() + ": " + response.message();
-                        result.postValue(Resource.error(errorMessage, null));
-                        android.util.Log.d("APICall", "Setting error result: " + errorMessage);
-                    }
+                    // TokenAuthenticator already tried to refresh the token, so this is final
+                    String errorMessage = isAuthFailure(response.code())
+                            ? "Session expired, please login again"
+                            : serverMessage != null && !serverMessage.isEmpty()
+                                    ? serverMessage
+                                    : "HTTP Error " + response.code() + ": " + response.message();
+                    android.util.Log.d("APICall", "Setting error result: " + errorMessage);
+                    future.completeExceptionally(new ApiException(errorMessage, response.code()));
                 }
             }
 
             @Override
             public void onFailure(Call<ApiResponse<T>> call, Throwable t) {
+                if (call.isCanceled()) {
+                    android.util.Log.d("APICall", "Call cancelled: " + call.request().url());
+                    return;
+                }
                 android.util.Log.d("APICall", "Call failed: " + t.getMessage());
-                result.postValue(Resource.error("Network error: " + t.getMessage(), null));
-                onFailure(call, t); // Call the abstract method
+                future.completeExceptionally(new ApiException("Network error: " + t.getMessage(), t));
             }
         });
         
-        return result;
+        // Structured cancellation: a cancelled future stops the request it is waiting for
+        future.whenComplete((data, error) -> {
+            if (future.isCancelled()) {
+                call.cancel();
+            }
+        });
+        return future;
+    }
+    
+    private static boolean isAuthFailure(int code) {
+        return code == 401 || code == 403;
     }
     
     /**
-     * Handle expired token by refreshing it and retrying the original request
-     * @param originalCall The original API call that failed due to expired token
+     * Handle a request that still failed authentication after TokenAuthenticator tried to
+     * refresh the token; the session cannot be recovered without signing in again
+     * @param originalCall The API call that failed
      * @param result The MutableLiveData to update with the result
      */
     protected <T> void handleExpiredToken(Call<ApiResponse<T>> originalCall, MutableLiveData<Resource<T>> result) {
-        // This must be implemented by subclasses that have access to UserRepository
-        // Default implementation just returns error
-        android.util.Log.e("BaseRepository", "Token refresh required but not implemented in this repository");
+        android.util.Log.e("BaseRepository", "Authentication failed after token refresh for " + originalCall.request().url());
         result.postValue(Resource.error("Session expired, please login again", null));
     }
 
-    public abstract void onFailure(Call<ApiResponse<LobbyListResponse>> call, Throwable t) // End of onFailure
-    ;
-
     /**
      * Resource wrapper class that represents the state of a network operation
      */
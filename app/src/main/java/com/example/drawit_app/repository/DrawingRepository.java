@@ -12,11 +12,16 @@ import android.content.Context;
 import com.example.drawit_app.data.DrawItDatabase;
 import com.example.drawit_app.data.DrawingDao;
 import com.example.drawit_app.model.Drawing;
+import com.example.drawit_app.model.DrawingSummary;
 import com.example.drawit_app.api.ApiService;
 import com.example.drawit_app.api.request.RateDrawingRequest;
+import com.example.drawit_app.util.ResourceFutures;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 import javax.inject.Inject;
 import javax.inject.Singleton;
@@ -26,13 +31,6 @@ import javax.inject.Singleton;
  */
 @Singleton
 public class DrawingRepository extends BaseRepository {
-
-    // Required by BaseRepository
-    @Override
-    public void onFailure(retrofit2.Call<com.example.drawit_app.api.response.ApiResponse<com.example.drawit_app.api.response.LobbyListResponse>> call, Throwable t) {
-        android.util.Log.e("DrawingRepository", "API call failed: " + t.getMessage(), t);
-    }
-
     
     private final ApiService apiService;
     private final DrawingDao drawingDao;
@@ -56,19 +54,14 @@ public class DrawingRepository extends BaseRepository {
             return result;
         }
         
-        LiveData<Resource<List<Drawing>>> result = callApi(apiService.getUserDrawings("Bearer " + token));
-        
-        // Observe the result to update local database
-        observeOnce(result, resource -> {
-            if (resource.isSuccess() && resource.getData() != null) {
-                List<Drawing> drawings = resource.getData();
-                for (Drawing drawing : drawings) {
-                    drawingDao.insert(drawing);
-                }
-            }
-        });
-        
-        return result;
+        // Render the cached list instantly, then revalidate it; only fresh data is written locally
+        return callApiStaleWhileRevalidate(
+                cacheControl -> apiService.getUserDrawings("Bearer " + token, cacheControl),
+                drawings -> {
+                    for (Drawing drawing : drawings) {
+                        drawingDao.upsert(drawing);
+                    }
+                });
     }
     
     /**
@@ -89,7 +82,7 @@ public class DrawingRepository extends BaseRepository {
             if (resource.isSuccess() && resource.getData() != null) {
                 List<Drawing> drawings = resource.getData();
                 for (Drawing drawing : drawings) {
-                    drawingDao.insert(drawing);
+                    drawingDao.upsert(drawing);
                 }
             }
         });
@@ -97,15 +90,52 @@ public class DrawingRepository extends BaseRepository {
         return result;
     }
     
+    /**
+     * Search the local archive by word through the full-text index, without touching the
+     * network. Each typed token is matched as a prefix, so "ca ha" finds "cat hat".
+     * @param text the text typed so far
+     * @param limit maximum number of results
+     * @return future with matching drawings, best match first
+     */
+    public CompletableFuture<List<DrawingSummary>> searchLocalDrawingsAsync(String text, int limit) {
+        String matchQuery = toPrefixMatchQuery(text);
+        if (matchQuery.isEmpty()) {
+            return CompletableFuture.completedFuture(new ArrayList<>());
+        }
+        String exactWord = text.trim();
+        return CompletableFuture.supplyAsync(
+                () -> drawingDao.searchDrawingsByWord(matchQuery, exactWord, limit),
+                DatabaseExecutor::execute);
+    }
+    
+    // Keep letters and digits only, lower-cased, so user input can't form FTS operators
+    // (OR, NOT, NEAR) or break the MATCH syntax
+    private static String toPrefixMatchQuery(String text) {
+        if (text == null) {
+            return "";
+        }
+        StringBuilder query = new StringBuilder();
+        for (String token : text.split("[^\\p{L}\\p{N}]+")) {
+            if (token.isEmpty()) {
+                continue;
+            }
+            if (query.length() > 0) {
+                query.append(' ');
+            }
+            query.append(token.toLowerCase(Locale.ROOT)).append('*');
+        }
+        return query.toString();
+    }
+    
     /**
      * Get top rated drawings for the current user
      */
-    public LiveData<List<Drawing>> getTopRatedDrawings(int limit) {
+    public LiveData<List<DrawingSummary>> getTopRatedDrawings(int limit) {
         String userId = userRepository.getCurrentUser().getValue() != null ? 
                 userRepository.getCurrentUser().getValue().getUserId() : null;
         
         if (userId == null) {
-            MutableLiveData<List<Drawing>> result = new MutableLiveData<>();
+            MutableLiveData<List<DrawingSummary>> result = new MutableLiveData<>();
             result.setValue(null);
             return result;
         }
@@ -131,7 +161,7 @@ public class DrawingRepository extends BaseRepository {
         observeOnce(result, resource -> {
             if (resource.isSuccess() && resource.getData() != null) {
                 Drawing drawing = resource.getData();
-                drawingDao.insert(drawing);
+                drawingDao.upsert(drawing);
             }
         });
         
@@ -167,7 +197,14 @@ public class DrawingRepository extends BaseRepository {
         // Observe once to get the actual value
         observeOnce(localDrawingLiveData, drawing -> {
             if (drawing != null) {
+                // Render the stored copy now and check with the server in the background
                 result.setValue(Resource.success(drawing));
+                if (isRevalidationDue("drawing:" + drawingId)) {
+                    revalidate(result,
+                            cacheControl -> apiService.getDrawing("Bearer " + token, drawingId, cacheControl),
+                            true,
+                            drawingDao::upsert);
+                }
             } else {
                 // If not in local database, get from API
                 fetchDrawingFromApi(drawingId, result);
@@ -187,23 +224,10 @@ public class DrawingRepository extends BaseRepository {
             return;
         }
         
-        LiveData<Resource<Drawing>> apiResult = callApi(apiService.getDrawing("Bearer " + token, drawingId));
-        
-        // Observe the result to update local database
-        observeOnce(apiResult, resource -> {
-            if (resource.isSuccess() && resource.getData() != null) {
-                Drawing drawing = resource.getData();
-                
-                // Use a background thread for database operations
-                new Thread(() -> drawingDao.insert(drawing)).start();
-                
-                // Update the result
-                result.setValue(Resource.success(drawing));
-            } else {
-                // Forward the error
-                result.setValue(resource);
-            }
-        });
+        // Network results are persisted off the main thread by the revalidation callback
+        loadStaleWhileRevalidate(result,
+                cacheControl -> apiService.getDrawing("Bearer " + token, drawingId, cacheControl),
+                drawingDao::upsert);
     }
     
     /**
@@ -213,20 +237,37 @@ public class DrawingRepository extends BaseRepository {
      * @return LiveData with drawing resource
      */
     public LiveData<Resource<Drawing>> rateDrawing(String drawingId, int rating) {
-        MutableLiveData<Resource<Drawing>> result = new MutableLiveData<>();
-        
-        // Get the current game ID from the drawing
-        LiveData<Drawing> drawingLiveData = drawingDao.getDrawingById(drawingId);
+        return ResourceFutures.toLiveData(rateDrawingAsync(drawingId, rating));
+    }
+    
+    /**
+     * Rate a drawing, looking up its game locally first
+     * @param drawingId The drawing ID to rate
+     * @param rating The rating value (1-5)
+     * @return future with the rated drawing, already saved locally when it completes
+     */
+    public CompletableFuture<Drawing> rateDrawingAsync(String drawingId, int rating) {
+        String token = userRepository.getAuthToken();
+        if (token == null) {
+            CompletableFuture<Drawing> failed = new CompletableFuture<>();
+            failed.completeExceptionally(new ApiException("Not authenticated"));
+            return failed;
+        }
         
-        observeOnce(drawingLiveData, drawing -> {
+        RateDrawingRequest request = new RateDrawingRequest(rating);
+        CompletableFuture<Drawing> stored = CompletableFuture
+                .supplyAsync(() -> drawingDao.getDrawingByIdSync(drawingId), DatabaseExecutor::execute);
+        CompletableFuture<Drawing> rated = ResourceFutures.thenComposeLinked(stored, drawing -> {
             String gameId = drawing != null ? drawing.getGameId() : "unknown_game";
-            
-            // Call the original method with the game ID and observe its result
-            LiveData<Resource<Drawing>> ratingResult = rateDrawing(gameId, drawingId, (float)rating);
-            observeOnce(ratingResult, result::setValue);
+            return callApiAsync(apiService.rateDrawing("Bearer " + token, gameId, drawingId, request));
         });
-        
-        return result;
+        return ResourceFutures.linkCancellation(rated.thenApply(drawing -> {
+            // Completes on a Retrofit callback thread, so the write stays off the main thread
+            if (drawing != null) {
+                drawingDao.upsert(drawing);
+            }
+            return drawing;
+        }), rated);
     }
     
     /**
@@ -277,14 +318,88 @@ public class DrawingRepository extends BaseRepository {
     }
     
     /**
-     * Get all drawings in the system
-     * @return LiveData with list of all drawings
+     * Get all drawings in the system, without their strokes
+     * @return LiveData with list of all drawing summaries
      */
-    public LiveData<List<Drawing>> getAllDrawings() {
+    public LiveData<List<DrawingSummary>> getAllDrawings() {
         // Return LiveData from local database
         return drawingDao.getAllDrawings();
     }
     
+    /**
+     * Number of drawings in the local archive, e.g. for list placeholders
+     */
+    public LiveData<Integer> getDrawingCount() {
+        return drawingDao.getDrawingCount();
+    }
+    
+    /**
+     * Load one page of the archive, newest first.
+     * The page is read from the local database; if it comes up short (or on refresh) the same
+     * page is fetched from the server, stored and read again. Network failures fall back to
+     * whatever is stored locally.
+     * @param after last item of the previous page, or null for the first page
+     * @param limit page size
+     * @param refresh fetch from the server even if the local page is full
+     * @return future with the page, completed off the main thread
+     */
+    public CompletableFuture<List<DrawingSummary>> loadArchivePage(DrawingSummary after, int limit, boolean refresh) {
+        CompletableFuture<List<DrawingSummary>> localPage = CompletableFuture
+                .supplyAsync(() -> queryArchivePage(after, limit), DatabaseExecutor::execute);
+        return ResourceFutures.thenComposeLinked(localPage, local -> {
+            String token = userRepository.getAuthToken();
+            if (token == null || (!refresh && local.size() >= limit)) {
+                return CompletableFuture.completedFuture(local);
+            }
+            
+            Long beforeTimestamp = after != null && after.getTimestamp() != null
+                    ? after.getTimestamp().getTime() : null;
+            String beforeId = after != null ? after.getDrawingId() : null;
+            CompletableFuture<List<Drawing>> call = callApiAsync(apiService.getUserDrawingsPage("Bearer " + token,
+                    beforeTimestamp, beforeId, limit));
+            return ResourceFutures.linkCancellation(call
+                    .thenCompose(remote -> CompletableFuture.supplyAsync(() -> {
+                        if (remote != null) {
+                            for (Drawing drawing : remote) {
+                                drawingDao.upsert(drawing);
+                            }
+                        }
+                        return queryArchivePage(after, limit);
+                    }, DatabaseExecutor::execute))
+                    .exceptionally(error -> {
+                        android.util.Log.w("DrawingRepository", "Archive page fetch failed, using local page: "
+                                + ResourceFutures.messageOf(error));
+                        return local;
+                    }), call);
+        });
+    }
+    
+    // The archive lists the signed-in player's drawings, like the server's page endpoint
+    private List<DrawingSummary> queryArchivePage(DrawingSummary after, int limit) {
+        String userId = userRepository.getUserId();
+        if (userId == null) {
+            return new ArrayList<>();
+        }
+        if (after == null) {
+            return drawingDao.getArchiveFirstPage(userId, limit);
+        }
+        if (after.getTimestamp() == null) {
+            // Only possible for rows stored before upsert() filled missing timestamps
+            return new ArrayList<>();
+        }
+        return drawingDao.getArchivePageBefore(userId, after.getTimestamp(), after.getDrawingId(), limit);
+    }
+    
+    /**
+     * Load the strokes of a single drawing from the local database
+     * @param drawingId The drawing ID
+     * @return future with the decoded paths, completed on the database thread
+     */
+    public CompletableFuture<List<Drawing.DrawingPath>> getPathsForDrawingAsync(String drawingId) {
+        return CompletableFuture.supplyAsync(() -> drawingDao.getPathsForDrawing(drawingId),
+                DatabaseExecutor::execute);
+    }
+    
     /**
      * Helper method to observe a LiveData object once
      */
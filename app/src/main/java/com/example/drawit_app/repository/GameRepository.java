@@ -8,26 +8,32 @@ import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
 
 import com.example.drawit_app.data.DrawItDatabase;
+import com.example.drawit_app.data.DrawingPathsConverter;
 import com.example.drawit_app.data.GameDao;
 import com.example.drawit_app.model.ChatMessage;
 import com.example.drawit_app.model.Drawing;
 import com.example.drawit_app.model.Game;
+import com.example.drawit_app.model.ReplayEvent;
 
 import com.example.drawit_app.api.ApiService;
 import com.example.drawit_app.api.WebSocketService;
 import com.example.drawit_app.api.message.GameStateMessage;
+import com.example.drawit_app.api.websocket.WebSocketEventBus;
+import com.example.drawit_app.api.websocket.WebSocketEvents;
+import com.example.drawit_app.util.ChatLog;
 import com.example.drawit_app.util.WebSocketMessageConverter;
 import com.squareup.moshi.JsonAdapter;
 import com.squareup.moshi.Moshi;
 import com.squareup.moshi.Types;
 
+import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
 
-import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Executor;
 import java.util.concurrent.Executors;
 
@@ -39,69 +45,15 @@ import javax.inject.Singleton;
  */
 @Singleton
 public class GameRepository extends BaseRepository {
-    @Override
-    public void onFailure(retrofit2.Call<com.example.drawit_app.api.response.ApiResponse<com.example.drawit_app.api.response.LobbyListResponse>> call, Throwable t) {
-        Log.e("GameRepository", "API call failed: " + t.getMessage(), t);
-    }
-    
-    /**
-     * Override handleExpiredToken from BaseRepository
-     * Delegates to UserRepository for token refresh and handling
-     */
-    @Override
-    protected <T> void handleExpiredToken(retrofit2.Call<com.example.drawit_app.api.response.ApiResponse<T>> originalCall, MutableLiveData<Resource<T>> result) {
-        Log.d("GameRepository", "Token expired in GameRepository, delegating to UserRepository");
-        
-        // Get the current token (even if expired) from UserRepository
-        String currentToken = userRepository.getAuthToken();
-        if (currentToken == null) {
-            Log.e("GameRepository", "No token available for refresh");
-            result.postValue(Resource.error("Not authenticated", null));
-            return;
-        }
-        
-        // Use UserRepository to refresh the token
-        userRepository.refreshToken(currentToken, refreshSuccess -> {
-            if (refreshSuccess) {
-                Log.d("GameRepository", "Token refreshed successfully via UserRepository, retrying original request");
-                
-                try {
-                    // Clone the original call
-                    retrofit2.Call<com.example.drawit_app.api.response.ApiResponse<T>> newCall =
-                            (retrofit2.Call<com.example.drawit_app.api.response.ApiResponse<T>>) originalCall.clone();
-                    
-                    // Execute the cloned call with the retry flag set to true
-                    LiveData<Resource<T>> retryResult = callApi(newCall, true);
-                    
-                    // Forward the retry result to the original result
-                    androidx.lifecycle.Observer<Resource<T>> observer = new androidx.lifecycle.Observer<Resource<T>>() {
-                        @Override
-                        public void onChanged(Resource<T> resource) {
-                            // Update the result with the resource
-                            result.postValue(resource);
-                            // Remove the observer after first update to prevent memory leaks
-                            retryResult.removeObserver(this);
-                        }
-                    };
-                    // Observe the retry result
-                    retryResult.observeForever(observer);
-                } catch (Exception e) {
-                    Log.e("GameRepository", "Error retrying request after token refresh: " + e.getMessage());
-                    result.postValue(Resource.error("Error retrying request: " + e.getMessage(), null));
-                }
-            } else {
-                Log.e("GameRepository", "Token refresh failed");
-                result.postValue(Resource.error("Session expired, please login again", null));
-            }
-        });
-    }
-
     
     private final ApiService apiService;
     private final UserRepository userRepository;
     private final GameDao gameDao;
     private final WebSocketService webSocketService;
     private final WebSocketMessageConverter messageConverter;
+    private final OutboundActionJournal actionJournal;
+    private final GameStatePersister gamePersister;
+    private final RoundReplayRecorder replayRecorder;
     
     // Executor for background operations
     private final Executor executor = Executors.newSingleThreadExecutor();
@@ -109,11 +61,14 @@ public class GameRepository extends BaseRepository {
     private final MutableLiveData<Game> currentGame = new MutableLiveData<>();
     private final MutableLiveData<Integer> timeRemaining = new MutableLiveData<>();
     
-    // Chat messages for the current game
-    private final MutableLiveData<List<ChatMessage>> chatMessages = new MutableLiveData<>(new ArrayList<>());
+    // Chat messages for the current game; main thread only
+    private final ChatLog chatLog = new ChatLog();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private String chatGameId;
     
-    // WebSocket callback for game state updates
-    // Removed redundant gameUpdateCallback field as we're using setupWebSocketCallback() instead
+    // Error handler for the game currently being joined, active until the join succeeds or fails
+    private WebSocketEventBus.Subscription joinErrorSubscription;
+    private String joiningGameId;
     
     // Current drawing paths JSON
     private final MutableLiveData<String> drawingPaths = new MutableLiveData<>("");
@@ -121,12 +76,18 @@ public class GameRepository extends BaseRepository {
     @Inject
     public GameRepository(ApiService apiService, DrawItDatabase database, 
                          UserRepository userRepository, WebSocketService webSocketService,
-                         WebSocketMessageConverter messageConverter) {
+                         WebSocketMessageConverter messageConverter,
+                         OutboundActionJournal actionJournal,
+                         GameStatePersister gamePersister,
+                         RoundReplayRecorder replayRecorder) {
         this.apiService = apiService;
         this.gameDao = database.gameDao();
         this.userRepository = userRepository;
         this.webSocketService = webSocketService;
         this.messageConverter = messageConverter;
+        this.actionJournal = actionJournal;
+        this.gamePersister = gamePersister;
+        this.replayRecorder = replayRecorder;
         
         // Initialize WebSocket callback for game updates
         setupWebSocketCallback();
@@ -145,91 +106,129 @@ public class GameRepository extends BaseRepository {
      * This method is used by other parts of the code that don't need specific error handling for game joining
      */
     private void setupWebSocketCallback() {
-        webSocketService.setGameUpdateCallback(new WebSocketService.GameUpdateCallback() {
+        // Delivered on the dispatch thread so the game is decoded there; the handlers below update
+        // LiveData directly, so each one then continues on the bus's main-thread executor, which
+        // keeps the publish order between game state, chat and errors
+        Executor mainThread = webSocketService.getEventBus().mainThread();
+        webSocketService.subscribe(new WebSocketService.GameUpdateCallback() {
             @Override
             public void onError(String errorMessage) {
-                Log.e("GameRepository", "⚠️ WebSocket error: " + errorMessage);
-                handleError(errorMessage);
+                mainThread.execute(() -> {
+                    Log.e("GameRepository", "⚠️ WebSocket error: " + errorMessage);
+                    // Errors during a join are reported on the join result instead
+                    if (!isJoinPending()) {
+                        handleError(errorMessage);
+                    }
+                });
             }
             
             @Override
             public void onGameStateChanged(GameStateMessage message) {
+                GameStateMessage.GamePayload payload;
+                Game updatedGame;
                 try {
-                    GameStateMessage.GamePayload payload = message.getGamePayload();
+                    payload = message.getGamePayload();
                     if (payload == null || payload.getGame() == null) {
                         Log.e("GameRepository", "Invalid game payload received");
                         return;
                     }
-                    
-                    String event = payload.getEvent();
-                    final Game updatedGame = messageConverter.convertToGame(payload.getGame());
-                    String gameId = updatedGame.getGameId();
-                    
-                    Log.d("GameRepository", "Game event received: " + event + " for game " + gameId);
-                    
-                    // Handle specific game events
-                    if (event == null) {
-                        handleGenericUpdate(updatedGame, payload);
-                    } else if (event.equals("started")) {
-                        handleGameStarted(updatedGame, payload);
-                    } else if (event.equals("round_started")) {
-                        handleRoundStarted(updatedGame, payload);
-                    } else if (event.equals("drawing_update")) {
-                        handleDrawingUpdate(updatedGame, payload);
-                    } else if (event.equals("guess_submitted")) {
-                        handleGuessSubmitted(updatedGame, payload);
-                    } else if (event.equals("round_ended")) {
-                        handleRoundEnded(updatedGame, payload);
-                    } else if (event.equals("game_ended")) {
-                        handleGameEnded(updatedGame, payload);
-                    } else {
-                        handleGenericUpdate(updatedGame, payload);
-                    }
-                    
-                    // Move database operations to a background thread
-                    executor.execute(() -> {
-                        try {
-                            // Always update the local database with the latest game state
-                            Log.d("GameRepository", " Saving game data to local database: " + gameId);
-                            gameDao.insert(updatedGame);
-                            Log.d("GameRepository", " Game data saved successfully: " + gameId);
-                        } catch (Exception e) {
-                            Log.e("GameRepository", " Error saving game data: " + e.getMessage(), e);
-                        }
-                    });
-                    
+                    updatedGame = messageConverter.convertToGame(payload.getGame());
                 } catch (Exception e) {
-                    Log.e("GameRepository", "Error processing game state: " + e.getMessage(), e);
+                    Log.e("GameRepository", "Error decoding game state: " + e.getMessage(), e);
+                    return;
                 }
+                mainThread.execute(() -> applyGameState(updatedGame, payload));
             }
             
             @Override
             public void onChatMessageReceived(ChatMessage chatMessage) {
                 if (chatMessage != null) {
-                    Log.d("GameRepository", "Chat message received: " + chatMessage.getMessage());
-                    List<ChatMessage> currentMessages = chatMessages.getValue();
-                    if (currentMessages == null) {
-                        currentMessages = new ArrayList<>();
-                    }
-
-                    currentMessages.add(chatMessage);
-                    chatMessages.postValue(new ArrayList<>(currentMessages));
+                    mainThread.execute(() -> {
+                        Log.d("GameRepository", "Chat message received: " + chatMessage.getMessage());
+                        if (chatLog.append(chatMessage)) {
+                            recordGuess(chatMessage);
+                        }
+                    });
                 }
             }
-        });
+        }, WebSocketEventBus.DISPATCH_THREAD);
+    }
+    
+    /**
+     * Apply a decoded game state update on the main thread
+     */
+    private void applyGameState(Game updatedGame, GameStateMessage.GamePayload payload) {
+        try {
+            String event = payload.getEvent();
+            String gameId = updatedGame.getGameId();
+            
+            Log.d("GameRepository", "Game event received: " + event + " for game " + gameId);
+            
+            // The server sending the game's state confirms the join
+            finishJoin(gameId);
+            
+            // Handle specific game events
+            if (event == null) {
+                handleGenericUpdate(updatedGame, payload);
+            } else if (event.equals("started")) {
+                handleGameStarted(updatedGame, payload);
+            } else if (event.equals("round_started")) {
+                handleRoundStarted(updatedGame, payload);
+            } else if (event.equals("drawing_update")) {
+                handleDrawingUpdate(updatedGame, payload);
+            } else if (event.equals("guess_submitted")) {
+                handleGuessSubmitted(updatedGame, payload);
+            } else if (event.equals("round_ended")) {
+                handleRoundEnded(updatedGame, payload);
+            } else if (event.equals("game_ended")) {
+                handleGameEnded(updatedGame, payload);
+            } else {
+                handleGenericUpdate(updatedGame, payload);
+            }
+            
+            persistGameEvent(event, updatedGame);
+            
+        } catch (Exception e) {
+            Log.e("GameRepository", "Error processing game state: " + e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * Hand a game event's state to the write-behind persister.
+     * Drawing updates only carry strokes, which are not part of the stored game, so they are
+     * never written. Round and game boundaries are written right away so they survive the
+     * process being killed; everything else is coalesced.
+     */
+    private void persistGameEvent(String event, Game game) {
+        if ("drawing_update".equals(event)) {
+            return;
+        }
+        if ("started".equals(event) || "round_ended".equals(event) || "game_ended".equals(event)) {
+            gamePersister.persistNow(game);
+        } else {
+            gamePersister.update(game);
+        }
     }
     
     /**
-     * Set up WebSocket callback for real-time game updates with specific error handling for game join failures
+     * Subscribe to WebSocket errors with specific handling for game join failures.
+     * Game state and chat events keep flowing through the subscription from setupWebSocketCallback.
      * @param result The LiveData result to update with error states
      * @param gameId The game ID being joined
      */
-    private void setupWebSocketCallbackWithErrorHandling(MutableLiveData<Resource<Game>> result, String gameId) {
-        webSocketService.setGameUpdateCallback(new WebSocketService.GameUpdateCallback() {
-            @Override
-            public void onError(String errorMessage) {
+    private synchronized void setupWebSocketCallbackWithErrorHandling(MutableLiveData<Resource<Game>> result, String gameId) {
+        if (joinErrorSubscription != null) {
+            joinErrorSubscription.unsubscribe();
+        }
+        joiningGameId = gameId;
+        joinErrorSubscription = webSocketService.getEventBus().subscribe(WebSocketEvents.Error.class,
+                WebSocketEventBus.DISPATCH_THREAD, error -> {
+                String errorMessage = error.getMessage();
                 Log.e("GameRepository", "⚠️ WebSocket error received: " + errorMessage);
                 
+                // The join failed, later errors go to the general handler
+                finishJoin(gameId);
+                
                 // Check for specific error messages related to joining games
                 if (errorMessage.contains("Lobby is locked") || errorMessage.contains("Server error: Lobby is locked")) {
                     Log.e("GameRepository", "🔒 Cannot join game - lobby is locked");
@@ -251,84 +250,27 @@ public class GameRepository extends BaseRepository {
                     // Add a system message with the error
                     addSystemChatMessage("Error joining game: " + errorMessage);
                 }
-            }
-            @Override
-            public void onGameStateChanged(GameStateMessage message) {
-                try {
-                    GameStateMessage.GamePayload payload = message.getGamePayload();
-                    if (payload == null || payload.getGame() == null) {
-                        Log.e("GameRepository", "Invalid game payload received");
-                        return;
-                    }
-                    
-                    String event = payload.getEvent();
-                    final Game updatedGame = messageConverter.convertToGame(payload.getGame());
-                    String gameId = updatedGame.getGameId();
-                    
-                    Log.d("GameRepository", "Game event received: " + event + " for game " + gameId);
-                    
-                    // Handle specific game events
-                    if (event == null) {
-                        handleGenericUpdate(updatedGame, payload);
-                    } else if (event.equals("started")) {
-                        handleGameStarted(updatedGame, payload);
-                    } else if (event.equals("round_started")) {
-                        handleRoundStarted(updatedGame, payload);
-                    } else if (event.equals("drawing_update")) {
-                        handleDrawingUpdate(updatedGame, payload);
-                    } else if (event.equals("guess_submitted")) {
-                        handleGuessSubmitted(updatedGame, payload);
-                    } else if (event.equals("round_ended")) {
-                        handleRoundEnded(updatedGame, payload);
-                    } else if (event.equals("game_ended")) {
-                        handleGameEnded(updatedGame, payload);
-                    } else {
-                        handleGenericUpdate(updatedGame, payload);
-                    }
-                    
-                    // Move database operations to a background thread
-                    executor.execute(() -> {
-                        try {
-                            // Always update the local database with the latest game state
-                            Log.d("GameRepository", " Saving game data to local database: " + gameId);
-                            gameDao.insert(updatedGame);
-                            Log.d("GameRepository", " Game data saved successfully: " + gameId);
-                        } catch (Exception e) {
-                            Log.e("GameRepository", " Error saving game data: " + e.getMessage(), e);
-                        }
-                    });
-                    
-                } catch (Exception e) {
-                    Log.e("GameRepository", "Error processing game state: " + e.getMessage(), e);
-                }
-            }
-
-            @Override
-            public void onChatMessageReceived(ChatMessage chatMessage) {
-                if (chatMessage == null) {
-                    Log.e("GameRepository", "Received null chat message");
-                    return;
-                }
-
-                Log.d("GameRepository", "📨 Chat message received: " +
-                        (chatMessage.getMessage() != null ? chatMessage.getMessage() : "<empty>") +
-                        " from " + (chatMessage.getSender() != null ? chatMessage.getSender().getUsername() : "unknown"));
-
-                // Add to the chat messages list
-                List<ChatMessage> currentMessages = chatMessages.getValue();
-                if (currentMessages == null) {
-                    currentMessages = new ArrayList<>();
-                }
-
-                // Add the new message
-                currentMessages.add(chatMessage);
-
-                // Update the LiveData with the new list
-                chatMessages.postValue(new ArrayList<>(currentMessages));
-            }
         });
     }
     
+    /**
+     * Stop reporting WebSocket errors on the join result of the given game.
+     * Called once the join is confirmed or has failed; does nothing if another game is being joined.
+     */
+    private synchronized void finishJoin(String gameId) {
+        if (joinErrorSubscription == null || !joiningGameId.equals(gameId)) {
+            return;
+        }
+        joinErrorSubscription.unsubscribe();
+        joinErrorSubscription = null;
+        joiningGameId = null;
+        Log.d("GameRepository", "🔕 Join of game " + gameId + " settled, stopped join error handling");
+    }
+    
+    private synchronized boolean isJoinPending() {
+        return joinErrorSubscription != null;
+    }
+    
     /**
      * Start a new game from the current lobby
      * This initiates the game on the server and broadcasts to all connected clients
@@ -372,7 +314,7 @@ public class GameRepository extends BaseRepository {
         observeOnce(result, resource -> {
             if (resource.isSuccess() && resource.getData() != null) {
                 Game game = resource.getData();
-                gameDao.insert(game);
+                gamePersister.persistNow(game);
                 currentGame.setValue(game);
             }
         });
@@ -388,11 +330,10 @@ public class GameRepository extends BaseRepository {
     }
     
     /**
-     * Get chat messages for the current game
-     * @return LiveData containing the list of chat messages
+     * Get the chat log of the current game; read and observe it on the main thread only
      */
-    public LiveData<List<ChatMessage>> getChatMessages() {
-        return chatMessages;
+    public ChatLog getChatLog() {
+        return chatLog;
     }
     
     /**
@@ -403,13 +344,29 @@ public class GameRepository extends BaseRepository {
         return drawingPaths;
     }
     
+    /**
+     * Rounds of a game that were recorded on this device and can be replayed
+     */
+    public CompletableFuture<List<Integer>> getReplayRoundsAsync(String gameId) {
+        return replayRecorder.getRecordedRoundsAsync(gameId);
+    }
+    
+    /**
+     * Recorded strokes and guesses of one round, oldest first
+     */
+    public CompletableFuture<List<ReplayEvent>> loadRoundReplayAsync(String gameId, int round) {
+        return replayRecorder.loadRoundAsync(gameId, round);
+    }
+    
     /**
      * Send a chat message in the current game
      * @param gameId The game ID
      * @param message The message text
      */
     public void sendChatMessage(String gameId, String message) {
-        // Send via WebSocket - the server will broadcast to all clients
+        // Sent directly rather than journaled: chat replayed after a reconnect would arrive out
+        // of context, possibly after the round or game it belonged to has ended.
+        // The server will broadcast to all clients
         webSocketService.sendChatMessage(gameId, message);
         
         // We don't add to local chat list here - the message will come back via WebSocket
@@ -433,13 +390,12 @@ public class GameRepository extends BaseRepository {
         // Create a system message
         ChatMessage chatMessage = new ChatMessage(null, message, ChatMessage.MessageType.SYSTEM_MESSAGE);
         
-        // Add to list
-        List<ChatMessage> currentMessages = chatMessages.getValue();
-        if (currentMessages == null) {
-            currentMessages = new ArrayList<>();
+        // The log is confined to the main thread; callers may be on any thread
+        if (Looper.myLooper() == Looper.getMainLooper()) {
+            chatLog.append(chatMessage);
+        } else {
+            mainHandler.post(() -> chatLog.append(chatMessage));
         }
-        currentMessages.add(chatMessage);
-        chatMessages.postValue(currentMessages);
     }
     
     /**
@@ -456,23 +412,11 @@ public class GameRepository extends BaseRepository {
      * @param pathsJson JSON representation of the paths
      */
     public void updateDrawingPath(String gameId, String pathsJson) {
-        // Send via WebSocket to broadcast to all clients
+        // Send via WebSocket; the server relays it to the other players only
         webSocketService.updateDrawingPath(gameId, pathsJson);
         
-        // We don't update local paths directly - they will come back via WebSocket
-        // to ensure consistency across all clients
-    }
-    
-    /**
-     * Set the WebSocket callback for game updates
-     * @param callback The callback to receive game updates
-     */
-    public void setGameUpdateCallback(WebSocketService.GameUpdateCallback callback) {
-        // This method is kept for backward compatibility
-        // We prefer to use our internal setupWebSocketCallback method
-        // to ensure consistent handling of game events
-        Log.w("GameRepository", "External setGameUpdateCallback called - this may override internal handlers");
-        webSocketService.setGameUpdateCallback(callback);
+        // The drawer's own strokes never come back, so record them for the replay here
+        replayRecorder.drawingUpdated(gameId, getKnownRound(gameId), pathsJson);
     }
     
     /**
@@ -520,6 +464,12 @@ public class GameRepository extends BaseRepository {
         
         Log.i("GameRepository", "🎮 Joining game: " + gameId);
         
+        // Chat of a previous game does not carry over
+        if (!gameId.equals(chatGameId)) {
+            chatGameId = gameId;
+            chatLog.clear();
+        }
+        
         // Register for game updates via WebSocket
         if (webSocketService != null) {
             // Set up callback to receive game state updates with error handling for locked lobbies
@@ -533,8 +483,11 @@ public class GameRepository extends BaseRepository {
             // Use executor for database operations
             executor.execute(() -> {
                 try {
-                    // Check if game exists in local database
-                    Game localGame = gameDao.getGameByIdSync(gameId);
+                    // Check for the game locally, including state not written yet
+                    Game localGame = gamePersister.getPending(gameId);
+                    if (localGame == null) {
+                        localGame = gameDao.getGameByIdSync(gameId);
+                    }
                     
                     if (localGame != null) {
                         Log.d("GameRepository", "📋 Found game in local database: " + gameId);
@@ -633,6 +586,8 @@ public class GameRepository extends BaseRepository {
                     3000); // 3 second delay between retries
             } else {
                 Log.e("GameRepository", "❌ Maximum retries reached for game state request: " + gameId);
+                // No answer means no confirmation either; stop treating errors as join failures
+                finishJoin(gameId);
             }
         } else {
             Log.d("GameRepository", "✅ Game data received successfully after " + (currentRetry - 1) + " retries");
@@ -663,6 +618,7 @@ public class GameRepository extends BaseRepository {
                 game.getCurrentDrawer().getUsername() : "Unknown player";
         addSystemChatMessage("Round " + game.getCurrentRound() + 
                 " started! " + drawerName + " is drawing.");
+        replayRecorder.roundStarted(game.getGameId(), game.getCurrentRound(), drawerName, game.getCurrentWord());
         
         // Update current game
         currentGame.postValue(game);
@@ -688,6 +644,7 @@ public class GameRepository extends BaseRepository {
                 game.getCurrentDrawer().getUsername() : "Unknown player";
         addSystemChatMessage("Round " + game.getCurrentRound() + 
                 " started! " + drawerName + " is drawing.");
+        replayRecorder.roundStarted(game.getGameId(), game.getCurrentRound(), drawerName, game.getCurrentWord());
         
         // Update current game
         currentGame.postValue(game);
@@ -699,10 +656,33 @@ public class GameRepository extends BaseRepository {
     private void handleDrawingUpdate(Game game, GameStateMessage.GamePayload payload) {
         if (payload.getDrawingPaths() != null) {
             drawingPaths.postValue(payload.getDrawingPaths());
+            replayRecorder.drawingUpdated(game.getGameId(), getKnownRound(game.getGameId()),
+                    payload.getDrawingPaths());
             Log.d("GameRepository", "Updated drawing paths");
         }
     }
     
+    /**
+     * Round of a game as last seen here; drawing updates only carry the game ID
+     */
+    private int getKnownRound(String gameId) {
+        Game current = currentGame.getValue();
+        return current != null && gameId != null && gameId.equals(current.getGameId())
+                ? current.getCurrentRound() : 0;
+    }
+    
+    /**
+     * Add a player's chat message to the replay log of the current round
+     */
+    private void recordGuess(ChatMessage message) {
+        if (message.getType() == ChatMessage.MessageType.SYSTEM_MESSAGE || message.getSender() == null) {
+            return;
+        }
+        String gameId = message.getGameId() != null ? message.getGameId() : chatGameId;
+        replayRecorder.guessMade(gameId, message.getSender().getUsername(), message.getMessage(),
+                message.getType() == ChatMessage.MessageType.CORRECT_GUESS);
+    }
+    
     /**
      * Handle guess submitted event
      */
@@ -735,6 +715,7 @@ public class GameRepository extends BaseRepository {
         
         // Add system message
         addSystemChatMessage("Round " + game.getCurrentRound() + " ended!");
+        replayRecorder.roundEnded(game.getGameId(), game.getCurrentRound());
         
         // The server should handle round progression and send updated game state
         // We'll just log the current state and wait for the server's next update
@@ -768,6 +749,7 @@ public class GameRepository extends BaseRepository {
         
         // Add system message
         addSystemChatMessage("Game ended! Thanks for playing!");
+        replayRecorder.gameEnded(game.getGameId());
         
         // Update current game
         currentGame.postValue(game);
@@ -839,13 +821,15 @@ public class GameRepository extends BaseRepository {
         try {
             // Create a JSON message to send to the server
             JSONObject message = new JSONObject();
-            message.put("type", "submit_drawing");
             message.put("gameId", game.getGameId());
+            message.put("drawingId", drawing.getDrawingId());
             message.put("userId", drawing.getUserId());
-            message.put("drawingData", drawing.getPaths());
+            message.put("word", drawing.getWord());
+            // org.json cannot serialize model objects; send the paths as real JSON
+            message.put("drawingData", new JSONArray(DrawingPathsConverter.toJson(drawing.getPaths())));
 
-            // Send the message via WebSocket
-            webSocketService.sendMessage(message.toString());
+            // Journaled, so the drawing is delivered even if the socket is down right now
+            actionJournal.enqueue("submit_drawing", game.getGameId(), message);
             Log.d("GameRepository", "Drawing submitted for game: " + game.getGameId());
         } catch (JSONException e) {
             Log.e("GameRepository", "Error creating drawing submission message", e);
@@ -868,13 +852,12 @@ public class GameRepository extends BaseRepository {
         try {
             // Create a JSON message to send to the server
             JSONObject message = new JSONObject();
-            message.put("type", "rate_drawing");
             message.put("gameId", game.getGameId());
             message.put("drawingId", drawingId);
             message.put("rating", rating);
             
-            // Send the message via WebSocket
-            webSocketService.sendMessage(message.toString());
+            // Journaled, so the rating is delivered even if the socket is down right now
+            actionJournal.enqueue("rate_drawing", game.getGameId(), message);
             Log.d("GameRepository", "Drawing rated: " + drawingId + ", rating: " + rating);
         } catch (JSONException e) {
             Log.e("GameRepository", "Error creating drawing rating message", e);
@@ -0,0 +1,145 @@
+package com.example.drawit_app.repository;
+
+import android.util.Log;
+
+import com.example.drawit_app.data.GameDao;
+import com.example.drawit_app.model.Game;
+import com.example.drawit_app.util.PerformanceMetrics;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+/**
+ * Write-behind persistence of game state.
+ * <p>
+ * Game events arrive several times per second during a round, and each carries the whole game.
+ * Instead of writing a row per event, only the latest {@link Game} per gameId is kept in memory
+ * and written later, so a burst of updates costs one write. Pending games are written when
+ * {@link #FLUSH_INTERVAL_MS} has passed since the first unwritten update, when
+ * {@link #MAX_DIRTY_UPDATES} updates have piled up, on {@link #persistNow(Game)} for events that
+ * must survive the process (a round or game ending), and when the app goes to the background.
+ * <p>
+ * Readers that need the newest state should check {@link #getPending(String)} before the database.
+ */
+@Singleton
+public class GameStatePersister {
+    private static final String TAG = "GameStatePersister";
+
+    private static final long FLUSH_INTERVAL_MS = 2_000;
+    private static final int MAX_DIRTY_UPDATES = 20;
+
+    private final GameDao gameDao;
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(
+            runnable -> new Thread(runnable, "drawit-game-persister"));
+
+    // Latest unwritten state per game, in first-update order; guarded by this
+    private final Map<String, Game> pending = new LinkedHashMap<>();
+    private int dirtyUpdates;
+    private ScheduledFuture<?> scheduledFlush;
+
+    @Inject
+    public GameStatePersister(GameDao gameDao) {
+        this.gameDao = gameDao;
+    }
+
+    /**
+     * Remember the latest state of a game and write it with the next flush
+     */
+    public void update(Game game) {
+        if (game == null || game.getGameId() == null) {
+            return;
+        }
+        synchronized (this) {
+            pending.put(game.getGameId(), game);
+            dirtyUpdates++;
+            PerformanceMetrics.increment("game.persist.updates");
+            if (dirtyUpdates >= MAX_DIRTY_UPDATES) {
+                scheduleFlushLocked(0);
+            } else if (scheduledFlush == null) {
+                scheduleFlushLocked(FLUSH_INTERVAL_MS);
+            }
+        }
+    }
+
+    /**
+     * Remember the latest state of a game and write everything pending right away
+     */
+    public void persistNow(Game game) {
+        update(game);
+        flush();
+    }
+
+    /**
+     * Write everything pending now, e.g. when the app is backgrounded
+     */
+    public void flush() {
+        synchronized (this) {
+            if (pending.isEmpty()) {
+                return;
+            }
+            scheduleFlushLocked(0);
+        }
+    }
+
+    /**
+     * The newest state of a game that has not been written yet, or null if the database is current
+     */
+    public synchronized Game getPending(String gameId) {
+        return pending.get(gameId);
+    }
+
+    private void scheduleFlushLocked(long delayMs) {
+        if (scheduledFlush != null) {
+            scheduledFlush.cancel(false);
+        }
+        scheduledFlush = executor.schedule(this::writePending, delayMs, TimeUnit.MILLISECONDS);
+    }
+
+    private void writePending() {
+        List<Game> games;
+        int updates;
+        synchronized (this) {
+            // Entries stay pending until the write commits, so getPending keeps serving them
+            games = new ArrayList<>(pending.values());
+            updates = dirtyUpdates;
+            dirtyUpdates = 0;
+            scheduledFlush = null;
+        }
+        if (games.isEmpty()) {
+            return;
+        }
+
+        try {
+            gameDao.insertAll(games);
+            PerformanceMetrics.increment("game.persist.writes");
+            Log.d(TAG, "💾 Wrote " + games.size() + " game(s) for " + updates + " update(s)");
+        } catch (Exception e) {
+            Log.e(TAG, "Error saving game data: " + e.getMessage(), e);
+            // The state is still pending; try again with the next flush
+            synchronized (this) {
+                if (scheduledFlush == null) {
+                    scheduleFlushLocked(FLUSH_INTERVAL_MS);
+                }
+            }
+            return;
+        }
+
+        synchronized (this) {
+            // Drop only what was written; a newer update that arrived meanwhile stays pending
+            for (Game game : games) {
+                if (pending.get(game.getGameId()) == game) {
+                    pending.remove(game.getGameId());
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package com.example.drawit_app.repository;
+
+import android.util.Log;
+
+import com.example.drawit_app.api.message.LobbiesDeltaMessage;
+import com.example.drawit_app.model.Lobby;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * In-memory index of the lobby list keyed by lobbyId, kept in step with the server's versioned
+ * lobby list. Snapshots and deltas are applied here first and only the resulting changes are
+ * persisted and published, so an unchanged lobby never costs a database write or a UI rebind.
+ * <p>
+ * Server versions restart whenever the server does, so they are only compared within one epoch
+ * (the start time of the server's index). A delta from another epoch asks for a snapshot, and a
+ * snapshot from a new epoch replaces every lobby rather than trusting version equality.
+ * <p>
+ * Not thread-safe on its own; LobbyRepository only touches it from its single disk executor.
+ */
+class LobbyIndex {
+    private static final String TAG = "LobbyIndex";
+
+    /**
+     * Lobbies that were inserted or changed, and IDs of lobbies that went away
+     */
+    static final class Changes {
+        final List<Lobby> upserted;
+        final List<String> removed;
+
+        Changes(List<Lobby> upserted, List<String> removed) {
+            this.upserted = upserted;
+            this.removed = removed;
+        }
+
+        boolean isEmpty() {
+            return upserted.isEmpty() && removed.isEmpty();
+        }
+    }
+
+    private final Map<String, Lobby> lobbies = new LinkedHashMap<>();
+    // Version of the server list we are in step with, -1 until a versioned snapshot arrives
+    private long listVersion = -1;
+    // Epoch that listVersion and the lobby versions belong to
+    private long epoch;
+
+    /**
+     * Fill the index from persisted rows on startup; ignored once anything else was applied
+     */
+    void seed(List<Lobby> stored) {
+        if (!lobbies.isEmpty() || stored == null) {
+            return;
+        }
+        for (Lobby lobby : stored) {
+            lobbies.put(lobby.getLobbyId(), lobby);
+        }
+        Log.d(TAG, "Seeded lobby index with " + lobbies.size() + " stored lobbies");
+    }
+
+    /**
+     * Replace the index with a full list and report what differs from before
+     *
+     * @param newEpoch       epoch of the server index the snapshot came from; ignored if unversioned
+     * @param newListVersion server list version, or -1 if the snapshot is unversioned (REST)
+     */
+    Changes applySnapshot(List<Lobby> snapshot, long newEpoch, long newListVersion) {
+        // Versions from an earlier server run say nothing about the lobbies of this one
+        boolean epochChanged = newListVersion >= 0 && newEpoch != epoch;
+        if (epochChanged && listVersion >= 0) {
+            Log.w(TAG, "Lobby list epoch changed from " + epoch + " to " + newEpoch + ", replacing every lobby");
+        }
+
+        List<Lobby> upserted = new ArrayList<>();
+        Map<String, Lobby> next = new LinkedHashMap<>();
+        for (Lobby lobby : snapshot) {
+            if (lobby == null || lobby.getLobbyId() == null || lobby.getLobbyId().isEmpty()) {
+                continue;
+            }
+            Lobby existing = lobbies.get(lobby.getLobbyId());
+            if (existing != null && !epochChanged && existing.hasSameContent(lobby)) {
+                // Keep the existing instance so identity-based diffing sees no change
+                next.put(lobby.getLobbyId(), existing);
+            } else {
+                next.put(lobby.getLobbyId(), lobby);
+                upserted.add(lobby);
+            }
+        }
+
+        List<String> removed = new ArrayList<>();
+        for (String lobbyId : lobbies.keySet()) {
+            if (!next.containsKey(lobbyId)) {
+                removed.add(lobbyId);
+            }
+        }
+
+        lobbies.clear();
+        lobbies.putAll(next);
+        if (newListVersion >= 0) {
+            epoch = newEpoch;
+            listVersion = newListVersion;
+        }
+        return new Changes(upserted, removed);
+    }
+
+    /**
+     * Apply a server delta
+     *
+     * @return the changes, or null if the delta does not follow the version we hold and a full
+     * snapshot is needed
+     */
+    Changes applyDelta(LobbiesDeltaMessage delta) {
+        if (listVersion < 0 || delta.getEpoch() != epoch || delta.getBaseVersion() != listVersion) {
+            Log.w(TAG, "Lobby delta base v" + delta.getBaseVersion() + " (epoch " + delta.getEpoch() +
+                    ") does not match held v" + listVersion + " (epoch " + epoch + "), snapshot needed");
+            return null;
+        }
+
+        List<Lobby> upserted = new ArrayList<>();
+        applyUpserts(delta.getAdded(), upserted);
+        applyUpserts(delta.getUpdated(), upserted);
+
+        List<String> removed = new ArrayList<>();
+        for (String lobbyId : delta.getRemoved()) {
+            if (lobbies.remove(lobbyId) != null) {
+                removed.add(lobbyId);
+            }
+        }
+
+        if (!delta.getOrder().isEmpty()) {
+            reorder(delta.getOrder());
+        }
+
+        listVersion = delta.getListVersion();
+        return new Changes(upserted, removed);
+    }
+
+    /**
+     * Put the lobbies of a viewport-scoped window in the server's order; anything not listed
+     * keeps its relative position at the end
+     */
+    private void reorder(List<String> order) {
+        Map<String, Lobby> ordered = new LinkedHashMap<>();
+        for (String lobbyId : order) {
+            Lobby lobby = lobbies.get(lobbyId);
+            if (lobby != null) {
+                ordered.put(lobbyId, lobby);
+            }
+        }
+        for (Map.Entry<String, Lobby> entry : lobbies.entrySet()) {
+            if (!ordered.containsKey(entry.getKey())) {
+                ordered.put(entry.getKey(), entry.getValue());
+            }
+        }
+        lobbies.clear();
+        lobbies.putAll(ordered);
+    }
+
+    private void applyUpserts(List<Lobby> incoming, List<Lobby> upserted) {
+        for (Lobby lobby : incoming) {
+            Lobby existing = lobbies.get(lobby.getLobbyId());
+            // Never let an older copy overwrite a newer one
+            if (existing != null && existing.getVersion() >= lobby.getVersion() && lobby.getVersion() > 0) {
+                continue;
+            }
+            lobbies.put(lobby.getLobbyId(), lobby);
+            upserted.add(lobby);
+        }
+    }
+
+    /**
+     * Current lobbies that can be joined (not in a game), in server order
+     */
+    List<Lobby> getJoinableLobbies() {
+        List<Lobby> result = new ArrayList<>(lobbies.size());
+        for (Lobby lobby : lobbies.values()) {
+            if (!lobby.isInGame()) {
+                result.add(lobby);
+            }
+        }
+        return Collections.unmodifiableList(result);
+    }
+}
@@ -18,17 +18,20 @@ import com.example.drawit_app.data.LobbyDao;
 import com.example.drawit_app.model.Game;
 import com.example.drawit_app.model.Lobby;
 import com.example.drawit_app.model.User;
-import java.io.IOException;
 import com.example.drawit_app.api.ApiService;
 import com.example.drawit_app.api.WebSocketService;
+import com.example.drawit_app.api.websocket.WebSocketEventBus;
 import com.example.drawit_app.api.message.GameStateMessage;
-import com.example.drawit_app.api.response.ApiResponse;
+import com.example.drawit_app.api.message.LobbiesDeltaMessage;
 import com.example.drawit_app.api.message.LobbyStateMessage;
 import com.example.drawit_app.api.request.CreateLobbyRequest;
 import com.example.drawit_app.api.response.LobbyListResponse;
 import com.example.drawit_app.api.request.JoinLobbyRequest;
+import com.example.drawit_app.api.request.LobbySubscriptionRequest;
 import com.example.drawit_app.util.AppExecutors;
 import com.example.drawit_app.util.LobbySettingsManager;
+import com.example.drawit_app.util.PerformanceMetrics;
+import com.example.drawit_app.util.ResourceFutures;
 import com.example.drawit_app.util.WebSocketMessageConverter;
 
 import java.util.ArrayList;
@@ -36,16 +39,16 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Executor;
 import java.util.concurrent.TimeUnit;
 
-import okhttp3.ResponseBody;
 
 import javax.inject.Inject;
 import javax.inject.Singleton;
 
-import retrofit2.Response;
 
 /**
  * Repository for lobby-related operations with WebSocket support
@@ -54,13 +57,6 @@ import retrofit2.Response;
 @Singleton
 public class LobbyRepository extends BaseRepository {
 
-    // Required by BaseRepository
-    @Override
-    public void onFailure(retrofit2.Call<com.example.drawit_app.api.response.ApiResponse<com.example.drawit_app.api.response.LobbyListResponse>> call, Throwable t) {
-        Log.e(TAG, "LobbyListResponse API call failed: " + t.getMessage(), t);
-        //setError("Failed to load lobbies: " + t.getMessage()); // Example of using setError from BaseRepository
-    }
-
     private static final String TAG = "LobbyRepository";
     
     // Used for reliable game transitions
@@ -100,13 +96,18 @@ public class LobbyRepository extends BaseRepository {
     // LiveData state
     private final MediatorLiveData<List<Lobby>> availableLobbies = new MediatorLiveData<>();
     private final MutableLiveData<Lobby> currentLobby = new MutableLiveData<>();
+    // Number of lobbies matching the current window's filter, -1 until the server reports it
+    private final MutableLiveData<Integer> lobbyTotal = new MutableLiveData<>(-1);
 
-    // WebSocket callback
-    private WebSocketService.LobbyUpdateCallback externalCallback;
+    // Filter and page window of the lobby list; the server only sends lobbies inside it
+    private volatile LobbySubscriptionRequest lobbyWindow = LobbySubscriptionRequest.firstPage();
 
     // Cache for lobby data to reduce API calls
     private final Map<String, CachedLobby> lobbyCache = new HashMap<>();
 
+    // Versioned lobby list, only touched on appExecutors.diskIO()
+    private final LobbyIndex lobbyIndex = new LobbyIndex();
+
     /**
      * Class to hold cached lobby data with timestamp
      */
@@ -145,39 +146,63 @@ public class LobbyRepository extends BaseRepository {
         this.messageConverter = messageConverter;
         this.appExecutors = appExecutors;
 
+        // Start from the persisted lobby list; later snapshots and deltas only write what changed.
+        // Queued before the WebSocket is set up so it always runs ahead of the first snapshot.
+        appExecutors.diskIO().execute(() -> {
+            List<Lobby> stored = lobbyDao.getAllLobbiesSync();
+            prepareIncomingLobbies(stored);
+            lobbyIndex.seed(stored);
+            publishAvailableLobbies();
+        });
+
         // Set up WebSocket connection for real-time updates
         setupWebSocketCallback();
+    }
 
-        // Observe local database for available lobbies
-        availableLobbies.addSource(lobbyDao.getAvailableLobbies(), lobbiesFromDb -> {
-            if (lobbiesFromDb != null) {
-                Log.d(TAG, "LobbyDao emitted " + lobbiesFromDb.size() + " lobbies (main constructor). Enriching from cache.");
-                List<Lobby> resultLobbies = new ArrayList<>();
-                for (Lobby dbLobby : lobbiesFromDb) {
-                    CachedLobby cachedEntry = lobbyCache.get(dbLobby.getLobbyId());
-                    // Use cached entry if it's valid and, crucially, if its players list is not null
-                    // (since that's the whole point of using the cache here)
-                    if (cachedEntry != null && !cachedEntry.isExpired() && cachedEntry.lobby.getPlayers() != null) {
-                        Log.d(TAG, "Using cached version for lobby: " + dbLobby.getLobbyId() +
-                                   ", players: " + cachedEntry.lobby.getPlayers().size() +
-                                   ", name: " + cachedEntry.lobby.getLobbyName());
-                        resultLobbies.add(cachedEntry.lobby); // Add the cached version
-                    } else {
-                        // No valid/complete cache entry, use the DB version.
-                        Log.d(TAG, "No valid/complete cache for lobby: " + dbLobby.getLobbyId() + ". Using DB version. Name: " + dbLobby.getLobbyName());
-                        settingsManager.applySettings(dbLobby);
-                        ensureHostInPlayerList(dbLobby);
-                        resultLobbies.add(dbLobby);
-                    }
-                }
-                availableLobbies.setValue(resultLobbies);
-            } else {
-                Log.d(TAG, "LobbyDao emitted null list (main constructor), setting availableLobbies to empty list.");
-                availableLobbies.setValue(new ArrayList<>());
-            }
+    /**
+     * Persist and publish index changes; must run on appExecutors.diskIO()
+     */
+    private void commitLobbyChanges(LobbyIndex.Changes changes, String source) {
+        if (changes.isEmpty()) {
+            Log.d(TAG, "Lobby list from " + source + " unchanged, nothing to persist");
+            PerformanceMetrics.increment("lobby.index.unchanged");
+            return;
+        }
+        Log.d(TAG, "Lobby list from " + source + ": " + changes.upserted.size() + " upserted, " +
+                changes.removed.size() + " removed");
+        PerformanceMetrics.add("lobby.index.upserted", changes.upserted.size());
+        PerformanceMetrics.add("lobby.index.removed", changes.removed.size());
+
+        for (Lobby lobby : changes.upserted) {
+            lobbyCache.put(lobby.getLobbyId(), new CachedLobby(lobby));
+        }
+        for (String lobbyId : changes.removed) {
+            lobbyCache.remove(lobbyId);
+        }
+        int written = lobbyDao.applyChanges(changes.upserted, changes.removed);
+        PerformanceMetrics.add("lobby.db.written", written);
+        Log.d(TAG, "Lobby list from " + source + ": " + written + " rows written");
+        publishAvailableLobbies();
+    }
+
+    private void publishAvailableLobbies() {
+        List<Lobby> lobbies = lobbyIndex.getJoinableLobbies();
+        appExecutors.mainThread().execute(() -> {
+            Log.d(TAG, "Updating availableLobbies LiveData with " + lobbies.size() + " lobbies");
+            availableLobbies.setValue(lobbies);
         });
     }
 
+    /**
+     * Apply local settings and host fix-ups to incoming lobbies before they are indexed
+     */
+    private void prepareIncomingLobbies(List<Lobby> lobbies) {
+        settingsManager.applySettings(lobbies);
+        for (Lobby lobby : lobbies) {
+            ensureHostInPlayerList(lobby);
+        }
+    }
+
     /**
      * Set up WebSocket callback for real-time lobby updates
      * This optimized version ensures WebSocket messages are properly processed
@@ -208,42 +233,42 @@ public class LobbyRepository extends BaseRepository {
             webSocketService.connect();
         }
 
-        webSocketService.setLobbyUpdateCallback(new WebSocketService.LobbyUpdateCallback() {
+        // Runs on the WebSocket dispatch thread; every handler below hands off its own work
+        webSocketService.subscribe(new WebSocketService.LobbyUpdateCallback() {
             @Override
             public void onLobbiesUpdated(com.example.drawit_app.api.message.LobbiesUpdateMessage message) {
                 if (message != null && message.getLobbiesPayload().getLobbies() != null) {
                     Log.d(TAG, "Received lobby list update via WebSocket with " + message.getLobbiesPayload().getLobbies().size() + " lobbies");
 
-                    // Process the updated lobby list
+                    long epoch = message.getLobbiesPayload().getEpoch();
+                    long listVersion = message.getLobbiesPayload().getListVersion();
+                    publishLobbyTotal(message.getLobbiesPayload().getTotal());
+
+                    // Diff the full list against the index and persist only what changed
                     appExecutors.diskIO().execute(() -> {
                         // Use the WebSocketMessageConverter to safely convert the raw lobby objects to Lobby instances
                         List<Lobby> updatedLobbies = messageConverter.convertToLobbyList(message.getLobbiesPayload().getLobbies());
-                        Log.d(TAG, "Successfully converted " + updatedLobbies.size() + " lobbies using WebSocketMessageConverter");
-
-                        // Update each lobby in the database
-                        for (Lobby lobby : updatedLobbies) {
-                            // Apply local settings
-                            settingsManager.applySettings(lobby);
-                            // Make sure the host is in the player list
-                            ensureHostInPlayerList(lobby);
-                            // Update the cache
-                            lobbyCache.put(lobby.getLobbyId(), new CachedLobby(lobby));
-                            // Save to database
-                            lobbyDao.insert(lobby);
-                        }
-
-                        // Update the available lobbies list on the main thread
-                        new Handler(Looper.getMainLooper()).post(() -> {
-                            Log.d(TAG, "Updating availableLobbies LiveData with " + updatedLobbies.size() + " lobbies");
-                            availableLobbies.setValue(updatedLobbies);
-                        });
+                        prepareIncomingLobbies(updatedLobbies);
+                        commitLobbyChanges(lobbyIndex.applySnapshot(updatedLobbies, epoch, listVersion), "snapshot v" + listVersion);
                     });
+                }
+            }
 
-                    // Forward to external callback if present
-                    if (externalCallback != null) {
-                        externalCallback.onLobbiesUpdated(message);
+            @Override
+            public void onLobbiesDelta(LobbiesDeltaMessage message) {
+                publishLobbyTotal(message.getTotal());
+                appExecutors.diskIO().execute(() -> {
+                    prepareIncomingLobbies(message.getAdded());
+                    prepareIncomingLobbies(message.getUpdated());
+                    LobbyIndex.Changes changes = lobbyIndex.applyDelta(message);
+                    if (changes == null) {
+                        // We missed a version; a fresh snapshot replaces the whole index
+                        PerformanceMetrics.increment("lobby.index.delta_gaps");
+                        webSocketService.requestLobbiesSnapshot();
+                        return;
                     }
-                }
+                    commitLobbyChanges(changes, "delta v" + message.getListVersion());
+                });
             }
 
             @Override
@@ -273,8 +298,7 @@ public class LobbyRepository extends BaseRepository {
                             lobbyDao.deleteLobbyById(lobbyId);
 
                             // Clear current lobby if it's the deleted one
-                            Handler mainHandler = new Handler(Looper.getMainLooper());
-                            mainHandler.post(() -> {
+                            appExecutors.mainThread().execute(() -> {
                                 Lobby current = currentLobby.getValue();
                                 if (current != null && current.getLobbyId().equals(lobbyId)) {
                                     Log.i(TAG, "Lobby deleted event - clearing current lobby in UI");
@@ -312,18 +336,15 @@ public class LobbyRepository extends BaseRepository {
                               ", Name: " + updatedLobby.getLobbyName());
                         lobbyDao.insert(updatedLobby);
 
-                        // Check what was actually saved
-                        Handler handler = new Handler(Looper.getMainLooper());
-                        handler.postDelayed(() -> {
-                            Lobby savedLobby = lobbyDao.getLobbyByIdSync(updatedLobby.getLobbyId());
-                            if (savedLobby != null) {
-                                Log.d(TAG, "DEBUG: After DB insert - ID: " + savedLobby.getLobbyId() +
-                                      ", Name: " + savedLobby.getLobbyName() +
-                                      ", Name null? " + (savedLobby.getLobbyName() == null));
-                            } else {
-                                Log.d(TAG, "DEBUG: After DB insert - Lobby not found in DB");
-                            }
-                        }, 100);
+                        // Check what was actually saved, still on the disk thread
+                        Lobby savedLobby = lobbyDao.getLobbyByIdSync(updatedLobby.getLobbyId());
+                        if (savedLobby != null) {
+                            Log.d(TAG, "DEBUG: After DB insert - ID: " + savedLobby.getLobbyId() +
+                                  ", Name: " + savedLobby.getLobbyName() +
+                                  ", Name null? " + (savedLobby.getLobbyName() == null));
+                        } else {
+                            Log.d(TAG, "DEBUG: After DB insert - Lobby not found in DB");
+                        }
                     });
 
                     // Update current lobby if it's the same one
@@ -337,14 +358,13 @@ public class LobbyRepository extends BaseRepository {
                             if (updatedLobby.getHostId() != null) {
                                 String hostId = updatedLobby.getHostId();
                                 Log.d(TAG, "🔍 Pre-fetching host data for ID: " + hostId);
-                                // This call will cache the host data for future use
-                                userRepository.getUserById(hostId);
+                                // This call will cache the host data for future use; it sets LiveData, so run it on the main thread
+                                appExecutors.mainThread().execute(() -> userRepository.getUserById(hostId));
                             }
                         }
 
                         // Broadcast on main thread to ensure UI updates properly
-                        Handler mainHandler = new Handler(Looper.getMainLooper());
-                        mainHandler.post(() -> {
+                        appExecutors.mainThread().execute(() -> {
                             // Create a defensive copy to ensure observers detect the change
                             Lobby updatedCopy = new Lobby();
                             updatedCopy.setLobbyId(updatedLobby.getLobbyId());
@@ -456,11 +476,6 @@ public class LobbyRepository extends BaseRepository {
                             currentLobby.postValue(updatedCopy);
                         });
                     }
-
-                    // Forward to external callback if present
-                    if (externalCallback != null) {
-                        externalCallback.onLobbyStateChanged(message);
-                    }
                 }
             }
 
@@ -498,29 +513,6 @@ public class LobbyRepository extends BaseRepository {
                     String timestamp = new java.text.SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSS")
                         .format(new java.util.Date());
                     Log.i(TAG, "⏰ Game state update received at: " + timestamp);
-
-                    // Forward to external callback with retry mechanism for critical events
-                    if (externalCallback != null) {
-                        try {
-                            Log.i(TAG, "👉 Forwarding game state event to UI callback");
-                            externalCallback.onGameStateChanged(message);
-                            
-                            // For game start events, schedule an extra delivery attempt
-                            // to ensure UI transition occurs
-                            if (event != null && event.equals("started")) {
-                                new Handler(Looper.getMainLooper()).postDelayed(() -> {
-                                    try {
-                                        Log.i(TAG, "🔁 Extra delivery attempt for game start event");
-                                        externalCallback.onGameStateChanged(message);
-                                    } catch (Exception ignored) {}
-                                }, 1000);
-                            }
-                        } catch (Exception e) {
-                            Log.e(TAG, "❌ Error forwarding game state to UI: " + e.getMessage(), e);
-                        }
-                    } else {
-                        Log.w(TAG, "⚠️ No external callback registered to receive game state events");
-                    }
                 } else {
                     Log.e(TAG, "⚠️ Received null or invalid game state message");
                 }
@@ -535,13 +527,41 @@ public class LobbyRepository extends BaseRepository {
                     Log.d(TAG, "Attempting to reconnect WebSocket after error");
                     webSocketService.connect();
                 }
-
-                // Forward to external callback
-                if (externalCallback != null) {
-                    externalCallback.onError(errorMessage);
-                }
             }
-        });
+        }, WebSocketEventBus.DISPATCH_THREAD);
+
+        // Sent now if connected, otherwise as soon as the connection is established
+        webSocketService.subscribeLobbies(lobbyWindow);
+    }
+
+    /**
+     * Change the lobby list filter or page window. A connected socket gets a fresh scoped
+     * snapshot from the server; otherwise the window is fetched over REST.
+     */
+    public void setLobbyWindow(LobbySubscriptionRequest window) {
+        lobbyWindow = window;
+        Log.d(TAG, "Lobby window set to offset=" + window.getOffset() + " limit=" + window.getLimit());
+        webSocketService.subscribeLobbies(window);
+        if (!webSocketService.isConnected()) {
+            refreshLobbies();
+        }
+    }
+
+    public LobbySubscriptionRequest getLobbyWindow() {
+        return lobbyWindow;
+    }
+
+    /**
+     * Total number of lobbies matching the current filter, or -1 if not known yet
+     */
+    public LiveData<Integer> getLobbyTotal() {
+        return lobbyTotal;
+    }
+
+    private void publishLobbyTotal(int total) {
+        if (total >= 0) {
+            lobbyTotal.postValue(total);
+        }
     }
 
     /**
@@ -557,102 +577,81 @@ public class LobbyRepository extends BaseRepository {
      * Refresh the list of lobbies from the server
      */
     public LiveData<Resource<LobbyListResponse>> refreshLobbies() {
+        return ResourceFutures.toLiveData(refreshLobbiesAsync());
+    }
+
+    /**
+     * Fetch the current lobby window from the server and merge it into the available lobbies
+     * @return future with the server's response, which may be null
+     */
+    public CompletableFuture<LobbyListResponse> refreshLobbiesAsync() {
         String token = userRepository.getAuthToken();
         if (token == null) {
-            return createErrorLiveData("Not authenticated");
+            return failedFuture("Not authenticated");
         }
 
-        MutableLiveData<Resource<LobbyListResponse>> result = new MutableLiveData<>();
-        result.setValue(Resource.loading(null));
-
-        apiService.getLobbies("Bearer " + token).enqueue(new retrofit2.Callback<>() {
-            @Override
-            public void onResponse(retrofit2.Call<ApiResponse<LobbyListResponse>> call, retrofit2.Response<ApiResponse<LobbyListResponse>> response) {
-                if (response.isSuccessful() && response.body() != null && response.body().isSuccess()) {
-                    LobbyListResponse lobbyListResponse = response.body().getData();
-                    List<Lobby> lobbies = null;
-                    if (lobbyListResponse != null) {
-                        lobbies = lobbyListResponse.getLobbies();
-                    }
+        LobbySubscriptionRequest window = lobbyWindow;
+        CompletableFuture<LobbyListResponse> call = callApiAsync(apiService.getLobbies("Bearer " + token,
+                window.getFilter().isHasFreeSeats(),
+                window.getFilter().getNamePrefix(),
+                window.getOffset(),
+                window.getLimit()));
+        return ResourceFutures.linkCancellation(call.thenApply(lobbyListResponse -> {
+            List<Lobby> lobbies = null;
+            if (lobbyListResponse != null) {
+                lobbies = lobbyListResponse.getLobbies();
+                publishLobbyTotal(lobbyListResponse.getTotalCount());
+            }
 
-                    if (lobbies != null && !lobbies.isEmpty()) {
-                        Log.i(TAG, "Fetched " + lobbies.size() + " lobbies from server (in refreshLobbies).");
-                        for (Lobby lobby : lobbies) {
-                            if (lobby.getPlayers() != null) {
-                                Log.i(TAG, "  Lobby " + lobby.getLobbyId() + " players (" + lobby.getPlayers().size() + ") from SERVER:");
-                                for (User player : lobby.getPlayers()) {
-                                    Log.i(TAG, "    Player ID: " + player.getUserId() + ", Username: " + player.getUsername());
-                                }
-                            } else {
-                                Log.i(TAG, "  Lobby " + lobby.getLobbyId() + " has NULL players list from SERVER.");
-                            }
+            if (lobbies != null && !lobbies.isEmpty()) {
+                Log.i(TAG, "Fetched " + lobbies.size() + " lobbies from server (in refreshLobbies).");
+                for (Lobby lobby : lobbies) {
+                    if (lobby.getPlayers() != null) {
+                        Log.i(TAG, "  Lobby " + lobby.getLobbyId() + " players (" + lobby.getPlayers().size() + ") from SERVER:");
+                        for (User player : lobby.getPlayers()) {
+                            Log.i(TAG, "    Player ID: " + player.getUserId() + ", Username: " + player.getUsername());
                         }
                     } else {
-                        Log.i(TAG, "Fetched lobby list from server is null or empty (in refreshLobbies).");
-                    }
-
-                    // Ensure 'lobbies' is used consistently hereafter, checking for null if necessary
-                    if (lobbies == null) {
-                        lobbies = new ArrayList<>(); // Avoid NPEs further down if server response was strange
-                    }
-                    Log.d(TAG, "Processing " + lobbies.size() + " lobbies from server");
-
-                    // DEBUG: Print out details of each lobby from API
-                    for (Lobby lobby : lobbies) {
-                        Log.d(TAG, "DEBUG: API lobby - ID: " + lobby.getLobbyId() +
-                                ", Name: " + lobby.getLobbyName() +
-                                ", JSON annotation working? " + (lobby.getLobbyName() != null));
-                    }
-
-                    // Filter out lobbies that are in active game sessions
-                    List<Lobby> availableForJoining = new ArrayList<>();
-                    for (Lobby lobby : lobbies) {
-                        // Only add lobbies that are NOT in an active game
-                        if (!lobby.isInGame()) {
-                            availableForJoining.add(lobby);
-                        } else {
-                            Log.d(TAG, "Filtering out lobby " + lobby.getLobbyId() + 
-                                  " (" + lobby.getLobbyName() + ") because it's in an active game");
-                        }
+                        Log.i(TAG, "  Lobby " + lobby.getLobbyId() + " has NULL players list from SERVER.");
                     }
-                    
-                    Log.d(TAG, "Filtered lobbies: " + availableForJoining.size() + 
-                          " available out of " + lobbies.size() + " total");
-
-                    appExecutors.diskIO().execute(() -> {
-                        lobbyDao.deleteAllLobbiesDirectly();
-                        for (Lobby lobby : availableForJoining) {
-                            // Apply any local settings before storing
-                            settingsManager.applySettings(lobby);
-                            lobbyDao.insert(lobby);
-                        }
-                    });
+                }
+            } else {
+                Log.i(TAG, "Fetched lobby list from server is null or empty (in refreshLobbies).");
+            }
 
-                    result.postValue(Resource.success(response.body().getData()));
+            // Ensure 'lobbies' is used consistently hereafter, checking for null if necessary
+            if (lobbies == null) {
+                lobbies = new ArrayList<>(); // Avoid NPEs further down if server response was strange
+            }
+            Log.d(TAG, "Processing " + lobbies.size() + " lobbies from server");
+
+            // Filter out lobbies that are in active game sessions
+            List<Lobby> availableForJoining = new ArrayList<>();
+            for (Lobby lobby : lobbies) {
+                // Only add lobbies that are NOT in an active game
+                if (!lobby.isInGame()) {
+                    availableForJoining.add(lobby);
                 } else {
-                    String errorMsg = "Failed to get lobbies";
-                    if (response.body() != null && response.body().getMessage() != null) {
-                        errorMsg = response.body().getMessage();
-                    } else if (!response.isSuccessful()) {
-                        try {
-                            errorMsg = "HTTP " + response.code() + ": " + response.errorBody().string();
-                        } catch (IOException e) {
-                            errorMsg = "HTTP " + response.code() + ": Error reading error body";
-                        }
-                    }
-                    Log.e(TAG, "Refresh lobbies error: " + errorMsg);
-                    result.postValue(Resource.error(errorMsg, null));
+                    Log.d(TAG, "Filtering out lobby " + lobby.getLobbyId() +
+                          " (" + lobby.getLobbyName() + ") because it's in an active game");
                 }
             }
 
-            @Override
-            public void onFailure(retrofit2.Call<ApiResponse<LobbyListResponse>> call, Throwable t) {
-                Log.e(TAG, "Network error refreshing lobbies: " + t.getMessage(), t);
-                result.postValue(Resource.error("Network error: " + t.getMessage(), null));
-            }
-        });
+            Log.d(TAG, "Filtered lobbies: " + availableForJoining.size() +
+                  " available out of " + lobbies.size() + " total");
 
-        return result;
+            // Unversioned snapshot: diff against the index and persist only what changed
+            appExecutors.diskIO().execute(() -> {
+                prepareIncomingLobbies(availableForJoining);
+                commitLobbyChanges(lobbyIndex.applySnapshot(availableForJoining, 0, -1), "REST refresh");
+            });
+
+            return lobbyListResponse;
+        }).whenComplete((response, error) -> {
+            if (error != null) {
+                Log.e(TAG, "Refresh lobbies error: " + ResourceFutures.messageOf(error));
+            }
+        }), call);
     }
 
 // ...
@@ -719,33 +718,30 @@ private void ensureHostInPlayerList(Lobby lobby) {
     /**
      * Create a new lobby
      */
-
     public LiveData<Resource<Lobby>> createLobby(String lobbyName, int maxPlayers, int numRounds, int roundDurationSeconds) {
+        return ResourceFutures.toLiveData(createLobbyAsync(lobbyName, maxPlayers, numRounds, roundDurationSeconds));
+    }
+
+    /**
+     * Create a new lobby hosted by the current user
+     * @return future with the created lobby, already saved locally when it completes
+     */
+    public CompletableFuture<Lobby> createLobbyAsync(String lobbyName, int maxPlayers, int numRounds, int roundDurationSeconds) {
         String token = userRepository.getAuthToken();
         if (token == null) {
-            return createErrorLiveData("Not authenticated");
+            return failedFuture("Not authenticated");
         }
 
-        MutableLiveData<Resource<Lobby>> result = new MutableLiveData<>();
-        result.setValue(Resource.loading(null));
-
-        // Create request
+        Log.d(TAG, "Creating lobby: " + lobbyName + ", rounds: " + numRounds +
+              ", duration: " + roundDurationSeconds);
         CreateLobbyRequest request = new CreateLobbyRequest(lobbyName, maxPlayers, numRounds, roundDurationSeconds);
 
-        // Execute on background thread to avoid ANR
-        appExecutors.diskIO().execute(() -> {
-            try {
-                Log.d(TAG, "Creating lobby: " + lobbyName + ", rounds: " + numRounds +
-                      ", duration: " + roundDurationSeconds);
-
-                // Make synchronous API call
-                retrofit2.Response<ApiResponse<Lobby>> response =
-                    apiService.createLobby("Bearer " + token, request).execute();
-
-                if (response.isSuccessful() && response.body() != null &&
-                    response.body().isSuccess() && response.body().getData() != null) {
-
-                    Lobby newLobby = response.body().getData();
+        CompletableFuture<Lobby> call = callApiAsync(apiService.createLobby("Bearer " + token, request));
+        CompletableFuture<Lobby> saved = call
+                .thenApplyAsync(newLobby -> {
+                    if (newLobby == null) {
+                        throw new CompletionException(new ApiException("Failed to create lobby"));
+                    }
 
                     // Store settings locally since server doesn't save them
                     settingsManager.storeSettings(newLobby.getLobbyId(), numRounds, roundDurationSeconds);
@@ -758,47 +754,26 @@ private void ensureHostInPlayerList(Lobby lobby) {
                     Log.d(TAG, "Adding host to player list for newly created lobby: " + newLobby.getLobbyId());
                     ensureHostInPlayerList(newLobby);
 
-                    // Handle specific events
-                    Log.i(TAG, " Player list changed event detected: " + "lobby_created" + " for lobby " + newLobby.getLobbyName());
-
-                    // Pre-fetch host user data to improve UI experience
+                    lobbyDao.insert(newLobby);
+                    return newLobby;
+                }, appExecutors.diskIO());
+        CompletableFuture<Lobby> published = saved
+                .thenApplyAsync(newLobby -> {
+                    // Pre-fetch host user data to improve UI experience; getUserById uses setValue
                     if (newLobby.getHostId() != null) {
-                        // Move the user pre-fetching to the main thread to avoid IllegalStateException
-                        String hostId = newLobby.getHostId();
-                        Log.d(TAG, " Pre-fetching host data for ID: " + hostId);
-
-                        // This needs to happen on the main thread since getUserById uses setValue internally
-                        Handler mainHandler = new Handler(Looper.getMainLooper());
-                        mainHandler.post(() -> {
-                            // This call will cache the host data for future use
-                            userRepository.getUserById(hostId);
-                        });
+                        Log.d(TAG, " Pre-fetching host data for ID: " + newLobby.getHostId());
+                        userRepository.getUserById(newLobby.getHostId());
                     }
 
-                    // Update lobby in database to persist changes
-                    appExecutors.diskIO().execute(() -> {
-                        lobbyDao.insert(newLobby);
-
-                        // If this is the current lobby, update the UI
-                        Handler mainHandler = new Handler(Looper.getMainLooper());
-                        mainHandler.post(() -> {
-                            // Update available lobbies listing
-                            refreshLobbies();
-                            result.postValue(Resource.success(newLobby));
-                        });
-                    });
-                } else {
-                    String errorMsg = response.body() != null && response.body().getMessage() != null ?
-                                     response.body().getMessage() : "Failed to create lobby";
-                    postError(result, errorMsg);
-                }
-            } catch (Exception e) {
-                Log.e(TAG, "Error creating lobby", e);
-                postError(result, "Network error: " + e.getMessage());
+                    // Update available lobbies listing
+                    refreshLobbies();
+                    return newLobby;
+                }, appExecutors.mainThread());
+        return ResourceFutures.linkCancellation(published.whenComplete((newLobby, error) -> {
+            if (error != null) {
+                Log.e(TAG, "Error creating lobby: " + ResourceFutures.messageOf(error));
             }
-        });
-
-        return result;
+        }), call, saved, published);
     }
 
     private volatile boolean joinRequestInProgress = false;
@@ -809,10 +784,18 @@ private void ensureHostInPlayerList(Lobby lobby) {
      * Uses WebSocket for real-time updates after joining
      */
     public LiveData<Resource<Lobby>> joinLobby(String lobbyId) {
+        return ResourceFutures.toLiveData(joinLobbyAsync(lobbyId));
+    }
+
+    /**
+     * Join an existing lobby and register this connection for its real-time updates
+     * @return future with the joined lobby, already saved locally when it completes
+     */
+    public CompletableFuture<Lobby> joinLobbyAsync(String lobbyId) {
         String token = userRepository.getAuthToken();
         if (token == null) {
             Log.e(TAG, "JoinLobby failed: Not authenticated");
-            return createErrorLiveData("Not authenticated");
+            return failedFuture("Not authenticated");
         }
 
         // Synchronized block to prevent race conditions when checking/updating the flag
@@ -821,14 +804,14 @@ private void ensureHostInPlayerList(Lobby lobby) {
             if (joinRequestInProgress) {
                 Log.w(TAG, "Join request already in progress for lobby ID: " + currentJoinAttemptLobbyId +
                         ", ignoring new request for: " + lobbyId);
-                return createErrorLiveData("Already joining a lobby, please wait");
+                return failedFuture("Already joining a lobby, please wait");
             }
 
             // Check if we're already in this lobby
             Lobby currentLobbyValue = currentLobby.getValue();
             if (currentLobbyValue != null && currentLobbyValue.getLobbyId().equals(lobbyId)) {
                 Log.i(TAG, "Already in this lobby (ID: " + lobbyId + "), returning current lobby data");
-                return new MutableLiveData<>(Resource.success(currentLobbyValue));
+                return CompletableFuture.completedFuture(currentLobbyValue);
             }
 
             // Mark that a join request is now in progress
@@ -837,9 +820,6 @@ private void ensureHostInPlayerList(Lobby lobby) {
             Log.d(TAG, "Setting joinRequestInProgress=true for lobby ID: " + lobbyId);
         }
 
-        MutableLiveData<Resource<Lobby>> result = new MutableLiveData<>();
-        result.setValue(Resource.loading(null));
-
         Log.d(TAG, "Attempting to join lobby with ID: " + lobbyId);
 
         if (!webSocketService.isConnected()) {
@@ -847,89 +827,69 @@ private void ensureHostInPlayerList(Lobby lobby) {
             webSocketService.connect();
         }
 
-        apiService.joinLobby("Bearer " + token, lobbyId, new JoinLobbyRequest()).enqueue(new retrofit2.Callback<ApiResponse<Lobby>>() {
-            @Override
-            public void onResponse(retrofit2.Call<ApiResponse<Lobby>> call, retrofit2.Response<ApiResponse<Lobby>> response) {
-                try {
-                    if (response.isSuccessful() && response.body() != null && response.body().isSuccess()) {
-                        Lobby joinedLobby = response.body().getData();
-                        if (joinedLobby != null) {
-                            Log.i(TAG, "Successfully joined lobby: " + joinedLobby.getLobbyName() + " (ID: " + joinedLobby.getLobbyId() + ")");
-                            appExecutors.diskIO().execute(() -> {
-                                try {
-                                    settingsManager.applySettings(joinedLobby);
-                                    ensureHostInPlayerList(joinedLobby);
-                                    lobbyDao.insert(joinedLobby);
-                                    lobbyCache.put(joinedLobby.getLobbyId(), new CachedLobby(joinedLobby));
-
-                                    // Use postValue instead of setValue for background thread safety
-                                    currentLobby.postValue(joinedLobby);
-
-                                    // Get the current user ID to pass along with the lobby ID
-                                    String userId = userRepository.getUserId();
-                                    if (userId == null) {
-                                        Log.w(TAG, "⚠️ User ID is null - cannot properly join lobby via WebSocket");
-                                    }
-                                    
-                                    if (webSocketService.isConnected()) {
-                                        Log.i(TAG, "🔌 WebSocket connected - sending lobby join message for lobby: " + joinedLobby.getLobbyId() + ", user: " + userId);
-                                        // Send WebSocket join message to register this connection with the lobby
-                                        webSocketService.joinLobby(joinedLobby.getLobbyId(), userId);
-                                        webSocketService.setCurrentLobbyId(joinedLobby.getLobbyId());
-                                    } else {
-                                        Log.w(TAG, "⚠️ WebSocket not connected - attempting to connect before joining lobby");
-                                        // Connect first, then join in the connected callback
-                                        webSocketService.connect();
-                                        // Add a slight delay to ensure connection is established
-                                        new Handler(Looper.getMainLooper()).postDelayed(() -> {
-                                            if (webSocketService.isConnected()) {
-                                                Log.i(TAG, "🔄 WebSocket now connected - sending delayed join for lobby: " + joinedLobby.getLobbyId() + ", user: " + userId);
-                                                webSocketService.joinLobby(joinedLobby.getLobbyId(), userId);
-                                                webSocketService.setCurrentLobbyId(joinedLobby.getLobbyId());
-                                            } else {
-                                                Log.e(TAG, "❌ WebSocket still not connected after delay - lobby real-time updates may not work");
-                                            }
-                                        }, 1000); // 1 second delay
-                                    }
-
-                                    // Post success on main thread
-                                    new Handler(Looper.getMainLooper()).post(() -> {
-                                        result.setValue(Resource.success(joinedLobby));
-                                    });
-                                } catch (Exception e) {
-                                    Log.e(TAG, "Error in background processing after joining lobby: " + e.getMessage(), e);
-                                    postError(result, "Error after joining lobby: " + e.getMessage());
-                                } finally {
-                                    // Always reset the flag when done
-                                    resetJoinRequestFlag();
-                                }
-                            });
-                        } else {
-                            Log.e(TAG, "Joined lobby but data is null. Lobby ID: " + lobbyId);
-                            result.postValue(Resource.error("Failed to join lobby: Server returned no lobby data.", null));
-                            resetJoinRequestFlag();
-                        }
-                    } else {
-                        String errorMsg = extractErrorMessage(response);
-                        Log.e(TAG, "Failed to join lobby. Response Code: " + response.code() + ", Error: " + errorMsg + ", Lobby ID: " + lobbyId);
-                        result.postValue(Resource.error(errorMsg, null));
-                        resetJoinRequestFlag();
+        CompletableFuture<Lobby> call = callApiAsync(apiService.joinLobby("Bearer " + token, lobbyId, new JoinLobbyRequest()));
+        CompletableFuture<Lobby> joined = call
+                .thenApplyAsync(joinedLobby -> {
+                    if (joinedLobby == null) {
+                        throw new CompletionException(new ApiException("Failed to join lobby: Server returned no lobby data."));
                     }
-                } catch (Exception e) {
-                    Log.e(TAG, "Unexpected error in joinLobby response handler: " + e.getMessage(), e);
-                    result.postValue(Resource.error("Unexpected error: " + e.getMessage(), null));
-                    resetJoinRequestFlag();
-                }
-            }
-
-            @Override
-            public void onFailure(retrofit2.Call<ApiResponse<Lobby>> call, Throwable t) {
-                Log.e(TAG, "Network error while trying to join lobby ID: " + lobbyId + ". Error: " + t.getMessage(), t);
-                result.postValue(Resource.error("Network error: " + t.getMessage(), null));
-                resetJoinRequestFlag();
+                    Log.i(TAG, "Successfully joined lobby: " + joinedLobby.getLobbyName() + " (ID: " + joinedLobby.getLobbyId() + ")");
+
+                    settingsManager.applySettings(joinedLobby);
+                    ensureHostInPlayerList(joinedLobby);
+                    lobbyDao.insert(joinedLobby);
+                    lobbyCache.put(joinedLobby.getLobbyId(), new CachedLobby(joinedLobby));
+
+                    // Use postValue instead of setValue for background thread safety
+                    currentLobby.postValue(joinedLobby);
+
+                    registerLobbyConnection(joinedLobby);
+                    return joinedLobby;
+                }, appExecutors.diskIO());
+        ResourceFutures.linkCancellation(joined, call);
+
+        // Not part of the returned chain: a cancelled stage skips its own callbacks, and the
+        // flag must be reset however the join ends
+        joined.whenComplete((joinedLobby, error) -> {
+            if (error != null) {
+                Log.e(TAG, "Failed to join lobby ID: " + lobbyId + ". Error: " + ResourceFutures.messageOf(error));
             }
+            // Always reset the flag when done
+            resetJoinRequestFlag();
         });
-        return result;
+        return joined;
+    }
+
+    /**
+     * Tell the server that this WebSocket connection belongs to a joined lobby
+     */
+    private void registerLobbyConnection(Lobby joinedLobby) {
+        // Get the current user ID to pass along with the lobby ID
+        String userId = userRepository.getUserId();
+        if (userId == null) {
+            Log.w(TAG, "⚠️ User ID is null - cannot properly join lobby via WebSocket");
+        }
+
+        if (webSocketService.isConnected()) {
+            Log.i(TAG, "🔌 WebSocket connected - sending lobby join message for lobby: " + joinedLobby.getLobbyId() + ", user: " + userId);
+            // Send WebSocket join message to register this connection with the lobby
+            webSocketService.joinLobby(joinedLobby.getLobbyId(), userId);
+            webSocketService.setCurrentLobbyId(joinedLobby.getLobbyId());
+        } else {
+            Log.w(TAG, "⚠️ WebSocket not connected - attempting to connect before joining lobby");
+            // Connect first, then join in the connected callback
+            webSocketService.connect();
+            // Add a slight delay to ensure connection is established
+            new Handler(Looper.getMainLooper()).postDelayed(() -> {
+                if (webSocketService.isConnected()) {
+                    Log.i(TAG, "🔄 WebSocket now connected - sending delayed join for lobby: " + joinedLobby.getLobbyId() + ", user: " + userId);
+                    webSocketService.joinLobby(joinedLobby.getLobbyId(), userId);
+                    webSocketService.setCurrentLobbyId(joinedLobby.getLobbyId());
+                } else {
+                    Log.e(TAG, "❌ WebSocket still not connected after delay - lobby real-time updates may not work");
+                }
+            }, 1000); // 1 second delay
+        }
     }
 
     /**
@@ -947,24 +907,29 @@ private void ensureHostInPlayerList(Lobby lobby) {
      * @return LiveData with Resource containing the result
      */
     public LiveData<Resource<Void>> leaveLobby() {
+        return ResourceFutures.toLiveData(leaveLobbyAsync());
+    }
+
+    /**
+     * Leave the current lobby. Local state is cleared whatever the server answers, so the future
+     * only fails for server or authentication errors worth showing.
+     */
+    public CompletableFuture<Void> leaveLobbyAsync() {
         String token = userRepository.getAuthToken();
         Lobby lobby = currentLobby.getValue();
-        MutableLiveData<Resource<Void>> result = new MutableLiveData<>();
 
         // Case 1: No auth token - silently handle as a success since we're effectively "not in a lobby"
         if (token == null) {
             Log.d(TAG, "leaveLobby: No auth token, treating as already logged out");
             // Clear current lobby state just to be safe
             currentLobby.postValue(null);
-            result.postValue(Resource.success(null));
-            return result;
+            return CompletableFuture.completedFuture(null);
         }
 
         // Case 2: Not in a lobby - silently succeed
         if (lobby == null) {
             Log.d(TAG, "leaveLobby: Not in a lobby, treating as success");
-            result.postValue(Resource.success(null));
-            return result;
+            return CompletableFuture.completedFuture(null);
         }
         
         // At this point we have both token and lobby
@@ -974,93 +939,76 @@ private void ensureHostInPlayerList(Lobby lobby) {
         if (lobbyId == null || lobbyId.isEmpty()) {
             Log.d(TAG, "leaveLobby: Invalid lobby ID, clearing lobby state");
             currentLobby.postValue(null);
-            result.postValue(Resource.success(null));
-            return result;
+            return CompletableFuture.completedFuture(null);
         }
         
         // Normal case: Actually try to leave the lobby
         Log.d(TAG, "leaveLobby: Attempting to leave lobby with ID: " + lobbyId);
-        result.setValue(Resource.loading(null));
 
-        apiService.leaveLobby("Bearer " + token, lobbyId).enqueue(new retrofit2.Callback<ApiResponse<Void>>() {
-            @Override
-            public void onResponse(retrofit2.Call<ApiResponse<Void>> call,
-                                  retrofit2.Response<ApiResponse<Void>> response) {
+        CompletableFuture<Void> call = callApiAsync(apiService.leaveLobby("Bearer " + token, lobbyId));
+        return ResourceFutures.linkCancellation(call.handle((ignored, error) -> {
+            // Clear current lobby on any outcome - this ensures consistent local state
+            // even if the API call failed. We want our local state to reflect "not in a lobby"
+            currentLobby.postValue(null);
 
-                // Clear current lobby on any response - this ensures consistent local state
-                // even if the API call failed. We want our local state to reflect "not in a lobby"
-                currentLobby.postValue(null);
+            ApiException failure = error != null ? apiExceptionOf(error) : null;
+            if (failure != null && failure.getCode() < 0) {
+                // For network failures, no need to show error to user - just treat as success
+                // The user is already visually no longer in a lobby, so showing errors is confusing
+                Log.e(TAG, "Network error leaving lobby: " + failure.getMessage());
+                return null;
+            }
 
-                // Tell WebSocket to leave the lobby
-                try {
-                    webSocketService.leaveLobby(lobbyId);
-                } catch (Exception e) {
-                    Log.w(TAG, "WebSocket leave lobby failed, but continuing: " + e.getMessage());
-                    // We don't propagate WebSocket errors to the UI here
-                }
-                
-                // Success case
-                if (response.isSuccessful() && response.body() != null && response.body().isSuccess()) {
-                    Log.d(TAG, "Successfully left lobby: " + lobbyId);
-                    result.postValue(Resource.success(null));
-                } 
-                // Certain 400-level errors should still be treated as success from UI perspective
-                else if (response.code() == 404 || 
-                         (response.body() != null && 
-                          response.body().getMessage() != null && 
-                          (response.body().getMessage().contains("not in lobby") || 
-                           response.body().getMessage().contains("not found")))) {
-                    
-                    Log.d(TAG, "Lobby not found or already left - treating as success");
-                    result.postValue(Resource.success(null));
-                }
-                // Actual error worth reporting to the user
-                else {
-                    String errorMsg = response.body() != null && response.body().getMessage() != null ?
-                                     response.body().getMessage() : "Failed to leave lobby";
-                    Log.e(TAG, "Error leaving lobby: " + errorMsg + ", HTTP code: " + response.code());
-                    
-                    // Only propagate server errors (500s) or auth problems
-                    // For other issues, just treat as success since the user is effectively "not in a lobby"
-                    if (response.code() >= 500 || response.code() == 401 || response.code() == 403) {
-                        result.setValue(Resource.error(errorMsg, null));
-                    } else {
-                        result.setValue(Resource.success(null));
-                    }
-                }
+            // Tell WebSocket to leave the lobby
+            try {
+                webSocketService.leaveLobby(lobbyId);
+            } catch (Exception e) {
+                Log.w(TAG, "WebSocket leave lobby failed, but continuing: " + e.getMessage());
+                // We don't propagate WebSocket errors to the UI here
             }
 
-            @Override
-            public void onFailure(retrofit2.Call<ApiResponse<Void>> call, Throwable t) {
-                Log.e(TAG, "Network error leaving lobby: " + t.getMessage(), t);
-                
-                // Clear current lobby regardless of network failure
-                currentLobby.postValue(null);
-                
-                // For network failures, no need to show error to user - just treat as success
-                // The user is already visually no longer in a lobby, so showing errors is confusing
-                result.postValue(Resource.success(null));
+            if (error == null) {
+                Log.d(TAG, "Successfully left lobby: " + lobbyId);
+                return null;
             }
-        });
 
-        return result;
+            String errorMsg = ResourceFutures.messageOf(error);
+            int code = failure != null ? failure.getCode() : -1;
+            // Certain 400-level errors should still be treated as success from UI perspective
+            if (code == 404 || errorMsg.contains("not in lobby") || errorMsg.contains("not found")) {
+                Log.d(TAG, "Lobby not found or already left - treating as success");
+                return null;
+            }
+
+            Log.e(TAG, "Error leaving lobby: " + errorMsg + ", HTTP code: " + code);
+            // Only propagate server errors (500s) or auth problems
+            // For other issues, just treat as success since the user is effectively "not in a lobby"
+            if (code >= 500 || code == 401 || code == 403) {
+                throw new CompletionException(failure);
+            }
+            return null;
+        }), call);
     }
 
     /**
      * Update lobby settings (host only)
      */
     public LiveData<Resource<Lobby>> updateLobbySettings(int numRounds, int roundDurationSeconds) {
+        return ResourceFutures.toLiveData(updateLobbySettingsAsync(numRounds, roundDurationSeconds));
+    }
+
+    /**
+     * Update the settings of the current lobby (host only)
+     * @return future with the updated lobby, already saved locally when it completes
+     */
+    public CompletableFuture<Lobby> updateLobbySettingsAsync(int numRounds, int roundDurationSeconds) {
         String token = userRepository.getAuthToken();
         Lobby lobby = currentLobby.getValue();
 
         if (token == null || lobby == null) {
-            return createErrorLiveData("Not in a lobby or not authenticated");
+            return failedFuture("Not in a lobby or not authenticated");
         }
 
-        String lobbyId = lobby.getLobbyId();
-        MutableLiveData<Resource<Lobby>> result = new MutableLiveData<>();
-        result.setValue(Resource.loading(null));
-
         // Create request with the same values as the current lobby except for the settings we're changing
         CreateLobbyRequest request = new CreateLobbyRequest(
             lobby.getLobbyName(),
@@ -1069,50 +1017,30 @@ private void ensureHostInPlayerList(Lobby lobby) {
             roundDurationSeconds
         );
 
-        apiService.updateLobbySettings("Bearer " + token, lobbyId, request)
-            .enqueue(new retrofit2.Callback<ApiResponse<Lobby>>() {
-                @Override
-                public void onResponse(retrofit2.Call<ApiResponse<Lobby>> call,
-                                      retrofit2.Response<ApiResponse<Lobby>> response) {
-
-                    if (response.isSuccessful() && response.body() != null &&
-                        response.body().isSuccess() && response.body().getData() != null) {
-
-                        Lobby updatedLobby = response.body().getData();
-
-                        // Store settings locally since server doesn't save them
-                        settingsManager.storeSettings(updatedLobby.getLobbyId(), numRounds, roundDurationSeconds);
-
-                        // Ensure settings are set even if server doesn't return them
-                        updatedLobby.setNumRounds(numRounds);
-                        updatedLobby.setRoundDurationSeconds(roundDurationSeconds);
-
-                        // Update database and current lobby
-                        appExecutors.diskIO().execute(() -> {
-                            lobbyDao.insert(updatedLobby);
-
-                            Handler mainHandler = new Handler(Looper.getMainLooper());
-                            mainHandler.post(() -> {
-                                currentLobby.postValue(updatedLobby);
-                                result.postValue(Resource.success(updatedLobby));
-                            });
-                        });
-                    } else {
-                        String errorMsg = response.body() != null && response.body().getMessage() != null ?
-                                         response.body().getMessage() : "Failed to update lobby settings";
-                        Log.e(TAG, errorMsg);
-                        result.postValue(Resource.error(errorMsg, null));
+        CompletableFuture<Lobby> call = callApiAsync(apiService.updateLobbySettings("Bearer " + token, lobby.getLobbyId(), request));
+        CompletableFuture<Lobby> saved = call
+                .thenApplyAsync(updatedLobby -> {
+                    if (updatedLobby == null) {
+                        throw new CompletionException(new ApiException("Failed to update lobby settings"));
                     }
-                }
 
-                @Override
-                public void onFailure(retrofit2.Call<ApiResponse<Lobby>> call, Throwable t) {
-                    Log.e(TAG, "Network error: " + t.getMessage(), t);
-                    result.postValue(Resource.error("Network error: " + t.getMessage(), null));
-                }
-            });
-
-        return result;
+                    // Store settings locally since server doesn't save them
+                    settingsManager.storeSettings(updatedLobby.getLobbyId(), numRounds, roundDurationSeconds);
+
+                    // Ensure settings are set even if server doesn't return them
+                    updatedLobby.setNumRounds(numRounds);
+                    updatedLobby.setRoundDurationSeconds(roundDurationSeconds);
+
+                    // Update database and current lobby
+                    lobbyDao.insert(updatedLobby);
+                    currentLobby.postValue(updatedLobby);
+                    return updatedLobby;
+                }, appExecutors.diskIO());
+        return ResourceFutures.linkCancellation(saved.whenComplete((updatedLobby, error) -> {
+            if (error != null) {
+                Log.e(TAG, "Failed to update lobby settings: " + ResourceFutures.messageOf(error));
+            }
+        }), call, saved);
     }
 
     /**
@@ -1120,13 +1048,19 @@ private void ensureHostInPlayerList(Lobby lobby) {
      * Games are temporary WebSocket states rather than persisted database objects
      */
     public LiveData<Resource<String>> startGame(String lobbyId) {
+        return ResourceFutures.toLiveData(startGameAsync(lobbyId));
+    }
+
+    /**
+     * Ask the server to start a game in the lobby. Call on the main thread.
+     * @return future with the temporary game ID, completed once the request is sent
+     */
+    public CompletableFuture<String> startGameAsync(String lobbyId) {
         String token = userRepository.getAuthToken();
         if (token == null) {
-            return createErrorLiveData("Not authenticated");
+            return failedFuture("Not authenticated");
         }
 
-        MutableLiveData<Resource<String>> result = new MutableLiveData<>();
-        result.setValue(Resource.loading(null));
         Lobby currentLobby = getCurrentLobby().getValue();
 
         if (currentLobby == null) {
@@ -1198,23 +1132,20 @@ private void ensureHostInPlayerList(Lobby lobby) {
             // Immediately mark the lobby as in-game
             setLobbyInGameState(lobbyId, true);
             
-            // We'll respond with success immediately and let the WebSocket handle the state change
-            result.postValue(Resource.success(tempGameId));
-            
             // Log success
             Log.i(TAG, "🎲 Game started successfully via WebSocket, tempGameId: " + tempGameId);
             Log.i(TAG, "✅ WebSocket approach eliminates multiple game object creation issues");
             Log.d(TAG, "Navigation will be handled by WebSocketService when real game_state message arrives");
             
+            // We'll respond with success immediately and let the WebSocket handle the state change
+            return CompletableFuture.completedFuture(tempGameId);
         } catch (Exception e) {
             Log.e(TAG, "Error starting game via WebSocket: " + e.getMessage(), e);
-            result.postValue(Resource.error("Failed to start game: " + e.getMessage(), null));
             
             // Reset the in-game state if we failed
             setLobbyInGameState(lobbyId, false);
+            return failedFuture("Failed to start game: " + e.getMessage());
         }
-        
-        return result;
     }
 
     public void setLobbyInGameState(String lobbyId, boolean inGame) {
@@ -1269,7 +1200,7 @@ private void ensureHostInPlayerList(Lobby lobby) {
     private void deleteEmptyLobby(String lobbyId) {
         String token = userRepository.getAuthToken();
         if (token == null) {
-            createErrorLiveData("Not authenticated");
+            Log.w(TAG, "Not authenticated, not deleting lobby " + lobbyId);
             return;
         }
 
@@ -1286,19 +1217,26 @@ private void ensureHostInPlayerList(Lobby lobby) {
         });
 
     }
+
+    /**
+     * Delete a lobby locally if nobody is left in it
+     */
     public LiveData<Resource<Boolean>> deleteLobbyIfEmpty(String lobbyId) {
+        return ResourceFutures.toLiveData(deleteLobbyIfEmptyAsync(lobbyId));
+    }
+
+    /**
+     * Delete a lobby locally if nobody is left in it
+     * @return future with whether the lobby was deleted
+     */
+    public CompletableFuture<Boolean> deleteLobbyIfEmptyAsync(String lobbyId) {
         String token = userRepository.getAuthToken();
         if (token == null) {
-            MutableLiveData<Resource<Boolean>> errorResult = new MutableLiveData<>();
-            errorResult.setValue(Resource.error("Not authenticated", false));
-            return errorResult;
+            return failedFuture("Not authenticated");
         }
 
-        MutableLiveData<Resource<Boolean>> result = new MutableLiveData<>();
-        result.postValue(Resource.loading(false)); // Changed to postValue for thread safety
-        
         // Get the lobby to check if it's empty
-        appExecutors.diskIO().execute(() -> {
+        return CompletableFuture.supplyAsync(() -> {
             Lobby lobby = lobbyDao.getLobbyByIdSync(lobbyId);
             if (lobby != null && (lobby.getPlayers() == null || lobby.getPlayers().isEmpty())) {
                 // Lobby is empty, delete it
@@ -1307,27 +1245,21 @@ private void ensureHostInPlayerList(Lobby lobby) {
                 // Also notify server (if API supports this operation)
                 deleteEmptyLobby(lobbyId);
                 
-                // Post success result using postValue for thread safety
-                result.postValue(Resource.success(true));
-                
                 // Log the successful deletion action
                 Log.i(TAG, "✅ Lobby " + lobbyId + " was empty and has been deleted");
+                return true;
+            }
+
+            // Log why we didn't delete
+            if (lobby == null) {
+                Log.i(TAG, "ℹ️ Lobby " + lobbyId + " not found, nothing to delete");
             } else {
-                // Lobby is not empty or doesn't exist
-                result.postValue(Resource.success(false));
-                
-                // Log why we didn't delete
-                if (lobby == null) {
-                    Log.i(TAG, "ℹ️ Lobby " + lobbyId + " not found, nothing to delete");
-                } else {
-                    Log.i(TAG, "ℹ️ Lobby " + lobbyId + " has " + 
-                          (lobby.getPlayers() != null ? lobby.getPlayers().size() : 0) + 
-                          " players, not deleting");  
-                }
+                Log.i(TAG, "ℹ️ Lobby " + lobbyId + " has " + 
+                      (lobby.getPlayers() != null ? lobby.getPlayers().size() : 0) + 
+                      " players, not deleting");  
             }
-        });
-        
-        return result;
+            return false;
+        }, appExecutors.diskIO());
     }
     
     /**
@@ -1339,93 +1271,66 @@ private void ensureHostInPlayerList(Lobby lobby) {
     public LiveData<Resource<Lobby>> getLobbyById(String lobbyId) {
         Log.d(TAG, "Getting lobby by ID: " + lobbyId);
         
-        MutableLiveData<Resource<Lobby>> result = new MutableLiveData<>();
-        result.setValue(Resource.loading(null));
-        
         // First check cache
         CachedLobby cachedLobby = lobbyCache.get(lobbyId);
         if (cachedLobby != null && !cachedLobby.isExpired()) {
-            result.setValue(Resource.success(cachedLobby.getLobby()));
-            return result;
+            return new MutableLiveData<>(Resource.success(cachedLobby.getLobby()));
         }
         
-        // Then check local database
-        appExecutors.diskIO().execute(() -> {
+        // Repeated detail requests for the same lobby share one database/network lookup
+        return singleFlight("lobby:" + lobbyId, result -> getLobbyByIdAsync(lobbyId).whenComplete((lobby, error) -> {
+            if (error == null) {
+                result.postValue(Resource.success(lobby));
+            } else {
+                result.postValue(Resource.error(ResourceFutures.messageOf(error), null));
+            }
+        }));
+    }
+
+    /**
+     * Get a lobby from the memory cache, the database or the server, in that order
+     * @param lobbyId ID of the lobby to retrieve
+     * @return future with the lobby
+     */
+    public CompletableFuture<Lobby> getLobbyByIdAsync(String lobbyId) {
+        CachedLobby cachedLobby = lobbyCache.get(lobbyId);
+        if (cachedLobby != null && !cachedLobby.isExpired()) {
+            return CompletableFuture.completedFuture(cachedLobby.getLobby());
+        }
+
+        CompletableFuture<Lobby> stored = CompletableFuture.supplyAsync(() -> {
             Lobby lobby = lobbyDao.getLobbyByIdSync(lobbyId);
             if (lobby != null) {
                 // Update cache
                 lobbyCache.put(lobbyId, new CachedLobby(lobby));
-                
-                // Post result
-                Handler mainHandler = new Handler(Looper.getMainLooper());
-                mainHandler.post(() -> {
-                    result.setValue(Resource.success(lobby));
-                });
-                return;
             }
-            
+            return lobby;
+        }, appExecutors.diskIO());
+        return ResourceFutures.thenComposeLinked(stored, lobby -> {
+            if (lobby != null) {
+                return CompletableFuture.completedFuture(lobby);
+            }
+
             // If not in database, fetch from server
             String token = userRepository.getAuthToken();
             if (token == null) {
-                Handler mainHandler = new Handler(Looper.getMainLooper());
-                mainHandler.post(() -> {
-                    result.postValue(Resource.error("Not authenticated", null));
-                });
-                return;
-            }
-            
-            try {
-                // Make API call on background thread
-                retrofit2.Response<ApiResponse<Lobby>> response = 
-                    apiService.getLobbyDetails("Bearer " + token, lobbyId).execute();
-                
-                if (response.isSuccessful() && response.body() != null && 
-                    response.body().isSuccess() && response.body().getData() != null) {
-                    
-                    Lobby serverLobby = response.body().getData();
-                    
-                    // Save to database
-                    lobbyDao.insert(serverLobby);
-                    
-                    // Update cache
-                    lobbyCache.put(lobbyId, new CachedLobby(serverLobby));
-                    
-                    // Post success result
-                    Handler mainHandler = new Handler(Looper.getMainLooper());
-                    mainHandler.post(() -> {
-                        result.setValue(Resource.success(serverLobby));
-                    });
-                } else {
-                    String errorMsg = response.body() != null && response.body().getMessage() != null ?
-                                    response.body().getMessage() : "Failed to get lobby details";
-                    
-                    // Post error result
-                    Handler mainHandler = new Handler(Looper.getMainLooper());
-                    mainHandler.post(() -> {
-                        result.postValue(Resource.error(errorMsg, null));
-                    });
-                }
-            } catch (Exception e) {
-                // Handle network errors
-                Handler mainHandler = new Handler(Looper.getMainLooper());
-                mainHandler.post(() -> {
-                    result.postValue(Resource.error("Network error: " + e.getMessage(), null));
-                });
+                return failedFuture("Not authenticated");
             }
+            CompletableFuture<Lobby> call = callApiAsync(apiService.getLobbyDetails("Bearer " + token, lobbyId));
+            return ResourceFutures.linkCancellation(call
+                    .thenApplyAsync(serverLobby -> {
+                        if (serverLobby == null) {
+                            throw new CompletionException(new ApiException("Failed to get lobby details"));
+                        }
+
+                        // Save to database
+                        lobbyDao.insert(serverLobby);
+
+                        // Update cache
+                        lobbyCache.put(lobbyId, new CachedLobby(serverLobby));
+                        return serverLobby;
+                    }, appExecutors.diskIO()), call);
         });
-        
-        return result;
-    }
-    
-    /**
-     * Remove a lobby update callback
-     * 
-     * @param callback The callback to remove
-     */
-    public void removeLobbyUpdateCallback(WebSocketService.LobbyUpdateCallback callback) {
-        if (callback != null && webSocketService != null) {
-            webSocketService.removeLobbyUpdateCallback(callback);
-        }
     }
 
     /**
@@ -1435,13 +1340,6 @@ private void ensureHostInPlayerList(Lobby lobby) {
         return currentLobby;
     }
 
-    /**
-     * Set an external callback for lobby updates
-     */
-    public void setLobbyUpdateCallback(WebSocketService.LobbyUpdateCallback callback) {
-        this.externalCallback = callback;
-    }
-
     /**
      * Helper method to handle lobby state change messages
      */
@@ -1530,12 +1428,6 @@ private void ensureHostInPlayerList(Lobby lobby) {
                 Log.d(TAG, "🔄 Updating current lobby LiveData with updated player list");
                 currentLobby.postValue(updatedLobby);
             }
-
-            // Forward to external callback (e.g., ViewModels and UI)
-            if (externalCallback != null) {
-                Log.d(TAG, "📢 Notifying external callback about lobby change");
-                externalCallback.onLobbyStateChanged(message);
-            }
         }
     }
 
@@ -1570,39 +1462,23 @@ private void ensureHostInPlayerList(Lobby lobby) {
         }
     }
 
-    private String extractErrorMessage(Response<?> response) {
-        String errorMsg = "Failed to join lobby (API error)";
-        if (response.errorBody() != null) {
-            try {
-                String errorBodyString = response.errorBody().string();
-                if (!errorBodyString.isEmpty()) {
-                    return errorBodyString;
-                }
-            } catch (IOException e) {
-                Log.e(TAG, "Error reading error body: " + e.getMessage());
-            }
-        } else if (response.body() instanceof ApiResponse) { // Check if body itself is ApiResponse (e.g. success=false)
-            ApiResponse<?> apiResponse = (ApiResponse<?>) response.body();
-            if (!apiResponse.isSuccess() && apiResponse.getMessage() != null) {
-                return apiResponse.getMessage();
-            }
-        } else if (!response.message().isEmpty()) {
-             errorMsg = response.message(); // HTTP status message
-        }
-        return errorMsg;
-    }
-
-    private <T> MutableLiveData<Resource<T>> createErrorLiveData(String errorMessage) {
-        MutableLiveData<Resource<T>> result = new MutableLiveData<>();
-        result.postValue(Resource.error(errorMessage, null));
-        return result;
+    /**
+     * Future that has already failed with a message for the user
+     */
+    private static <T> CompletableFuture<T> failedFuture(String message) {
+        CompletableFuture<T> failed = new CompletableFuture<>();
+        failed.completeExceptionally(new ApiException(message));
+        return failed;
     }
 
     /**
-     * Post an error to a LiveData on the main thread
+     * The {@link ApiException} behind a future's failure, or null for any other error
      */
-    private <T> void postError(MutableLiveData<Resource<T>> liveData, String errorMessage) {
-        // Use postValue which is safe to call from any thread
-        liveData.postValue(Resource.error(errorMessage, null));
+    private static ApiException apiExceptionOf(Throwable error) {
+        Throwable cause = error;
+        while (cause instanceof CompletionException && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause instanceof ApiException ? (ApiException) cause : null;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,211 @@
+package com.example.drawit_app.repository;
+
+import android.util.Log;
+
+import com.example.drawit_app.api.WebSocketService;
+import com.example.drawit_app.api.websocket.WebSocketEvents;
+import com.example.drawit_app.data.OutboundActionDao;
+import com.example.drawit_app.model.OutboundAction;
+import com.example.drawit_app.util.PerformanceMetrics;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+/**
+ * Persistent, append-only journal of player actions bound for the server.
+ * <p>
+ * Every drawing submission and rating is written to Room with a fresh idempotency key before
+ * anything is sent, so nothing is lost while the socket is down or the app is killed. Chat is not
+ * journaled, since a message delivered late is out of context; chat rows left by older versions
+ * are dropped unsent.
+ * The journal is flushed as one {@code action_batch} frame of up to {@link #BATCH_SIZE} actions,
+ * oldest first, with a single batch in flight at a time. The server applies the actions in order,
+ * skips keys it has already seen and answers with {@code action_ack}; acknowledged rows are deleted
+ * and the next batch goes out. A batch that is not acknowledged in time, or was in flight when the
+ * socket dropped, is simply resent.
+ * <p>
+ * All journal state is confined to one background thread.
+ */
+@Singleton
+public class OutboundActionJournal {
+    private static final String TAG = "OutboundActionJournal";
+
+    private static final int BATCH_SIZE = 50;
+    // Short wait before a flush so actions made in quick succession share one frame
+    private static final long FLUSH_DELAY_MS = 30;
+    private static final long ACK_TIMEOUT_MS = 10_000;
+    // Action types that are still worth delivering late
+    private static final Set<String> JOURNALED_TYPES = new HashSet<>(
+            Arrays.asList("submit_drawing", "rate_drawing"));
+
+    private final OutboundActionDao actionDao;
+    private final WebSocketService webSocketService;
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(
+            runnable -> new Thread(runnable, "drawit-action-journal"));
+
+    // Keys of the batch currently waiting for an ack
+    private final Set<String> inFlightKeys = new HashSet<>();
+    private long inFlightSince;
+    private boolean flushScheduled;
+
+    @Inject
+    public OutboundActionJournal(OutboundActionDao actionDao, WebSocketService webSocketService) {
+        this.actionDao = actionDao;
+        this.webSocketService = webSocketService;
+
+        webSocketService.getEventBus().subscribe(WebSocketEvents.Connected.class, executor, event -> {
+            // Whatever was in flight on the old socket may never be acknowledged; resend it
+            inFlightKeys.clear();
+            scheduleFlush(0);
+        });
+        webSocketService.getEventBus().subscribe(WebSocketEvents.ActionsAcknowledged.class, executor,
+                event -> onAcknowledged(event.getActionKeys()));
+
+        // Actions left over from a previous run go out as soon as a socket is up
+        scheduleFlushFromAnyThread();
+    }
+
+    /**
+     * Journal an action and send it with the next batch
+     *
+     * @param type   action type, "submit_drawing" or "rate_drawing"
+     * @param gameId game the action belongs to
+     * @param frame  the action's JSON fields; an "actionKey" is added to it
+     */
+    public void enqueue(String type, String gameId, JSONObject frame) {
+        if (!JOURNALED_TYPES.contains(type)) {
+            throw new IllegalArgumentException("Actions of type " + type + " are not journaled");
+        }
+        String actionKey = UUID.randomUUID().toString();
+        try {
+            frame.put("type", type);
+            frame.put("actionKey", actionKey);
+        } catch (JSONException e) {
+            Log.e(TAG, "Failed to build journaled " + type + " action", e);
+            return;
+        }
+        OutboundAction action = new OutboundAction(actionKey, gameId, type, frame.toString(),
+                System.currentTimeMillis());
+
+        executor.execute(() -> {
+            actionDao.insert(action);
+            PerformanceMetrics.increment("journal.enqueued");
+            Log.d(TAG, "📝 Journaled " + type + " for game " + gameId + (webSocketService.isConnected()
+                    ? "" : " (offline, will send after reconnect)"));
+            scheduleFlush(FLUSH_DELAY_MS);
+        });
+    }
+
+    /**
+     * Drop every journaled action, e.g. when the player logs out. Actions already in flight may
+     * still be applied by the server, but nothing is resent.
+     */
+    public void clear() {
+        executor.execute(() -> {
+            int deleted = actionDao.deleteAll();
+            inFlightKeys.clear();
+            Log.d(TAG, "🗑️ Cleared " + deleted + " journaled actions");
+        });
+    }
+
+    private void scheduleFlushFromAnyThread() {
+        executor.execute(() -> scheduleFlush(0));
+    }
+
+    // Must run on the journal thread
+    private void scheduleFlush(long delayMs) {
+        if (flushScheduled) {
+            return;
+        }
+        flushScheduled = true;
+        executor.schedule(this::flush, delayMs, TimeUnit.MILLISECONDS);
+    }
+
+    private void flush() {
+        flushScheduled = false;
+        if (!webSocketService.isConnected()) {
+            return;
+        }
+
+        if (!inFlightKeys.isEmpty()) {
+            if (System.currentTimeMillis() - inFlightSince < ACK_TIMEOUT_MS) {
+                return;
+            }
+            Log.w(TAG, "No ack for " + inFlightKeys.size() + " journaled actions, resending");
+            PerformanceMetrics.increment("journal.ack_timeouts");
+            inFlightKeys.clear();
+        }
+
+        List<OutboundAction> batch = actionDao.getOldest(BATCH_SIZE);
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        JSONArray actions = new JSONArray();
+        for (OutboundAction action : batch) {
+            if (!JOURNALED_TYPES.contains(action.getType())) {
+                Log.d(TAG, "Dropping stale journaled " + action.getType() + " " + action.getActionKey());
+                actionDao.deleteByKeys(Collections.singletonList(action.getActionKey()));
+                continue;
+            }
+            try {
+                actions.put(new JSONObject(action.getPayload()));
+            } catch (JSONException e) {
+                // Cannot happen for payloads written by enqueue, but must not block the journal
+                Log.e(TAG, "Dropping unreadable journaled action " + action.getActionKey(), e);
+                actionDao.deleteByKeys(Collections.singletonList(action.getActionKey()));
+                continue;
+            }
+            inFlightKeys.add(action.getActionKey());
+        }
+        if (inFlightKeys.isEmpty()) {
+            scheduleFlush(0);
+            return;
+        }
+
+        try {
+            JSONObject frame = new JSONObject();
+            frame.put("type", "action_batch");
+            frame.put("actions", actions);
+            webSocketService.sendMessage(frame.toString());
+        } catch (JSONException e) {
+            Log.e(TAG, "Failed to build action batch", e);
+            inFlightKeys.clear();
+            return;
+        }
+
+        inFlightSince = System.currentTimeMillis();
+        PerformanceMetrics.increment("journal.batches_sent");
+        PerformanceMetrics.record("journal.batch_size", inFlightKeys.size());
+        Log.d(TAG, "📤 Sent batch of " + inFlightKeys.size() + " journaled actions");
+
+        // Resend if the ack never arrives
+        executor.schedule(() -> scheduleFlush(0), ACK_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+    }
+
+    private void onAcknowledged(List<String> actionKeys) {
+        int deleted = actionDao.deleteByKeys(actionKeys);
+        inFlightKeys.removeAll(actionKeys);
+        PerformanceMetrics.add("journal.acknowledged", deleted);
+
+        if (inFlightKeys.isEmpty()) {
+            PerformanceMetrics.record("journal.ack_ms", System.currentTimeMillis() - inFlightSince);
+            // Next batch, if anything is left
+            scheduleFlush(0);
+        }
+    }
+}
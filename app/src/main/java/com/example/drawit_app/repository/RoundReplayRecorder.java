@@ -0,0 +1,214 @@
+package com.example.drawit_app.repository;
+
+import android.content.Context;
+import android.util.Log;
+
+import com.example.drawit_app.data.DrawingPathsConverter;
+import com.example.drawit_app.data.ReplayLog;
+import com.example.drawit_app.model.Drawing;
+import com.example.drawit_app.model.ReplayEvent;
+import com.example.drawit_app.util.PerformanceMetrics;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import dagger.hilt.android.qualifiers.ApplicationContext;
+
+/**
+ * Records the rounds of the game being played into a {@link ReplayLog}, so they can be replayed
+ * after the round is over without downloading anything.
+ * <p>
+ * The drawer sends a whole-canvas snapshot after each finished stroke or clear, and the server
+ * relays it to the other players; the drawer's own snapshots are recorded as they are sent. Each
+ * snapshot is compared with the number of paths seen before: paths past that count are new
+ * strokes, and a lower count means the canvas was cleared. Parsing and file writes happen on a dedicated
+ * thread; reads are queued on the same thread so they see every record appended before them.
+ */
+@Singleton
+public class RoundReplayRecorder {
+    private static final String TAG = "RoundReplayRecorder";
+
+    private static final String REPLAY_DIR = "replays";
+
+    private final File replayDir;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(
+            runnable -> new Thread(runnable, "drawit-replay-log"));
+
+    // Confined to the executor thread
+    private ReplayLog.Writer writer;
+    private String writerGameId;
+    private int currentRound = -1;
+    private int recordedPaths;
+
+    @Inject
+    public RoundReplayRecorder(@ApplicationContext Context context) {
+        this.replayDir = new File(context.getFilesDir(), REPLAY_DIR);
+    }
+
+    /**
+     * Directory holding the replay logs of all games
+     */
+    public File getReplayDir() {
+        return replayDir;
+    }
+
+    /**
+     * A round began; repeated notifications for the same round are ignored
+     */
+    public void roundStarted(String gameId, int round, String drawer, String word) {
+        long now = System.currentTimeMillis();
+        executor.execute(() -> {
+            if (!openFor(gameId) || round == currentRound) {
+                return;
+            }
+            currentRound = round;
+            recordedPaths = 0;
+            append(ReplayEvent.roundStart(round, now, drawer, word));
+        });
+    }
+
+    /**
+     * The canvas changed
+     *
+     * @param fallbackRound round to file the strokes under if no round start has been seen,
+     *                      e.g. after joining mid-round
+     * @param pathsJson     the whole canvas as sent by the drawer
+     */
+    public void drawingUpdated(String gameId, int fallbackRound, String pathsJson) {
+        long now = System.currentTimeMillis();
+        executor.execute(() -> {
+            if (!openFor(gameId)) {
+                return;
+            }
+            if (currentRound < 0) {
+                currentRound = fallbackRound;
+            }
+
+            List<Drawing.DrawingPath> paths = DrawingPathsConverter.fromSnapshotJson(pathsJson);
+            if (paths.size() < recordedPaths) {
+                append(ReplayEvent.clear(currentRound, now));
+                recordedPaths = 0;
+            }
+            for (int i = recordedPaths; i < paths.size(); i++) {
+                append(ReplayEvent.stroke(currentRound, now, paths.get(i)));
+            }
+            recordedPaths = paths.size();
+        });
+    }
+
+    /**
+     * A player guessed in the chat
+     */
+    public void guessMade(String gameId, String player, String text, boolean correct) {
+        long now = System.currentTimeMillis();
+        executor.execute(() -> {
+            if (openFor(gameId) && currentRound >= 0) {
+                append(ReplayEvent.guess(currentRound, now, player, text, correct));
+            }
+        });
+    }
+
+    /**
+     * A round is over; strokes arriving after this belong to no round until the next one starts
+     */
+    public void roundEnded(String gameId, int round) {
+        long now = System.currentTimeMillis();
+        executor.execute(() -> {
+            if (!openFor(gameId)) {
+                return;
+            }
+            append(ReplayEvent.roundEnd(round, now));
+            currentRound = -1;
+            recordedPaths = 0;
+        });
+    }
+
+    /**
+     * The game is over; release its log file
+     */
+    public void gameEnded(String gameId) {
+        executor.execute(() -> {
+            if (gameId != null && gameId.equals(writerGameId)) {
+                closeWriter();
+            }
+        });
+    }
+
+    /**
+     * Rounds of a game that can be replayed, in ascending order
+     */
+    public CompletableFuture<List<Integer>> getRecordedRoundsAsync(String gameId) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return ReplayLog.readRounds(replayDir, gameId);
+            } catch (IOException e) {
+                throw new RuntimeException("Could not read replay index of game " + gameId, e);
+            }
+        }, executor);
+    }
+
+    /**
+     * Events of one round, oldest first; empty if it was not recorded on this device
+     */
+    public CompletableFuture<List<ReplayEvent>> loadRoundAsync(String gameId, int round) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                List<ReplayEvent> events = ReplayLog.readRound(replayDir, gameId, round);
+                Log.d(TAG, "🎞️ Loaded " + events.size() + " replay events for game " + gameId + " round " + round);
+                return events;
+            } catch (IOException e) {
+                throw new RuntimeException("Could not read replay of game " + gameId + " round " + round, e);
+            }
+        }, executor);
+    }
+
+    // Switch the writer to the given game, starting over on round tracking
+    private boolean openFor(String gameId) {
+        if (gameId == null) {
+            return false;
+        }
+        if (gameId.equals(writerGameId) && writer != null) {
+            return true;
+        }
+        closeWriter();
+        try {
+            writer = ReplayLog.openWriter(replayDir, gameId);
+            writerGameId = gameId;
+            currentRound = -1;
+            recordedPaths = 0;
+            return true;
+        } catch (IOException e) {
+            Log.e(TAG, "Could not open replay log for game " + gameId + ": " + e.getMessage(), e);
+            return false;
+        }
+    }
+
+    private void append(ReplayEvent event) {
+        try {
+            writer.append(event);
+            PerformanceMetrics.increment("replay.events.written");
+        } catch (IOException e) {
+            Log.e(TAG, "Could not append " + event.getType() + " to replay log: " + e.getMessage(), e);
+        }
+    }
+
+    private void closeWriter() {
+        if (writer == null) {
+            return;
+        }
+        try {
+            writer.close();
+        } catch (IOException e) {
+            Log.w(TAG, "Error closing replay log of game " + writerGameId, e);
+        }
+        writer = null;
+        writerGameId = null;
+    }
+}
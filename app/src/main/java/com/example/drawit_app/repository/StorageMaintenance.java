@@ -0,0 +1,387 @@
+package com.example.drawit_app.repository;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.database.Cursor;
+import android.util.Log;
+
+import androidx.sqlite.db.SupportSQLiteDatabase;
+
+import com.example.drawit_app.api.auth.AuthTokenStore;
+import com.example.drawit_app.data.DrawItDatabase;
+import com.example.drawit_app.data.DrawingDao;
+import com.example.drawit_app.data.GameDao;
+import com.example.drawit_app.data.LobbyDao;
+import com.example.drawit_app.data.ReplayLog;
+import com.example.drawit_app.data.UserDao;
+import com.example.drawit_app.util.LobbySettingsManager;
+import com.example.drawit_app.util.PerformanceMetrics;
+
+import java.io.File;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import dagger.hilt.android.qualifiers.ApplicationContext;
+
+/**
+ * Background job that keeps the app's local storage within a size budget.
+ * <p>
+ * A run, at most once per {@link #RUN_INTERVAL_MS}:
+ * <ol>
+ *   <li>deletes exported images older than {@link #EXPORT_CACHE_MAX_AGE_MS} from the share cache,</li>
+ *   <li>drops stored settings of lobbies that are no longer in the lobby table,</li>
+ *   <li>evicts finished games older than {@link #MAX_GAME_AGE_MS} with their drawings and
+ *       replay logs, and drawings older than {@link #MAX_DRAWING_WITHOUT_GAME_AGE_MS} whose game
+ *       is not stored locally, such as archive pages fetched from the server,</li>
+ *   <li>keeps evicting the oldest finished games, then the oldest drawings without a game, while
+ *       the database, replay logs and export cache together are over budget; it stops early when
+ *       a batch frees nothing,</li>
+ *   <li>drops cached users nothing refers to any more and replay logs of games that are gone,</li>
+ *   <li>returns free database pages to the file system with an incremental vacuum.</li>
+ * </ol>
+ * Games that are not finished are never evicted. The budget defaults to
+ * {@link #DEFAULT_BUDGET_BYTES} and can be changed with {@link #setBudgetBytes(long)}.
+ */
+@Singleton
+public class StorageMaintenance {
+    private static final String TAG = "StorageMaintenance";
+
+    /**
+     * Cache subdirectory for images written to be shared with other apps
+     */
+    public static final String EXPORT_CACHE_DIR = "images";
+
+    public static final long DEFAULT_BUDGET_BYTES = 64L * 1024 * 1024;
+
+    private static final long RUN_INTERVAL_MS = TimeUnit.DAYS.toMillis(1);
+    private static final long START_DELAY_MS = TimeUnit.SECONDS.toMillis(30);
+    private static final long MAX_GAME_AGE_MS = TimeUnit.DAYS.toMillis(90);
+    // Drawings without a local game can be fetched from the server again. There is no record of
+    // when a drawing was last viewed, so they are aged by when they were drawn.
+    private static final long MAX_DRAWING_WITHOUT_GAME_AGE_MS = TimeUnit.DAYS.toMillis(30);
+    // The receiving app may still be reading a shared image for a while
+    private static final long EXPORT_CACHE_MAX_AGE_MS = TimeUnit.HOURS.toMillis(1);
+    // Replay logs of games that were never stored may belong to a game still being played
+    private static final long ORPHAN_REPLAY_MIN_AGE_MS = TimeUnit.DAYS.toMillis(1);
+    private static final int EVICTION_BATCH = 20;
+
+    private static final String PREF_NAME = "storage_maintenance";
+    private static final String KEY_BUDGET_BYTES = "budget_bytes";
+    private static final String KEY_LAST_RUN = "last_run";
+
+    private static final int AUTO_VACUUM_INCREMENTAL = 2;
+
+    private final Context context;
+    private final DrawItDatabase database;
+    private final GameDao gameDao;
+    private final DrawingDao drawingDao;
+    private final LobbyDao lobbyDao;
+    private final UserDao userDao;
+    private final RoundReplayRecorder replayRecorder;
+    private final AuthTokenStore tokenStore;
+    private final LobbySettingsManager settingsManager;
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(
+            runnable -> new Thread(runnable, "drawit-storage-maintenance"));
+
+    // Guarded by this
+    private boolean scheduled;
+
+    @Inject
+    public StorageMaintenance(@ApplicationContext Context context, DrawItDatabase database,
+                              RoundReplayRecorder replayRecorder, AuthTokenStore tokenStore) {
+        this.context = context;
+        this.database = database;
+        this.gameDao = database.gameDao();
+        this.drawingDao = database.drawingDao();
+        this.lobbyDao = database.lobbyDao();
+        this.userDao = database.userDao();
+        this.replayRecorder = replayRecorder;
+        this.tokenStore = tokenStore;
+        this.settingsManager = new LobbySettingsManager(context);
+    }
+
+    public long getBudgetBytes() {
+        return getPreferences().getLong(KEY_BUDGET_BYTES, DEFAULT_BUDGET_BYTES);
+    }
+
+    /**
+     * Change the storage budget; takes effect with the next run
+     */
+    public void setBudgetBytes(long budgetBytes) {
+        getPreferences().edit().putLong(KEY_BUDGET_BYTES, Math.max(0, budgetBytes)).apply();
+    }
+
+    /**
+     * Run maintenance shortly, unless it ran within the last day or is already scheduled
+     */
+    public synchronized void scheduleIfDue() {
+        if (scheduled) {
+            return;
+        }
+        long lastRun = getPreferences().getLong(KEY_LAST_RUN, 0);
+        if (System.currentTimeMillis() - lastRun < RUN_INTERVAL_MS) {
+            return;
+        }
+        scheduled = true;
+        executor.schedule(this::runScheduled, START_DELAY_MS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Run maintenance now, regardless of when it last ran
+     */
+    public CompletableFuture<Report> runNowAsync() {
+        return CompletableFuture.supplyAsync(this::run, executor);
+    }
+
+    private void runScheduled() {
+        try {
+            run();
+        } catch (Exception e) {
+            Log.e(TAG, "Storage maintenance failed: " + e.getMessage(), e);
+        } finally {
+            synchronized (this) {
+                scheduled = false;
+            }
+        }
+    }
+
+    private Report run() {
+        long startMs = System.currentTimeMillis();
+        long budget = getBudgetBytes();
+        Report report = new Report();
+        report.bytesBefore = measureUsage();
+
+        report.filesDeleted += deleteOldFiles(new File(context.getCacheDir(), EXPORT_CACHE_DIR),
+                startMs - EXPORT_CACHE_MAX_AGE_MS);
+        pruneLobbySettings(report);
+
+        // Age limits first, then the oldest games and drawings until the budget is met
+        List<String> expired = gameDao.getFinishedGameIdsStartedBefore(new Date(startMs - MAX_GAME_AGE_MS));
+        for (int i = 0; i < expired.size(); i += EVICTION_BATCH) {
+            evictGames(expired.subList(i, Math.min(i + EVICTION_BATCH, expired.size())), report);
+        }
+        report.drawingsDeleted += drawingDao.deleteDrawingsWithoutGameBefore(
+                new Date(startMs - MAX_DRAWING_WITHOUT_GAME_AGE_MS));
+        compactDatabase();
+        long used = measureUsage();
+        while (used > budget) {
+            if (!evictOldest(report)) {
+                Log.w(TAG, "⚠️ Still " + used + " bytes used with a budget of " + budget
+                        + " bytes, but no finished games or drawings are left to evict");
+                break;
+            }
+            compactDatabase();
+            long after = measureUsage();
+            if (after >= used) {
+                // Nothing more will come of the next batch either, e.g. when the space is
+                // taken by data that is never evicted
+                Log.w(TAG, "⚠️ Eviction freed nothing, stopping at " + after + " bytes with a budget of "
+                        + budget + " bytes");
+                break;
+            }
+            used = after;
+        }
+
+        report.usersDeleted = userDao.deleteUnreferencedUsers(
+                tokenStore.getUserId() != null ? tokenStore.getUserId() : "");
+        report.filesDeleted += ReplayLog.deleteOrphans(replayRecorder.getReplayDir(),
+                new HashSet<>(gameDao.getAllGameIds()), startMs - ORPHAN_REPLAY_MIN_AGE_MS);
+        compactDatabase();
+
+        report.bytesAfter = measureUsage();
+        getPreferences().edit().putLong(KEY_LAST_RUN, System.currentTimeMillis()).apply();
+
+        PerformanceMetrics.increment("storage.maintenance.runs");
+        PerformanceMetrics.add("storage.reclaimed.bytes", report.getReclaimedBytes());
+        Log.d(TAG, "🧹 Storage maintenance done in " + (System.currentTimeMillis() - startMs)
+                + " ms, budget " + budget + " bytes: " + report);
+        return report;
+    }
+
+    private void pruneLobbySettings(Report report) {
+        List<String> lobbyIds = lobbyDao.getAllLobbyIdsSync();
+        // An empty table usually means the lobby list was never loaded, not that every lobby is gone
+        if (lobbyIds.isEmpty()) {
+            return;
+        }
+        report.lobbySettingsPruned = settingsManager.pruneSettings(new HashSet<>(lobbyIds));
+    }
+
+    /**
+     * Evict the oldest batch of finished games or, once there are none, of drawings without a game
+     *
+     * @return false if there was nothing left to evict
+     */
+    private boolean evictOldest(Report report) {
+        List<String> oldestGames = gameDao.getOldestFinishedGameIds(EVICTION_BATCH);
+        if (!oldestGames.isEmpty()) {
+            evictGames(oldestGames, report);
+            return true;
+        }
+        List<String> oldestDrawings = drawingDao.getOldestDrawingIdsWithoutGame(EVICTION_BATCH);
+        if (!oldestDrawings.isEmpty()) {
+            report.drawingsDeleted += drawingDao.deleteDrawingsByIds(oldestDrawings);
+            Log.d(TAG, "Evicted " + oldestDrawings.size() + " drawings without a local game");
+            return true;
+        }
+        return false;
+    }
+
+    private void evictGames(List<String> gameIds, Report report) {
+        database.runInTransaction(() -> {
+            report.drawingsDeleted += drawingDao.deleteDrawingsForGames(gameIds);
+            report.gamesEvicted += gameDao.deleteGamesByIds(gameIds);
+        });
+        for (String gameId : gameIds) {
+            if (ReplayLog.delete(replayRecorder.getReplayDir(), gameId) > 0) {
+                report.filesDeleted++;
+            }
+        }
+        Log.d(TAG, "Evicted " + gameIds.size() + " finished games");
+    }
+
+    /**
+     * Hand free pages back to the file system and fold the WAL into the database file.
+     * Incremental vacuum needs auto_vacuum=INCREMENTAL, which only takes effect after a full
+     * VACUUM; that conversion happens once, on the first run.
+     */
+    private void compactDatabase() {
+        try {
+            SupportSQLiteDatabase db = database.getOpenHelper().getWritableDatabase();
+            if (queryLong(db, "PRAGMA auto_vacuum") != AUTO_VACUUM_INCREMENTAL) {
+                Log.d(TAG, "Switching the database to incremental auto-vacuum");
+                db.execSQL("PRAGMA auto_vacuum = INCREMENTAL");
+                db.execSQL("VACUUM");
+            } else {
+                // Each freed page is one step of the statement; read to the end to free them all
+                try (Cursor cursor = db.query("PRAGMA incremental_vacuum")) {
+                    cursor.getCount();
+                }
+            }
+            try (Cursor cursor = db.query("PRAGMA wal_checkpoint(TRUNCATE)")) {
+                cursor.moveToFirst();
+            }
+        } catch (Exception e) {
+            // Another connection may be busy; the pages are freed on a later run
+            Log.w(TAG, "Database compaction skipped: " + e.getMessage());
+        }
+    }
+
+    private static long queryLong(SupportSQLiteDatabase db, String sql) {
+        try (Cursor cursor = db.query(sql)) {
+            return cursor.moveToFirst() ? cursor.getLong(0) : -1;
+        }
+    }
+
+    /**
+     * Bytes used by the database, replay logs and export cache
+     */
+    private long measureUsage() {
+        return databaseBytesInUse()
+                + directorySize(replayRecorder.getReplayDir())
+                + directorySize(new File(context.getCacheDir(), EXPORT_CACHE_DIR));
+    }
+
+    /**
+     * Bytes held by live database pages. Free pages are left out, so a batch of deletes shows up
+     * right away, and so are the -wal and -shm files, whose size says nothing about the data.
+     */
+    private long databaseBytesInUse() {
+        SupportSQLiteDatabase db = database.getOpenHelper().getWritableDatabase();
+        long pageCount = queryLong(db, "PRAGMA page_count");
+        long freePages = queryLong(db, "PRAGMA freelist_count");
+        long pageSize = queryLong(db, "PRAGMA page_size");
+        return Math.max(0, pageCount - Math.max(0, freePages)) * Math.max(0, pageSize);
+    }
+
+    private static long directorySize(File dir) {
+        File[] files = dir.listFiles();
+        if (files == null) {
+            return 0;
+        }
+        long size = 0;
+        for (File file : files) {
+            size += file.isDirectory() ? directorySize(file) : file.length();
+        }
+        return size;
+    }
+
+    private static int deleteOldFiles(File dir, long modifiedBefore) {
+        File[] files = dir.listFiles();
+        if (files == null) {
+            return 0;
+        }
+        int deleted = 0;
+        for (File file : files) {
+            if (file.isFile() && file.lastModified() < modifiedBefore && file.delete()) {
+                deleted++;
+            }
+        }
+        return deleted;
+    }
+
+    private SharedPreferences getPreferences() {
+        return context.getSharedPreferences(PREF_NAME, Context.MODE_PRIVATE);
+    }
+
+    /**
+     * What one maintenance run removed
+     */
+    public static final class Report {
+        private long bytesBefore;
+        private long bytesAfter;
+        private int gamesEvicted;
+        private int drawingsDeleted;
+        private int usersDeleted;
+        private int lobbySettingsPruned;
+        private int filesDeleted;
+
+        public long getBytesBefore() {
+            return bytesBefore;
+        }
+
+        public long getBytesAfter() {
+            return bytesAfter;
+        }
+
+        public long getReclaimedBytes() {
+            return Math.max(0, bytesBefore - bytesAfter);
+        }
+
+        public int getGamesEvicted() {
+            return gamesEvicted;
+        }
+
+        public int getDrawingsDeleted() {
+            return drawingsDeleted;
+        }
+
+        public int getUsersDeleted() {
+            return usersDeleted;
+        }
+
+        public int getLobbySettingsPruned() {
+            return lobbySettingsPruned;
+        }
+
+        public int getFilesDeleted() {
+            return filesDeleted;
+        }
+
+        @Override
+        public String toString() {
+            return "reclaimed " + getReclaimedBytes() + " bytes (" + bytesBefore + " -> " + bytesAfter
+                    + "), games=" + gamesEvicted + ", drawings=" + drawingsDeleted
+                    + ", users=" + usersDeleted + ", lobbySettings=" + lobbySettingsPruned
+                    + ", files=" + filesDeleted;
+        }
+    }
+}
@@ -6,22 +6,19 @@ import android.util.Log;
 import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
 import androidx.lifecycle.Observer;
-import androidx.security.crypto.EncryptedSharedPreferences;
-import androidx.security.crypto.MasterKey;
 
 import com.example.drawit_app.data.DrawItDatabase;
 import com.example.drawit_app.data.UserDao;
 import com.example.drawit_app.model.User;
 import com.example.drawit_app.api.ApiService;
+import com.example.drawit_app.api.auth.AuthTokenStore;
 import com.example.drawit_app.api.request.AuthRequest;
 import com.example.drawit_app.api.request.RegisterRequest;
 import com.example.drawit_app.api.request.UpdateProfileRequest;
 import com.example.drawit_app.api.response.ApiResponse;
 import com.example.drawit_app.api.response.AuthResponse;
-import com.example.drawit_app.api.response.LobbyListResponse;
 
 import java.io.IOException;
-import java.security.GeneralSecurityException;
 
 import javax.inject.Inject;
 import javax.inject.Singleton;
@@ -35,26 +32,32 @@ import retrofit2.Response;
  */
 @Singleton
 public class UserRepository extends BaseRepository {
-    private static final String PREF_NAME = "drawit_user_prefs";
-    private static final String KEY_AUTH_TOKEN = "auth_token";
-    private static final String KEY_USER_ID = "user_id";
     
     private final ApiService apiService;
     private final UserDao userDao;
     private final Context context;
     private final MutableLiveData<User> currentUser;
     private final SessionManager sessionManager;
+    // Token and user ID, decrypted once and then kept in memory
+    private final AuthTokenStore tokenStore;
+    // Unsent actions belong to the signed-in player and are dropped on logout
+    private final OutboundActionJournal actionJournal;
     
     // Direct access to login API response
     private final MutableLiveData<ApiResponse<AuthResponse>> loginResponse = new MutableLiveData<>();
     
     @Inject
-    public UserRepository(ApiService apiService, DrawItDatabase database, Context context) {
+    public UserRepository(ApiService apiService, DrawItDatabase database, Context context,
+                          AuthTokenStore tokenStore, OutboundActionJournal actionJournal) {
         this.apiService = apiService;
+        this.tokenStore = tokenStore;
+        this.actionJournal = actionJournal;
         this.userDao = database.userDao();
         this.context = context;
         this.currentUser = new MutableLiveData<>();
         this.sessionManager = new SessionManager(context);
+        // Decrypt the stored session off the main thread before the first request needs it
+        DatabaseExecutor.execute(tokenStore::getToken);
     }
     
     /**
@@ -283,10 +286,7 @@ public class UserRepository extends BaseRepository {
         if (token == null || sessionId == null) {
             Log.d("UserRepository", "No active session found, clearing local data only");
             // Still clear everything locally even if no token exists
-            clearAuthToken();
-            clearUserId();
-            sessionManager.clearSession();
-            currentUser.setValue(null);
+            clearLocalSession();
             
             result.setValue(Resource.success(null));
             return result;
@@ -302,10 +302,7 @@ public class UserRepository extends BaseRepository {
             // Observe the result to clear auth token, session and user data regardless of API result
             observeOnce(apiResult, resource -> {
                 // Clean up local data regardless of server response
-                clearAuthToken();
-                clearUserId();
-                sessionManager.clearSession();
-                currentUser.setValue(null);
+                clearLocalSession();
                 
                 // Log the logout result
                 if (resource.isSuccess()) {
@@ -321,10 +318,7 @@ public class UserRepository extends BaseRepository {
         } catch (Exception e) {
             Log.e("UserRepository", "Error during logout: " + e.getMessage(), e);
             // Still clear everything locally even if API call fails
-            clearAuthToken();
-            clearUserId();
-            sessionManager.clearSession();
-            currentUser.setValue(null);
+            clearLocalSession();
             
             result.setValue(Resource.success(null)); // Still report success to the UI
         }
@@ -332,6 +326,18 @@ public class UserRepository extends BaseRepository {
         return result;
     }
     
+    /**
+     * Forget the signed-in user on this device: tokens, session, cached user and any
+     * journaled actions that were not delivered yet, so they are never sent for the next account
+     */
+    private void clearLocalSession() {
+        clearAuthToken();
+        clearUserId();
+        sessionManager.clearSession();
+        currentUser.setValue(null);
+        actionJournal.clear();
+    }
+    
     /**
      * Get the current authenticated user
      */
@@ -385,23 +391,29 @@ public class UserRepository extends BaseRepository {
             return result;
         }
         
-        // Try to load from database first
-        LiveData<User> userFromDb = userDao.getUserById(userId);
-        MutableLiveData<Resource<User>> result = new MutableLiveData<>();
-        result.setValue(Resource.loading(null));
-        
-        // Observe the database result
-        observeOnce(userFromDb, userFromDatabase -> {
-            if (userFromDatabase != null) {
-                // If found in database and not too old, return it
-                result.setValue(Resource.success(userFromDatabase));
-            } else {
-                // Not in database or needs refresh, call API
-                fetchUserById(userId, result);
-            }
+        // Several views ask for the same user (e.g. a lobby host) at once; share one lookup
+        return singleFlight("user:" + userId, result -> {
+            // Try to load from database first
+            LiveData<User> userFromDb = userDao.getUserById(userId);
+            
+            // Observe the database result
+            observeOnce(userFromDb, userFromDatabase -> {
+                if (userFromDatabase != null) {
+                    // Render the stored copy now and check with the server in the background
+                    result.setValue(Resource.success(userFromDatabase));
+                    String token = getAuthToken();
+                    if (token != null && isRevalidationDue("user:" + userId)) {
+                        revalidate(result,
+                                cacheControl -> apiService.getUserById("Bearer " + token, userId, cacheControl),
+                                true,
+                                user -> DatabaseExecutor.execute(() -> userDao.insert(user)));
+                    }
+                } else {
+                    // Not in database or needs refresh, call API
+                    fetchUserById(userId, result);
+                }
+            });
         });
-        
-        return result;
     }
     
     /**
@@ -429,24 +441,9 @@ public class UserRepository extends BaseRepository {
                     // Use postValue instead of setValue for thread safety
                     result.postValue(Resource.success(user));
                 } else {
-                    // Check if token is expired (403 status code)
-                    if (response.code() == 403) {
-                        Log.d("UserRepository", "Token appears to be expired, attempting to refresh token");
-                        refreshToken(token, refreshResult -> {
-                            if (refreshResult) {
-                                // Token refreshed, retry the original request
-                                Log.d("UserRepository", "Token refreshed successfully, retrying getUserById request");
-                                fetchUserById(userId, result); // Recursive call with fresh token
-                            } else {
-                                String errorMsg = "Session expired, please login again";
-                                Log.e("UserRepository", errorMsg);
-                                result.postValue(Resource.error(errorMsg, null));
-                            }
-                        });
-                    } else {
-                        String errorMsg = response.body() != null ? response.body().getMessage() : "Failed to get user";
-                        result.postValue(Resource.error(errorMsg, null));
-                    }
+                    // An expired token was already refreshed by TokenAuthenticator if possible
+                    String errorMsg = response.body() != null ? response.body().getMessage() : "Failed to get user";
+                    result.postValue(Resource.error(errorMsg, null));
                 }
             }
             
@@ -458,135 +455,6 @@ public class UserRepository extends BaseRepository {
         });
     }
     
-    /**
-     * Refresh the authentication token
-     * 
-     * @param oldToken The existing (possibly expired) token
-     * @param callback Callback to be invoked with the result of the refresh operation
-     */
-    public void refreshToken(String oldToken, TokenRefreshCallback callback) {
-        Log.d("UserRepository", "Starting token refresh");
-        
-        if (oldToken == null) {
-            Log.e("UserRepository", "Cannot refresh null token");
-            callback.onResult(false);
-            return;
-        }
-        
-        // Create a request with the old token
-        com.example.drawit_app.api.request.RefreshTokenRequest request =
-                new com.example.drawit_app.api.request.RefreshTokenRequest(oldToken);
-        
-        apiService.refreshToken(request).enqueue(new Callback<ApiResponse<AuthResponse>>() {
-            @Override
-            public void onResponse(Call<ApiResponse<AuthResponse>> call, Response<ApiResponse<AuthResponse>> response) {
-                if (response.isSuccessful() && response.body() != null && 
-                        response.body().isSuccess() && response.body().getData() != null) {
-                    
-                    AuthResponse authResponse = response.body().getData();
-                    String newToken = authResponse.getToken();
-                    User user = authResponse.getUser();
-                    
-                    if (newToken != null && !newToken.isEmpty() && user != null) {
-                        // Save the new token
-                        saveAuthToken(newToken);
-                        saveUserId(user.getUserId());
-                        
-                        // Update user in database with new token
-                        user.setAuthToken(newToken);
-                        updateCurrentUser(user);
-                        
-                        Log.d("UserRepository", "Token refreshed successfully");
-                        callback.onResult(true);
-                    } else {
-                        Log.e("UserRepository", "Token refresh response missing token or user data");
-                        callback.onResult(false);
-                    }
-                } else {
-                    Log.e("UserRepository", "Token refresh failed: " + 
-                            (response.body() != null ? response.body().getMessage() : "Unknown error"));
-                    callback.onResult(false);
-                }
-            }
-            
-            @Override
-            public void onFailure(Call<ApiResponse<AuthResponse>> call, Throwable t) {
-                Log.e("UserRepository", "Token refresh network error: " + t.getMessage());
-                callback.onResult(false);
-            }
-        });
-    }
-    
-    /**
-     * Override handleExpiredToken from BaseRepository to implement token refresh
-     * This will be called automatically when any API call returns a 403 error
-     */
-    @Override
-    protected <T> void handleExpiredToken(Call<ApiResponse<T>> originalCall, MutableLiveData<Resource<T>> result) {
-        Log.d("UserRepository", "Handling expired token in UserRepository");
-        
-        // Get the current token (even if expired)
-        String currentToken = getAuthToken();
-        if (currentToken == null) {
-            Log.e("UserRepository", "No token available for refresh");
-            result.postValue(Resource.error("Not authenticated", null));
-            return;
-        }
-        
-        // Try to refresh the token
-        refreshToken(currentToken, refreshSuccess -> {
-            if (refreshSuccess) {
-                Log.d("UserRepository", "Token refreshed successfully, retrying original request");
-                
-                // Clone the original call with the new token
-                String newToken = getAuthToken();
-                Call<ApiResponse<T>> newCall;
-                
-                try {
-                    // We need to clone the original call and update its headers with the new token
-                    // For API calls that used the old token
-                    newCall = (Call<ApiResponse<T>>) originalCall.clone();
-                    
-                    // Execute the cloned call with the retry flag set to true
-                    // This prevents infinite loops if there's still an issue
-                    LiveData<Resource<T>> retryResult = callApi(newCall, true);
-                    
-                    // Forward the retry result to the original result
-                    androidx.lifecycle.Observer<Resource<T>> observer = new androidx.lifecycle.Observer<Resource<T>>() {
-                        @Override
-                        public void onChanged(Resource<T> resource) {
-                            // Update the result with the resource
-                            result.postValue(resource);
-                            // Remove the observer after first update to prevent memory leaks
-                            retryResult.removeObserver(this);
-                        }
-                    };
-                    // Observe the retry result
-                    retryResult.observeForever(observer);
-                } catch (Exception e) {
-                    Log.e("UserRepository", "Error retrying request after token refresh: " + e.getMessage());
-                    result.postValue(Resource.error("Error retrying request: " + e.getMessage(), null));
-                }
-            } else {
-                Log.e("UserRepository", "Token refresh failed");
-                result.postValue(Resource.error("Session expired, please login again", null));
-            }
-        });
-    }
-    
-    /**
-     * Interface for token refresh callback
-     * Functional interface with a single method to support lambda expressions
-     */
-    @FunctionalInterface
-    public interface TokenRefreshCallback {
-        /**
-         * Called when token refresh operation completes
-         * @param success Whether the refresh was successful
-         */
-        void onResult(boolean success);
-    }
-
     /**
      * Update the current user in the database
      */
@@ -674,143 +542,45 @@ public class UserRepository extends BaseRepository {
     }
     
     /**
-     * Get the auth token for the current user
+     * Get the auth token for the current user; served from memory after the first read
      */
     public String getAuthToken() {
-        try {
-            MasterKey masterKey = new MasterKey.Builder(context)
-                    .setKeyScheme(MasterKey.KeyScheme.AES256_GCM)
-                    .build();
-            
-            EncryptedSharedPreferences sharedPreferences = (EncryptedSharedPreferences) EncryptedSharedPreferences.create(
-                    context,
-                    PREF_NAME,
-                    masterKey,
-                    EncryptedSharedPreferences.PrefKeyEncryptionScheme.AES256_SIV,
-                    EncryptedSharedPreferences.PrefValueEncryptionScheme.AES256_GCM
-            );
-            
-            return sharedPreferences.getString(KEY_AUTH_TOKEN, null);
-        } catch (GeneralSecurityException | IOException e) {
-            e.printStackTrace();
-            return null;
-        }
+        return tokenStore.getToken();
     }
     
     /**
      * Save the auth token for the current user
      */
     public void saveAuthToken(String token) {
-        try {
-            MasterKey masterKey = new MasterKey.Builder(context)
-                    .setKeyScheme(MasterKey.KeyScheme.AES256_GCM)
-                    .build();
-            
-            EncryptedSharedPreferences sharedPreferences = (EncryptedSharedPreferences) EncryptedSharedPreferences.create(
-                    context,
-                    PREF_NAME,
-                    masterKey,
-                    EncryptedSharedPreferences.PrefKeyEncryptionScheme.AES256_SIV,
-                    EncryptedSharedPreferences.PrefValueEncryptionScheme.AES256_GCM
-            );
-            
-            sharedPreferences.edit().putString(KEY_AUTH_TOKEN, token).apply();
-        } catch (GeneralSecurityException | IOException e) {
-            e.printStackTrace();
-        }
+        tokenStore.setToken(token);
     }
     
     /**
      * Clear the auth token for the current user
      */
     public void clearAuthToken() {
-        try {
-            MasterKey masterKey = new MasterKey.Builder(context)
-                    .setKeyScheme(MasterKey.KeyScheme.AES256_GCM)
-                    .build();
-            
-            EncryptedSharedPreferences sharedPreferences = (EncryptedSharedPreferences) EncryptedSharedPreferences.create(
-                    context,
-                    PREF_NAME,
-                    masterKey,
-                    EncryptedSharedPreferences.PrefKeyEncryptionScheme.AES256_SIV,
-                    EncryptedSharedPreferences.PrefValueEncryptionScheme.AES256_GCM
-            );
-            
-            sharedPreferences.edit().remove(KEY_AUTH_TOKEN).apply();
-        } catch (GeneralSecurityException | IOException e) {
-            e.printStackTrace();
-        }
+        tokenStore.clearToken();
     }
     
     /**
      * Get the user ID for the current user
      */
     public String getUserId() {
-        try {
-            MasterKey masterKey = new MasterKey.Builder(context)
-                    .setKeyScheme(MasterKey.KeyScheme.AES256_GCM)
-                    .build();
-            
-            EncryptedSharedPreferences sharedPreferences = (EncryptedSharedPreferences) EncryptedSharedPreferences.create(
-                    context,
-                    PREF_NAME,
-                    masterKey,
-                    EncryptedSharedPreferences.PrefKeyEncryptionScheme.AES256_SIV,
-                    EncryptedSharedPreferences.PrefValueEncryptionScheme.AES256_GCM
-            );
-            
-            return sharedPreferences.getString(KEY_USER_ID, null);
-        } catch (GeneralSecurityException | IOException e) {
-            e.printStackTrace();
-            return null;
-        }
+        return tokenStore.getUserId();
     }
     
     /**
      * Save the user ID for the current user
      */
     public void saveUserId(String userId) {
-        try {
-            MasterKey masterKey = new MasterKey.Builder(context)
-                    .setKeyScheme(MasterKey.KeyScheme.AES256_GCM)
-                    .build();
-            
-            EncryptedSharedPreferences sharedPreferences = (EncryptedSharedPreferences) EncryptedSharedPreferences.create(
-                    context,
-                    PREF_NAME,
-                    masterKey,
-                    EncryptedSharedPreferences.PrefKeyEncryptionScheme.AES256_SIV,
-                    EncryptedSharedPreferences.PrefValueEncryptionScheme.AES256_GCM
-            );
-            
-            sharedPreferences.edit().putString(KEY_USER_ID, userId).apply();
-        } catch (GeneralSecurityException | IOException e) {
-            e.printStackTrace();
-        }
+        tokenStore.setUserId(userId);
     }
     
     /**
      * Clear the user ID for the current user
      */
     public void clearUserId() {
-        try {
-            MasterKey masterKey = new MasterKey.Builder(context)
-                    .setKeyScheme(MasterKey.KeyScheme.AES256_GCM)
-                    .build();
-            
-            EncryptedSharedPreferences sharedPreferences = (EncryptedSharedPreferences) EncryptedSharedPreferences.create(
-                    context,
-                    PREF_NAME,
-                    masterKey,
-                    EncryptedSharedPreferences.PrefKeyEncryptionScheme.AES256_SIV,
-                    EncryptedSharedPreferences.PrefValueEncryptionScheme.AES256_GCM
-            );
-            
-            sharedPreferences.edit().remove(KEY_USER_ID).apply();
-        } catch (GeneralSecurityException | IOException e) {
-            e.printStackTrace();
-        }
+        tokenStore.clearUserId();
     }
     
     /**
@@ -826,12 +596,6 @@ public class UserRepository extends BaseRepository {
         });
     }
 
-    @Override
-    public void onFailure(Call<ApiResponse<LobbyListResponse>> call, Throwable t) {
-        MutableLiveData<Resource<Object>> result = null;
-        result.postValue(Resource.error("Network error: " + t.getMessage(), null));
-    }
-
     /**
      * Interface for observing LiveData once
      */
@@ -7,6 +7,11 @@ import androidx.annotation.NonNull;
 
 import java.util.concurrent.Executor;
 import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.inject.Inject;
 import javax.inject.Singleton;
@@ -20,14 +25,19 @@ import javax.inject.Singleton;
 @Singleton
 public class AppExecutors {
 
+    // Network callbacks only parse, write to Room and post LiveData, so a few threads suffice;
+    // the bounded queue pushes back on the OkHttp dispatcher instead of growing without limit
+    private static final int NETWORK_THREADS = 3;
+    private static final int NETWORK_QUEUE_CAPACITY = 64;
+    private static final long NETWORK_KEEP_ALIVE_SECONDS = 30;
+
     private final Executor diskIO;
     private final Executor networkIO;
     private final Executor mainThread;
 
     @Inject
     public AppExecutors() {
-        this(Executors.newSingleThreadExecutor(), Executors.newFixedThreadPool(3),
-                new MainThreadExecutor());
+        this(Executors.newSingleThreadExecutor(), newNetworkPool(), new MainThreadExecutor());
     }
 
     /**
@@ -53,6 +63,14 @@ public class AppExecutors {
         return networkIO;
     }
 
+    /**
+     * Get the network IO executor as a pool, for thread and queue metrics
+     * @return the pool, or null when a custom executor was supplied
+     */
+    public ThreadPoolExecutor networkIOPool() {
+        return networkIO instanceof ThreadPoolExecutor ? (ThreadPoolExecutor) networkIO : null;
+    }
+
     /**
      * Get the main thread executor
      */
@@ -60,6 +78,23 @@ public class AppExecutors {
         return mainThread;
     }
 
+    /**
+     * Bounded pool for network callbacks (also used as Retrofit's callback executor).
+     * Idle threads time out; when the queue is full the submitting thread runs the task itself,
+     * so no callback is ever dropped.
+     */
+    private static ThreadPoolExecutor newNetworkPool() {
+        AtomicInteger threadCount = new AtomicInteger();
+        ThreadFactory threadFactory = runnable ->
+                new Thread(runnable, "drawit-net-" + threadCount.incrementAndGet());
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(NETWORK_THREADS, NETWORK_THREADS,
+                NETWORK_KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(NETWORK_QUEUE_CAPACITY), threadFactory,
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+
     /**
      * Executor that runs tasks on the main thread
      */
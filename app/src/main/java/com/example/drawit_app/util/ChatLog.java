@@ -0,0 +1,145 @@
+package com.example.drawit_app.util;
+
+import com.example.drawit_app.model.ChatMessage;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Bounded, append-only log of the chat messages of a game.
+ * <p>
+ * Messages live in a ring buffer of {@link #DEFAULT_CAPACITY} slots; once it is full, each new
+ * message evicts the oldest one. A set of the held message IDs makes duplicate detection O(1).
+ * Instead of publishing copies of the whole list, the log reports each change to its
+ * {@link Listener}s as it happens, so a RecyclerView adapter can read positions straight from the
+ * log and rebind only the rows that changed.
+ * <p>
+ * Not thread-safe: the log and its listeners are confined to the main thread.
+ */
+public class ChatLog {
+
+    public static final int DEFAULT_CAPACITY = 200;
+
+    /**
+     * Change stream of the log, called on the main thread right after each change
+     */
+    public interface Listener {
+        /**
+         * One message was added at the end, after the first {@code evicted} messages were dropped
+         */
+        void onMessageAppended(int evicted);
+
+        /**
+         * All messages were removed
+         */
+        void onCleared();
+    }
+
+    private final ChatMessage[] slots;
+    private final Set<String> messageIds = new HashSet<>();
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+    // Slot of the oldest message
+    private int start;
+    private int size;
+
+    public ChatLog() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public ChatLog(int capacity) {
+        slots = new ChatMessage[capacity];
+    }
+
+    /**
+     * Append a message unless one with the same ID is already held
+     *
+     * @return true if the message was added
+     */
+    public boolean append(ChatMessage message) {
+        String messageId = message.getMessageId();
+        if (messageId != null && messageIds.contains(messageId)) {
+            return false;
+        }
+
+        int evicted = 0;
+        if (size == slots.length) {
+            ChatMessage oldest = slots[start];
+            if (oldest.getMessageId() != null) {
+                messageIds.remove(oldest.getMessageId());
+            }
+            slots[start] = null;
+            start = (start + 1) % slots.length;
+            size--;
+            evicted = 1;
+        }
+        slots[(start + size) % slots.length] = message;
+        size++;
+        if (messageId != null) {
+            messageIds.add(messageId);
+        }
+
+        for (Listener listener : listeners) {
+            listener.onMessageAppended(evicted);
+        }
+        return true;
+    }
+
+    /**
+     * Remove all messages, e.g. when another game is joined
+     */
+    public void clear() {
+        if (size == 0) {
+            return;
+        }
+        for (int i = 0; i < slots.length; i++) {
+            slots[i] = null;
+        }
+        messageIds.clear();
+        start = 0;
+        size = 0;
+
+        for (Listener listener : listeners) {
+            listener.onCleared();
+        }
+    }
+
+    /**
+     * @param position 0 for the oldest message held
+     */
+    public ChatMessage get(int position) {
+        if (position < 0 || position >= size) {
+            throw new IndexOutOfBoundsException("Position " + position + ", size " + size);
+        }
+        return slots[(start + position) % slots.length];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean contains(String messageId) {
+        return messageId != null && messageIds.contains(messageId);
+    }
+
+    /**
+     * Copy of the held messages, oldest first
+     */
+    public List<ChatMessage> snapshot() {
+        List<ChatMessage> messages = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            messages.add(get(i));
+        }
+        return messages;
+    }
+
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+}
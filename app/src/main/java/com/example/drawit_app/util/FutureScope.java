@@ -0,0 +1,72 @@
+package com.example.drawit_app.util;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+
+/**
+ * Owns the futures started on behalf of a ViewModel. Results are delivered on the main thread,
+ * and {@link #cancelAll()} (called from onCleared) cancels whatever is still running so no
+ * callback outlives its ViewModel.
+ */
+public final class FutureScope {
+    private static final String TAG = "FutureScope";
+
+    private final Set<CompletableFuture<?>> active = ConcurrentHashMap.newKeySet();
+    private final Executor mainThread;
+    private volatile boolean cancelled = false;
+
+    public FutureScope() {
+        Handler handler = new Handler(Looper.getMainLooper());
+        this.mainThread = handler::post;
+    }
+
+    /**
+     * Track a future and deliver its outcome on the main thread unless the scope or the future
+     * was cancelled first
+     *
+     * @param onSuccess receives the result, may be null
+     * @param onError receives a user-facing error message
+     * @return the same future, so callers can cancel it early
+     */
+    public <T> CompletableFuture<T> launch(CompletableFuture<T> future, Consumer<T> onSuccess,
+                                           Consumer<String> onError) {
+        if (cancelled) {
+            future.cancel(true);
+            return future;
+        }
+        active.add(future);
+        future.whenCompleteAsync((data, error) -> {
+            active.remove(future);
+            if (cancelled || future.isCancelled()) {
+                return;
+            }
+            if (error == null) {
+                onSuccess.accept(data);
+            } else {
+                onError.accept(ResourceFutures.messageOf(error));
+            }
+        }, mainThread);
+        return future;
+    }
+
+    /**
+     * Cancel every tracked future; later launches are cancelled immediately
+     */
+    public void cancelAll() {
+        cancelled = true;
+        if (!active.isEmpty()) {
+            Log.d(TAG, "Cancelling " + active.size() + " pending operations");
+        }
+        for (CompletableFuture<?> future : active) {
+            future.cancel(true);
+        }
+        active.clear();
+    }
+}
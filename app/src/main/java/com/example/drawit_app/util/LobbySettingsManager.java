@@ -6,6 +6,10 @@ import android.util.Log;
 
 import com.example.drawit_app.model.Lobby;
 
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
 /**
  * Utility class to manage lobby settings locally
  * This is needed because the server doesn't store numRounds and roundDurationSeconds
@@ -107,4 +111,88 @@ public class LobbySettingsManager {
         }
 
     }
+    
+    /**
+     * Apply stored settings to a batch of lobbies, e.g. a refreshed lobby list.
+     * Reads the preferences once for the whole batch instead of once per lobby.
+     * @return number of lobbies that had stored settings applied
+     */
+    public int applySettings(List<Lobby> lobbies) {
+        if (context == null || lobbies == null || lobbies.isEmpty()) {
+            return 0;
+        }
+        
+        try {
+            Map<String, ?> stored = context.getSharedPreferences(PREF_NAME, Context.MODE_PRIVATE).getAll();
+            if (stored.isEmpty()) {
+                return 0;
+            }
+            
+            int applied = 0;
+            for (Lobby lobby : lobbies) {
+                if (lobby == null || lobby.getLobbyId().isEmpty()) {
+                    continue;
+                }
+                Object numRounds = stored.get(KEY_ROUNDS_PREFIX + lobby.getLobbyId());
+                Object roundDuration = stored.get(KEY_DURATION_PREFIX + lobby.getLobbyId());
+                boolean changed = false;
+                
+                // Only override if values are reasonable
+                if (numRounds instanceof Integer && (Integer) numRounds > 0) {
+                    lobby.setNumRounds((Integer) numRounds);
+                    changed = true;
+                }
+                if (roundDuration instanceof Integer && (Integer) roundDuration > 0) {
+                    lobby.setRoundDurationSeconds((Integer) roundDuration);
+                    changed = true;
+                }
+                if (changed) {
+                    applied++;
+                }
+            }
+            
+            Log.d(TAG, "Applied stored settings to " + applied + " of " + lobbies.size() + " lobbies");
+            return applied;
+        } catch (Exception e) {
+            Log.e(TAG, "Error applying stored settings", e);
+            return 0;
+        }
+    }
+    
+    /**
+     * Remove stored settings of lobbies that no longer exist
+     * @param liveLobbyIds IDs of the lobbies to keep settings for
+     * @return number of preference keys removed
+     */
+    public int pruneSettings(Set<String> liveLobbyIds) {
+        if (context == null || liveLobbyIds == null) {
+            return 0;
+        }
+        
+        try {
+            SharedPreferences prefs = context.getSharedPreferences(PREF_NAME, Context.MODE_PRIVATE);
+            SharedPreferences.Editor editor = prefs.edit();
+            int removed = 0;
+            for (String key : prefs.getAll().keySet()) {
+                String lobbyId = null;
+                if (key.startsWith(KEY_ROUNDS_PREFIX)) {
+                    lobbyId = key.substring(KEY_ROUNDS_PREFIX.length());
+                } else if (key.startsWith(KEY_DURATION_PREFIX)) {
+                    lobbyId = key.substring(KEY_DURATION_PREFIX.length());
+                }
+                if (lobbyId != null && !liveLobbyIds.contains(lobbyId)) {
+                    editor.remove(key);
+                    removed++;
+                }
+            }
+            if (removed > 0) {
+                editor.apply();
+                Log.d(TAG, "🧹 Pruned " + removed + " settings of lobbies that no longer exist");
+            }
+            return removed;
+        } catch (Exception e) {
+            Log.e(TAG, "Error pruning stored settings", e);
+            return 0;
+        }
+    }
 }
@@ -0,0 +1,183 @@
+package com.example.drawit_app.util;
+
+import android.util.Log;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lightweight in-process counters and histograms for networking and storage code.
+ * <p>
+ * Metrics are created lazily by name and are safe to update from any thread.
+ * Call {@link #logSnapshot()} to dump the current values to logcat.
+ */
+public final class PerformanceMetrics {
+    private static final String TAG = "PerformanceMetrics";
+
+    private static final Map<String, AtomicLong> counters = new ConcurrentHashMap<>();
+    private static final Map<String, Histogram> histograms = new ConcurrentHashMap<>();
+
+    private PerformanceMetrics() {
+    }
+
+    /**
+     * Increment a counter by one
+     */
+    public static void increment(String name) {
+        add(name, 1);
+    }
+
+    /**
+     * Add a delta to a counter
+     */
+    public static void add(String name, long delta) {
+        counter(name).addAndGet(delta);
+    }
+
+    /**
+     * Get the current value of a counter (0 if it was never touched)
+     */
+    public static long getCount(String name) {
+        AtomicLong counter = counters.get(name);
+        return counter != null ? counter.get() : 0;
+    }
+
+    /**
+     * Record a value (e.g. a duration in milliseconds or a size in bytes) in a histogram
+     */
+    public static void record(String name, long value) {
+        histogram(name).record(value);
+    }
+
+    /**
+     * Get a histogram by name, creating it if needed
+     */
+    public static Histogram histogram(String name) {
+        Histogram histogram = histograms.get(name);
+        if (histogram == null) {
+            histograms.putIfAbsent(name, new Histogram());
+            histogram = histograms.get(name);
+        }
+        return histogram;
+    }
+
+    /**
+     * Build a human-readable snapshot of every metric, sorted by name
+     */
+    public static String snapshot() {
+        StringBuilder builder = new StringBuilder();
+        for (Map.Entry<String, AtomicLong> entry : new TreeMap<>(counters).entrySet()) {
+            builder.append(entry.getKey()).append('=').append(entry.getValue().get()).append('\n');
+        }
+        for (Map.Entry<String, Histogram> entry : new TreeMap<>(histograms).entrySet()) {
+            builder.append(entry.getKey()).append(' ').append(entry.getValue()).append('\n');
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Write the current snapshot to logcat
+     */
+    public static void logSnapshot() {
+        Log.i(TAG, "📊 Metrics snapshot:\n" + snapshot());
+    }
+
+    /**
+     * Clear all metrics (used when the user logs out)
+     */
+    public static void reset() {
+        counters.clear();
+        histograms.clear();
+    }
+
+    private static AtomicLong counter(String name) {
+        AtomicLong counter = counters.get(name);
+        if (counter == null) {
+            counters.putIfAbsent(name, new AtomicLong());
+            counter = counters.get(name);
+        }
+        return counter;
+    }
+
+    /**
+     * Histogram with power-of-two buckets, enough to see the shape of latencies and sizes
+     * without keeping every sample
+     */
+    public static final class Histogram {
+        private static final int BUCKETS = 40;
+
+        private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+        private final AtomicLong count = new AtomicLong();
+        private final AtomicLong sum = new AtomicLong();
+        private final AtomicLong max = new AtomicLong(Long.MIN_VALUE);
+        private final AtomicLong min = new AtomicLong(Long.MAX_VALUE);
+
+        public void record(long value) {
+            long clamped = Math.max(0, value);
+            int bucket = clamped == 0 ? 0 : Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(clamped));
+            buckets.incrementAndGet(bucket);
+            count.incrementAndGet();
+            sum.addAndGet(clamped);
+
+            long currentMax;
+            while (clamped > (currentMax = max.get()) && !max.compareAndSet(currentMax, clamped)) {
+                // Retry until our value is stored or a larger one wins
+            }
+            long currentMin;
+            while (clamped < (currentMin = min.get()) && !min.compareAndSet(currentMin, clamped)) {
+                // Retry until our value is stored or a smaller one wins
+            }
+        }
+
+        public long getCount() {
+            return count.get();
+        }
+
+        public long getSum() {
+            return sum.get();
+        }
+
+        public double getMean() {
+            long n = count.get();
+            return n == 0 ? 0 : (double) sum.get() / n;
+        }
+
+        /**
+         * Approximate percentile, reported as the upper bound of the bucket that contains it
+         *
+         * @param percentile value between 0 and 100
+         */
+        public long getPercentile(double percentile) {
+            long n = count.get();
+            if (n == 0) {
+                return 0;
+            }
+            long target = (long) Math.ceil(n * percentile / 100.0);
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += buckets.get(i);
+                if (seen >= target) {
+                    return i == 0 ? 0 : Math.min(max.get(), (1L << i) - 1);
+                }
+            }
+            return max.get();
+        }
+
+        @Override
+        public String toString() {
+            long n = count.get();
+            if (n == 0) {
+                return "count=0";
+            }
+            return "count=" + n +
+                    " mean=" + String.format(java.util.Locale.US, "%.1f", getMean()) +
+                    " min=" + min.get() +
+                    " p50=" + getPercentile(50) +
+                    " p95=" + getPercentile(95) +
+                    " max=" + max.get();
+        }
+    }
+}
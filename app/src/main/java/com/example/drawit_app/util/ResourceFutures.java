@@ -0,0 +1,143 @@
+package com.example.drawit_app.util;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+import androidx.lifecycle.Observer;
+
+import com.example.drawit_app.repository.ApiException;
+import com.example.drawit_app.repository.BaseRepository.Resource;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+/**
+ * Adapters between repository futures and {@link Resource} LiveData.
+ * <p>
+ * Repositories return futures for one-shot operations; LiveData is only created where a view
+ * or an older repository method still needs it.
+ */
+public final class ResourceFutures {
+    private static final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    private ResourceFutures() {
+    }
+
+    /**
+     * LiveData that starts loading and then holds the outcome of the future
+     */
+    public static <T> LiveData<Resource<T>> toLiveData(CompletableFuture<T> future) {
+        MutableLiveData<Resource<T>> result = new MutableLiveData<>(Resource.loading(null));
+        future.whenComplete((data, error) -> {
+            if (error == null) {
+                result.postValue(Resource.success(data));
+            } else if (!future.isCancelled()) {
+                result.postValue(Resource.error(messageOf(error), null));
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Future completed by the first non-loading value of a Resource LiveData. Cancelling the
+     * future stops observing the source. Must be called on the main thread.
+     */
+    public static <T> CompletableFuture<T> toFuture(LiveData<Resource<T>> source) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        Observer<Resource<T>> observer = new Observer<Resource<T>>() {
+            @Override
+            public void onChanged(Resource<T> resource) {
+                if (resource == null || resource.isLoading()) {
+                    return;
+                }
+                source.removeObserver(this);
+                if (resource.isSuccess()) {
+                    future.complete(resource.getData());
+                } else {
+                    future.completeExceptionally(new ApiException(resource.getMessage()));
+                }
+            }
+        };
+        source.observeForever(observer);
+        future.whenComplete((data, error) -> {
+            if (future.isCancelled()) {
+                mainHandler.post(() -> source.removeObserver(observer));
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Make cancelling {@code derived} also cancel the futures it was built from.
+     * CompletableFuture only passes completion downstream: cancelling a stage made with
+     * thenApply, whenComplete or handle leaves its source running, and with it the HTTP call
+     * behind a repository's callApiAsync. Cancelled intermediate stages that have not started
+     * yet are skipped.
+     *
+     * @param upstream the source future and any intermediate stages with side effects
+     * @return derived, for chaining
+     */
+    public static <T> CompletableFuture<T> linkCancellation(CompletableFuture<T> derived, Future<?>... upstream) {
+        derived.whenComplete((data, error) -> {
+            if (derived.isCancelled()) {
+                for (Future<?> future : upstream) {
+                    future.cancel(true);
+                }
+            }
+        });
+        return derived;
+    }
+
+    /**
+     * Like {@link CompletableFuture#thenCompose}, but cancelling the result also cancels
+     * {@code source} and, once it has been started, the future returned by {@code next}
+     */
+    public static <T, U> CompletableFuture<U> thenComposeLinked(CompletableFuture<T> source,
+                                                             Function<? super T, ? extends CompletableFuture<U>> next) {
+        CompletableFuture<U> result = new CompletableFuture<>();
+        linkCancellation(result, source);
+        source.whenComplete((value, error) -> {
+            if (error != null) {
+                result.completeExceptionally(error);
+                return;
+            }
+            if (result.isDone()) {
+                return;
+            }
+            CompletableFuture<U> inner;
+            try {
+                inner = next.apply(value);
+            } catch (Throwable t) {
+                result.completeExceptionally(t);
+                return;
+            }
+            // Cancels the inner future right away if the result was cancelled meanwhile
+            linkCancellation(result, inner);
+            inner.whenComplete((data, innerError) -> {
+                if (innerError != null) {
+                    result.completeExceptionally(innerError);
+                } else {
+                    result.complete(data);
+                }
+            });
+        });
+        return result;
+    }
+
+    /**
+     * User-facing message of a future's failure, unwrapping CompletableFuture wrappers
+     */
+    public static String messageOf(Throwable error) {
+        Throwable cause = error;
+        while ((cause instanceof CompletionException || cause instanceof ExecutionException)
+                && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause.getMessage() != null ? cause.getMessage() : cause.getClass().getSimpleName();
+    }
+}
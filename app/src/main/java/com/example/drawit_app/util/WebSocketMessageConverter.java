@@ -130,6 +130,10 @@ public class WebSocketMessageConverter {
             game.setRoundDurationSeconds(60); // Default to 60 seconds
         }
         
+        if (gameMap.get("roundEndsAt") instanceof Number) {
+            game.setRoundEndsAt(((Number) gameMap.get("roundEndsAt")).longValue());
+        }
+        
         // Extract current round
         if (gameMap.containsKey("currentRound")) {
             try {
@@ -862,6 +866,11 @@ public class WebSocketMessageConverter {
                     chatMessage.setGameId(messageMap.get("game_id").toString());
                 }
                 
+                // Keep the server's message ID so the message can be de-duplicated and indexed
+                if (messageMap.get("messageId") != null) {
+                    chatMessage.setMessageId(messageMap.get("messageId").toString());
+                }
+                
                 // Extract sender info
                 if (messageMap.containsKey("sender") && messageMap.get("sender") instanceof Map) {
                     Map<?, ?> senderMap = (Map<?, ?>) messageMap.get("sender");
@@ -926,6 +935,10 @@ public class WebSocketMessageConverter {
                 lobby.setMaxPlayers(((Number) map.get("maxPlayers")).intValue());
             }
             
+            if (map.get("version") instanceof Number) {
+                lobby.setVersion(((Number) map.get("version")).longValue());
+            }
+            
             if (map.containsKey("players") && map.get("players") instanceof List) {
                 List<?> rawPlayers = (List<?>) map.get("players");
                 List<User> players = new ArrayList<>();
@@ -1043,6 +1056,10 @@ public class WebSocketMessageConverter {
                 game.setRoundDurationSeconds(((Number) map.get("roundDurationSeconds")).intValue());
             }
             
+            if (map.get("roundEndsAt") instanceof Number) {
+                game.setRoundEndsAt(((Number) map.get("roundEndsAt")).longValue());
+            }
+            
             return game;
         }
         return null;
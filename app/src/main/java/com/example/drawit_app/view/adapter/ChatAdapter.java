@@ -11,22 +11,51 @@ import androidx.recyclerview.widget.RecyclerView;
 import com.example.drawit_app.R;
 import com.example.drawit_app.databinding.ItemChatMessageBinding;
 import com.example.drawit_app.model.ChatMessage;
-
-import java.util.List;
+import com.example.drawit_app.util.ChatLog;
 
 /**
- * Adapter for displaying chat messages during gameplay
+ * Adapter for displaying chat messages during gameplay.
+ * Reads rows straight from a {@link ChatLog} and follows its change stream while attached to a
+ * RecyclerView, so a new message inserts one row (and removes the evicted one) instead of
+ * rebinding the whole list.
  */
-public class ChatAdapter extends RecyclerView.Adapter<ChatAdapter.MessageViewHolder> {
+public class ChatAdapter extends RecyclerView.Adapter<ChatAdapter.MessageViewHolder> implements ChatLog.Listener {
 
-    private List<ChatMessage> messages;
+    private final ChatLog chatLog;
     private com.example.drawit_app.model.User currentUser;
 
-    public ChatAdapter(List<ChatMessage> messages, com.example.drawit_app.model.User currentUser) {
-        this.messages = messages;
+    public ChatAdapter(ChatLog chatLog, com.example.drawit_app.model.User currentUser) {
+        this.chatLog = chatLog;
         this.currentUser = currentUser;
     }
 
+    @Override
+    public void onAttachedToRecyclerView(@NonNull RecyclerView recyclerView) {
+        super.onAttachedToRecyclerView(recyclerView);
+        chatLog.addListener(this);
+        // Messages may have arrived while no view was listening
+        notifyDataSetChanged();
+    }
+
+    @Override
+    public void onDetachedFromRecyclerView(@NonNull RecyclerView recyclerView) {
+        super.onDetachedFromRecyclerView(recyclerView);
+        chatLog.removeListener(this);
+    }
+
+    @Override
+    public void onMessageAppended(int evicted) {
+        if (evicted > 0) {
+            notifyItemRangeRemoved(0, evicted);
+        }
+        notifyItemInserted(chatLog.size() - 1);
+    }
+
+    @Override
+    public void onCleared() {
+        notifyDataSetChanged();
+    }
+
     @NonNull
     @Override
     public MessageViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
@@ -37,22 +66,13 @@ public class ChatAdapter extends RecyclerView.Adapter<ChatAdapter.MessageViewHol
 
     @Override
     public void onBindViewHolder(@NonNull MessageViewHolder holder, int position) {
-        ChatMessage message = messages.get(position);
+        ChatMessage message = chatLog.get(position);
         holder.bind(message);
     }
 
     @Override
     public int getItemCount() {
-        return messages.size();
-    }
-
-    public void updateMessages(List<ChatMessage> newMessages) {
-        this.messages = newMessages;
-        notifyDataSetChanged();
-    }
-    
-    public List<ChatMessage> getMessages() {
-        return messages;
+        return chatLog.size();
     }
 
     public static class MessageViewHolder extends RecyclerView.ViewHolder {
@@ -7,24 +7,44 @@ import androidx.annotation.NonNull;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.drawit_app.databinding.ItemDrawingBinding;
-import com.example.drawit_app.model.Drawing;
+import com.example.drawit_app.model.DrawingSummary;
 
 import java.text.SimpleDateFormat;
 import java.util.List;
 import java.util.Locale;
 
 /**
- * Adapter for displaying a grid of drawings in the archive
+ * Adapter for displaying a grid of drawings in the archive.
+ * <p>
+ * Works on pages: {@link #submitItems(List)} takes the items loaded so far and
+ * {@link #setTotalCount(int)} the size of the whole archive. Positions past the loaded items
+ * are shown as placeholders, so the scrollbar reflects the full archive from the start, and
+ * binding a position within the prefetch distance of the end asks for the next page.
  */
 public class DrawingAdapter extends RecyclerView.Adapter<DrawingAdapter.DrawingViewHolder> {
 
-    private List<Drawing> drawings;
+    // Items from the end of the loaded pages at which the next page is requested
+    private static final int PREFETCH_DISTANCE = 10;
+
+    private List<DrawingSummary> drawings;
+    private int totalCount;
     private final DrawingClickListener listener;
+    private final DrawingThumbnailLoader thumbnailLoader;
+    private LoadMoreListener loadMoreListener;
     private final SimpleDateFormat dateFormat;
 
-    public DrawingAdapter(List<Drawing> drawings, DrawingClickListener listener) {
+    public DrawingAdapter(List<DrawingSummary> drawings, DrawingClickListener listener) {
+        this(drawings, listener, null);
+    }
+
+    /**
+     * @param thumbnailLoader renders previews for bound items only; null shows a placeholder
+     */
+    public DrawingAdapter(List<DrawingSummary> drawings, DrawingClickListener listener,
+                          DrawingThumbnailLoader thumbnailLoader) {
         this.drawings = drawings;
         this.listener = listener;
+        this.thumbnailLoader = thumbnailLoader;
         this.dateFormat = new SimpleDateFormat("MMM dd, yyyy", Locale.getDefault());
     }
 
@@ -38,17 +58,76 @@ public class DrawingAdapter extends RecyclerView.Adapter<DrawingAdapter.DrawingV
 
     @Override
     public void onBindViewHolder(@NonNull DrawingViewHolder holder, int position) {
-        Drawing drawing = drawings.get(position);
-        holder.bind(drawing);
+        if (position < drawings.size()) {
+            holder.bind(drawings.get(position));
+        } else {
+            holder.bindPlaceholder();
+        }
+
+        if (loadMoreListener != null && position >= drawings.size() - PREFETCH_DISTANCE) {
+            // Not while RecyclerView is in a layout pass
+            holder.itemView.post(loadMoreListener::onLoadMore);
+        }
     }
 
     @Override
     public int getItemCount() {
-        return drawings.size();
+        return Math.max(drawings.size(), totalCount);
+    }
+
+    /**
+     * Called when bound positions get close to the end of the loaded items
+     */
+    public void setLoadMoreListener(LoadMoreListener loadMoreListener) {
+        this.loadMoreListener = loadMoreListener;
+    }
+
+    /**
+     * Show the loaded pages. Appending fills placeholders in place; anything else
+     * (e.g. a refresh) redraws the list.
+     */
+    public void submitItems(List<DrawingSummary> items) {
+        int oldSize = drawings.size();
+        int oldCount = getItemCount();
+        boolean appended = items.size() >= oldSize
+                && (oldSize == 0 || drawings.get(oldSize - 1).getDrawingId().equals(items.get(oldSize - 1).getDrawingId()));
+        drawings = items;
+        if (!appended) {
+            notifyDataSetChanged();
+            return;
+        }
+        dispatchRange(oldSize, items.size(), oldCount);
     }
 
-    public void updateDrawings(List<Drawing> newDrawings) {
+    /**
+     * Set the number of drawings in the whole archive; positions past the loaded items are placeholders
+     */
+    public void setTotalCount(int totalCount) {
+        int oldCount = getItemCount();
+        this.totalCount = totalCount;
+        int newCount = getItemCount();
+        if (newCount > oldCount) {
+            notifyItemRangeInserted(oldCount, newCount - oldCount);
+        } else if (newCount < oldCount) {
+            notifyItemRangeRemoved(newCount, oldCount - newCount);
+        }
+    }
+
+    // Positions [from, to) now hold loaded items; those that were placeholders changed, the rest are new
+    private void dispatchRange(int from, int to, int oldCount) {
+        int changedEnd = Math.min(to, oldCount);
+        if (changedEnd > from) {
+            notifyItemRangeChanged(from, changedEnd - from);
+        }
+        int newCount = getItemCount();
+        if (newCount > oldCount) {
+            notifyItemRangeInserted(oldCount, newCount - oldCount);
+        }
+    }
+
+    public void updateDrawings(List<DrawingSummary> newDrawings) {
         this.drawings = newDrawings;
+        this.totalCount = 0;
         notifyDataSetChanged();
     }
 
@@ -60,7 +139,20 @@ public class DrawingAdapter extends RecyclerView.Adapter<DrawingAdapter.DrawingV
             this.binding = binding;
         }
 
-        public void bind(Drawing drawing) {
+        /**
+         * Empty cell for a position whose page has not been loaded yet
+         */
+        public void bindPlaceholder() {
+            binding.tvWord.setText("");
+            binding.tvArtist.setText("");
+            binding.tvDate.setText("");
+            binding.tvRating.setText("");
+            binding.ivDrawingThumbnail.setTag(null);
+            binding.ivDrawingThumbnail.setImageResource(android.R.drawable.ic_menu_gallery);
+            binding.getRoot().setOnClickListener(null);
+        }
+
+        public void bind(DrawingSummary drawing) {
             // Set basic info
             binding.tvWord.setText(drawing.getWord());
             binding.tvArtist.setText(drawing.getArtist().getUsername());
@@ -70,12 +162,11 @@ public class DrawingAdapter extends RecyclerView.Adapter<DrawingAdapter.DrawingV
             String ratingText = String.format(Locale.getDefault(), "%.1f", drawing.getAverageRating());
             binding.tvRating.setText(ratingText);
             
-            // Load drawing preview
-            if (drawing.getImagePath() != null) {
-                // Set the image from the drawable resource or use a placeholder
+            // Load drawing preview; strokes are only read for items that are on screen
+            if (thumbnailLoader != null) {
+                thumbnailLoader.load(drawing.getDrawingId(), binding.ivDrawingThumbnail);
+            } else {
                 binding.ivDrawingThumbnail.setImageResource(android.R.drawable.ic_menu_gallery);
-                // In a real implementation, you would load the image from a file or URL
-                // using Glide or similar library
             }
             
             // Set click listener
@@ -88,6 +179,10 @@ public class DrawingAdapter extends RecyclerView.Adapter<DrawingAdapter.DrawingV
     }
 
     public interface DrawingClickListener {
-        void onDrawingClick(Drawing drawing);
+        void onDrawingClick(DrawingSummary drawing);
+    }
+
+    public interface LoadMoreListener {
+        void onLoadMore();
     }
 }
@@ -0,0 +1,139 @@
+package com.example.drawit_app.view.adapter;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.Path;
+import android.util.Log;
+import android.util.LruCache;
+import android.widget.ImageView;
+
+import com.example.drawit_app.model.Drawing;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+/**
+ * Renders small previews of archived drawings for the grid.
+ * <p>
+ * Strokes are only loaded for items that are actually bound, through {@link PathsLoader}, and
+ * are drawn scaled to fit into a {@link #THUMBNAIL_SIZE} bitmap off the main thread. Rendered
+ * thumbnails are kept in a small LRU cache so scrolling back does not load them again.
+ */
+public class DrawingThumbnailLoader {
+    private static final String TAG = "DrawingThumbnailLoader";
+
+    private static final int THUMBNAIL_SIZE = 256;
+    private static final int PADDING = 8;
+    private static final int CACHE_BYTES = 4 * 1024 * 1024;
+
+    /**
+     * Source of the strokes for one drawing, e.g. the local archive
+     */
+    public interface PathsLoader {
+        CompletableFuture<List<Drawing.DrawingPath>> loadPaths(String drawingId);
+    }
+
+    private final PathsLoader pathsLoader;
+    private final Executor renderExecutor = Executors.newSingleThreadExecutor();
+    private final LruCache<String, Bitmap> cache = new LruCache<String, Bitmap>(CACHE_BYTES) {
+        @Override
+        protected int sizeOf(String key, Bitmap value) {
+            return value.getByteCount();
+        }
+    };
+
+    public DrawingThumbnailLoader(PathsLoader pathsLoader) {
+        this.pathsLoader = pathsLoader;
+    }
+
+    /**
+     * Show the thumbnail for a drawing, loading it if needed. The view is tagged with the
+     * drawing ID so a recycled view never shows a thumbnail that finished loading too late.
+     */
+    public void load(String drawingId, ImageView imageView) {
+        imageView.setTag(drawingId);
+        Bitmap cached = cache.get(drawingId);
+        if (cached != null) {
+            imageView.setImageBitmap(cached);
+            return;
+        }
+
+        imageView.setImageResource(android.R.drawable.ic_menu_gallery);
+        pathsLoader.loadPaths(drawingId)
+                .thenApplyAsync(this::render, renderExecutor)
+                .whenComplete((bitmap, error) -> {
+                    if (error != null) {
+                        Log.e(TAG, "Failed to render thumbnail for " + drawingId, error);
+                        return;
+                    }
+                    if (bitmap == null) {
+                        return;
+                    }
+                    cache.put(drawingId, bitmap);
+                    imageView.post(() -> {
+                        if (drawingId.equals(imageView.getTag())) {
+                            imageView.setImageBitmap(bitmap);
+                        }
+                    });
+                });
+    }
+
+    /**
+     * Draw the paths scaled to fit the thumbnail
+     * @return the bitmap, or null if there is nothing to draw
+     */
+    private Bitmap render(List<Drawing.DrawingPath> paths) {
+        float minX = Float.MAX_VALUE;
+        float minY = Float.MAX_VALUE;
+        float maxX = -Float.MAX_VALUE;
+        float maxY = -Float.MAX_VALUE;
+        for (Drawing.DrawingPath drawingPath : paths) {
+            if (drawingPath.getPoints() == null) {
+                continue;
+            }
+            for (Drawing.PointF point : drawingPath.getPoints()) {
+                minX = Math.min(minX, point.getX());
+                minY = Math.min(minY, point.getY());
+                maxX = Math.max(maxX, point.getX());
+                maxY = Math.max(maxY, point.getY());
+            }
+        }
+        if (minX > maxX) {
+            return null;
+        }
+
+        float available = THUMBNAIL_SIZE - 2 * PADDING;
+        float scale = available / Math.max(1f, Math.max(maxX - minX, maxY - minY));
+        float offsetX = PADDING + (available - (maxX - minX) * scale) / 2 - minX * scale;
+        float offsetY = PADDING + (available - (maxY - minY) * scale) / 2 - minY * scale;
+
+        Bitmap bitmap = Bitmap.createBitmap(THUMBNAIL_SIZE, THUMBNAIL_SIZE, Bitmap.Config.RGB_565);
+        Canvas canvas = new Canvas(bitmap);
+        canvas.drawColor(Color.WHITE);
+
+        Paint paint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        paint.setStyle(Paint.Style.STROKE);
+        paint.setStrokeJoin(Paint.Join.ROUND);
+        paint.setStrokeCap(Paint.Cap.ROUND);
+
+        for (Drawing.DrawingPath drawingPath : paths) {
+            List<Drawing.PointF> points = drawingPath.getPoints();
+            if (points == null || points.isEmpty()) {
+                continue;
+            }
+            Path path = new Path();
+            path.moveTo(offsetX + points.get(0).getX() * scale, offsetY + points.get(0).getY() * scale);
+            for (int i = 1; i < points.size(); i++) {
+                path.lineTo(offsetX + points.get(i).getX() * scale, offsetY + points.get(i).getY() * scale);
+            }
+            paint.setColor(drawingPath.getColor());
+            paint.setStrokeWidth(Math.max(1f, drawingPath.getStrokeWidth() * scale));
+            canvas.drawPath(path, paint);
+        }
+        return bitmap;
+    }
+}
@@ -4,6 +4,7 @@ import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
 import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.DiffUtil;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.drawit_app.R;
@@ -12,6 +13,7 @@ import com.example.drawit_app.model.Lobby;
 import com.example.drawit_app.model.User;
 
 import java.util.List;
+import java.util.Objects;
 import androidx.lifecycle.LifecycleOwner;
 import androidx.lifecycle.LiveData;
 import androidx.lifecycle.Observer;
@@ -56,9 +58,35 @@ public class LobbyAdapter extends RecyclerView.Adapter<LobbyAdapter.LobbyViewHol
         return lobbies.size();
     }
 
+    /**
+     * Replace the list, rebinding only the lobbies that were added, removed, moved or changed
+     */
     public void updateLobbies(List<Lobby> newLobbies) {
+        List<Lobby> oldLobbies = this.lobbies;
+        DiffUtil.DiffResult diff = DiffUtil.calculateDiff(new DiffUtil.Callback() {
+            @Override
+            public int getOldListSize() {
+                return oldLobbies.size();
+            }
+
+            @Override
+            public int getNewListSize() {
+                return newLobbies.size();
+            }
+
+            @Override
+            public boolean areItemsTheSame(int oldItemPosition, int newItemPosition) {
+                return Objects.equals(oldLobbies.get(oldItemPosition).getLobbyId(),
+                        newLobbies.get(newItemPosition).getLobbyId());
+            }
+
+            @Override
+            public boolean areContentsTheSame(int oldItemPosition, int newItemPosition) {
+                return oldLobbies.get(oldItemPosition).hasSameContent(newLobbies.get(newItemPosition));
+            }
+        });
         this.lobbies = newLobbies;
-        notifyDataSetChanged();
+        diff.dispatchUpdatesTo(this);
     }
 
     public class LobbyViewHolder extends RecyclerView.ViewHolder {
@@ -1,6 +1,8 @@
 package com.example.drawit_app.view.archive;
 
 import android.os.Bundle;
+import android.text.Editable;
+import android.text.TextWatcher;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
@@ -16,11 +18,13 @@ import androidx.recyclerview.widget.GridLayoutManager;
 
 import com.example.drawit_app.R;
 import com.example.drawit_app.databinding.FragmentDrawingArchiveBinding;
-import com.example.drawit_app.model.Drawing;
+import com.example.drawit_app.model.DrawingSummary;
 import com.example.drawit_app.view.adapter.DrawingAdapter;
+import com.example.drawit_app.view.adapter.DrawingThumbnailLoader;
 import com.example.drawit_app.viewmodel.DrawingViewModel;
 
 import java.util.ArrayList;
+import java.util.List;
 
 import dagger.hilt.android.AndroidEntryPoint;
 
@@ -34,6 +38,8 @@ public class DrawingArchiveFragment extends Fragment implements DrawingAdapter.D
     private DrawingViewModel drawingViewModel;
     private NavController navController;
     private DrawingAdapter drawingAdapter;
+    // Last archive size, to restore the placeholders when a search is cleared
+    private Integer archiveCount;
     
     @Override
     public View onCreateView(@NonNull LayoutInflater inflater, ViewGroup container,
@@ -58,19 +64,44 @@ public class DrawingArchiveFragment extends Fragment implements DrawingAdapter.D
     }
     
     private void setupRecyclerView() {
-        drawingAdapter = new DrawingAdapter(new ArrayList<>(), this);
+        drawingAdapter = new DrawingAdapter(new ArrayList<>(), this,
+                new DrawingThumbnailLoader(drawingViewModel::getPathsForDrawing));
         
         // Use a grid layout for drawings (2 columns)
         GridLayoutManager layoutManager = new GridLayoutManager(requireContext(), 2);
         binding.rvDrawings.setLayoutManager(layoutManager);
         binding.rvDrawings.setAdapter(drawingAdapter);
+        
+        // Pages are requested as bound positions approach the end of what is loaded;
+        // search results are a single local list, so not while searching
+        drawingAdapter.setLoadMoreListener(() -> {
+            if (!isSearching()) {
+                drawingViewModel.loadNextArchivePage();
+            }
+        });
     }
     
     private void setupListeners() {
-        // Search using TextInputLayout's end icon
+        // Search the local archive as the user types
+        binding.etSearch.addTextChangedListener(new TextWatcher() {
+            @Override
+            public void beforeTextChanged(CharSequence s, int start, int count, int after) {
+            }
+
+            @Override
+            public void onTextChanged(CharSequence s, int start, int before, int count) {
+            }
+
+            @Override
+            public void afterTextChanged(Editable s) {
+                drawingViewModel.searchArchive(s.toString());
+            }
+        });
+        
+        // TextInputLayout's end icon searches right away instead of waiting for the debounce
         binding.tilSearch.setEndIconOnClickListener(v -> {
             String query = binding.etSearch.getText().toString().trim();
-            drawingViewModel.searchDrawings(query);
+            drawingViewModel.searchArchiveNow(query);
         });
         
         // Swipe refresh listener
@@ -78,15 +109,30 @@ public class DrawingArchiveFragment extends Fragment implements DrawingAdapter.D
     }
     
     private void observeViewModel() {
-        // Observe drawings list
-        drawingViewModel.getDrawings().observe(getViewLifecycleOwner(), drawings -> {
-            drawingAdapter.updateDrawings(drawings);
-            
-            // Show empty state if no drawings
-            if (drawings.isEmpty()) {
-                binding.tvNoDrawings.setVisibility(View.VISIBLE);
+        // Observe loaded archive pages
+        drawingViewModel.getArchiveItems().observe(getViewLifecycleOwner(), drawings -> {
+            if (!isSearching()) {
+                drawingAdapter.submitItems(drawings);
+            }
+        });
+        
+        // Archive size drives the placeholders and the empty state
+        drawingViewModel.getArchiveCount().observe(getViewLifecycleOwner(), count -> {
+            archiveCount = count;
+            if (!isSearching()) {
+                showArchiveCount(count);
+            }
+        });
+        
+        // Search results replace the paged archive until the search is cleared
+        drawingViewModel.getArchiveSearchResults().observe(getViewLifecycleOwner(), results -> {
+            if (results != null) {
+                drawingAdapter.updateDrawings(results);
+                binding.tvNoDrawings.setVisibility(results.isEmpty() ? View.VISIBLE : View.GONE);
             } else {
-                binding.tvNoDrawings.setVisibility(View.GONE);
+                List<DrawingSummary> items = drawingViewModel.getArchiveItems().getValue();
+                drawingAdapter.submitItems(items != null ? items : new ArrayList<>());
+                showArchiveCount(archiveCount);
             }
         });
         
@@ -104,16 +150,26 @@ public class DrawingArchiveFragment extends Fragment implements DrawingAdapter.D
         });
     }
     
+    private boolean isSearching() {
+        return drawingViewModel.getArchiveSearchResults().getValue() != null;
+    }
+    
+    private void showArchiveCount(Integer count) {
+        int total = count != null ? count : 0;
+        drawingAdapter.setTotalCount(total);
+        binding.tvNoDrawings.setVisibility(total == 0 ? View.VISIBLE : View.GONE);
+    }
+    
     private void fetchDrawings() {
         // Clear search query
         binding.etSearch.setText("");
         
-        // Fetch all drawings
-        drawingViewModel.fetchDrawings();
+        // Reload the archive from its first page
+        drawingViewModel.refreshArchive();
     }
     
     @Override
-    public void onDrawingClick(Drawing drawing) {
+    public void onDrawingClick(DrawingSummary drawing) {
         // Navigate to drawing detail screen
         Bundle args = new Bundle();
         args.putString("drawingId", drawing.getId());
@@ -20,12 +20,16 @@ import androidx.navigation.Navigation;
 import com.example.drawit_app.R;
 import com.example.drawit_app.databinding.FragmentDrawingDetailBinding;
 import com.example.drawit_app.model.Drawing;
+import com.example.drawit_app.model.ReplayEvent;
+import com.example.drawit_app.repository.StorageMaintenance;
+import com.example.drawit_app.view.custom.ReplayPlayer;
 import com.example.drawit_app.viewmodel.DrawingViewModel;
 
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.text.SimpleDateFormat;
+import java.util.List;
 import java.util.Locale;
 
 import dagger.hilt.android.AndroidEntryPoint;
@@ -41,6 +45,11 @@ public class DrawingDetailFragment extends Fragment {
     private String drawingId;
     private Drawing currentDrawing;
     
+    // Recorded strokes of the drawing's round, if it was played on this device
+    private ReplayPlayer replayPlayer;
+    private List<ReplayEvent> replayEvents;
+    private boolean replayRequested;
+    
     @Override
     public View onCreateView(@NonNull LayoutInflater inflater, ViewGroup container,
                              Bundle savedInstanceState) {
@@ -67,11 +76,13 @@ public class DrawingDetailFragment extends Fragment {
             return;
         }
         
+        replayPlayer = new ReplayPlayer(binding.drawingView);
         setupListeners();
         observeViewModel();
         
-        // Load drawing details
+        // Load drawing details, then the strokes on their own
         drawingViewModel.fetchDrawingDetails(drawingId);
+        drawingViewModel.loadDetailPaths(drawingId);
     }
     
     private void setupListeners() {
@@ -81,6 +92,9 @@ public class DrawingDetailFragment extends Fragment {
         // Download drawing button click listener
         binding.btnDownloadDrawing.setOnClickListener(v -> downloadDrawing());
         
+        // Replay the round the drawing was made in as a time-lapse
+        binding.btnReplayRound.setOnClickListener(v -> replayPlayer.play(replayEvents, null));
+        
         // Rate drawing buttons
         binding.btnRate1.setOnClickListener(v -> rateDrawing(1));
         binding.btnRate2.setOnClickListener(v -> rateDrawing(2));
@@ -93,8 +107,32 @@ public class DrawingDetailFragment extends Fragment {
         // Observe drawing details
         drawingViewModel.getDrawingDetails().observe(getViewLifecycleOwner(), drawing -> {
             if (drawing != null) {
+                boolean newDrawing = currentDrawing == null
+                        || !drawing.getDrawingId().equals(currentDrawing.getDrawingId());
                 currentDrawing = drawing;
                 updateDrawingUI(drawing);
+                if (newDrawing && drawing.getGameId() != null) {
+                    replayRequested = true;
+                    drawingViewModel.loadRoundReplay(drawing.getGameId(), drawing.getRoundNumber());
+                }
+            }
+        });
+        
+        // Observe the recorded round; only offer a replay if this device has one
+        drawingViewModel.getRoundReplay().observe(getViewLifecycleOwner(), events -> {
+            // Ignore a replay left over from another screen
+            if (!replayRequested) {
+                return;
+            }
+            replayEvents = events;
+            boolean hasReplay = events != null && !events.isEmpty();
+            binding.btnReplayRound.setVisibility(hasReplay ? View.VISIBLE : View.GONE);
+        });
+        
+        // Observe the strokes, loaded separately from the metadata
+        drawingViewModel.getDetailPaths().observe(getViewLifecycleOwner(), paths -> {
+            if (paths != null) {
+                binding.drawingView.setPaths(paths);
             }
         });
         
@@ -173,7 +211,7 @@ public class DrawingDetailFragment extends Fragment {
             Bitmap bitmap = binding.drawingView.getBitmap();
             
             // Save bitmap to cache directory
-            File cachePath = new File(requireContext().getCacheDir(), "images");
+            File cachePath = new File(requireContext().getCacheDir(), StorageMaintenance.EXPORT_CACHE_DIR);
             cachePath.mkdirs();
             File imageFile = new File(cachePath, "shared_drawing.png");
             
@@ -216,6 +254,9 @@ public class DrawingDetailFragment extends Fragment {
     @Override
     public void onDestroyView() {
         super.onDestroyView();
+        if (replayPlayer != null) {
+            replayPlayer.stop();
+        }
         binding = null;
     }
 }
@@ -741,26 +741,8 @@ public class DrawingView extends View {
         }
         
         // Ensure we have a valid bitmap and canvas before proceeding
-        if (canvasBitmap == null || drawCanvas == null) {
-            Log.w("DrawingView", "Canvas bitmap or drawCanvas is null, attempting to create");
-            int w = getWidth();
-            int h = getHeight();
-            
-            if (w <= 0 || h <= 0) {
-                // If dimensions are not available yet, post to UI thread to try again later
-                Log.w("DrawingView", "Invalid dimensions for bitmap creation: w=" + w + ", h=" + h);
-                post(() -> setPathsFromJson(jsonString));
-                return;
-            }
-            
-            try {
-                canvasBitmap = Bitmap.createBitmap(w, h, Bitmap.Config.ARGB_8888);
-                drawCanvas = new Canvas(canvasBitmap);
-                Log.d("DrawingView", "Created new bitmap in setPathsFromJson: w=" + w + ", h=" + h);
-            } catch (Exception e) {
-                Log.e("DrawingView", "Failed to create bitmap in setPathsFromJson: " + e.getMessage());
-                return;
-            }
+        if (!ensureCanvas(() -> setPathsFromJson(jsonString))) {
+            return;
         }
         
         try {
@@ -811,4 +793,66 @@ public class DrawingView extends View {
             e.printStackTrace();
         }
     }
-}
\ No newline at end of file
+    
+    /**
+     * Recreate paths from decoded drawing paths (e.g. loaded from the local archive)
+     * @param drawingPaths paths with their sampled points
+     */
+    public void setPaths(List<Drawing.DrawingPath> drawingPaths) {
+        if (drawingPaths == null || drawingPaths.isEmpty()) {
+            Log.d("DrawingView", "No drawing paths to show, skipping");
+            return;
+        }
+        if (!ensureCanvas(() -> setPaths(drawingPaths))) {
+            return;
+        }
+        
+        paths.clear();
+        for (Drawing.DrawingPath drawingPath : drawingPaths) {
+            Path path = new Path();
+            List<Drawing.PointF> points = drawingPath.getPoints();
+            if (points != null && !points.isEmpty()) {
+                path.moveTo(points.get(0).getX(), points.get(0).getY());
+                for (int j = 1; j < points.size(); j++) {
+                    path.lineTo(points.get(j).getX(), points.get(j).getY());
+                }
+            }
+            paths.add(new PathInfo(path, drawingPath.getColor(), drawingPath.getStrokeWidth()));
+        }
+        
+        redrawCanvas();
+        Log.d("DrawingView", "Loaded and drew " + paths.size() + " paths");
+    }
+    
+    /**
+     * Make sure the backing bitmap exists before paths are drawn into it
+     * @param retry run again once the view has been laid out, if it has no size yet
+     * @return true if the canvas is ready now
+     */
+    private boolean ensureCanvas(Runnable retry) {
+        if (canvasBitmap != null && drawCanvas != null) {
+            return true;
+        }
+        
+        Log.w("DrawingView", "Canvas bitmap or drawCanvas is null, attempting to create");
+        int w = getWidth();
+        int h = getHeight();
+        
+        if (w <= 0 || h <= 0) {
+            // If dimensions are not available yet, post to UI thread to try again later
+            Log.w("DrawingView", "Invalid dimensions for bitmap creation: w=" + w + ", h=" + h);
+            post(retry);
+            return false;
+        }
+        
+        try {
+            canvasBitmap = Bitmap.createBitmap(w, h, Bitmap.Config.ARGB_8888);
+            drawCanvas = new Canvas(canvasBitmap);
+            Log.d("DrawingView", "Created new bitmap for loaded paths: w=" + w + ", h=" + h);
+            return true;
+        } catch (Exception e) {
+            Log.e("DrawingView", "Failed to create bitmap for loaded paths: " + e.getMessage());
+            return false;
+        }
+    }
+}
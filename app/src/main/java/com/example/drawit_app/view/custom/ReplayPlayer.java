@@ -0,0 +1,111 @@
+package com.example.drawit_app.view.custom;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import com.example.drawit_app.model.Drawing;
+import com.example.drawit_app.model.ReplayEvent;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Plays the recorded events of a round into a {@link DrawingView} as a time-lapse.
+ * Gaps between events are sped up and capped, so a 60 second round plays in a few seconds
+ * while keeping the order and rhythm of the strokes. Main thread only.
+ */
+public class ReplayPlayer {
+
+    /**
+     * Progress of a replay, called on the main thread
+     */
+    public interface Listener {
+        /**
+         * An event was just shown; useful for captions such as the word or the latest guess
+         */
+        void onEvent(ReplayEvent event);
+
+        /**
+         * The last event was shown
+         */
+        void onFinished();
+    }
+
+    private static final int SPEEDUP = 4;
+    private static final long MAX_STEP_MS = 500;
+
+    private final DrawingView drawingView;
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final Runnable step = this::playNext;
+    private final List<Drawing.DrawingPath> shownPaths = new ArrayList<>();
+
+    private List<ReplayEvent> events;
+    private Listener listener;
+    private int next;
+
+    public ReplayPlayer(DrawingView drawingView) {
+        this.drawingView = drawingView;
+    }
+
+    /**
+     * Start replaying from an empty canvas, stopping any replay in progress
+     */
+    public void play(List<ReplayEvent> events, Listener listener) {
+        stop();
+        if (events == null || events.isEmpty()) {
+            return;
+        }
+        this.events = events;
+        this.listener = listener;
+        next = 0;
+        shownPaths.clear();
+        drawingView.clearCanvas();
+        handler.post(step);
+    }
+
+    /**
+     * Stop replaying, leaving the canvas as it is
+     */
+    public void stop() {
+        handler.removeCallbacks(step);
+        events = null;
+        listener = null;
+    }
+
+    public boolean isPlaying() {
+        return events != null;
+    }
+
+    private void playNext() {
+        ReplayEvent event = events.get(next++);
+        switch (event.getType()) {
+            case STROKE:
+                shownPaths.add(event.getPath());
+                // setPaths may keep the list until the view is laid out
+                drawingView.setPaths(new ArrayList<>(shownPaths));
+                break;
+            case CLEAR:
+                shownPaths.clear();
+                drawingView.clearCanvas();
+                break;
+            default:
+                break;
+        }
+
+        Listener current = listener;
+        if (next < events.size()) {
+            long gap = events.get(next).getTimestamp() - event.getTimestamp();
+            handler.postDelayed(step, Math.max(0, Math.min(gap / SPEEDUP, MAX_STEP_MS)));
+        } else {
+            events = null;
+            listener = null;
+        }
+
+        if (current != null) {
+            current.onEvent(event);
+            if (!isPlaying()) {
+                current.onFinished();
+            }
+        }
+    }
+}
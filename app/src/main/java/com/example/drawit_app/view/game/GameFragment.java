@@ -29,6 +29,7 @@ import androidx.lifecycle.ViewModelProvider;
 import androidx.navigation.NavController;
 import androidx.navigation.Navigation;
 import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.drawit_app.R;
 import com.example.drawit_app.databinding.FragmentGameBinding;
@@ -48,6 +49,8 @@ import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 
+import javax.inject.Inject;
+
 import dagger.hilt.android.AndroidEntryPoint;
 
 /**
@@ -67,6 +70,9 @@ public class GameFragment extends Fragment implements WebSocketService.GameUpdat
     private com.example.drawit_app.view.adapter.PlayerAdapter playerAdapter;
     private GameRepository gameRepository;
     
+    @Inject
+    WebSocketService webSocketService;
+    
     @Override
     public View onCreateView(@NonNull LayoutInflater inflater, ViewGroup container,
                              Bundle savedInstanceState) {
@@ -102,8 +108,8 @@ public class GameFragment extends Fragment implements WebSocketService.GameUpdat
         setupListeners();
         observeViewModel();
         
-        // Set WebSocket callback
-        drawingViewModel.setGameUpdateCallback(this);
+        // Receive WebSocket game events until the view is destroyed
+        webSocketService.subscribe(getViewLifecycleOwner(), this);
 
         Log.d("GameFragment", "Joining game with ID: " + gameId);
         
@@ -144,10 +150,22 @@ public class GameFragment extends Fragment implements WebSocketService.GameUpdat
     }
     
     private void setupRecyclerViews() {
-        // Setup chat adapter
-        chatAdapter = new ChatAdapter(new ArrayList<ChatMessage>(), currentUser);
+        // Setup chat adapter; it follows the game's chat log row by row
+        chatAdapter = new ChatAdapter(drawingViewModel.getChatLog(), currentUser);
         binding.recyclerViewChat.setLayoutManager(new LinearLayoutManager(requireContext()));
         binding.recyclerViewChat.setAdapter(chatAdapter);
+        chatAdapter.registerAdapterDataObserver(new RecyclerView.AdapterDataObserver() {
+            @Override
+            public void onItemRangeInserted(int positionStart, int itemCount) {
+                // Keep the newest message in view
+                if (binding != null) {
+                    binding.recyclerViewChat.smoothScrollToPosition(chatAdapter.getItemCount() - 1);
+                }
+            }
+        });
+        if (chatAdapter.getItemCount() > 0) {
+            binding.recyclerViewChat.scrollToPosition(chatAdapter.getItemCount() - 1);
+        }
         
         // Setup score adapter
         scoreAdapter = new PlayerScoreAdapter(new ArrayList<>());
@@ -364,27 +382,6 @@ public class GameFragment extends Fragment implements WebSocketService.GameUpdat
             }
         });
 
-        drawingViewModel.getChatMessages().observe(getViewLifecycleOwner(), messages -> {
-            if (messages != null) {
-                List<ChatMessage> chatMessages = new ArrayList<>();
-                if (!messages.isEmpty() && messages.get(0) != null) {
-                    for (String msg : messages) {
-                        ChatMessage chatMsg = new ChatMessage(null, msg, ChatMessage.MessageType.SYSTEM_MESSAGE);
-                        chatMessages.add(chatMsg);
-                    }
-                } else {
-                    for (String message : messages) {
-                        ChatMessage chatMsg = new ChatMessage();
-                        chatMsg.setMessage(message);
-                        chatMsg.setType(ChatMessage.MessageType.SYSTEM_MESSAGE);
-                        chatMessages.add(chatMsg);
-                    }
-                }
-                chatAdapter.updateMessages(chatMessages);
-                binding.recyclerViewChat.scrollToPosition(chatAdapter.getItemCount() - 1);
-            }
-        });
-        
         drawingViewModel.getCurrentGame().observe(getViewLifecycleOwner(), game -> {
             if (game != null && game.getPlayers() != null && !game.getPlayers().isEmpty()) {
                 List<User> players = game.getPlayers();
@@ -913,6 +910,19 @@ public class GameFragment extends Fragment implements WebSocketService.GameUpdat
             return;
         }
         
+        // A deadline already behind us on the synchronized clock means the round is over;
+        // show zero and wait for the server's next round instead of counting down again
+        boolean deadlineKnown = game.getRoundEndsAt() > 0 && webSocketService.isClockSynchronized();
+        long untilDeadline = deadlineKnown
+                ? game.getRoundEndsAt() - webSocketService.serverNowMillis() : 0;
+        if (deadlineKnown && untilDeadline <= 0) {
+            Log.d(TAG, "⏱️ Round deadline already passed - not starting timer");
+            game.setRemainingTime(0);
+            binding.tvTimer.setText("0");
+            binding.tvTimer.setTextColor(ContextCompat.getColor(requireContext(), R.color.colorError));
+            return;
+        }
+        
         // Get the time remaining from game state (in seconds)
         int timeRemainingSeconds = remainingTimeSeconds;
         if (timeRemainingSeconds <= 0) {
@@ -927,8 +937,16 @@ public class GameFragment extends Fragment implements WebSocketService.GameUpdat
             drawingViewModel.updateCurrentGame(game);
         }
         
-        // Convert to milliseconds for CountDownTimer
-        final long timeRemainingMillis = timeRemainingSeconds * 1000L;
+        // Convert to milliseconds for CountDownTimer, correcting for network delay:
+        // prefer the server's round deadline on our synchronized clock, otherwise assume the
+        // value is already half a round trip old
+        long timeRemainingMillis = timeRemainingSeconds * 1000L;
+        if (deadlineKnown) {
+            timeRemainingMillis = untilDeadline;
+            timeRemainingSeconds = (int) Math.ceil(untilDeadline / 1000.0);
+        } else if (webSocketService.getRttMillis() > 0) {
+            timeRemainingMillis = Math.max(0, timeRemainingMillis - webSocketService.getRttMillis() / 2);
+        }
         final int finalTimeRemainingSeconds = timeRemainingSeconds;
         
         Log.d(TAG, "⏱️ Starting timer with " + timeRemainingSeconds + " seconds");
@@ -1257,63 +1275,14 @@ public class GameFragment extends Fragment implements WebSocketService.GameUpdat
         Log.d(TAG, "💬 Chat message received: " + chatMessage.getMessage() +
                 " from " + (chatMessage.getSender() != null ? chatMessage.getSender().getUsername() : "unknown"));
 
-        // Save message in ViewModel to ensure it persists across configuration changes
-        drawingViewModel.addChatMessage(chatMessage);
-
-        // Update UI on main thread
-        if (getActivity() != null) {
-            getActivity().runOnUiThread(() -> {
-                if (isAdded() && binding != null) {
-                    // Add the message to the chat adapter
-                    if (chatAdapter != null) {
-                        try {
-                            // Get current messages, add the new one, and update the adapter
-                            List<ChatMessage> currentMessages = new ArrayList<>(chatAdapter.getMessages());
-
-                            // Check if message already exists to avoid duplicates
-                            boolean isDuplicate = false;
-                            for (ChatMessage existingMsg : currentMessages) {
-                                if (existingMsg.getMessageId() != null &&
-                                        existingMsg.getMessageId().equals(chatMessage.getMessageId())) {
-                                    isDuplicate = true;
-                                    Log.d(TAG, "⚠️ Duplicate message detected, skipping: " + chatMessage.getMessage());
-                                    break;
-                                }
-                            }
-
-                            if (!isDuplicate) {
-                                // Add the new message
-                                currentMessages.add(chatMessage);
-
-                                // Update the adapter with the new list
-                                chatAdapter.updateMessages(currentMessages);
-
-                                // Force adapter to update
-                                chatAdapter.notifyDataSetChanged();
-
-                                // Scroll to bottom
-                                if (chatAdapter.getItemCount() > 0) {
-                                    binding.recyclerViewChat.post(() -> {
-                                        binding.recyclerViewChat.smoothScrollToPosition(chatAdapter.getItemCount() - 1);
-                                    });
-                                }
-
-                                Log.d(TAG, "✅ Chat message added to adapter: " + chatMessage.getMessage());
-
-                                // Check if this is a correct guess
-                                checkForCorrectGuess(chatMessage);
-                            }
-                        } catch (Exception e) {
-                            Log.e(TAG, "Error updating chat adapter: " + e.getMessage(), e);
-                        }
-                    } else {
-                        Log.e(TAG, "❌ Chat adapter is null");
-
-                        // Try to initialize chat adapter if it's null
-                        initializeChatAdapter();
-                    }
-                }
-            });
+        // The repository appends the message to the chat log, which the adapter follows;
+        // delivered on the main thread, so only the guess check is left to do here
+        if (isAdded() && binding != null) {
+            if (chatAdapter == null) {
+                Log.e(TAG, "❌ Chat adapter is null");
+                initializeChatAdapter();
+            }
+            checkForCorrectGuess(chatMessage);
         }
     }
 
@@ -1322,7 +1291,7 @@ public class GameFragment extends Fragment implements WebSocketService.GameUpdat
      */
     private void initializeChatAdapter() {
         if (chatAdapter == null && binding != null) {
-            chatAdapter = new ChatAdapter(new ArrayList<>(), currentUser);
+            chatAdapter = new ChatAdapter(drawingViewModel.getChatLog(), currentUser);
             binding.recyclerViewChat.setAdapter(chatAdapter);
             Log.d(TAG, "✅ Chat adapter initialized");
         }
@@ -1389,8 +1358,6 @@ public class GameFragment extends Fragment implements WebSocketService.GameUpdat
         // Cancel timer
         stopRoundTimer();
 
-        // Remove WebSocket callback
-        drawingViewModel.setGameUpdateCallback(null);
         binding = null;
     }
 }
\ No newline at end of file
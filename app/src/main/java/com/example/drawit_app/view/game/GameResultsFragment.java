@@ -18,8 +18,10 @@ import com.example.drawit_app.R;
 import com.example.drawit_app.databinding.FragmentGameResultsBinding;
 import com.example.drawit_app.model.Game;
 import com.example.drawit_app.model.PlayerScore;
+import com.example.drawit_app.model.ReplayEvent;
 import com.example.drawit_app.model.User;
 import com.example.drawit_app.view.adapter.GameResultsAdapter;
+import com.example.drawit_app.view.custom.ReplayPlayer;
 import com.example.drawit_app.viewmodel.DrawingViewModel;
 
 import java.util.ArrayList;
@@ -40,6 +42,12 @@ public class GameResultsFragment extends Fragment {
     private NavController navController;
     private String gameId;
     private GameResultsAdapter resultsAdapter;
+    private DrawingViewModel drawingViewModel;
+    
+    // Time-lapse of the rounds recorded on this device
+    private ReplayPlayer replayPlayer;
+    private List<Integer> replayRounds = new ArrayList<>();
+    private int nextReplayIndex;
     
     @Override
     public View onCreateView(@NonNull LayoutInflater inflater, ViewGroup container,
@@ -53,7 +61,7 @@ public class GameResultsFragment extends Fragment {
         super.onViewCreated(view, savedInstanceState);
         
         navController = Navigation.findNavController(view);
-        DrawingViewModel drawingViewModel = new ViewModelProvider(requireActivity()).get(DrawingViewModel.class);
+        drawingViewModel = new ViewModelProvider(requireActivity()).get(DrawingViewModel.class);
         
         // Get game ID from arguments
         if (getArguments() != null) {
@@ -70,6 +78,7 @@ public class GameResultsFragment extends Fragment {
         setupRecyclerView();
         setupListeners();
         observeViewModel();
+        setupReplay();
         
         // Load game results
         fetchGameResults(gameId);
@@ -87,6 +96,64 @@ public class GameResultsFragment extends Fragment {
             navController.navigate(R.id.action_gameResultsFragment_to_lobbiesFragment));
     }
     
+    private void setupReplay() {
+        replayPlayer = new ReplayPlayer(binding.replayView);
+        binding.replayView.setInteractionEnabled(false);
+        
+        binding.btnReplayRound.setOnClickListener(v -> {
+            if (replayRounds.isEmpty()) {
+                return;
+            }
+            int round = replayRounds.get(nextReplayIndex);
+            nextReplayIndex = (nextReplayIndex + 1) % replayRounds.size();
+            binding.btnReplayRound.setText(getString(R.string.replay_round_format, replayRounds.get(nextReplayIndex)));
+            drawingViewModel.loadRoundReplay(gameId, round);
+        });
+        
+        drawingViewModel.getReplayRounds().observe(getViewLifecycleOwner(), rounds -> {
+            replayRounds = rounds != null ? rounds : new ArrayList<>();
+            nextReplayIndex = 0;
+            boolean hasReplay = !replayRounds.isEmpty();
+            binding.btnReplayRound.setVisibility(hasReplay ? View.VISIBLE : View.GONE);
+            if (hasReplay) {
+                binding.btnReplayRound.setText(getString(R.string.replay_round_format, replayRounds.get(0)));
+            }
+        });
+        
+        drawingViewModel.getRoundReplay().observe(getViewLifecycleOwner(), events -> {
+            if (events == null || events.isEmpty()) {
+                return;
+            }
+            binding.replayView.setVisibility(View.VISIBLE);
+            binding.tvReplayCaption.setVisibility(View.VISIBLE);
+            binding.tvReplayCaption.setText(null);
+            replayPlayer.play(events, new ReplayPlayer.Listener() {
+                @Override
+                public void onEvent(ReplayEvent event) {
+                    showReplayCaption(event);
+                }
+                
+                @Override
+                public void onFinished() {
+                    // Leave the finished drawing and the last caption on screen
+                }
+            });
+        });
+        
+        drawingViewModel.loadReplayRounds(gameId);
+    }
+    
+    private void showReplayCaption(ReplayEvent event) {
+        if (event.getType() == ReplayEvent.Type.ROUND_START) {
+            binding.tvReplayCaption.setText(getString(R.string.replay_drawer_format,
+                    event.getRound(), event.getPlayer()));
+        } else if (event.getType() == ReplayEvent.Type.GUESS) {
+            binding.tvReplayCaption.setText(event.isCorrect()
+                    ? getString(R.string.replay_correct_guess_format, event.getPlayer())
+                    : getString(R.string.replay_guess_format, event.getPlayer(), event.getText()));
+        }
+    }
+    
     private void observeViewModel() {
         // Observe current game
         observeCurrentGame();
@@ -180,6 +247,9 @@ public class GameResultsFragment extends Fragment {
     @Override
     public void onDestroyView() {
         super.onDestroyView();
+        if (replayPlayer != null) {
+            replayPlayer.stop();
+        }
         binding = null;
     }
 }
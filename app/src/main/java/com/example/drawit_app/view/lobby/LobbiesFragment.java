@@ -24,6 +24,7 @@ import androidx.lifecycle.ViewModelProvider;
 import androidx.navigation.NavController;
 import androidx.navigation.Navigation;
 import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.drawit_app.R;
 import com.example.drawit_app.databinding.FragmentLobbiesBinding;
@@ -45,6 +46,9 @@ import dagger.hilt.android.AndroidEntryPoint;
 @AndroidEntryPoint
 public class LobbiesFragment extends Fragment implements LobbyAdapter.LobbyClickListener {
 
+    // Rows from the end of the list at which the next page is requested
+    private static final int LOAD_MORE_THRESHOLD = 5;
+
     private FragmentLobbiesBinding binding;
     private LobbyViewModel lobbyViewModel;
     private NavController navController;
@@ -110,8 +114,21 @@ public class LobbiesFragment extends Fragment implements LobbyAdapter.LobbyClick
     private void setupRecyclerView() {
         // Use the new constructor with UserRepository for automatic host username fetching
         lobbyAdapter = new LobbyAdapter(new ArrayList<>(), this, userRepository, getViewLifecycleOwner());
-        binding.rvLobbies.setLayoutManager(new LinearLayoutManager(requireContext()));
+        LinearLayoutManager layoutManager = new LinearLayoutManager(requireContext());
+        binding.rvLobbies.setLayoutManager(layoutManager);
         binding.rvLobbies.setAdapter(lobbyAdapter);
+
+        // The server only sends lobbies inside the subscribed window; widen it near the end
+        binding.rvLobbies.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrolled(@NonNull RecyclerView recyclerView, int dx, int dy) {
+                if (dy <= 0) return;
+                int lastVisible = layoutManager.findLastVisibleItemPosition();
+                if (lastVisible >= layoutManager.getItemCount() - LOAD_MORE_THRESHOLD) {
+                    lobbyViewModel.loadMoreLobbies(layoutManager.getItemCount());
+                }
+            }
+        });
     }
     
     private void setupListeners() {
@@ -1,6 +1,8 @@
 package com.example.drawit_app.viewmodel;
 
 import android.graphics.Bitmap;
+import android.os.Handler;
+import android.os.Looper;
 import android.util.Log;
 
 import androidx.lifecycle.LiveData;
@@ -9,18 +11,22 @@ import androidx.lifecycle.MediatorLiveData;
 import androidx.lifecycle.MutableLiveData;
 import androidx.lifecycle.ViewModel;
 
-import com.example.drawit_app.model.ChatMessage;
 import com.example.drawit_app.model.Drawing;
+import com.example.drawit_app.model.DrawingSummary;
 import com.example.drawit_app.model.Game;
+import com.example.drawit_app.model.ReplayEvent;
 import com.example.drawit_app.model.User;
-import com.example.drawit_app.api.WebSocketService;
 import com.example.drawit_app.repository.BaseRepository.Resource;
 import com.example.drawit_app.repository.DrawingRepository;
 import com.example.drawit_app.repository.GameRepository;
 import com.example.drawit_app.repository.UserRepository;
+import com.example.drawit_app.util.ChatLog;
+import com.example.drawit_app.util.FutureScope;
+import com.example.drawit_app.util.ResourceFutures;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 import javax.inject.Inject;
 
@@ -46,13 +52,41 @@ public class DrawingViewModel extends ViewModel {
     // Game-related LiveData
     private final MutableLiveData<Game> currentGame = new MutableLiveData<>();
     private final MutableLiveData<List<String>> chatMessages = new MutableLiveData<>();
-    private final MutableLiveData<List<ChatMessage>> chatMessageObjects = new MutableLiveData<>();
     private final MutableLiveData<String> drawingPaths = new MutableLiveData<>();
     private final MutableLiveData<Boolean> gameOverEvent = new MutableLiveData<>();
-    private final MutableLiveData<Drawing> drawingDetails = new MutableLiveData<>();
+    private final MediatorLiveData<Drawing> drawingDetails = new MediatorLiveData<>();
+    private final MutableLiveData<List<Drawing.DrawingPath>> detailPaths = new MutableLiveData<>();
+
+    // Round replays recorded on this device
+    private final MutableLiveData<List<Integer>> replayRounds = new MutableLiveData<>();
+    private final MutableLiveData<List<ReplayEvent>> roundReplay = new MutableLiveData<>();
+
+    // Paged archive: items loaded so far, in (timestamp, drawingId) order
+    private static final int ARCHIVE_PAGE_SIZE = 30;
+    private final MutableLiveData<List<DrawingSummary>> archiveItems = new MutableLiveData<>(new ArrayList<>());
+    private boolean archivePageLoading;
+    private boolean archiveEndReached;
+    // Bumped on refresh so a page requested before it is ignored
+    private int archiveGeneration;
+
+    // Local search-as-you-type over the archive; null while not searching
+    private static final long SEARCH_DEBOUNCE_MS = 250;
+    private static final int SEARCH_RESULT_LIMIT = 100;
+    private final MutableLiveData<List<DrawingSummary>> archiveSearchResults = new MutableLiveData<>(null);
+    private final Handler searchHandler = new Handler(Looper.getMainLooper());
+    private Runnable pendingSearch;
+    // Bumped on every keystroke so results of an older query are dropped
+    private int searchGeneration;
     private final MutableLiveData<Boolean> isLoading = new MutableLiveData<>();
     private final MutableLiveData<String> _error = new MutableLiveData<>();
 
+    // One-shot operations started by this ViewModel; cancelled in onCleared
+    private final FutureScope scope = new FutureScope();
+
+    // Current stale-while-revalidate sources, replaced on each fetch
+    private LiveData<Resource<List<Drawing>>> drawingsSource;
+    private LiveData<Resource<Drawing>> drawingDetailsSource;
+
     /**
      * Get error messages
      */
@@ -70,7 +104,6 @@ public class DrawingViewModel extends ViewModel {
         drawingsState.setValue(new DrawingsState(null, null, false));
         isLoading.setValue(false);
         chatMessages.setValue(java.util.Collections.emptyList());
-        chatMessageObjects.setValue(new ArrayList<>());
     }
 
     /**
@@ -155,7 +188,7 @@ public class DrawingViewModel extends ViewModel {
     /**
      * Get top rated drawings
      */
-    public LiveData<List<Drawing>> getTopRatedDrawings(int limit) {
+    public LiveData<List<DrawingSummary>> getTopRatedDrawings(int limit) {
         return drawingRepository.getTopRatedDrawings(limit);
     }
 
@@ -173,14 +206,6 @@ public class DrawingViewModel extends ViewModel {
         return currentDrawing;
     }
 
-    /**
-     * Set the WebSocket callback for game updates
-     */
-    public void setGameUpdateCallback(WebSocketService.GameUpdateCallback callback) {
-        // WebSocket callback for game updates
-        gameRepository.setGameUpdateCallback(callback);
-    }
-
     /**
      * Join a game with the given ID
      */
@@ -193,34 +218,33 @@ public class DrawingViewModel extends ViewModel {
         
         Log.i(TAG, "🎲 Joining game with ID: " + gameId);
         isLoading.setValue(true);
-        gameRepository.joinGame(gameId).observeForever(resource -> {
+        scope.launch(ResourceFutures.toFuture(gameRepository.joinGame(gameId)), game -> {
             isLoading.setValue(false);
-            if (resource.isSuccess() && resource.getData() != null) {
-                Game game = resource.getData();
+            if (game != null) {
                 Log.d(TAG, "Successfully joined game " + gameId + ", state: " + game.getState());
                 currentGame.setValue(game);
-            } else if (resource.isError()) {
-                String errorMessage = resource.getMessage();
-                Log.e(TAG, "Failed to join game: " + errorMessage);
-                
-                // Handle specific error cases
-                if (errorMessage != null) {
-                    if (errorMessage.contains("Lobby is locked") || errorMessage.contains("Cannot join game - lobby is locked")) {
-                        Log.e(TAG, "🔒 Cannot join game - lobby is locked");
-                        _error.postValue("Cannot join game - lobby is locked");
-                    } else if (errorMessage.contains("Game not found")) {
-                        Log.e(TAG, "🔍 Game not found: " + gameId);
-                        _error.postValue("Game not found");
-                    } else {
-                        _error.postValue("Failed to join game: " + errorMessage);
-                    }
+            }
+        }, errorMessage -> {
+            isLoading.setValue(false);
+            Log.e(TAG, "Failed to join game: " + errorMessage);
+            
+            // Handle specific error cases
+            if (errorMessage != null) {
+                if (errorMessage.contains("Lobby is locked") || errorMessage.contains("Cannot join game - lobby is locked")) {
+                    Log.e(TAG, "🔒 Cannot join game - lobby is locked");
+                    _error.postValue("Cannot join game - lobby is locked");
+                } else if (errorMessage.contains("Game not found")) {
+                    Log.e(TAG, "🔍 Game not found: " + gameId);
+                    _error.postValue("Game not found");
                 } else {
-                    _error.postValue("Failed to join game: Unknown error");
+                    _error.postValue("Failed to join game: " + errorMessage);
                 }
-                
-                // Pass the error to the repository for system message handling
-                gameRepository.handleError(errorMessage != null ? errorMessage : "Unknown error");
+            } else {
+                _error.postValue("Failed to join game: Unknown error");
             }
+            
+            // Pass the error to the repository for system message handling
+            gameRepository.handleError(errorMessage != null ? errorMessage : "Unknown error");
         });
     }
     
@@ -303,39 +327,11 @@ public class DrawingViewModel extends ViewModel {
     }
     
     /**
-     * Get chat message objects
-     */
-    public LiveData<List<ChatMessage>> getChatMessageObjects() {
-        return chatMessageObjects;
-    }
-    
-    /**
-     * Add a chat message to the list
-     * @param chatMessage The chat message to add
+     * Get the chat log of the current game. It outlives configuration changes and is read
+     * and observed on the main thread only.
      */
-    public void addChatMessage(ChatMessage chatMessage) {
-        if (chatMessage == null) {
-            return;
-        }
-        
-        List<ChatMessage> currentMessages = chatMessageObjects.getValue() != null ?
-                new ArrayList<>(chatMessageObjects.getValue()) : new ArrayList<>();
-        
-        // Check for duplicates
-        boolean isDuplicate = false;
-        for (ChatMessage existingMsg : currentMessages) {
-            if (existingMsg.getMessageId() != null && 
-                chatMessage.getMessageId() != null &&
-                existingMsg.getMessageId().equals(chatMessage.getMessageId())) {
-                isDuplicate = true;
-                break;
-            }
-        }
-        
-        if (!isDuplicate) {
-            currentMessages.add(chatMessage);
-            chatMessageObjects.setValue(currentMessages);
-        }
+    public ChatLog getChatLog() {
+        return gameRepository.getChatLog();
     }
 
     /**
@@ -374,11 +370,20 @@ public class DrawingViewModel extends ViewModel {
     }
 
     /**
-     * Fetch drawings from repository
+     * Fetch drawings from repository.
+     * The source may emit twice (cached copy, then revalidated copy), so it stays attached
+     * until the next fetch replaces it.
      */
     public void fetchDrawings() {
         isLoading.setValue(true);
-        drawingRepository.getUserDrawings().observeForever(resource -> {
+        if (drawingsSource != null) {
+            drawingsState.removeSource(drawingsSource);
+        }
+        drawingsSource = drawingRepository.getUserDrawings();
+        drawingsState.addSource(drawingsSource, resource -> {
+            if (resource.isLoading()) {
+                return;
+            }
             isLoading.setValue(false);
             if (resource.isSuccess() && resource.getData() != null) {
                 drawingsState.setValue(new DrawingsState(resource.getData(), null, false));
@@ -393,7 +398,14 @@ public class DrawingViewModel extends ViewModel {
      */
     public void fetchDrawingDetails(String drawingId) {
         isLoading.setValue(true);
-        drawingRepository.getDrawingById(drawingId).observeForever(resource -> {
+        if (drawingDetailsSource != null) {
+            drawingDetails.removeSource(drawingDetailsSource);
+        }
+        drawingDetailsSource = drawingRepository.getDrawingById(drawingId);
+        drawingDetails.addSource(drawingDetailsSource, resource -> {
+            if (resource.isLoading()) {
+                return;
+            }
             isLoading.setValue(false);
             if (resource.isSuccess() && resource.getData() != null) {
                 drawingDetails.setValue(resource.getData());
@@ -408,13 +420,14 @@ public class DrawingViewModel extends ViewModel {
      */
     public void rateDrawing(String drawingId, int rating) {
         isLoading.setValue(true);
-        drawingRepository.rateDrawing(drawingId, rating).observeForever(resource -> {
+        scope.launch(drawingRepository.rateDrawingAsync(drawingId, rating), drawing -> {
             isLoading.setValue(false);
-            if (resource.isSuccess() && resource.getData() != null) {
-                drawingDetails.setValue(resource.getData());
-            } else if (resource.isError()) {
-                gameRepository.handleError(resource.getMessage());
+            if (drawing != null) {
+                drawingDetails.setValue(drawing);
             }
+        }, errorMessage -> {
+            isLoading.setValue(false);
+            gameRepository.handleError(errorMessage);
         });
     }
 
@@ -426,12 +439,188 @@ public class DrawingViewModel extends ViewModel {
     }
 
     /**
-     * Get all drawings
+     * Get all drawings, without their strokes
      */
-    public LiveData<List<Drawing>> getDrawings() {
+    public LiveData<List<DrawingSummary>> getDrawings() {
         return drawingRepository.getAllDrawings();
     }
 
+    /**
+     * Get the archive items loaded so far
+     */
+    public LiveData<List<DrawingSummary>> getArchiveItems() {
+        return archiveItems;
+    }
+
+    /**
+     * Get the number of drawings in the archive, loaded or not
+     */
+    public LiveData<Integer> getArchiveCount() {
+        return drawingRepository.getDrawingCount();
+    }
+
+    /**
+     * Reload the archive from the first page, checking the server for new drawings
+     */
+    public void refreshArchive() {
+        archiveGeneration++;
+        archivePageLoading = false;
+        archiveEndReached = false;
+        archiveItems.setValue(new ArrayList<>());
+        isLoading.setValue(true);
+        loadArchivePage(true);
+    }
+
+    /**
+     * Load the page after the last loaded item, unless one is already loading or the end was reached
+     */
+    public void loadNextArchivePage() {
+        loadArchivePage(false);
+    }
+
+    private void loadArchivePage(boolean refresh) {
+        if (archivePageLoading || archiveEndReached) {
+            return;
+        }
+        List<DrawingSummary> loaded = archiveItems.getValue() != null ? archiveItems.getValue() : new ArrayList<>();
+        DrawingSummary last = loaded.isEmpty() ? null : loaded.get(loaded.size() - 1);
+        int generation = archiveGeneration;
+        archivePageLoading = true;
+
+        scope.launch(drawingRepository.loadArchivePage(last, ARCHIVE_PAGE_SIZE, refresh), page -> {
+            if (generation != archiveGeneration) {
+                return;
+            }
+            archivePageLoading = false;
+            isLoading.setValue(false);
+            if (page.size() < ARCHIVE_PAGE_SIZE) {
+                archiveEndReached = true;
+            }
+            List<DrawingSummary> items = new ArrayList<>(loaded);
+            items.addAll(page);
+            archiveItems.setValue(items);
+        }, errorMessage -> {
+            if (generation != archiveGeneration) {
+                return;
+            }
+            archivePageLoading = false;
+            isLoading.setValue(false);
+            _error.setValue("Failed to load drawings: " + errorMessage);
+        });
+    }
+
+    /**
+     * Get the results of the local archive search, or null when no search is active
+     */
+    public LiveData<List<DrawingSummary>> getArchiveSearchResults() {
+        return archiveSearchResults;
+    }
+
+    /**
+     * Search the local archive as the user types. Runs once typing pauses for
+     * {@link #SEARCH_DEBOUNCE_MS}; blank text ends the search.
+     */
+    public void searchArchive(String text) {
+        scheduleArchiveSearch(text, SEARCH_DEBOUNCE_MS);
+    }
+
+    /**
+     * Search the local archive right away, e.g. when the search button is pressed
+     */
+    public void searchArchiveNow(String text) {
+        scheduleArchiveSearch(text, 0);
+    }
+
+    private void scheduleArchiveSearch(String text, long delayMs) {
+        searchGeneration++;
+        if (pendingSearch != null) {
+            searchHandler.removeCallbacks(pendingSearch);
+            pendingSearch = null;
+        }
+        if (text == null || text.trim().isEmpty()) {
+            archiveSearchResults.setValue(null);
+            return;
+        }
+
+        int generation = searchGeneration;
+        pendingSearch = () -> {
+            pendingSearch = null;
+            scope.launch(drawingRepository.searchLocalDrawingsAsync(text, SEARCH_RESULT_LIMIT), results -> {
+                if (generation == searchGeneration) {
+                    Log.d(TAG, "🔍 Archive search '" + text + "' matched " + results.size() + " drawings");
+                    archiveSearchResults.setValue(results);
+                }
+            }, errorMessage -> Log.e(TAG, "Archive search failed: " + errorMessage));
+        };
+        searchHandler.postDelayed(pendingSearch, delayMs);
+    }
+
+    /**
+     * Load the strokes of one archived drawing, e.g. for a thumbnail
+     */
+    public CompletableFuture<List<Drawing.DrawingPath>> getPathsForDrawing(String drawingId) {
+        return drawingRepository.getPathsForDrawingAsync(drawingId);
+    }
+
+    /**
+     * Get the strokes of the drawing shown on the detail screen
+     */
+    public LiveData<List<Drawing.DrawingPath>> getDetailPaths() {
+        return detailPaths;
+    }
+
+    /**
+     * Load the strokes for the detail screen separately from the drawing's metadata
+     */
+    public void loadDetailPaths(String drawingId) {
+        // The ViewModel is shared across screens; don't show the previous drawing meanwhile
+        detailPaths.setValue(null);
+        scope.launch(drawingRepository.getPathsForDrawingAsync(drawingId), detailPaths::setValue,
+                errorMessage -> Log.e(TAG, "Failed to load paths for drawing " + drawingId + ": " + errorMessage));
+    }
+
+    /**
+     * Get the rounds of the game on the results screen that can be replayed
+     */
+    public LiveData<List<Integer>> getReplayRounds() {
+        return replayRounds;
+    }
+
+    /**
+     * Get the recorded events of the round last asked for with {@link #loadRoundReplay}
+     */
+    public LiveData<List<ReplayEvent>> getRoundReplay() {
+        return roundReplay;
+    }
+
+    /**
+     * Look up which rounds of a game were recorded on this device
+     */
+    public void loadReplayRounds(String gameId) {
+        replayRounds.setValue(null);
+        roundReplay.setValue(null);
+        scope.launch(gameRepository.getReplayRoundsAsync(gameId), replayRounds::setValue,
+                errorMessage -> Log.e(TAG, "Failed to load replay rounds of game " + gameId + ": " + errorMessage));
+    }
+
+    /**
+     * Load the recorded strokes and guesses of one round for a time-lapse replay
+     */
+    public void loadRoundReplay(String gameId, int round) {
+        roundReplay.setValue(null);
+        scope.launch(gameRepository.loadRoundReplayAsync(gameId, round), roundReplay::setValue,
+                errorMessage -> Log.e(TAG, "Failed to load replay of game " + gameId + " round " + round + ": " + errorMessage));
+    }
+
+    @Override
+    protected void onCleared() {
+        super.onCleared();
+        if (pendingSearch != null) {
+            searchHandler.removeCallbacks(pendingSearch);
+        }
+        scope.cancelAll();
+    }
+
     /**
      * State class for user's drawing archive
      */
@@ -4,7 +4,6 @@ import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MediatorLiveData;
 import androidx.lifecycle.ViewModel;
 
-import com.example.drawit_app.model.ChatMessage;
 import com.example.drawit_app.model.Drawing;
 import com.example.drawit_app.model.Game;
 import com.example.drawit_app.model.User;
@@ -12,6 +11,7 @@ import com.example.drawit_app.repository.BaseRepository.Resource;
 import com.example.drawit_app.repository.GameRepository;
 import com.example.drawit_app.repository.LobbyRepository;
 import com.example.drawit_app.repository.UserRepository;
+import com.example.drawit_app.util.ChatLog;
 
 import java.util.List;
 import java.util.Map;
@@ -185,11 +185,10 @@ public class GameViewModel extends ViewModel {
     }
     
     /**
-     * Get chat messages for the current game
-     * @return LiveData containing the list of chat messages
+     * Get the chat log of the current game; read and observe it on the main thread only
      */
-    public LiveData<List<ChatMessage>> getChatMessages() {
-        return gameRepository.getChatMessages();
+    public ChatLog getChatLog() {
+        return gameRepository.getChatLog();
     }
     
     /**
@@ -6,7 +6,6 @@ import android.content.Context;
 import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MediatorLiveData;
 import androidx.lifecycle.MutableLiveData;
-import androidx.lifecycle.Observer;
 import androidx.lifecycle.ViewModel;
 
 
@@ -16,13 +15,16 @@ import com.example.drawit_app.model.LobbiesState;
 import com.example.drawit_app.model.LobbyState;
 import com.example.drawit_app.model.User;
 import com.example.drawit_app.api.WebSocketService;
+import com.example.drawit_app.api.websocket.WebSocketEventBus;
 import com.example.drawit_app.api.message.GameStateMessage;
 import com.example.drawit_app.api.message.LobbiesUpdateMessage;
 import com.example.drawit_app.api.message.LobbyStateMessage;
+import com.example.drawit_app.api.request.LobbySubscriptionRequest;
 import com.example.drawit_app.api.response.LobbyListResponse;
 import com.example.drawit_app.repository.BaseRepository.Resource;
 import com.example.drawit_app.repository.LobbyRepository;
 import com.example.drawit_app.repository.UserRepository;
+import com.example.drawit_app.util.FutureScope;
 import com.example.drawit_app.util.LobbySettingsManager;
 
 import java.util.ArrayList;
@@ -48,8 +50,9 @@ public class LobbyViewModel extends ViewModel {
     // Debounce for preventing API spam
     private long lastRefreshTime = 0;
     
-    // Store the current WebSocket callback to manage lifecycle
+    // Store the current WebSocket callback and its event bus subscription to manage lifecycle
     private WebSocketService.LobbyUpdateCallback currentCallback = null;
+    private WebSocketEventBus.Subscription currentSubscription = null;
 
     /**
      * Remove a previously registered lobby update callback
@@ -58,9 +61,16 @@ public class LobbyViewModel extends ViewModel {
     public void removeLobbyUpdateCallback(WebSocketService.LobbyUpdateCallback callback) {
         Log.d(TAG, "Removing lobby update callback: " + callback);
         if (callback != null && callback.equals(this.currentCallback)) {
-            this.currentCallback = null;
+            clearLobbyUpdateSubscription();
         }
-        lobbyRepository.removeLobbyUpdateCallback(callback);
+    }
+
+    private void clearLobbyUpdateSubscription() {
+        if (currentSubscription != null) {
+            currentSubscription.unsubscribe();
+            currentSubscription = null;
+        }
+        currentCallback = null;
     }
 
     // Simplified LiveData state - REDUCED from 6 to 4 state objects
@@ -71,28 +81,8 @@ public class LobbyViewModel extends ViewModel {
 
     private final MutableLiveData<LobbyEvent> lobbyEvent = new MutableLiveData<>();
 
-    private static class SingleUseObserver<T> implements Observer<T> {
-        private final Observer<T> wrappedObserver;
-        private LiveData<T> liveData;
-        
-        SingleUseObserver(Observer<T> observer) {
-            this.wrappedObserver = observer;
-        }
-        
-        @Override
-        public void onChanged(T t) {
-            wrappedObserver.onChanged(t);
-            if (liveData != null) {
-                liveData.removeObserver(this);
-                liveData = null;
-            }
-        }
-        
-        // Called by observeForever to set the LiveData reference
-        void setLiveData(LiveData<T> liveData) {
-            this.liveData = liveData;
-        }
-    }
+    // One-shot repository operations started by this ViewModel, cancelled in onCleared
+    private final FutureScope scope = new FutureScope();
 
     /**
      * Event types for lobby operations
@@ -251,26 +241,18 @@ public class LobbyViewModel extends ViewModel {
 
         Log.d(TAG, "Refreshing lobbies");
 
-        SingleUseObserver<Resource<LobbyListResponse>> observer = new SingleUseObserver<>(resource -> {
+        scope.launch(lobbyRepository.refreshLobbiesAsync(), response -> {
             setLoadingState(false);
-
-            if (resource.isError()) {
-                handleError("Failed to refresh lobbies: " + resource.getMessage());
-            } else if (resource.isSuccess() && resource.getData() != null) {
-                // Extract the lobby list from the response and update state
-                Log.d(TAG, "Lobbies refreshed successfully");
-                LobbyListResponse response = resource.getData();
-                if (response != null && response.getLobbies() != null) {
-                    handleLobbiesUpdate(response.getLobbies());
-                }
-                clearError();
+            // Extract the lobby list from the response and update state
+            Log.d(TAG, "Lobbies refreshed successfully");
+            if (response != null && response.getLobbies() != null) {
+                handleLobbiesUpdate(response.getLobbies());
             }
+            clearError();
+        }, error -> {
+            setLoadingState(false);
+            handleError("Failed to refresh lobbies: " + error);
         });
-        
-        // Call the repository method and attach our observer
-        LiveData<Resource<LobbyListResponse>> result = lobbyRepository.refreshLobbies();
-        result.observeForever(observer);
-        observer.setLiveData(result);
     }
 
     /**
@@ -301,19 +283,15 @@ public class LobbyViewModel extends ViewModel {
 
         setLoadingState(true);
 
-        SingleUseObserver<Resource<Lobby>> observer = new SingleUseObserver<>(resource -> {
-                    setLoadingState(false);
-
-                    if (resource.isSuccess() && resource.getData() != null) {
-                        handleLobbyCreated(resource.getData(), numRounds, roundDurationSeconds);
-                    } else if (resource.isError()) {
-                        handleError("Failed to create lobby: " + resource.getMessage());
-                    }
-                });
-                
-        LiveData<Resource<Lobby>> result = lobbyRepository.createLobby(lobbyName, maxPlayers, numRounds, roundDurationSeconds);
-        result.observeForever(observer);
-        observer.setLiveData(result);
+        scope.launch(lobbyRepository.createLobbyAsync(lobbyName, maxPlayers, numRounds, roundDurationSeconds), lobby -> {
+            setLoadingState(false);
+            if (lobby != null) {
+                handleLobbyCreated(lobby, numRounds, roundDurationSeconds);
+            }
+        }, error -> {
+            setLoadingState(false);
+            handleError("Failed to create lobby: " + error);
+        });
     }
 
     /**
@@ -350,26 +328,17 @@ public class LobbyViewModel extends ViewModel {
         
         Log.d(TAG, "Force refreshing lobbies after lobby creation");
         
-        SingleUseObserver<Resource<LobbyListResponse>> observer = new SingleUseObserver<>(resource -> {
+        scope.launch(lobbyRepository.refreshLobbiesAsync(), response -> {
             setLoadingState(false);
-
-            if (resource.isError()) {
-                // Just log the error but don't show to user since we're auto-refreshing
-                Log.e(TAG, "Failed to auto-refresh lobbies: " + resource.getMessage());
-            } else if (resource.isSuccess() && resource.getData() != null) {
-                LobbyListResponse response = resource.getData();
-                if (response != null && response.getLobbies() != null) {
-                    handleLobbiesUpdate(response.getLobbies());
-                    Log.d(TAG, "Auto-refresh successful, found " + response.getLobbies().size() + " lobbies");
-                }
+            if (response != null && response.getLobbies() != null) {
+                handleLobbiesUpdate(response.getLobbies());
+                Log.d(TAG, "Auto-refresh successful, found " + response.getLobbies().size() + " lobbies");
             }
+        }, error -> {
+            setLoadingState(false);
+            // Just log the error but don't show to user since we're auto-refreshing
+            Log.e(TAG, "Failed to auto-refresh lobbies: " + error);
         });
-        
-        // This is a best-effort operation, we don't need to track the result in UI
-        // The server will check if the lobby is actually empty
-        LiveData<Resource<LobbyListResponse>> result = lobbyRepository.refreshLobbies();
-        result.observeForever(observer);
-        observer.setLiveData(result);
     }
 
     /**
@@ -384,20 +353,14 @@ public class LobbyViewModel extends ViewModel {
 
         setLoadingState(true);
 
-        SingleUseObserver<Resource<Lobby>> observer = new SingleUseObserver<>(resource -> {
+        scope.launch(lobbyRepository.joinLobbyAsync(lobbyId), lobby -> {
             setLoadingState(false);
-
-            if (resource.isSuccess() && resource.getData() != null) {
-                Log.d(TAG, "Successfully joined lobby: " + lobbyId);
-                clearError();
-            } else if (resource.isError()) {
-                handleError("Failed to join lobby: " + resource.getMessage());
-            }
+            Log.d(TAG, "Successfully joined lobby: " + lobbyId);
+            clearError();
+        }, error -> {
+            setLoadingState(false);
+            handleError("Failed to join lobby: " + error);
         });
-        
-        LiveData<Resource<Lobby>> result = lobbyRepository.joinLobby(lobbyId);
-        result.observeForever(observer);
-        observer.setLiveData(result);
     }
 
     /**
@@ -407,21 +370,15 @@ public class LobbyViewModel extends ViewModel {
     public void leaveLobby() {
         setLoadingState(true);
 
-        SingleUseObserver<Resource<Void>> observer = new SingleUseObserver<>(resource -> {
+        scope.launch(lobbyRepository.leaveLobbyAsync(), ignored -> {
             setLoadingState(false);
-
-            if (resource.isSuccess()) {
-                lobbyEvent.setValue(LobbyEvent.lobbyLeft());
-                Log.d(TAG, "Left lobby successfully");
-                clearError();
-            } else if (resource.isError()) {
-                handleError("Failed to leave lobby: " + resource.getMessage());
-            }
+            lobbyEvent.setValue(LobbyEvent.lobbyLeft());
+            Log.d(TAG, "Left lobby successfully");
+            clearError();
+        }, error -> {
+            setLoadingState(false);
+            handleError("Failed to leave lobby: " + error);
         });
-        
-        LiveData<Resource<Void>> result = lobbyRepository.leaveLobby();
-        result.observeForever(observer);
-        observer.setLiveData(result);
     }
 
     /**
@@ -441,29 +398,25 @@ public class LobbyViewModel extends ViewModel {
         setLoadingState(true);
         Log.d(TAG, "🎮 Starting game for lobby " + lobbyId + " using WebSocket messaging");
 
-        SingleUseObserver<Resource<String>> observer = new SingleUseObserver<>(resource -> {
+        scope.launch(lobbyRepository.startGameAsync(lobbyId), tempGameId -> {
             setLoadingState(false);
+            if (tempGameId == null) {
+                return;
+            }
+            // Note: For non-host players, we deliberately do not clear the lobby state here.
+            // They are expected to wait for a WebSocket game start message to navigate to the game fragment.
+            clearError();
 
-            if (resource.isSuccess() && resource.getData() != null) {
-                String tempGameId = resource.getData();
-                // Note: For non-host players, we deliberately do not clear the lobby state here.
-                // They are expected to wait for a WebSocket game start message to navigate to the game fragment.
-                clearError();
-
-                // Trigger game start event for all players. The WebSocket confirmation should override this in non-host clients.
-                lobbyEvent.setValue(LobbyEvent.gameStarted(tempGameId));
-                Log.d(TAG, "🎲 Game start message sent with temporary ID: " + tempGameId + ". Waiting for WebSocket confirmation.");
+            // Trigger game start event for all players. The WebSocket confirmation should override this in non-host clients.
+            lobbyEvent.setValue(LobbyEvent.gameStarted(tempGameId));
+            Log.d(TAG, "🎲 Game start message sent with temporary ID: " + tempGameId + ". Waiting for WebSocket confirmation.");
 
-                // Schedule a fallback timeout, which will only trigger for the host in case the WebSocket confirmation is delayed.
-                scheduleGameStartTimeout(tempGameId);
-            } else if (resource.isError()) {
-                handleError("Failed to start game: " + resource.getMessage());
-            }
+            // Schedule a fallback timeout, which will only trigger for the host in case the WebSocket confirmation is delayed.
+            scheduleGameStartTimeout(tempGameId);
+        }, error -> {
+            setLoadingState(false);
+            handleError("Failed to start game: " + error);
         });
-        
-        LiveData<Resource<String>> result = lobbyRepository.startGame(lobbyId);
-        result.observeForever(observer);
-        observer.setLiveData(result);
     }
     
     /**
@@ -504,20 +457,14 @@ public class LobbyViewModel extends ViewModel {
 
         setLoadingState(true);
 
-        SingleUseObserver<Resource<Lobby>> observer = new SingleUseObserver<>(resource -> {
-                    setLoadingState(false);
-
-                    if (resource.isSuccess()) {
-                        Log.d(TAG, "Updated lobby settings successfully");
-                        clearError();
-                    } else if (resource.isError()) {
-                        handleError("Failed to update settings: " + resource.getMessage());
-                    }
-                });
-                
-        LiveData<Resource<Lobby>> result = lobbyRepository.updateLobbySettings(numRounds, roundDurationSeconds);
-        result.observeForever(observer);
-        observer.setLiveData(result);
+        scope.launch(lobbyRepository.updateLobbySettingsAsync(numRounds, roundDurationSeconds), lobby -> {
+            setLoadingState(false);
+            Log.d(TAG, "Updated lobby settings successfully");
+            clearError();
+        }, error -> {
+            setLoadingState(false);
+            handleError("Failed to update settings: " + error);
+        });
     }
 
     /**
@@ -531,20 +478,11 @@ public class LobbyViewModel extends ViewModel {
             return;
         }
         
-        // Use SingleUseObserver for proper lifecycle management
-        SingleUseObserver<Resource<Boolean>> observer = new SingleUseObserver<>(resource -> {
-            if (resource.isSuccess()) {
-                Log.d(TAG, "Empty lobby deletion request sent: " + lobbyId);
-            } else {
-                Log.w(TAG, "Failed to delete empty lobby: " + resource.getMessage());
-            }
-        });
-        
         // This is a best-effort operation, we don't need to track the result in UI
         // The server will check if the lobby is actually empty
-        LiveData<Resource<Boolean>> result = lobbyRepository.deleteLobbyIfEmpty(lobbyId);
-        result.observeForever(observer);
-        observer.setLiveData(result);
+        scope.launch(lobbyRepository.deleteLobbyIfEmptyAsync(lobbyId),
+                deleted -> Log.d(TAG, "Empty lobby deletion request sent: " + lobbyId),
+                error -> Log.w(TAG, "Failed to delete empty lobby: " + error));
     }
     
     /**
@@ -561,21 +499,17 @@ public class LobbyViewModel extends ViewModel {
         
         setLoadingState(true);
         
-        SingleUseObserver<Resource<Lobby>> observer = new SingleUseObserver<>(resource -> {
+        scope.launch(lobbyRepository.getLobbyByIdAsync(lobbyId), lobby -> {
             setLoadingState(false);
-            
-            if (resource.isSuccess() && resource.getData() != null) {
+            if (lobby != null) {
                 Log.d(TAG, "Successfully retrieved lobby details for: " + lobbyId);
-                handleCurrentLobbyUpdate(resource.getData());
+                handleCurrentLobbyUpdate(lobby);
                 clearError();
-            } else if (resource.isError()) {
-                handleError("Failed to get lobby details: " + resource.getMessage());
             }
+        }, error -> {
+            setLoadingState(false);
+            handleError("Failed to get lobby details: " + error);
         });
-        
-        LiveData<Resource<Lobby>> result = lobbyRepository.getLobbyById(lobbyId);
-        result.observeForever(observer);
-        observer.setLiveData(result);
     }
 
 
@@ -686,12 +620,9 @@ public class LobbyViewModel extends ViewModel {
     public void setLobbyUpdateCallback(WebSocketService.LobbyUpdateCallback callback) {
         Log.d(TAG, "Setting lobby update callback in ViewModel: " + (callback != null ? "provided" : "null"));
         
-        // If callback is null, just clear the current one
+        // Only one UI callback at a time: replace any previous subscription
+        clearLobbyUpdateSubscription();
         if (callback == null) {
-            if (this.currentCallback != null) {
-                lobbyRepository.removeLobbyUpdateCallback(this.currentCallback);
-                this.currentCallback = null;
-            }
             return;
         }
         
@@ -760,12 +691,13 @@ public class LobbyViewModel extends ViewModel {
             }
         };
         
-        // Store the wrapper callback reference for lifecycle management
-        this.currentCallback = wrapperCallback;
+        // Store the callback reference for lifecycle management
+        this.currentCallback = callback;
         
-        // Register wrapper with repository
-        lobbyRepository.setLobbyUpdateCallback(wrapperCallback);
-        Log.d(TAG, "Registered wrapper callback with repository");
+        // Subscribe the wrapper to the WebSocket event bus; the UI callback runs on the main thread
+        this.currentSubscription = webSocketService.subscribe(wrapperCallback,
+                webSocketService.getEventBus().mainThread());
+        Log.d(TAG, "Subscribed wrapper callback to WebSocket events");
     }
     
     /**
@@ -776,11 +708,9 @@ public class LobbyViewModel extends ViewModel {
         super.onCleared();
         Log.d(TAG, "ViewModel onCleared, removing WebSocket callback");
         
-        // Clean up the callback when ViewModel is destroyed
-        if (currentCallback != null) {
-            lobbyRepository.removeLobbyUpdateCallback(currentCallback);
-            currentCallback = null;
-        }
+        // Clean up the subscription when ViewModel is destroyed
+        clearLobbyUpdateSubscription();
+        scope.cancelAll();
     }
 
     /**
@@ -808,6 +738,31 @@ public class LobbyViewModel extends ViewModel {
         return lobbiesState;
     }
 
+    /**
+     * Total number of lobbies matching the list filter, -1 until known
+     */
+    public LiveData<Integer> getLobbyTotal() {
+        return lobbyRepository.getLobbyTotal();
+    }
+
+    /**
+     * Grow the subscribed lobby window by one page when the list is scrolled near its end.
+     * Does nothing while the current window is still filling or once every matching lobby
+     * is already inside it.
+     *
+     * @param loadedCount number of lobbies currently shown
+     */
+    public void loadMoreLobbies(int loadedCount) {
+        LobbySubscriptionRequest window = lobbyRepository.getLobbyWindow();
+        Integer total = lobbyRepository.getLobbyTotal().getValue();
+        if (loadedCount < window.getLimit() || total == null || total < 0
+                || window.getOffset() + window.getLimit() >= total) {
+            return;
+        }
+        Log.d(TAG, "Loading more lobbies, window limit " + window.getLimit() + " of " + total);
+        lobbyRepository.setLobbyWindow(window.withNextPage());
+    }
+
     public LiveData<LobbyState> getLobbyState() {
         return lobbyState;
     }
@@ -0,0 +1,83 @@
+package com.example.drawit_app.api.websocket;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import org.json.JSONObject;
+import org.junit.Test;
+
+/**
+ * RTT and clock offset follow the NTP formulas, filtered to the least-delayed recent sample
+ */
+public class ClockSyncTest {
+
+    private final ClockSync clockSync = new ClockSync();
+
+    @Test
+    public void unsynchronizedBeforeFirstSample() {
+        assertThat(clockSync.isSynchronized()).isFalse();
+        assertThat(clockSync.getRttMillis()).isEqualTo(-1L);
+        assertThat(clockSync.getOffsetMillis()).isEqualTo(0L);
+    }
+
+    @Test
+    public void sampleGivesRttAndOffset() {
+        // Server clock 1000ms ahead; 40ms each way and 20ms spent on the server
+        clockSync.onPong(10_000, 11_040, 11_060, 10_100);
+
+        assertThat(clockSync.isSynchronized()).isTrue();
+        assertThat(clockSync.getRttMillis()).isEqualTo(80L);
+        assertThat(clockSync.getOffsetMillis()).isEqualTo(1000L);
+    }
+
+    @Test
+    public void serverTimeIsLocalTimePlusOffset() {
+        clockSync.onPong(10_000, 11_040, 11_060, 10_100);
+
+        long before = System.currentTimeMillis();
+        long serverNow = clockSync.serverNowMillis();
+        long after = System.currentTimeMillis();
+
+        assertThat(serverNow).isAtLeast(before + 1000);
+        assertThat(serverNow).isAtMost(after + 1000);
+    }
+
+    @Test
+    public void negativeRttSampleIsDiscarded() {
+        clockSync.onPong(10_000, 11_000, 11_500, 10_100);
+
+        assertThat(clockSync.isSynchronized()).isFalse();
+    }
+
+    @Test
+    public void leastDelayedSampleWins() {
+        // Symmetric 50ms each way, offset 500
+        clockSync.onPong(0, 550, 550, 100);
+        // Queued on the way back: 300ms RTT and a skewed offset
+        clockSync.onPong(1_000, 1_550, 1_550, 1_300);
+
+        assertThat(clockSync.getRttMillis()).isEqualTo(100L);
+        assertThat(clockSync.getOffsetMillis()).isEqualTo(500L);
+    }
+
+    @Test
+    public void bestSampleExpiresAfterTheWindow() {
+        clockSync.onPong(0, 510, 510, 20);
+        for (int i = 1; i <= 8; i++) {
+            long t0 = i * 1_000L;
+            clockSync.onPong(t0, t0 + 550, t0 + 550, t0 + 100);
+        }
+
+        // The 20ms sample was pushed out by eight newer ones
+        assertThat(clockSync.getRttMillis()).isEqualTo(100L);
+        assertThat(clockSync.getOffsetMillis()).isEqualTo(500L);
+    }
+
+    @Test
+    public void pingCarriesSendTime() throws Exception {
+        long before = System.currentTimeMillis();
+        JSONObject ping = new JSONObject(clockSync.buildPing());
+
+        assertThat(ping.getString("type")).isEqualTo("clock_ping");
+        assertThat(ping.getLong("clientSendTime")).isAtLeast(before);
+    }
+}
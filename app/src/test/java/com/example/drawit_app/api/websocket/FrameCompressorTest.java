@@ -0,0 +1,63 @@
+package com.example.drawit_app.api.websocket;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * The client and server must prime deflate with the same dictionary, or every compressed frame
+ * fails to decode on the other side
+ */
+public class FrameCompressorTest {
+
+    // A double-quoted JS string literal; only \" and \\ escapes are used in the dictionary
+    private static final Pattern STRING_LITERAL = Pattern.compile("\"((?:[^\"\\\\]|\\\\.)*)\"");
+
+    @Test
+    public void presetDictionaryMatchesServer() throws IOException {
+        String source = new String(Files.readAllBytes(serverCompressionJs().toPath()), StandardCharsets.UTF_8);
+        int start = source.indexOf("const DRAWING_DICTIONARY = Buffer.from(");
+        int end = source.indexOf(", 'utf8');", start);
+        assertThat(start).isAtLeast(0);
+        assertThat(end).isGreaterThan(start);
+
+        StringBuilder dictionary = new StringBuilder();
+        Matcher matcher = STRING_LITERAL.matcher(source.substring(start, end));
+        while (matcher.find()) {
+            dictionary.append(matcher.group(1).replaceAll("\\\\(.)", "$1"));
+        }
+
+        assertThat(dictionary.toString().getBytes(StandardCharsets.UTF_8))
+                .isEqualTo(FrameCompressor.PRESET_DICTIONARY);
+    }
+
+    @Test
+    public void compressedFrameRoundTrips() throws Exception {
+        StringBuilder frame = new StringBuilder("{\"type\":\"drawing_update\",\"game_id\":\"g1\",\"paths\":\"[");
+        for (int i = 0; i < 50; i++) {
+            frame.append("{\\\"x\\\":").append(i).append(".5,\\\"y\\\":").append(i).append(".25},");
+        }
+        frame.append("]\"}");
+        String text = frame.toString();
+
+        FrameCompressor compressor = new FrameCompressor();
+        assertThat(compressor.shouldCompress(text)).isTrue();
+        byte[] compressed = compressor.compress(text);
+
+        assertThat(compressed.length).isLessThan(text.length());
+        assertThat(compressor.decompress(compressed)).isEqualTo(text);
+    }
+
+    // Unit tests run from the app module, but allow running from the repository root too
+    private static File serverCompressionJs() {
+        File fromModule = new File("../server/compression.js");
+        return fromModule.exists() ? fromModule : new File("server/compression.js");
+    }
+}
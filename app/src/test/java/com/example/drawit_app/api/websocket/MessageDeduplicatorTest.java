@@ -0,0 +1,81 @@
+package com.example.drawit_app.api.websocket;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.example.drawit_app.util.PerformanceMetrics;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Copies of a processed message are dropped, within a bounded and recency-ordered memory
+ */
+public class MessageDeduplicatorTest {
+
+    private MessageDeduplicator deduplicator;
+
+    @Before
+    public void setUp() {
+        PerformanceMetrics.reset();
+        deduplicator = new MessageDeduplicator("test", 3);
+    }
+
+    @Test
+    public void repeatedMessageIdIsDuplicate() {
+        assertThat(deduplicator.isNew("m1", -1)).isTrue();
+        assertThat(deduplicator.isNew("m1", -1)).isFalse();
+        assertThat(deduplicator.isNew("m2", -1)).isTrue();
+    }
+
+    @Test
+    public void sequenceNumberIsUsedWithoutMessageId() {
+        assertThat(deduplicator.isNew(null, 7)).isTrue();
+        assertThat(deduplicator.isNew("", 7)).isFalse();
+        assertThat(deduplicator.isNew(null, 8)).isTrue();
+    }
+
+    @Test
+    public void messageIdTakesPrecedenceOverSequenceNumber() {
+        assertThat(deduplicator.isNew("m1", 7)).isTrue();
+        // Same seq, different ID: a different message
+        assertThat(deduplicator.isNew("m2", 7)).isTrue();
+    }
+
+    @Test
+    public void framesWithoutAnyKeyAreNeverDuplicates() {
+        assertThat(deduplicator.isNew(null, -1)).isTrue();
+        assertThat(deduplicator.isNew(null, -1)).isTrue();
+    }
+
+    @Test
+    public void leastRecentlySeenIdIsEvicted() {
+        deduplicator.isNew("m1", -1);
+        deduplicator.isNew("m2", -1);
+        deduplicator.isNew("m3", -1);
+        // Seeing m1 again refreshes it, so m2 is now the eldest
+        deduplicator.isNew("m1", -1);
+        deduplicator.isNew("m4", -1);
+
+        assertThat(deduplicator.isNew("m1", -1)).isFalse();
+        assertThat(deduplicator.isNew("m2", -1)).isTrue();
+    }
+
+    @Test
+    public void clearForgetsEverything() {
+        deduplicator.isNew("m1", -1);
+
+        deduplicator.clear();
+
+        assertThat(deduplicator.isNew("m1", -1)).isTrue();
+    }
+
+    @Test
+    public void hitsAndMissesAreCounted() {
+        deduplicator.isNew("m1", -1);
+        deduplicator.isNew("m1", -1);
+        deduplicator.isNew("m2", -1);
+
+        assertThat(PerformanceMetrics.getCount("ws.dedup.test.hits")).isEqualTo(1L);
+        assertThat(PerformanceMetrics.getCount("ws.dedup.test.misses")).isEqualTo(2L);
+    }
+}
@@ -0,0 +1,150 @@
+package com.example.drawit_app.api.websocket;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.mockConstruction;
+import static org.mockito.Mockito.mockStatic;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import android.content.Context;
+import android.net.ConnectivityManager;
+import android.net.Network;
+import android.os.Handler;
+import android.os.SystemClock;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.MockedConstruction;
+import org.mockito.MockedStatic;
+
+import java.util.List;
+
+/**
+ * Reconnect delays stay inside the backoff bounds, attempts are capped outside a game and
+ * connectivity changes pause or restart the loop
+ */
+public class ReconnectSchedulerTest {
+
+    private static final long BASE_DELAY_MS = 500;
+    private static final long MAX_DELAY_MS = 30_000;
+    private static final int MAX_ATTEMPTS = 8;
+    private static final long IN_GAME_MIN_DELAY_MS = 1_000;
+    private static final long IN_GAME_MAX_DELAY_MS = 8_000;
+
+    private MockedConstruction<Handler> handlers;
+    private MockedStatic<SystemClock> systemClock;
+
+    @Before
+    public void setUp() {
+        handlers = mockConstruction(Handler.class);
+        systemClock = mockStatic(SystemClock.class);
+        systemClock.when(SystemClock::elapsedRealtime).thenReturn(1_000L);
+    }
+
+    @After
+    public void tearDown() {
+        systemClock.close();
+        handlers.close();
+    }
+
+    @Test
+    public void delaysStayWithinCappedExponentialBound() {
+        // Full jitter is random, so check many runs of the whole attempt sequence
+        for (int run = 0; run < 50; run++) {
+            ReconnectScheduler scheduler = new ReconnectScheduler(() -> { });
+            for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+                assertThat(scheduler.scheduleNext()).isTrue();
+            }
+
+            List<Long> delays = postedDelays(lastHandler());
+            assertThat(delays).hasSize(MAX_ATTEMPTS);
+            for (int attempt = 0; attempt < delays.size(); attempt++) {
+                long bound = Math.min(MAX_DELAY_MS, BASE_DELAY_MS << attempt);
+                assertThat(delays.get(attempt)).isAtLeast(0L);
+                assertThat(delays.get(attempt)).isAtMost(bound);
+            }
+        }
+    }
+
+    @Test
+    public void givesUpAfterMaxAttempts() {
+        ReconnectScheduler scheduler = new ReconnectScheduler(() -> { });
+        for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+            assertThat(scheduler.scheduleNext()).isTrue();
+        }
+
+        assertThat(scheduler.scheduleNext()).isFalse();
+        assertThat(scheduler.getAttempts()).isEqualTo(MAX_ATTEMPTS);
+    }
+
+    @Test
+    public void inGameNeverGivesUpAndStaysThrottled() {
+        ReconnectScheduler scheduler = new ReconnectScheduler(() -> { });
+        scheduler.setUnlimited(true);
+        for (int attempt = 0; attempt < 50; attempt++) {
+            assertThat(scheduler.scheduleNext()).isTrue();
+        }
+
+        for (long delay : postedDelays(lastHandler())) {
+            assertThat(delay).isAtLeast(IN_GAME_MIN_DELAY_MS);
+            assertThat(delay).isAtMost(IN_GAME_MAX_DELAY_MS);
+        }
+    }
+
+    @Test
+    public void connectingResetsTheBackoff() {
+        ReconnectScheduler scheduler = new ReconnectScheduler(() -> { });
+        for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+            scheduler.scheduleNext();
+        }
+
+        scheduler.onConnected();
+
+        assertThat(scheduler.getAttempts()).isEqualTo(0);
+        assertThat(scheduler.scheduleNext()).isTrue();
+        List<Long> delays = postedDelays(lastHandler());
+        assertThat(delays.get(delays.size() - 1)).isAtMost(BASE_DELAY_MS);
+    }
+
+    @Test
+    public void offlineWaitsForNetworkThenRetriesImmediately() {
+        ConnectivityManager connectivityManager = mock(ConnectivityManager.class);
+        Context context = mock(Context.class);
+        when(context.getApplicationContext()).thenReturn(context);
+        when(context.getSystemService(Context.CONNECTIVITY_SERVICE)).thenReturn(connectivityManager);
+
+        ReconnectScheduler scheduler = new ReconnectScheduler(() -> { });
+        scheduler.startMonitoring(context);
+        Handler handler = lastHandler();
+
+        // No active network: nothing is scheduled, but the scheduler has not given up
+        assertThat(scheduler.scheduleNext()).isTrue();
+        verify(handler, never()).postDelayed(any(Runnable.class), anyLong());
+
+        ArgumentCaptor<ConnectivityManager.NetworkCallback> callback =
+                ArgumentCaptor.forClass(ConnectivityManager.NetworkCallback.class);
+        verify(connectivityManager).registerDefaultNetworkCallback(callback.capture());
+        callback.getValue().onAvailable(mock(Network.class));
+
+        verify(handler).post(any(Runnable.class));
+        assertThat(scheduler.getAttempts()).isEqualTo(0);
+    }
+
+    private Handler lastHandler() {
+        List<Handler> constructed = handlers.constructed();
+        return constructed.get(constructed.size() - 1);
+    }
+
+    private static List<Long> postedDelays(Handler handler) {
+        ArgumentCaptor<Long> delays = ArgumentCaptor.forClass(Long.class);
+        verify(handler, atLeastOnce()).postDelayed(any(Runnable.class), delays.capture());
+        return delays.getAllValues();
+    }
+}
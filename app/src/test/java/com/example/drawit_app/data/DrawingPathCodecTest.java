@@ -0,0 +1,112 @@
+package com.example.drawit_app.data;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.assertThrows;
+
+import com.example.drawit_app.model.Drawing.DrawingPath;
+import com.example.drawit_app.model.Drawing.PointF;
+
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Binary path blobs decode to what was encoded, and damaged blobs fail cleanly
+ */
+public class DrawingPathCodecTest {
+
+    @Test
+    public void pathsRoundTrip() {
+        // Coordinates on the 1/8 px grid survive quantization exactly
+        DrawingPath stroke = path(0xFF112233, 8.5f, 0f, 0f, 12.125f, -3.5f, 640.875f, 1280.25f);
+        DrawingPath dot = path(0x80FFFFFF, 1f, 5f, 5f);
+        DrawingPath empty = path(0, 0f);
+
+        List<DrawingPath> decoded = DrawingPathCodec.decode(
+                DrawingPathCodec.encode(Arrays.asList(stroke, dot, empty)));
+
+        assertThat(decoded).hasSize(3);
+        assertSamePath(decoded.get(0), stroke);
+        assertSamePath(decoded.get(1), dot);
+        assertSamePath(decoded.get(2), empty);
+    }
+
+    @Test
+    public void emptyDrawingRoundTrips() {
+        byte[] blob = DrawingPathCodec.encode(Collections.emptyList());
+
+        assertThat(DrawingPathCodec.isEncoded(blob)).isTrue();
+        assertThat(DrawingPathCodec.decode(blob)).isEmpty();
+    }
+
+    @Test
+    public void everyTruncationIsRejected() {
+        byte[] blob = DrawingPathCodec.encode(Arrays.asList(
+                path(0xFF000000, 4f, 1f, 2f, 300f, 400f), path(0xFFFF0000, 2f, -50f, 75.5f)));
+
+        for (int length = 2; length < blob.length; length++) {
+            byte[] truncated = Arrays.copyOf(blob, length);
+            assertThrows("length " + length, IllegalArgumentException.class,
+                    () -> DrawingPathCodec.decode(truncated));
+        }
+    }
+
+    @Test
+    public void legacyJsonIsNotMistakenForABlob() {
+        byte[] json = "[{\"color\":-16777216,\"points\":[]}]".getBytes(StandardCharsets.UTF_8);
+
+        assertThat(DrawingPathCodec.isEncoded(json)).isFalse();
+        assertThat(DrawingPathCodec.isEncoded(null)).isFalse();
+        assertThrows(IllegalArgumentException.class, () -> DrawingPathCodec.decode(json));
+    }
+
+    @Test
+    public void hugePathCountFailsBeforeAllocating() {
+        // Header, then a path count of Integer.MAX_VALUE with nothing after it
+        byte[] blob = {'P', 1, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x07};
+
+        assertThrows(IllegalArgumentException.class, () -> DrawingPathCodec.decode(blob));
+    }
+
+    @Test
+    public void hugePointCountFailsBeforeAllocating() {
+        byte[] valid = DrawingPathCodec.encode(Collections.singletonList(path(0xFF000000, 1f)));
+        // Replace the trailing point count of zero with Integer.MAX_VALUE
+        byte[] blob = Arrays.copyOf(valid, valid.length + 4);
+        System.arraycopy(new byte[]{(byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x07}, 0,
+                blob, valid.length - 1, 5);
+
+        assertThrows(IllegalArgumentException.class, () -> DrawingPathCodec.decode(blob));
+    }
+
+    @Test
+    public void overlongVarintIsRejected() {
+        byte[] blob = {'P', 1, (byte) 0x80, (byte) 0x80, (byte) 0x80, (byte) 0x80, (byte) 0x80, 0x00};
+
+        assertThrows(IllegalArgumentException.class, () -> DrawingPathCodec.decode(blob));
+    }
+
+    private static DrawingPath path(int color, float strokeWidth, float... coordinates) {
+        DrawingPath path = new DrawingPath(color, strokeWidth);
+        List<PointF> points = new ArrayList<>();
+        for (int i = 0; i < coordinates.length; i += 2) {
+            points.add(new PointF(coordinates[i], coordinates[i + 1]));
+        }
+        path.setPoints(points);
+        return path;
+    }
+
+    private static void assertSamePath(DrawingPath actual, DrawingPath expected) {
+        assertThat(actual.getColor()).isEqualTo(expected.getColor());
+        assertThat(actual.getStrokeWidth()).isEqualTo(expected.getStrokeWidth());
+        assertThat(actual.getPoints()).hasSize(expected.getPoints().size());
+        for (int i = 0; i < expected.getPoints().size(); i++) {
+            assertThat(actual.getPoints().get(i).getX()).isEqualTo(expected.getPoints().get(i).getX());
+            assertThat(actual.getPoints().get(i).getY()).isEqualTo(expected.getPoints().get(i).getY());
+        }
+    }
+}
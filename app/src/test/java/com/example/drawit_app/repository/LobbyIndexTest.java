@@ -0,0 +1,140 @@
+package com.example.drawit_app.repository;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.example.drawit_app.api.message.LobbiesDeltaMessage;
+import com.example.drawit_app.model.Lobby;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Deltas only apply on top of the exact list version and epoch they were computed from
+ */
+public class LobbyIndexTest {
+
+    private static final long EPOCH = 1_000L;
+
+    private final LobbyIndex index = new LobbyIndex();
+
+    @Test
+    public void deltaOnMatchingBaseIsApplied() {
+        index.applySnapshot(Collections.singletonList(lobby("a", "Alpha", 1)), EPOCH, 5);
+
+        LobbyIndex.Changes changes = index.applyDelta(delta(EPOCH, 5, 6,
+                Collections.singletonList(lobbyMap("b", "Beta", 2)), Collections.emptyList(),
+                Collections.singletonList("a")));
+
+        assertThat(changes).isNotNull();
+        assertThat(ids(changes.upserted)).containsExactly("b");
+        assertThat(changes.removed).containsExactly("a");
+        assertThat(ids(index.getJoinableLobbies())).containsExactly("b");
+    }
+
+    @Test
+    public void deltaOnOtherBaseNeedsSnapshot() {
+        index.applySnapshot(Collections.singletonList(lobby("a", "Alpha", 1)), EPOCH, 5);
+
+        assertThat(index.applyDelta(delta(EPOCH, 4, 5, Collections.emptyList(),
+                Collections.emptyList(), Collections.singletonList("a")))).isNull();
+        // Nothing was applied and the held version did not move
+        assertThat(ids(index.getJoinableLobbies())).containsExactly("a");
+        assertThat(index.applyDelta(delta(EPOCH, 5, 6, Collections.emptyList(),
+                Collections.emptyList(), Collections.emptyList()))).isNotNull();
+    }
+
+    @Test
+    public void deltaBeforeAnyVersionedSnapshotNeedsSnapshot() {
+        index.applySnapshot(Collections.singletonList(lobby("a", "Alpha", 1)), 0, -1);
+
+        assertThat(index.applyDelta(delta(0, -1, 0, Collections.emptyList(),
+                Collections.emptyList(), Collections.emptyList()))).isNull();
+    }
+
+    @Test
+    public void deltaFromAnotherEpochNeedsSnapshot() {
+        index.applySnapshot(Collections.singletonList(lobby("a", "Alpha", 1)), EPOCH, 5);
+
+        // A restarted server can reach the same list version again
+        assertThat(index.applyDelta(delta(EPOCH + 1, 5, 6, Collections.emptyList(),
+                Collections.emptyList(), Collections.singletonList("a")))).isNull();
+        assertThat(ids(index.getJoinableLobbies())).containsExactly("a");
+    }
+
+    @Test
+    public void staleLobbyVersionDoesNotOverwriteNewer() {
+        index.applySnapshot(Collections.singletonList(lobby("a", "Alpha v3", 3)), EPOCH, 5);
+
+        LobbyIndex.Changes changes = index.applyDelta(delta(EPOCH, 5, 6, Collections.emptyList(),
+                Collections.singletonList(lobbyMap("a", "Alpha v2", 2)), Collections.emptyList()));
+
+        assertThat(changes).isNotNull();
+        assertThat(changes.isEmpty()).isTrue();
+        assertThat(index.getJoinableLobbies().get(0).getLobbyName()).isEqualTo("Alpha v3");
+    }
+
+    @Test
+    public void unchangedLobbyInSnapshotIsNotReported() {
+        Lobby first = lobby("a", "Alpha", 1);
+        index.applySnapshot(Collections.singletonList(first), EPOCH, 5);
+
+        LobbyIndex.Changes changes = index.applySnapshot(
+                Arrays.asList(lobby("a", "Alpha", 1), lobby("b", "Beta", 2)), EPOCH, 6);
+
+        assertThat(ids(changes.upserted)).containsExactly("b");
+        assertThat(index.getJoinableLobbies().get(0)).isSameInstanceAs(first);
+    }
+
+    @Test
+    public void snapshotFromNewEpochReplacesLobbiesWithEqualVersions() {
+        index.applySnapshot(Collections.singletonList(lobby("a", "Before restart", 1)), EPOCH, 5);
+
+        LobbyIndex.Changes changes = index.applySnapshot(
+                Collections.singletonList(lobby("a", "After restart", 1)), EPOCH + 1, 1);
+
+        assertThat(ids(changes.upserted)).containsExactly("a");
+        assertThat(index.getJoinableLobbies().get(0).getLobbyName()).isEqualTo("After restart");
+    }
+
+    private static Lobby lobby(String lobbyId, String name, long version) {
+        Lobby lobby = new Lobby(lobbyId, name, "host", 4, 3, 60);
+        lobby.setVersion(version);
+        return lobby;
+    }
+
+    private static Map<String, Object> lobbyMap(String lobbyId, String name, long version) {
+        Map<String, Object> map = new HashMap<>();
+        map.put("lobbyId", lobbyId);
+        map.put("name", name);
+        map.put("hostId", "host");
+        map.put("version", version);
+        return map;
+    }
+
+    private static LobbiesDeltaMessage delta(long epoch, long baseVersion, long listVersion,
+                                             List<Map<String, Object>> added,
+                                             List<Map<String, Object>> updated, List<String> removed) {
+        Map<String, Object> payload = new HashMap<>();
+        payload.put("epoch", epoch);
+        payload.put("baseVersion", baseVersion);
+        payload.put("listVersion", listVersion);
+        payload.put("added", added);
+        payload.put("updated", updated);
+        payload.put("removed", removed);
+        return LobbiesDeltaMessage.fromPayloadMap(payload);
+    }
+
+    private static List<String> ids(List<Lobby> lobbies) {
+        List<String> ids = new ArrayList<>();
+        for (Lobby lobby : lobbies) {
+            ids.add(lobby.getLobbyId());
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.drawit_app.repository;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import android.content.Context;
+
+import com.example.drawit_app.api.ApiService;
+import com.example.drawit_app.api.WebSocketService;
+import com.example.drawit_app.api.response.ApiResponse;
+import com.example.drawit_app.api.response.LobbyListResponse;
+import com.example.drawit_app.data.DrawItDatabase;
+import com.example.drawit_app.data.LobbyDao;
+import com.example.drawit_app.model.Lobby;
+import com.example.drawit_app.util.AppExecutors;
+import com.example.drawit_app.util.WebSocketMessageConverter;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
+
+import okhttp3.Request;
+import retrofit2.Call;
+
+/**
+ * Cancelling a future returned by LobbyRepository must cancel the HTTP call behind it
+ */
+public class LobbyRepositoryCancellationTest {
+
+    private ApiService apiService;
+    private LobbyDao lobbyDao;
+    private LobbyRepository repository;
+
+    @Before
+    public void setUp() {
+        apiService = mock(ApiService.class);
+        lobbyDao = mock(LobbyDao.class);
+        when(lobbyDao.getAllLobbiesSync()).thenReturn(new ArrayList<>());
+        DrawItDatabase database = mock(DrawItDatabase.class);
+        when(database.lobbyDao()).thenReturn(lobbyDao);
+        UserRepository userRepository = mock(UserRepository.class);
+        when(userRepository.getAuthToken()).thenReturn("token");
+
+        // Disk work runs inline; main-thread work is dropped since there is no looper here
+        AppExecutors executors = new AppExecutors(Runnable::run, Runnable::run, runnable -> { });
+        repository = new LobbyRepository(apiService, database, userRepository,
+                mock(WebSocketService.class), mock(Context.class),
+                mock(WebSocketMessageConverter.class), executors);
+    }
+
+    @Test
+    public void cancellingRefreshCancelsTheCall() {
+        Call<ApiResponse<LobbyListResponse>> call = pendingCall("lobbies");
+        when(apiService.getLobbies(anyString(), anyBoolean(), any(), anyInt(), anyInt())).thenReturn(call);
+
+        CompletableFuture<LobbyListResponse> future = repository.refreshLobbiesAsync();
+        future.cancel(true);
+
+        verify(call).cancel();
+    }
+
+    @Test
+    public void cancellingCreateCancelsTheCall() {
+        Call<ApiResponse<Lobby>> call = pendingCall("lobbies");
+        when(apiService.createLobby(anyString(), any())).thenReturn(call);
+
+        repository.createLobbyAsync("Lobby", 4, 3, 60).cancel(true);
+
+        verify(call).cancel();
+    }
+
+    @Test
+    public void cancellingLookupCancelsTheCall() {
+        Call<ApiResponse<Lobby>> call = pendingCall("lobbies/lobby-1");
+        when(apiService.getLobbyDetails(anyString(), eq("lobby-1"))).thenReturn(call);
+
+        CompletableFuture<Lobby> future = repository.getLobbyByIdAsync("lobby-1");
+        verify(lobbyDao).getLobbyByIdSync("lobby-1");
+        future.cancel(true);
+
+        verify(call).cancel();
+    }
+
+    @Test
+    public void cancelledJoinCancelsTheCallAndAllowsAnotherJoin() {
+        Call<ApiResponse<Lobby>> first = pendingCall("lobbies/lobby-1/join");
+        Call<ApiResponse<Lobby>> second = pendingCall("lobbies/lobby-1/join");
+        when(apiService.joinLobby(anyString(), eq("lobby-1"), any())).thenReturn(first, second);
+
+        repository.joinLobbyAsync("lobby-1").cancel(true);
+        verify(first).cancel();
+
+        CompletableFuture<Lobby> retry = repository.joinLobbyAsync("lobby-1");
+        assertThat(retry.isDone()).isFalse();
+        verify(second).enqueue(any());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> Call<T> pendingCall(String path) {
+        Call<T> call = mock(Call.class);
+        when(call.request()).thenReturn(new Request.Builder().url("http://localhost/" + path).build());
+        return call;
+    }
+}
@@ -0,0 +1,220 @@
+package com.example.drawit_app.repository;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.assertThrows;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.example.drawit_app.api.WebSocketService;
+import com.example.drawit_app.api.websocket.WebSocketEventBus;
+import com.example.drawit_app.api.websocket.WebSocketEvents;
+import com.example.drawit_app.data.OutboundActionDao;
+import com.example.drawit_app.model.OutboundAction;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Journaled actions go out in batches, stay until acknowledged and are resent on a new socket
+ */
+public class OutboundActionJournalTest {
+
+    private static final long WAIT_MS = 2_000;
+
+    private FakeOutboundActionDao actionDao;
+    private WebSocketService webSocketService;
+    private WebSocketEventBus eventBus;
+
+    @Before
+    public void setUp() {
+        actionDao = new FakeOutboundActionDao();
+        eventBus = new WebSocketEventBus();
+        webSocketService = mock(WebSocketService.class);
+        when(webSocketService.getEventBus()).thenReturn(eventBus);
+        when(webSocketService.isConnected()).thenReturn(true);
+    }
+
+    @Test
+    public void queuedActionsGoOutAsOneBatch() throws Exception {
+        OutboundActionJournal journal = offlineJournal();
+        journal.enqueue("rate_drawing", "game-1", rating("d1"));
+        journal.enqueue("rate_drawing", "game-1", rating("d2"));
+        journal.enqueue("submit_drawing", "game-1", new JSONObject().put("drawingId", "d3"));
+        connect();
+
+        JSONArray actions = sentBatches(1).get(0);
+        assertThat(actions.length()).isEqualTo(3);
+        assertThat(actions.getJSONObject(0).getString("type")).isEqualTo("rate_drawing");
+        assertThat(actions.getJSONObject(0).getString("drawingId")).isEqualTo("d1");
+        assertThat(actions.getJSONObject(2).getString("type")).isEqualTo("submit_drawing");
+        assertThat(actions.getJSONObject(2).has("actionKey")).isTrue();
+    }
+
+    @Test
+    public void ackDeletesActionsAndSendsTheNextBatch() throws Exception {
+        OutboundActionJournal journal = offlineJournal();
+        for (int i = 0; i < 60; i++) {
+            journal.enqueue("rate_drawing", "game-1", rating("d" + i));
+        }
+        connect();
+
+        JSONArray first = sentBatches(1).get(0);
+        assertThat(first.length()).isEqualTo(50);
+
+        eventBus.publish(new WebSocketEvents.ActionsAcknowledged(actionKeys(first)));
+
+        JSONArray second = sentBatches(2).get(1);
+        assertThat(second.length()).isEqualTo(10);
+        assertThat(second.getJSONObject(0).getString("drawingId")).isEqualTo("d50");
+        assertThat(actionDao.count()).isEqualTo(10);
+
+        eventBus.publish(new WebSocketEvents.ActionsAcknowledged(actionKeys(second)));
+        verify(webSocketService, after(300).times(2)).sendMessage(anyString());
+        assertThat(actionDao.count()).isEqualTo(0);
+    }
+
+    @Test
+    public void unacknowledgedBatchIsResentOnReconnect() throws Exception {
+        OutboundActionJournal journal = offlineJournal();
+        journal.enqueue("rate_drawing", "game-1", rating("d1"));
+        connect();
+        String actionKey = actionKeys(sentBatches(1).get(0)).get(0);
+
+        eventBus.publish(WebSocketEvents.Connected.INSTANCE);
+
+        JSONArray resent = sentBatches(2).get(1);
+        assertThat(actionKeys(resent)).containsExactly(actionKey);
+        assertThat(actionDao.count()).isEqualTo(1);
+    }
+
+    @Test
+    public void actionsWaitWhileOfflineAndGoOutOnConnect() throws Exception {
+        OutboundActionJournal journal = offlineJournal();
+        journal.enqueue("rate_drawing", "game-1", rating("d1"));
+
+        // Keeps the action and sends nothing
+        connect();
+
+        assertThat(sentBatches(1).get(0).length()).isEqualTo(1);
+    }
+
+    @Test
+    public void chatIsNotJournaled() {
+        OutboundActionJournal journal = new OutboundActionJournal(actionDao, webSocketService);
+
+        assertThrows(IllegalArgumentException.class,
+                () -> journal.enqueue("chat_message", "game-1", new JSONObject()));
+    }
+
+    @Test
+    public void staleChatRowsAreDroppedUnsent() throws Exception {
+        actionDao.insert(new OutboundAction("chat-1", "game-1", "chat_message",
+                "{\"type\":\"chat_message\",\"actionKey\":\"chat-1\"}", 1));
+        actionDao.insert(new OutboundAction("rate-1", "game-1", "rate_drawing",
+                "{\"type\":\"rate_drawing\",\"actionKey\":\"rate-1\"}", 2));
+
+        new OutboundActionJournal(actionDao, webSocketService);
+
+        assertThat(actionKeys(sentBatches(1).get(0))).containsExactly("rate-1");
+        assertThat(actionDao.count()).isEqualTo(1);
+    }
+
+    /**
+     * A journal whose socket is down, so actions accumulate without a flush racing them
+     */
+    private OutboundActionJournal offlineJournal() {
+        when(webSocketService.isConnected()).thenReturn(false);
+        return new OutboundActionJournal(actionDao, webSocketService);
+    }
+
+    /**
+     * Wait out every pending flush while still offline, then bring the socket up
+     */
+    private void connect() {
+        verify(webSocketService, after(300).never()).sendMessage(anyString());
+        when(webSocketService.isConnected()).thenReturn(true);
+        eventBus.publish(WebSocketEvents.Connected.INSTANCE);
+    }
+
+    private List<JSONArray> sentBatches(int expected) throws Exception {
+        ArgumentCaptor<String> frames = ArgumentCaptor.forClass(String.class);
+        verify(webSocketService, timeout(WAIT_MS).times(expected)).sendMessage(frames.capture());
+        List<JSONArray> batches = new ArrayList<>();
+        for (String frame : frames.getAllValues()) {
+            JSONObject json = new JSONObject(frame);
+            assertThat(json.getString("type")).isEqualTo("action_batch");
+            batches.add(json.getJSONArray("actions"));
+        }
+        return batches;
+    }
+
+    private static List<String> actionKeys(JSONArray actions) throws Exception {
+        List<String> keys = new ArrayList<>();
+        for (int i = 0; i < actions.length(); i++) {
+            keys.add(actions.getJSONObject(i).getString("actionKey"));
+        }
+        return keys;
+    }
+
+    private static JSONObject rating(String drawingId) throws Exception {
+        return new JSONObject().put("drawingId", drawingId).put("rating", 4);
+    }
+
+    /**
+     * In-memory stand-in for the Room table, in insertion order
+     */
+    private static final class FakeOutboundActionDao implements OutboundActionDao {
+        private final List<OutboundAction> rows = new ArrayList<>();
+
+        @Override
+        public synchronized void insert(OutboundAction action) {
+            for (OutboundAction row : rows) {
+                if (row.getActionKey().equals(action.getActionKey())) {
+                    return;
+                }
+            }
+            rows.add(action);
+        }
+
+        @Override
+        public synchronized List<OutboundAction> getOldest(int limit) {
+            return new ArrayList<>(rows.subList(0, Math.min(limit, rows.size())));
+        }
+
+        @Override
+        public synchronized int deleteByKeys(List<String> actionKeys) {
+            int deleted = 0;
+            for (Iterator<OutboundAction> it = rows.iterator(); it.hasNext(); ) {
+                if (actionKeys.contains(it.next().getActionKey())) {
+                    it.remove();
+                    deleted++;
+                }
+            }
+            return deleted;
+        }
+
+        @Override
+        public synchronized int deleteAll() {
+            int deleted = rows.size();
+            rows.clear();
+            return deleted;
+        }
+
+        @Override
+        public synchronized int count() {
+            return rows.size();
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.drawit_app.repository;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import android.content.Context;
+
+import com.example.drawit_app.model.ReplayEvent;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A round recorded from canvas snapshots replays as strokes and clears
+ */
+public class RoundReplayRecorderTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private RoundReplayRecorder recorder;
+
+    @Before
+    public void setUp() throws Exception {
+        Context context = mock(Context.class);
+        when(context.getFilesDir()).thenReturn(folder.newFolder("files"));
+        recorder = new RoundReplayRecorder(context);
+    }
+
+    @Test
+    public void snapshotsAreRecordedAsStrokes() throws Exception {
+        recorder.roundStarted("game-1", 1, "alice", "cat");
+        recorder.drawingUpdated("game-1", 1, snapshot(1));
+        recorder.drawingUpdated("game-1", 1, snapshot(2));
+        // The same canvas again, e.g. a relayed copy of a snapshot already recorded
+        recorder.drawingUpdated("game-1", 1, snapshot(2));
+        recorder.roundEnded("game-1", 1);
+
+        List<ReplayEvent.Type> types = typesOf(recorder.loadRoundAsync("game-1", 1).get(5, TimeUnit.SECONDS));
+
+        assertThat(types).containsExactly(ReplayEvent.Type.ROUND_START, ReplayEvent.Type.STROKE,
+                ReplayEvent.Type.STROKE, ReplayEvent.Type.ROUND_END).inOrder();
+    }
+
+    @Test
+    public void shrinkingCanvasIsRecordedAsClear() throws Exception {
+        recorder.roundStarted("game-1", 2, "bob", "dog");
+        recorder.drawingUpdated("game-1", 2, snapshot(2));
+        recorder.drawingUpdated("game-1", 2, snapshot(0));
+        recorder.drawingUpdated("game-1", 2, snapshot(1));
+
+        List<ReplayEvent> events = recorder.loadRoundAsync("game-1", 2).get(5, TimeUnit.SECONDS);
+
+        assertThat(typesOf(events)).containsExactly(ReplayEvent.Type.ROUND_START, ReplayEvent.Type.STROKE,
+                ReplayEvent.Type.STROKE, ReplayEvent.Type.CLEAR, ReplayEvent.Type.STROKE).inOrder();
+        assertThat(events.get(1).getPath().getPoints()).hasSize(2);
+    }
+
+    @Test
+    public void recordedRoundsAreListed() throws Exception {
+        recorder.roundStarted("game-1", 1, "alice", "cat");
+        recorder.drawingUpdated("game-1", 1, snapshot(1));
+        recorder.roundStarted("game-1", 2, "bob", "dog");
+
+        assertThat(recorder.getRecordedRoundsAsync("game-1").get(5, TimeUnit.SECONDS)).containsExactly(1, 2).inOrder();
+    }
+
+    // DrawingView's {"paths": [...]} format with two points per path
+    private static String snapshot(int pathCount) {
+        StringBuilder json = new StringBuilder("{\"paths\":[");
+        for (int i = 0; i < pathCount; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"color\":-16777216,\"strokeWidth\":8.0,\"points\":[{\"x\":")
+                    .append(i).append(",\"y\":1.5},{\"x\":").append(i + 10).append(",\"y\":2.5}]}");
+        }
+        return json.append("]}").toString();
+    }
+
+    private static List<ReplayEvent.Type> typesOf(List<ReplayEvent> events) {
+        List<ReplayEvent.Type> types = new ArrayList<>();
+        for (ReplayEvent event : events) {
+            types.add(event.getType());
+        }
+        return types;
+    }
+}
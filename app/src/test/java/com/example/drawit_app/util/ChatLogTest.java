@@ -0,0 +1,139 @@
+package com.example.drawit_app.util;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.assertThrows;
+
+import com.example.drawit_app.model.ChatMessage;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The chat ring buffer keeps the newest messages in order, drops duplicates and reports each change
+ */
+public class ChatLogTest {
+
+    @Test
+    public void messagesAreHeldOldestFirst() {
+        ChatLog log = new ChatLog(4);
+        log.append(message("a"));
+        log.append(message("b"));
+        log.append(message("c"));
+
+        assertThat(log.size()).isEqualTo(3);
+        assertThat(texts(log)).containsExactly("a", "b", "c").inOrder();
+    }
+
+    @Test
+    public void fullLogEvictsOldestAcrossWraparound() {
+        ChatLog log = new ChatLog(3);
+        for (String id : new String[]{"a", "b", "c", "d", "e", "f", "g"}) {
+            log.append(message(id));
+        }
+
+        // Seven appends into three slots wrap the start index around twice
+        assertThat(log.size()).isEqualTo(3);
+        assertThat(texts(log)).containsExactly("e", "f", "g").inOrder();
+        assertThat(log.get(0).getMessageId()).isEqualTo("e");
+        assertThat(log.get(2).getMessageId()).isEqualTo("g");
+    }
+
+    @Test
+    public void evictedMessageIdsAreForgotten() {
+        ChatLog log = new ChatLog(2);
+        log.append(message("a"));
+        log.append(message("b"));
+        log.append(message("c"));
+
+        assertThat(log.contains("a")).isFalse();
+        assertThat(log.contains("c")).isTrue();
+        // An evicted message is no longer a duplicate
+        assertThat(log.append(message("a"))).isTrue();
+        assertThat(texts(log)).containsExactly("c", "a").inOrder();
+    }
+
+    @Test
+    public void duplicateIdsAreDropped() {
+        ChatLog log = new ChatLog(4);
+
+        assertThat(log.append(message("a"))).isTrue();
+        assertThat(log.append(message("a"))).isFalse();
+        assertThat(log.size()).isEqualTo(1);
+    }
+
+    @Test
+    public void messagesWithoutIdAreNeverDuplicates() {
+        ChatLog log = new ChatLog(4);
+        ChatMessage system = new ChatMessage(null, "system", ChatMessage.MessageType.SYSTEM_MESSAGE);
+
+        assertThat(log.append(system)).isTrue();
+        assertThat(log.append(system)).isTrue();
+        assertThat(log.size()).isEqualTo(2);
+    }
+
+    @Test
+    public void listenersSeeAppendsEvictionsAndClear() {
+        ChatLog log = new ChatLog(2);
+        List<String> events = new ArrayList<>();
+        log.addListener(new ChatLog.Listener() {
+            @Override
+            public void onMessageAppended(int evicted) {
+                events.add("append:" + evicted);
+            }
+
+            @Override
+            public void onCleared() {
+                events.add("clear");
+            }
+        });
+
+        log.append(message("a"));
+        log.append(message("b"));
+        log.append(message("c"));
+        log.append(message("c"));
+        log.clear();
+        log.clear();
+
+        assertThat(events).containsExactly("append:0", "append:0", "append:1", "clear").inOrder();
+    }
+
+    @Test
+    public void clearEmptiesTheLog() {
+        ChatLog log = new ChatLog(2);
+        log.append(message("a"));
+        log.append(message("b"));
+        log.append(message("c"));
+
+        log.clear();
+
+        assertThat(log.size()).isEqualTo(0);
+        assertThat(log.contains("b")).isFalse();
+        assertThat(log.append(message("b"))).isTrue();
+        assertThat(texts(log)).containsExactly("b");
+    }
+
+    @Test
+    public void positionsOutsideTheLogAreRejected() {
+        ChatLog log = new ChatLog(2);
+        log.append(message("a"));
+
+        assertThrows(IndexOutOfBoundsException.class, () -> log.get(1));
+        assertThrows(IndexOutOfBoundsException.class, () -> log.get(-1));
+    }
+
+    private static ChatMessage message(String id) {
+        ChatMessage message = new ChatMessage(null, id, ChatMessage.MessageType.PLAYER_MESSAGE);
+        message.setMessageId(id);
+        return message;
+    }
+
+    private static List<String> texts(ChatLog log) {
+        List<String> texts = new ArrayList<>();
+        for (ChatMessage message : log.snapshot()) {
+            texts.add(message.getMessage());
+        }
+        return texts;
+    }
+}
@@ -0,0 +1,133 @@
+// Idempotent processing of batched client actions.
+// Clients journal drawing submissions and ratings locally and flush them as a
+// single action_batch frame once connected. Every action carries a client-generated actionKey;
+// the batch is processed strictly in order and every key (processed now, processed before, or
+// rejected) is acknowledged with one action_ack frame so the client can drop it from its journal.
+// Keys are remembered per user, so a batch resent after a lost ack is not applied twice.
+
+// Recently processed keys per user - oldest evicted first
+const MAX_KEYS_PER_USER = 2000;
+// Upper bound on actions accepted from one frame
+const MAX_BATCH_SIZE = 100;
+
+// Map of userId -> Map of actionKey -> processedAt (insertion ordered)
+const processedKeys = new Map();
+// Map of userId -> Map of actionKey -> promise of the attempt still running, resolving to
+// whether it succeeded. A batch resent while the first copy is still awaiting its handler
+// waits for that attempt instead of applying the action a second time.
+const inFlightKeys = new Map();
+
+const stats = {
+  batches: 0,
+  actions: 0,
+  duplicates: 0,
+  rejected: 0
+};
+
+function wasProcessed(userId, key) {
+  const keys = processedKeys.get(userId);
+  return keys ? keys.has(key) : false;
+}
+
+function markProcessed(userId, key) {
+  let keys = processedKeys.get(userId);
+  if (!keys) {
+    keys = new Map();
+    processedKeys.set(userId, keys);
+  }
+  keys.set(key, Date.now());
+  while (keys.size > MAX_KEYS_PER_USER) {
+    keys.delete(keys.keys().next().value);
+  }
+}
+
+function inFlightAttempt(userId, key) {
+  const keys = inFlightKeys.get(userId);
+  return keys ? keys.get(key) : undefined;
+}
+
+// Run a handler with its key marked in flight before the first await; the key moves to the
+// processed set as soon as the attempt settles, whatever its outcome
+function startAttempt(ws, userId, key, action, handler) {
+  let keys = inFlightKeys.get(userId);
+  if (!keys) {
+    keys = new Map();
+    inFlightKeys.set(userId, keys);
+  }
+  const attempt = (async () => {
+    try {
+      await handler(ws, userId, action);
+      stats.actions++;
+      return true;
+    } catch (error) {
+      // A failing action would block the client's journal forever, so it is acknowledged as rejected
+      console.error(`Journaled action ${key} (${action.type}) failed: ${error.message}`);
+      stats.rejected++;
+      return false;
+    } finally {
+      markProcessed(userId, key);
+      keys.delete(key);
+      if (keys.size === 0 && inFlightKeys.get(userId) === keys) {
+        inFlightKeys.delete(userId);
+      }
+    }
+  })();
+  keys.set(key, attempt);
+  return attempt;
+}
+
+// Apply one action_batch frame. handlers maps action type -> async (ws, userId, action).
+// Returns the ack frame to send back.
+async function handleBatch(ws, userId, data, handlers) {
+  const actions = Array.isArray(data.actions) ? data.actions.slice(0, MAX_BATCH_SIZE) : [];
+  const acked = [];
+  const rejected = [];
+  stats.batches++;
+
+  // Sequential on purpose: actions for a game must be applied in the order the player made them
+  for (const action of actions) {
+    const key = action && action.actionKey;
+    if (typeof key !== 'string' || key.length === 0) {
+      continue;
+    }
+    if (wasProcessed(userId, key)) {
+      stats.duplicates++;
+      acked.push(key);
+      continue;
+    }
+    const pending = inFlightAttempt(userId, key);
+    if (pending) {
+      stats.duplicates++;
+      (await pending ? acked : rejected).push(key);
+      continue;
+    }
+
+    const handler = handlers[action.type];
+    if (!handler) {
+      console.error(`Rejecting journaled action ${key}: unknown type ${action.type}`);
+      stats.rejected++;
+      rejected.push(key);
+      markProcessed(userId, key);
+      continue;
+    }
+
+    const succeeded = await startAttempt(ws, userId, key, action, handler);
+    (succeeded ? acked : rejected).push(key);
+  }
+
+  return {
+    type: 'action_ack',
+    keys: acked.concat(rejected),
+    rejected: rejected
+  };
+}
+
+function journalStats() {
+  return `actionBatches=${stats.batches} actions=${stats.actions} ` +
+    `duplicateActions=${stats.duplicates} rejectedActions=${stats.rejected}`;
+}
+
+module.exports = {
+  handleBatch,
+  journalStats
+};
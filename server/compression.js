@@ -0,0 +1,134 @@
+const zlib = require('zlib');
+
+// Frame compression for WebSocket traffic.
+// Clients that support permessage-deflate get it from the ws library; clients that ask for
+// dictionary compression (X-DrawIt-Compression header) but end up without the extension
+// get application-level raw deflate primed with a preset dictionary of drawing JSON.
+
+const COMPRESSION_HEADER = 'x-drawit-compression';
+const DICTIONARY_MODE = 'deflate-dict-v1';
+// Frames smaller than this stay uncompressed so control messages never pay the CPU cost
+const MIN_COMPRESS_BYTES = 512;
+const FORMAT_DEFLATE_DICT_V1 = 0x01;
+
+// Hand-written from the shapes of the messages this server sends.
+// Must stay byte-for-byte identical to FrameCompressor.PRESET_DICTIONARY in the Android client;
+// FrameCompressorTest in the app checks the two copies against each other.
+// Fragments expected to repeat most go last because zlib prefers nearby matches.
+const DRAWING_DICTIONARY = Buffer.from(
+  "{\"type\":\"lobbies_update\",\"payload\":{\"lobbies\":[{\"lobbyId\":\"\",\"name\":\"\"," +
+  "\"hostId\":\"\",\"maxPlayers\":8,\"isPrivate\":false,\"isLocked\":false,\"hostUser\":" +
+  "{\"type\":\"lobby_state\",\"payload\":{\"lobby\":{\"playerCount\":\"event\":\"updated\"," +
+  "{\"type\":\"chat_message\",\"game_id\":\"\",\"message\":\"\",\"sender\":{" +
+  "\"avatarUrl\":\"https://api.dicebear.com/7.x/avataaars/svg?seed=\",\"ready\":false}," +
+  "{\"type\":\"game_state\",\"gamePayload\":{\"event\":\"update\",\"game\":{\"gameId\":\"" +
+  "\",\"lobbyId\":\"\",\"players\":[{\"_id\":\"\",\"userId\":\"\",\"username\":\"\"}]," +
+  "\"currentRound\":1,\"maxRounds\":3,\"roundDurationSeconds\":60,\"wordToGuess\":\"\"," +
+  "\"timeRemaining\":60,\"playerScores\":[{\"userId\":\"\",\"username\":\"\",\"score\":0}]," +
+  "\"status\":\"active\",\"currentDrawer\":{\"isTransient\":true,\"createdAt\":\"" +
+  "{\"type\":\"drawing_update\",\"game_id\":\"\",\"timestamp\":17,\"paths\":\"[" +
+  "{\\\"color\\\":-16777216,\\\"strokeWidth\\\":8.0,\\\"points\\\":[" +
+  "{\\\"x\\\":0.0,\\\"y\\\":0.0},{\\\"x\\\":.0,\\\"y\\\":.5}]}," +
+  "{\"color\":-16777216,\"strokeWidth\":8.0,\"points\":[{\"x\":0.0,\"y\":0.0}," +
+  "{\"x\":.5,\"y\":.0},{\"x\":.5,\"y\":.5},{\"x\":.0,\"y\":.5}]}]\"," +
+  ".25,\"y\":.75},{\"x\":.75,\"y\":.25},{\"x\":", 'utf8');
+
+const stats = {
+  framesCompressed: 0,
+  framesDecompressed: 0,
+  bytesIn: 0,
+  bytesOut: 0,
+  compressCpuMicros: 0,
+  decompressCpuMicros: 0
+};
+
+// Options for the ws server; set WS_PERMESSAGE_DEFLATE=false to disable the extension
+function perMessageDeflateOptions() {
+  if (process.env.WS_PERMESSAGE_DEFLATE === 'false') {
+    return false;
+  }
+  return {
+    threshold: MIN_COMPRESS_BYTES,
+    zlibDeflateOptions: { level: 6, memLevel: 8 },
+    // Keep per-connection memory bounded on the client side
+    clientNoContextTakeover: true,
+    concurrencyLimit: 10
+  };
+}
+
+// 'headers' listener: echo the dictionary mode only when permessage-deflate was not negotiated
+function addNegotiationHeader(headers, req) {
+  if (req.headers[COMPRESSION_HEADER] !== DICTIONARY_MODE) {
+    return;
+  }
+  const hasExtension = headers.some(h => h.toLowerCase().startsWith('sec-websocket-extensions:'));
+  if (!hasExtension) {
+    headers.push(`X-DrawIt-Compression: ${DICTIONARY_MODE}`);
+  }
+}
+
+// Wrap ws.send so large text frames go out dictionary-compressed for clients in dictionary mode
+function installDictionaryCompression(ws, req) {
+  const extensions = ws.extensions || '';
+  ws.dictionaryCompression = req.headers[COMPRESSION_HEADER] === DICTIONARY_MODE &&
+    !extensions.includes('permessage-deflate');
+  if (!ws.dictionaryCompression) {
+    return;
+  }
+
+  const rawSend = ws.send.bind(ws);
+  ws.send = (data, options, cb) => {
+    if (typeof data === 'string' && Buffer.byteLength(data) >= MIN_COMPRESS_BYTES) {
+      return rawSend(compressFrame(data), { binary: true }, typeof options === 'function' ? options : cb);
+    }
+    return rawSend(data, options, cb);
+  };
+}
+
+function compressFrame(text) {
+  const start = process.cpuUsage();
+  const input = Buffer.from(text, 'utf8');
+  const deflated = zlib.deflateRawSync(input, { dictionary: DRAWING_DICTIONARY });
+  const frame = Buffer.concat([Buffer.from([FORMAT_DEFLATE_DICT_V1]), deflated]);
+  const used = process.cpuUsage(start);
+
+  stats.framesCompressed++;
+  stats.bytesIn += input.length;
+  stats.bytesOut += frame.length;
+  stats.compressCpuMicros += used.user + used.system;
+  return frame;
+}
+
+// Turn an incoming ws message into JSON text, inflating dictionary-compressed binary frames
+function decodeIncoming(ws, data, isBinary) {
+  if (!isBinary) {
+    return data.toString();
+  }
+  if (!ws.dictionaryCompression || data.length < 2 || data[0] !== FORMAT_DEFLATE_DICT_V1) {
+    throw new Error('Unsupported binary frame');
+  }
+  const start = process.cpuUsage();
+  const text = zlib.inflateRawSync(data.subarray(1), { dictionary: DRAWING_DICTIONARY }).toString('utf8');
+  const used = process.cpuUsage(start);
+
+  stats.framesDecompressed++;
+  stats.decompressCpuMicros += used.user + used.system;
+  return text;
+}
+
+function compressionStats() {
+  const ratio = stats.bytesOut > 0 ? (stats.bytesIn / stats.bytesOut).toFixed(2) : '1.00';
+  return `compressed=${stats.framesCompressed} decompressed=${stats.framesDecompressed} ` +
+    `ratio=${ratio} compressCpu=${stats.compressCpuMicros}us decompressCpu=${stats.decompressCpuMicros}us`;
+}
+
+module.exports = {
+  MIN_COMPRESS_BYTES,
+  DRAWING_DICTIONARY,
+  perMessageDeflateOptions,
+  addNegotiationHeader,
+  installDictionaryCompression,
+  compressFrame,
+  decodeIncoming,
+  compressionStats
+};
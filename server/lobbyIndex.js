@@ -0,0 +1,113 @@
+// Versioned index of the public lobby list.
+// Instead of broadcasting the whole list on every change, the server diffs each fresh list
+// against the last one it published and sends only what was added, updated or removed.
+// Every lobby carries its own "version" (bumped whenever its serialized form changes) and the
+// list as a whole has a "listVersion" (bumped once per published delta). A client applies a
+// delta only if its baseVersion matches the listVersion it holds; otherwise it asks for a
+// full snapshot with request_lobbies_update.
+// Versions live in memory and restart from zero with the process, so every snapshot and delta
+// also carries the "epoch" the index was started at. A client compares versions only within one
+// epoch and takes a full snapshot when it changes.
+
+// lobbyId -> { version, serialized, lobby }
+const entries = new Map();
+const epoch = Date.now();
+let listVersion = 0;
+let nextLobbyVersion = 1;
+
+// Serialize index updates so two concurrent refreshes can't interleave their diffs
+let updateChain = Promise.resolve();
+
+const stats = {
+  deltas: 0,
+  emptyRefreshes: 0,
+  lobbiesAdded: 0,
+  lobbiesUpdated: 0,
+  lobbiesRemoved: 0
+};
+
+function idOf(lobby) {
+  return lobby.lobbyId;
+}
+
+// Mongo documents carry volatile fields that change without any visible difference
+function serialize(lobby) {
+  const { lastActivity, __v, ...visible } = lobby;
+  return JSON.stringify(visible);
+}
+
+// Diff a fresh list against the index and apply it.
+// Returns null when nothing changed, otherwise the delta payload to publish.
+function applyList(lobbies) {
+  const added = [];
+  const updated = [];
+  const removed = [];
+  const seen = new Set();
+
+  for (const lobby of lobbies) {
+    const lobbyId = idOf(lobby);
+    if (!lobbyId) {
+      continue;
+    }
+    seen.add(lobbyId);
+    const serialized = serialize(lobby);
+    const existing = entries.get(lobbyId);
+    if (existing && existing.serialized === serialized) {
+      continue;
+    }
+    const version = nextLobbyVersion++;
+    const versioned = { ...lobby, version };
+    entries.set(lobbyId, { version, serialized, lobby: versioned });
+    (existing ? updated : added).push(versioned);
+  }
+
+  for (const lobbyId of entries.keys()) {
+    if (!seen.has(lobbyId)) {
+      entries.delete(lobbyId);
+      removed.push(lobbyId);
+    }
+  }
+
+  if (added.length === 0 && updated.length === 0 && removed.length === 0) {
+    stats.emptyRefreshes++;
+    return null;
+  }
+
+  const baseVersion = listVersion;
+  listVersion++;
+  stats.deltas++;
+  stats.lobbiesAdded += added.length;
+  stats.lobbiesUpdated += updated.length;
+  stats.lobbiesRemoved += removed.length;
+  return { epoch, baseVersion, listVersion, added, updated, removed };
+}
+
+// Queue a refresh: loadLobbies() fetches the current list, the diff is applied in order and
+// the resulting delta (or null) is returned
+function refresh(loadLobbies) {
+  const run = updateChain.then(async () => applyList(await loadLobbies()));
+  // Keep the chain alive even if a load fails
+  updateChain = run.catch(() => {});
+  return run;
+}
+
+// Full current list, for new connections and clients that lost track of the version
+function snapshot() {
+  return {
+    epoch,
+    listVersion,
+    lobbies: Array.from(entries.values(), entry => entry.lobby)
+  };
+}
+
+function indexStats() {
+  return `lobbies=${entries.size} epoch=${epoch} listVersion=${listVersion} deltas=${stats.deltas} ` +
+    `unchangedRefreshes=${stats.emptyRefreshes} added=${stats.lobbiesAdded} ` +
+    `updated=${stats.lobbiesUpdated} removed=${stats.lobbiesRemoved}`;
+}
+
+module.exports = {
+  refresh,
+  snapshot,
+  indexStats
+};
@@ -0,0 +1,168 @@
+const lobbyIndex = require('./lobbyIndex');
+
+// Viewport-scoped lobby list subscriptions.
+// A client declares a filter and a page window with subscribe_lobbies; from then on it only
+// receives the lobbies matching the filter inside that window. Each subscription keeps its own
+// view version and the versions of the lobbies it was sent, so after every lobby index change
+// the server can send that client a lobbies_delta covering exactly what entered, changed in or
+// left its window. Clients that never subscribe keep receiving the global lobby list deltas.
+// Payloads carry the lobby index epoch, since the lobby versions compared here come from it.
+
+const DEFAULT_LIMIT = 20;
+const MAX_LIMIT = 100;
+
+const stats = {
+  subscriptions: 0,
+  snapshots: 0,
+  deltas: 0,
+  skipped: 0
+};
+
+function normalizeFilter(raw = {}) {
+  return {
+    notInGame: raw.notInGame !== false,
+    notLocked: raw.notLocked !== false,
+    hasFreeSeats: raw.hasFreeSeats === true,
+    namePrefix: typeof raw.namePrefix === 'string' ? raw.namePrefix.trim().toLowerCase() : ''
+  };
+}
+
+function normalizeWindow(offset, limit) {
+  const start = Number.isInteger(offset) && offset > 0 ? offset : 0;
+  const size = Number.isInteger(limit) && limit > 0 ? Math.min(limit, MAX_LIMIT) : DEFAULT_LIMIT;
+  return { offset: start, limit: size };
+}
+
+function matches(lobby, filter) {
+  if (filter.notInGame && lobby.inGame) {
+    return false;
+  }
+  if (filter.notLocked && lobby.isLocked) {
+    return false;
+  }
+  if (filter.hasFreeSeats) {
+    const playerCount = Array.isArray(lobby.players) ? lobby.players.length : 0;
+    if (playerCount >= (lobby.maxPlayers || 0)) {
+      return false;
+    }
+  }
+  if (filter.namePrefix && !(lobby.name || '').toLowerCase().startsWith(filter.namePrefix)) {
+    return false;
+  }
+  return true;
+}
+
+// Matching lobbies inside the window, plus the total number of matches for paging
+function computeWindow(view) {
+  const { lobbies, epoch } = lobbyIndex.snapshot();
+  const matching = lobbies.filter(lobby => matches(lobby, view.filter));
+  return {
+    epoch,
+    total: matching.length,
+    lobbies: matching.slice(view.offset, view.offset + view.limit)
+  };
+}
+
+function rememberWindow(view, lobbies, total) {
+  view.sent = new Map(lobbies.map(lobby => [lobby.lobbyId, lobby.version]));
+  view.order = lobbies.map(lobby => lobby.lobbyId);
+  view.total = total;
+}
+
+// Install or replace the subscription on a connection and return its initial snapshot payload
+function subscribe(ws, request = {}) {
+  const { offset, limit } = normalizeWindow(request.offset, request.limit);
+  const view = {
+    filter: normalizeFilter(request.filter),
+    offset,
+    limit,
+    version: ws.lobbyView ? ws.lobbyView.version + 1 : 1,
+    sent: new Map(),
+    order: [],
+    total: 0
+  };
+  if (!ws.lobbyView) {
+    stats.subscriptions++;
+  }
+  ws.lobbyView = view;
+  return snapshotFor(ws);
+}
+
+// Full snapshot of a subscribed connection's window
+function snapshotFor(ws) {
+  const view = ws.lobbyView;
+  const { lobbies, total, epoch } = computeWindow(view);
+  rememberWindow(view, lobbies, total);
+  stats.snapshots++;
+  return {
+    epoch,
+    lobbies,
+    listVersion: view.version,
+    total,
+    offset: view.offset,
+    limit: view.limit,
+    event: 'initial'
+  };
+}
+
+// Delta for a subscribed connection against what it was last sent, or null if nothing visible changed
+function deltaFor(ws) {
+  const view = ws.lobbyView;
+  const { lobbies, total, epoch } = computeWindow(view);
+
+  const added = [];
+  const updated = [];
+  const nextIds = new Set();
+  for (const lobby of lobbies) {
+    nextIds.add(lobby.lobbyId);
+    const sentVersion = view.sent.get(lobby.lobbyId);
+    if (sentVersion === undefined) {
+      added.push(lobby);
+    } else if (sentVersion !== lobby.version) {
+      updated.push(lobby);
+    }
+  }
+  const removed = view.order.filter(lobbyId => !nextIds.has(lobbyId));
+  const order = lobbies.map(lobby => lobby.lobbyId);
+  const orderChanged = order.length !== view.order.length || order.some((id, i) => id !== view.order[i]);
+
+  if (added.length === 0 && updated.length === 0 && removed.length === 0 && !orderChanged && total === view.total) {
+    stats.skipped++;
+    return null;
+  }
+
+  const baseVersion = view.version;
+  view.version++;
+  rememberWindow(view, lobbies, total);
+  stats.deltas++;
+  return {
+    epoch,
+    baseVersion,
+    listVersion: view.version,
+    added,
+    updated,
+    removed,
+    order,
+    total,
+    offset: view.offset
+  };
+}
+
+function isSubscribed(ws) {
+  return !!ws.lobbyView;
+}
+
+function subscriptionStats() {
+  return `subscriptions=${stats.subscriptions} snapshots=${stats.snapshots} ` +
+    `deltas=${stats.deltas} skipped=${stats.skipped}`;
+}
+
+module.exports = {
+  normalizeFilter,
+  normalizeWindow,
+  subscribe,
+  snapshotFor,
+  deltaFor,
+  isSubscribed,
+  subscriptionStats
+};
@@ -50,6 +50,9 @@ drawingSchema.pre('save', function(next) {
   next();
 });
 
+// Serves the keyset-paginated archive: newest first per author
+drawingSchema.index({ authorId: 1, createdAt: -1, drawingId: -1 });
+
 // Create the Drawing model
 const Drawing = mongoose.model('Drawing', drawingSchema);
 
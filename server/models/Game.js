@@ -7,6 +7,8 @@ const gameSchema = new mongoose.Schema({
   currentRound: { type: Number, default: 1 },
   maxRounds: { type: Number, default: 3 },
   roundDurationSeconds: { type: Number, default: 60 },
+  // Server epoch millis at which the current round ends; clients convert it with their clock offset
+  roundEndsAt: { type: Number, default: 0 },
   currentDrawer: { type: mongoose.Schema.Types.ObjectId, ref: 'User' },
   wordToGuess: { type: String, default: '' },
   isTransient: { type: Boolean, default: false },
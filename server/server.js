@@ -12,6 +12,11 @@ const User = require('./models/User');
 const Lobby = require('./models/Lobby');
 const Game = require('./models/Game');
 const Drawing = require('./models/Drawing');
+const compression = require('./compression');
+const sessions = require('./sessions');
+const lobbyIndex = require('./lobbyIndex');
+const lobbySubscriptions = require('./lobbySubscriptions');
+const actionJournal = require('./actionJournal');
 
 const app = express();
 // Create HTTP server to attach both Express and WebSocket
@@ -39,9 +44,29 @@ app.use(cors({
 app.use(bodyParser.json({ limit: '10mb' })); // Increase limit for drawing data
 app.use(bodyParser.urlencoded({ extended: true }));
 
+// Conditional GETs: Express tags every JSON body with an ETag and answers a matching
+// If-None-Match with 304. "max-age=0" makes every response stale straight away, so normal
+// requests revalidate, while clients may still show the stale copy first by asking for it with
+// max-stale ("no-cache" would forbid that). Vary keeps one user's cached responses from being
+// served to another.
+app.set('etag', 'weak');
+app.use((req, res, next) => {
+  if (req.method === 'GET') {
+    res.set('Cache-Control', 'private, max-age=0');
+    res.vary('Authorization');
+  }
+  next();
+});
+
 // Helper functions
 const generateId = () => Math.random().toString(36).substring(2, 15) + Math.random().toString(36).substring(2, 15);
 
+// Unique id for each logical WebSocket message. A message sent to several audiences (e.g. game and
+// lobby fallback) keeps one id so clients can drop the extra copies.
+const messageIdPrefix = generateId().substring(0, 8);
+let messageCounter = 0;
+const nextMessageId = () => `${messageIdPrefix}-${++messageCounter}`;
+
 // Middleware to verify JWT token
 const authenticateToken = (req, res, next) => {
   const authHeader = req.headers['authorization'];
@@ -57,7 +82,9 @@ const authenticateToken = (req, res, next) => {
   
   jwt.verify(token, JWT_SECRET, (err, user) => {
     if (err) {
-      return res.status(403).json({ 
+      // 401 with a Bearer challenge lets HTTP clients refresh the token and retry
+      res.set('WWW-Authenticate', 'Bearer error="invalid_token"');
+      return res.status(401).json({ 
         success: false,
         message: 'Invalid or expired token',
         data: null
@@ -74,9 +101,13 @@ const authenticateToken = (req, res, next) => {
 // Create WebSocket server
 const wss = new WebSocket.Server({ 
   server: server,
-  path: '/ws'
+  path: '/ws',
+  perMessageDeflate: compression.perMessageDeflateOptions()
 });
 
+// Advertise dictionary compression to clients that asked for it but could not get permessage-deflate
+wss.on('headers', compression.addNegotiationHeader);
+
 // Connected clients
 const clients = new Map();
 // Map of lobbyId -> Map of userId -> WebSocket
@@ -93,35 +124,61 @@ wss.on('connection', (ws, req) => {
   console.log('WebSocket client connected');
   console.log('WebSocket headers:', req.headers);
   
+  // Compress large outgoing frames for clients in dictionary mode
+  compression.installDictionaryCompression(ws, req);
+  
   // Setup WebSocket ping/pong for connection health monitoring
   ws.isAlive = true;
   ws.on('pong', () => {
     ws.isAlive = true;
   });
   
-  // Send connection confirmation to all clients whether authenticated or not
-  ws.send(JSON.stringify({
-    type: 'connection_established',
-    message: 'Connected to DrawIt server'
-  }));
-  
   // Try to get user ID from token
   const userId = getUserIdFromRequest(req);
   
   if (userId) {
+    // Bind to the user's resumable session; from here on every JSON frame carries a seq
+    const { session, resumed, replayFrames } = sessions.attachSession(ws, userId, req);
+    
+    // Connection confirmation is a session control frame and is never sequenced or replayed
+    ws.sendUnsequenced(JSON.stringify({
+      type: 'connection_established',
+      message: 'Connected to DrawIt server',
+      sessionId: session.id,
+      resumed: resumed,
+      seq: session.seq
+    }));
+    
     // Store authenticated client connection with userId
     clients.set(userId, ws);
     lastActivity.set(userId, Date.now());
     
-    // Send initial lobbies list to the client
-    sendInitialLobbiesList(ws);
+    if (resumed) {
+      // Deliver only what the client missed while it was away
+      console.log(`Resuming session for user ${userId}: replaying ${replayFrames.length} frames`);
+      replayFrames.forEach(frame => ws.sendUnsequenced(frame));
+      restoreLobbyConnections(ws, userId, session.lobbyIds);
+    } else {
+      // Send initial lobbies list to the client
+      sendInitialLobbiesList(ws);
+    }
     
     // Handle messages from client
-    ws.on('message', async (message) => {
+    ws.on('message', async (message, isBinary) => {
+      const receivedAt = Date.now();
       try {
-        const data = JSON.parse(message);
+        const data = JSON.parse(compression.decodeIncoming(ws, message, isBinary));
         
         switch (data.type) {
+          case 'clock_ping':
+            // Clock sync sample for RTT/offset estimation; never sequenced or replayed
+            ws.sendUnsequenced(JSON.stringify({
+              type: 'clock_pong',
+              clientSendTime: data.clientSendTime,
+              serverReceiveTime: receivedAt,
+              serverSendTime: Date.now()
+            }));
+            break;
           case 'join_lobby':
             if (data.lobbyId) {
               handleJoinLobby(ws, userId, data.lobbyId);
@@ -137,6 +194,12 @@ wss.on('connection', (ws, req) => {
             // Client is requesting an updated list of lobbies
             sendInitialLobbiesList(ws);
             break;
+          case 'subscribe_lobbies':
+            // Client declares which lobbies it wants to see; it gets a scoped snapshot now
+            // and scoped deltas afterwards
+            lobbySubscriptions.subscribe(ws, data);
+            sendInitialLobbiesList(ws);
+            break;
           case 'game_state_request':
             // Client is explicitly requesting game state data
             if (data.game_id) {
@@ -154,6 +217,7 @@ wss.on('connection', (ws, req) => {
                 // Create game state message
                 const gameStateMessage = {
                   type: 'game_state',
+                  messageId: nextMessageId(),
                   gamePayload: {
                     event: 'update',
                     game: game
@@ -205,51 +269,26 @@ wss.on('connection', (ws, req) => {
             }
             break;
           case 'chat_message':
-            // Handle chat message
-            if (data.game_id && data.message) {
-              console.log(`Received chat_message for game ${data.game_id} from user ${userId}: ${data.message}`);
-              
-              try {
-                // Find the user who sent the message
-                const sender = await User.findOne({ userId: userId }).lean();
-                
-                if (!sender) {
-                  console.error(`User ${userId} not found for chat message`);
-                  return;
-                }
-                
-                // Create the chat message object
-                const chatMessage = {
-                  type: 'chat_message',
-                  game_id: data.game_id,
-                  message: data.message,
-                  timestamp: data.timestamp || Date.now(),
-                  sender: {
-                    userId: sender.userId,
-                    username: sender.username,
-                    avatarUrl: sender.avatarUrl
-                  }
-                };
-                
-                // Broadcast to all clients in the game
-                broadcastToGame(data.game_id, JSON.stringify(chatMessage));
-                
-                console.log(`Chat message broadcast to all players in game ${data.game_id}`);
-              } catch (error) {
-                console.error(`Error handling chat message: ${error.message}`);
-                ws.send(JSON.stringify({
-                  type: 'error',
-                  message: 'Error processing chat message'
-                }));
-              }
-            } else {
-              console.error('Invalid chat_message - missing game_id or message');
-              ws.send(JSON.stringify({
-                type: 'error',
-                message: 'Invalid chat_message - missing game_id or message'
-              }));
+            await handleChatMessage(ws, userId, data);
+            break;
+          case 'drawing_update':
+            // The drawer's whole canvas after each finished stroke or clear
+            if (data.game_id && typeof data.paths === 'string') {
+              relayDrawingUpdate(userId, data);
+            }
+            break;
+          case 'round_complete':
+            // Sent by every client whose round timer ran out; the first one advances the game
+            if (data.game_id) {
+              await handleRoundComplete(userId, data.game_id);
             }
             break;
+          case 'action_batch': {
+            // Journaled actions flushed by the client, in order, deduplicated by actionKey
+            const ack = await actionJournal.handleBatch(ws, userId, data, journaledActionHandlers);
+            safelySendMessage(ws, JSON.stringify(ack), 'action ack');
+            break;
+          }
           default:
             console.log('Unknown message type:', data.type);
         }
@@ -261,20 +300,33 @@ wss.on('connection', (ws, req) => {
     // Handle client disconnect
     ws.on('close', () => {
       console.log(`WebSocket client disconnected: ${userId}`);
-      clients.delete(userId);
-      lastActivity.delete(userId);
+      // A resumed connection may already have replaced this one
+      if (clients.get(userId) === ws) {
+        clients.delete(userId);
+        lastActivity.delete(userId);
+      }
       
-      // Remove from all lobby connections
+      // Remove from all lobby connections, remembering them so a resume can restore membership
+      const lobbyIds = [];
       for (const [lobbyId, connections] of lobbyConnections.entries()) {
-        if (connections.has(userId)) {
+        if (connections.get(userId) === ws) {
+          lobbyIds.push(lobbyId);
           connections.delete(userId);
           // Notify others in the lobby that this user has left
           // Notify clients about the updated lobby state
           notifyLobbyStateChange(lobbyId);
         }
       }
+      
+      sessions.detachSession(ws, lobbyIds);
     });
   } else {
+    // Send connection confirmation so unauthenticated clients know the socket is up
+    ws.send(JSON.stringify({
+      type: 'connection_established',
+      message: 'Connected to DrawIt server'
+    }));
+    
     // Unauthenticated connection - still allow connection but with limited functionality
     console.log('WebSocket client connected without authentication');
     
@@ -301,30 +353,75 @@ wss.on('connection', (ws, req) => {
   }
 });
 
-// Send initial list of lobbies to a client
+// Load every public lobby with its host details, as published to lobby browsers
+async function loadPublicLobbies() {
+  const lobbies = await Lobby.find({ isLocked: false, isPrivate: false })
+    .populate('players', 'userId username')
+    .lean();
+
+  // For each lobby, get the host details
+  return Promise.all(lobbies.map(async (lobby) => {
+    const hostUser = await User.findOne({ userId: lobby.hostId }, 'userId username avatarUrl').lean();
+    return {
+      ...lobby,
+      hostUser: hostUser || { userId: lobby.hostId, username: 'Unknown Host' }
+    };
+  }));
+}
+
+// Send a lobby index change to every connected client except the given one.
+// Clients with a lobby subscription get a delta scoped to their own filter and window;
+// the rest get the global delta.
+function publishLobbiesDelta(delta, excludeWs = null) {
+  const globalMessage = JSON.stringify({
+    type: 'lobbies_delta',
+    messageId: nextMessageId(),
+    payload: delta
+  });
+  for (const [userId, ws] of clients.entries()) {
+    if (ws === excludeWs || ws.readyState !== WebSocket.OPEN) {
+      continue;
+    }
+    if (!lobbySubscriptions.isSubscribed(ws)) {
+      ws.send(globalMessage);
+      continue;
+    }
+    const scopedDelta = lobbySubscriptions.deltaFor(ws);
+    if (scopedDelta) {
+      ws.send(JSON.stringify({
+        type: 'lobbies_delta',
+        messageId: nextMessageId(),
+        payload: scopedDelta
+      }));
+    }
+  }
+}
+
+// Send the full versioned list of lobbies to a client, scoped to its subscription if it has one
 async function sendInitialLobbiesList(ws) {
   try {
-    // Get all available lobbies
-    const lobbies = await Lobby.find({ isLocked: false, isPrivate: false })
-      .populate('players', 'userId username')
-      .lean();
-      
-    // For each lobby, get the host details
-    const lobbiesWithDetails = await Promise.all(lobbies.map(async (lobby) => {
-      const hostUser = await User.findOne({ userId: lobby.hostId }, 'userId username avatarUrl').lean();
-      return {
-        ...lobby,
-        hostUser: hostUser || { userId: lobby.hostId, username: 'Unknown Host' }
+    // Bring the index up to date first; anyone else gets the change as a delta
+    const delta = await lobbyIndex.refresh(loadPublicLobbies);
+    if (delta) {
+      publishLobbiesDelta(delta, ws);
+    }
+
+    let payload;
+    if (lobbySubscriptions.isSubscribed(ws)) {
+      payload = lobbySubscriptions.snapshotFor(ws);
+    } else {
+      const snapshot = lobbyIndex.snapshot();
+      payload = {
+        lobbies: snapshot.lobbies,
+        epoch: snapshot.epoch,
+        listVersion: snapshot.listVersion,
+        event: 'initial'
       };
-    }));
-    
-    // Send the lobbies list to the client
+    }
     ws.send(JSON.stringify({
       type: 'lobbies_update',
-      payload: {
-        lobbies: lobbiesWithDetails,
-        event: 'initial'
-      }
+      messageId: nextMessageId(),
+      payload
     }));
   } catch (error) {
     console.error(`Error sending initial lobbies list: ${error.message}`);
@@ -417,6 +514,7 @@ async function handleJoinLobby(ws, userId, lobbyId) {
     // Notify the joining client about successful connection
     const joinMessage = JSON.stringify({
       type: 'lobby_joined',
+      messageId: nextMessageId(),
       lobbyId,
       payload: {
         lobby: lobbyData,
@@ -443,8 +541,185 @@ async function handleJoinLobby(ws, userId, lobbyId) {
   }
 }
 
+// Re-add a resumed connection to the lobbies it was in before the drop
+function restoreLobbyConnections(ws, userId, lobbyIds) {
+  for (const lobbyId of lobbyIds || []) {
+    if (!lobbyConnections.has(lobbyId)) {
+      lobbyConnections.set(lobbyId, new Map());
+    }
+    lobbyConnections.get(lobbyId).set(userId, ws);
+    notifyLobbyStateChange(lobbyId);
+  }
+}
+
+// Broadcast a chat message from a player to everyone in the game
+async function handleChatMessage(ws, userId, data) {
+  if (data.game_id && data.message) {
+    console.log(`Received chat_message for game ${data.game_id} from user ${userId}: ${data.message}`);
+    
+    try {
+      // Find the user who sent the message
+      const sender = await User.findOne({ userId: userId }).lean();
+      
+      if (!sender) {
+        console.error(`User ${userId} not found for chat message`);
+        return;
+      }
+      
+      // Create the chat message object
+      const chatMessage = {
+        type: 'chat_message',
+        messageId: nextMessageId(),
+        game_id: data.game_id,
+        message: data.message,
+        timestamp: data.timestamp || Date.now(),
+        sender: {
+          userId: sender.userId,
+          username: sender.username,
+          avatarUrl: sender.avatarUrl
+        }
+      };
+      
+      // Broadcast to all clients in the game
+      broadcastToGame(data.game_id, JSON.stringify(chatMessage));
+      
+      console.log(`Chat message broadcast to all players in game ${data.game_id}`);
+    } catch (error) {
+      console.error(`Error handling chat message: ${error.message}`);
+      ws.send(JSON.stringify({
+        type: 'error',
+        message: 'Error processing chat message'
+      }));
+    }
+  } else {
+    console.error('Invalid chat_message - missing game_id or message');
+    ws.send(JSON.stringify({
+      type: 'error',
+      message: 'Invalid chat_message - missing game_id or message'
+    }));
+  }
+}
+
+// Limits on a submitted drawing, well above what a round of drawing produces
+const MAX_DRAWING_PATHS = 2000;
+const MAX_DRAWING_POINTS = 200000;
+
+// Parse and check submitted drawing data: an array of paths, each with a points array of
+// {x, y} numbers and optional numeric color and strokeWidth. Returns the paths or throws.
+function parseDrawingPaths(drawingData) {
+  const paths = typeof drawingData === 'string' ? JSON.parse(drawingData) : drawingData;
+  if (!Array.isArray(paths) || paths.length > MAX_DRAWING_PATHS) {
+    throw new Error('drawingData must be an array of at most ' + MAX_DRAWING_PATHS + ' paths');
+  }
+  let pointCount = 0;
+  for (const path of paths) {
+    if (!path || typeof path !== 'object' || !Array.isArray(path.points)) {
+      throw new Error('every drawing path needs a points array');
+    }
+    if ((path.color !== undefined && !Number.isFinite(path.color)) ||
+        (path.strokeWidth !== undefined && !Number.isFinite(path.strokeWidth))) {
+      throw new Error('drawing path color and strokeWidth must be numbers');
+    }
+    pointCount += path.points.length;
+    if (pointCount > MAX_DRAWING_POINTS) {
+      throw new Error('drawing has more than ' + MAX_DRAWING_POINTS + ' points');
+    }
+    for (const point of path.points) {
+      if (!point || !Number.isFinite(point.x) || !Number.isFinite(point.y)) {
+        throw new Error('drawing points need numeric x and y');
+      }
+    }
+  }
+  return paths;
+}
+
+// Canvas snapshots larger than this are dropped instead of relayed
+const MAX_DRAWING_UPDATE_BYTES = 1024 * 1024;
+
+// Pass a drawer's canvas snapshot on to the other players of the game. Nothing is stored;
+// the finished drawing arrives separately as a journaled submit_drawing.
+function relayDrawingUpdate(userId, data) {
+  const connections = gameConnections.get(data.game_id);
+  if (!connections || !connections.has(userId)) {
+    console.log(`Ignoring drawing_update from ${userId}, who is not connected to game ${data.game_id}`);
+    return;
+  }
+  if (data.paths.length > MAX_DRAWING_UPDATE_BYTES) {
+    console.log(`Dropping drawing_update of ${data.paths.length} bytes from ${userId}`);
+    return;
+  }
+  try {
+    const snapshot = JSON.parse(data.paths);
+    parseDrawingPaths(snapshot && snapshot.paths);
+  } catch (error) {
+    console.log(`Dropping malformed drawing_update from ${userId}: ${error.message}`);
+    return;
+  }
+
+  broadcastToGame(data.game_id, JSON.stringify({
+    type: 'drawing_update',
+    messageId: nextMessageId(),
+    gameId: data.game_id,
+    paths: data.paths,
+    timestamp: Number.isFinite(data.timestamp) ? data.timestamp : Date.now()
+  }), userId);
+}
+
+// Actions a client may journal offline and flush later in an action_batch
+const journaledActionHandlers = {
+  // Store a finished drawing; the action key doubles as the drawing ID so a replay cannot duplicate it
+  submit_drawing: async (ws, userId, action) => {
+    if (!action.gameId || action.drawingData === undefined) {
+      throw new Error('submit_drawing is missing gameId or drawingData');
+    }
+    const paths = parseDrawingPaths(action.drawingData);
+    await Drawing.updateOne(
+      { drawingId: action.drawingId || action.actionKey },
+      {
+        $setOnInsert: {
+          title: action.word || 'Untitled',
+          prompt: action.word || '',
+          imageData: JSON.stringify(paths),
+          authorId: userId,
+          gameId: action.gameId
+        }
+      },
+      { upsert: true }
+    );
+  },
+
+  // Set (or replace) this player's rating of a drawing
+  rate_drawing: async (ws, userId, action) => {
+    const score = Number(action.rating);
+    if (!Number.isFinite(score) || score < 0 || score > 5) {
+      throw new Error(`Rating ${action.rating} is not between 0 and 5`);
+    }
+    const drawing = await Drawing.findOne({ drawingId: action.drawingId });
+    if (!drawing) {
+      throw new Error(`Drawing ${action.drawingId} not found`);
+    }
+    const existing = drawing.ratings.find(rating => rating.userId === userId);
+    if (existing) {
+      existing.score = score;
+    } else {
+      drawing.ratings.push({ userId, score });
+    }
+    await drawing.save();
+  }
+};
+
 // Safely send a message to a WebSocket client with error handling
 function safelySendMessage(ws, message, description = 'message') {
+  if (ws && ws.session) {
+    // Route through the session so the frame reaches the user's latest socket,
+    // or waits in the replay buffer while they are reconnecting
+    try {
+      return sessions.sendToSession(ws.session, message);
+    } catch (error) {
+      console.error(`Failed to send ${description}: ${error.message}`);
+      return false;
+    }
+  }
   if (ws && ws.readyState === WebSocket.OPEN) {
     try {
       ws.send(message);
@@ -693,9 +968,11 @@ async function notifyLobbyStateChange(lobbyId) {
     let deliveredCount = 0;
     let failedCount = 0;
     
+    const messageId = nextMessageId();
     for (const [userId, ws] of connections.entries()) {
       const message = JSON.stringify({
           type: 'lobby_state',
+          messageId,
           payload: {
             lobby: lobbyData,
             hostUser: hostUser, // Include hostUser at the payload level, not nested in lobby
@@ -724,38 +1001,16 @@ async function notifyLobbyStateChange(lobbyId) {
   }
 }
 
-// Function to broadcast lobby list updates to all connected clients
+// Function to broadcast lobby list updates to all connected clients.
+// Only the lobbies that changed since the last broadcast are sent, as a lobbies_delta.
 async function broadcastLobbyListUpdate() {
   try {
-    // Get all available lobbies
-    const lobbies = await Lobby.find({ isLocked: false, isPrivate: false })
-      .populate('players', 'userId username')
-      .lean();
-      
-    // For each lobby, get the host details
-    const lobbiesWithDetails = await Promise.all(lobbies.map(async (lobby) => {
-      const hostUser = await User.findOne({ userId: lobby.hostId }, 'userId username avatarUrl').lean();
-      return {
-        ...lobby,
-        hostUser: hostUser || { userId: lobby.hostId, username: 'Unknown Host' }
-      };
-    }));
-    
-    // Create the message to send
-    const message = JSON.stringify({
-      type: 'lobbies_update',
-      payload: {
-        lobbies: lobbiesWithDetails,
-        event: 'updated'
-      }
-    });
-    
-    // Send to all connected clients
-    for (const [userId, ws] of clients.entries()) {
-      if (ws.readyState === WebSocket.OPEN) {
-        ws.send(message);
-      }
-    } 
+    const delta = await lobbyIndex.refresh(loadPublicLobbies);
+    if (!delta) {
+      return;
+    }
+    console.log(`Lobby list v${delta.listVersion}: +${delta.added.length} ~${delta.updated.length} -${delta.removed.length}`);
+    publishLobbiesDelta(delta);
   } catch (error) {
     console.error(`Error broadcasting lobby list update: ${error.message}`);
   }
@@ -798,8 +1053,7 @@ async function handleStartGame(userId, lobbyId, gameId) {
       const firstDrawer = lobby.players[randomPlayerIndex];
       
       // Select a random word for the first round
-      const wordList = ['apple', 'banana', 'car', 'dog', 'elephant', 'flower', 'guitar', 'house', 'island', 'jacket'];
-      const randomWord = wordList[Math.floor(Math.random() * wordList.length)];
+      const randomWord = pickWord();
       
       // Initialize player scores array
       const playerScores = lobby.players.map(player => ({
@@ -816,7 +1070,7 @@ async function handleStartGame(userId, lobbyId, gameId) {
         players: lobby.players,
         maxRounds: numRounds,
         roundDurationSeconds: roundDuration,
-        currentRound: 1,
+        ...roundStartFields(1, roundDuration),
         currentDrawer: {
           _id: firstDrawer._id,
           userId: firstDrawer.userId,
@@ -852,6 +1106,7 @@ async function handleStartGame(userId, lobbyId, gameId) {
     // Prepare a start_game message with the same structure as game_state for compatibility
     const startGameMessage = JSON.stringify({
       type: 'start_game',
+      messageId: nextMessageId(),
       gamePayload: {
         game: game
       }
@@ -860,6 +1115,7 @@ async function handleStartGame(userId, lobbyId, gameId) {
     // Also prepare a standard game_state message for compatibility
     const gameStateMessage = JSON.stringify({
       type: 'game_state',
+      messageId: nextMessageId(),
       gamePayload: {
         game: game
       }
@@ -954,8 +1210,76 @@ async function handleStartGame(userId, lobbyId, gameId) {
   }
 }
 
+// Fields that start a round. Every round start goes through here so the deadline that
+// timeRemaining is derived from always belongs to the current round.
+function roundStartFields(roundNumber, roundDurationSeconds) {
+  return {
+    currentRound: roundNumber,
+    roundEndsAt: Date.now() + (roundDurationSeconds || 60) * 1000
+  };
+}
+
+// Words a drawer can be given; game start, round changes and repairs all pick from here
+const WORD_LIST = ['apple', 'banana', 'car', 'dog', 'elephant', 'flower', 'guitar', 'house', 'island', 'jacket'];
+
+function pickWord() {
+  return WORD_LIST[Math.floor(Math.random() * WORD_LIST.length)];
+}
+
+// Clients' timers may run out slightly before the server's deadline
+const ROUND_END_TOLERANCE_MS = 2000;
+
+// Advance a game to its next round, or finish it after the last one
+async function handleRoundComplete(userId, gameId) {
+  try {
+    const game = await Game.findOne({ gameId });
+    if (!game || game.status !== 'active') {
+      console.log(`Ignoring round_complete from ${userId} - game ${gameId} is not active`);
+      return;
+    }
+    
+    // Later reports of the same round arrive after the deadline has already moved on
+    if (game.roundEndsAt && Date.now() < game.roundEndsAt - ROUND_END_TOLERANCE_MS) {
+      console.log(`Ignoring round_complete from ${userId} - round ${game.currentRound} of game ${gameId} is still running`);
+      return;
+    }
+    
+    let update;
+    let event;
+    if (game.currentRound >= game.maxRounds) {
+      update = { status: 'finished' };
+      event = 'game_ended';
+    } else {
+      // Next player in turn draws a new word
+      const players = game.players || [];
+      const drawerIndex = players.findIndex(p => game.currentDrawer && p.equals(game.currentDrawer));
+      const nextDrawer = players.length > 0 ? players[(drawerIndex + 1) % players.length] : game.currentDrawer;
+      update = {
+        ...roundStartFields(game.currentRound + 1, game.roundDurationSeconds),
+        currentDrawer: nextDrawer,
+        wordToGuess: pickWord()
+      };
+      event = 'round_started';
+    }
+    
+    // Conditional on the round so concurrent reports advance the game only once
+    const result = await Game.updateOne(
+      { gameId, currentRound: game.currentRound, status: 'active' },
+      { $set: update });
+    if (result.modifiedCount === 0) {
+      console.log(`Round ${game.currentRound} of game ${gameId} was already completed`);
+      return;
+    }
+    
+    console.log(`Game ${gameId}: round ${game.currentRound} complete -> ${event}`);
+    await notifyGameStateChange(gameId, event);
+  } catch (error) {
+    console.error(`Error completing round of game ${gameId}:`, error);
+  }
+}
+
 // Notify all clients in a game about state change
-async function notifyGameStateChange(gameId) {
+async function notifyGameStateChange(gameId, event) {
   try {
     // Populate both players and currentDrawer to ensure we have complete information
     const game = await Game.findOne({ gameId })
@@ -979,13 +1303,14 @@ async function notifyGameStateChange(gameId) {
     // Make sure we have a word to guess
     if (!game.wordToGuess) {
       console.log(`Game ${gameId} is missing wordToGuess, selecting a random word`);
-      const wordList = ['apple', 'banana', 'car', 'dog', 'elephant', 'flower', 'guitar', 'house', 'island', 'jacket'];
-      game.wordToGuess = wordList[Math.floor(Math.random() * wordList.length)];
+      game.wordToGuess = pickWord();
       await game.save();
     }
     
-    // Make sure we have timeRemaining
-    if (!game.timeRemaining) {
+    // Derive timeRemaining from the round deadline so late joiners and resyncs see the real value
+    if (game.roundEndsAt) {
+      game.timeRemaining = Math.max(0, Math.ceil((game.roundEndsAt - Date.now()) / 1000));
+    } else if (!game.timeRemaining) {
       console.log(`Game ${gameId} is missing timeRemaining, setting to roundDurationSeconds`);
       game.timeRemaining = game.roundDurationSeconds || 60;
       await game.save();
@@ -994,7 +1319,9 @@ async function notifyGameStateChange(gameId) {
     // Create a complete game state message with all required fields
     const message = JSON.stringify({
       type: 'game_state',
+      messageId: nextMessageId(),
       gamePayload: {
+        event: event,
         game: game,
         currentDrawer: game.currentDrawer,
         wordToGuess: game.wordToGuess,
@@ -1068,6 +1395,11 @@ const interval = setInterval(() => {
   });
   
   console.log(`WebSocket health check: ${activeConnections} active, ${terminatedConnections} terminated`);
+  console.log(`WebSocket frame compression: ${compression.compressionStats()}`);
+  console.log(`WebSocket sessions: ${sessions.sessionStats()}`);
+  console.log(`Lobby index: ${lobbyIndex.indexStats()}`);
+  console.log(`Lobby subscriptions: ${lobbySubscriptions.subscriptionStats()}`);
+  console.log(`Action journal: ${actionJournal.journalStats()}`);
   
   // Clean up stale connections
   cleanupStaleConnections();
@@ -1444,6 +1776,67 @@ app.get('/users/:userId', authenticateToken, async (req, res) => {
   }
 });
 
+// One page of the caller's drawings, newest first. Keyset-paginated on (createdAt, drawingId):
+// pass the timestamp and ID of the last drawing you have to get the ones after it, so a page
+// costs the same no matter how deep into the archive it is.
+const DRAWINGS_PAGE_DEFAULT = 30;
+const DRAWINGS_PAGE_MAX = 100;
+
+app.get('/users/drawings/page', authenticateToken, async (req, res) => {
+  try {
+    const limit = Math.min(parseInt(req.query.limit, 10) || DRAWINGS_PAGE_DEFAULT, DRAWINGS_PAGE_MAX);
+    const query = { authorId: req.user.userId };
+
+    const beforeTimestamp = parseInt(req.query.beforeTimestamp, 10);
+    if (!Number.isNaN(beforeTimestamp)) {
+      const before = new Date(beforeTimestamp);
+      query.$or = [
+        { createdAt: { $lt: before } },
+        { createdAt: before, drawingId: { $lt: req.query.beforeId || '' } }
+      ];
+    }
+
+    const drawings = await Drawing.find(query)
+      .sort({ createdAt: -1, drawingId: -1 })
+      .limit(limit)
+      .lean();
+
+    res.json({
+      success: true,
+      message: 'Drawings retrieved successfully',
+      data: drawings.map(toClientDrawing)
+    });
+  } catch (error) {
+    console.error('Drawing page retrieval error:', error);
+    res.status(500).json({
+      success: false,
+      message: 'Server error while retrieving drawings',
+      data: null
+    });
+  }
+});
+
+// Shape a stored drawing like the app's Drawing model
+function toClientDrawing(drawing) {
+  let paths = [];
+  try {
+    const parsed = JSON.parse(drawing.imageData);
+    paths = Array.isArray(parsed) ? parsed : (parsed && Array.isArray(parsed.paths) ? parsed.paths : []);
+  } catch (error) {
+    // Not stroke data (e.g. an encoded image); the drawing is listed without paths
+  }
+  return {
+    drawingId: drawing.drawingId,
+    userId: drawing.authorId,
+    gameId: drawing.gameId,
+    word: drawing.prompt || drawing.title,
+    timestamp: drawing.createdAt ? new Date(drawing.createdAt).getTime() : 0,
+    averageRating: drawing.averageRating || 0,
+    ratingCount: drawing.ratings ? drawing.ratings.length : 0,
+    paths: paths
+  };
+}
+
 app.get('/users/profile', authenticateToken, async (req, res) => {
   try {
     const user = await User.findOne({ userId: req.user.userId });
@@ -1567,10 +1960,31 @@ app.put('/users/profile', authenticateToken, async (req, res) => {
 
 app.get('/lobbies', authenticateToken, async (req, res) => {
   try {
-    const lobbies = await Lobby.find({ 
-      isLocked: false,
-      isPrivate: false 
-    }).populate('players', 'userId username avatarUrl ready');
+    // Optional filter and page window; without them every public, unlocked lobby is returned
+    const query = { isLocked: false, isPrivate: false };
+    const filter = lobbySubscriptions.normalizeFilter({
+      hasFreeSeats: req.query.hasFreeSeats === 'true',
+      namePrefix: req.query.namePrefix
+    });
+    if (filter.hasFreeSeats) {
+      query.$expr = { $lt: [{ $size: '$players' }, '$maxPlayers'] };
+    }
+    if (filter.namePrefix) {
+      const escaped = filter.namePrefix.replace(/[.*+?^${}()|[\]\\]/g, '\\$&');
+      query.name = { $regex: `^${escaped}`, $options: 'i' };
+    }
+    const paged = req.query.offset !== undefined || req.query.limit !== undefined;
+    const { offset, limit } = lobbySubscriptions.normalizeWindow(
+      parseInt(req.query.offset, 10), parseInt(req.query.limit, 10));
+
+    let lobbyQuery = Lobby.find(query).sort({ createdAt: 1 });
+    if (paged) {
+      lobbyQuery = lobbyQuery.skip(offset).limit(limit);
+    }
+    const [lobbies, totalCount] = await Promise.all([
+      lobbyQuery.populate('players', 'userId username avatarUrl ready'),
+      Lobby.countDocuments(query)
+    ]);
     
     const lobbiesResponse = lobbies.map(lobby => ({
       lobbyId: lobby.lobbyId,
@@ -1589,7 +2003,7 @@ app.get('/lobbies', authenticateToken, async (req, res) => {
     res.json({
       success: true,
       message: 'Lobbies retrieved successfully',
-      data: { lobbies: lobbiesResponse }
+      data: { lobbies: lobbiesResponse, totalCount }
     });
   } catch (error) {
     console.error('Error retrieving lobbies:', error);
@@ -2001,7 +2415,7 @@ app.post('/lobbies/:lobbyId/start-game', authenticateToken, async (req, res) =>
       gameId,
       lobbyId: lobby.lobbyId,
       players: lobby.players.map(p => p._id),
-      currentRound: 1,
+      ...roundStartFields(1, lobby.roundDurationSeconds),
       maxRounds: lobby.numRounds,
       roundDurationSeconds: lobby.roundDurationSeconds,
       status: 'active'
@@ -0,0 +1,157 @@
+const crypto = require('crypto');
+const WebSocket = require('ws');
+
+// Resumable WebSocket sessions.
+// Every JSON frame sent to an authenticated user gets a per-session, monotonically increasing
+// "seq" field and is kept in a bounded replay buffer. A client that reconnects with the
+// X-DrawIt-Session / X-DrawIt-Last-Seq headers gets only the frames it missed; if the gap is
+// no longer in the buffer it is told to fetch a fresh snapshot instead.
+
+const SESSION_HEADER = 'x-drawit-session';
+const LAST_SEQ_HEADER = 'x-drawit-last-seq';
+// Keep a disconnected session around long enough to ride out a flaky mobile network
+const SESSION_TTL_MS = 2 * 60 * 1000;
+// Replay buffer bounds - whichever is hit first evicts the oldest frames
+const REPLAY_BUFFER_FRAMES = 500;
+const REPLAY_BUFFER_BYTES = 1024 * 1024;
+
+// Map of userId -> session
+const sessions = new Map();
+
+const stats = {
+  resumed: 0,
+  snapshots: 0,
+  framesReplayed: 0,
+  bytesReplayed: 0
+};
+
+function createSession(userId) {
+  return {
+    id: crypto.randomBytes(12).toString('hex'),
+    userId,
+    seq: 0,
+    frames: [], // [{ seq, data }] oldest first
+    bufferedBytes: 0,
+    ws: null,
+    lobbyIds: [],
+    expiryTimer: null
+  };
+}
+
+// Stamp a frame with the next sequence number and remember it for replay.
+// Frames are JSON objects serialised by the caller, so the seq field is spliced in
+// without parsing the payload again.
+function sequenceFrame(session, data) {
+  session.seq++;
+  const frame = data.length > 2
+    ? `{"seq":${session.seq},${data.slice(1)}`
+    : `{"seq":${session.seq}}`;
+
+  session.frames.push({ seq: session.seq, data: frame });
+  session.bufferedBytes += frame.length;
+  while (session.frames.length > REPLAY_BUFFER_FRAMES ||
+         (session.bufferedBytes > REPLAY_BUFFER_BYTES && session.frames.length > 1)) {
+    session.bufferedBytes -= session.frames.shift().data.length;
+  }
+  return frame;
+}
+
+// True if every frame after lastSeq is still in the replay buffer
+function canReplayFrom(session, lastSeq) {
+  if (!Number.isInteger(lastSeq) || lastSeq < 0 || lastSeq > session.seq) {
+    return false;
+  }
+  const oldestSeq = session.frames.length > 0 ? session.frames[0].seq : session.seq + 1;
+  return lastSeq >= oldestSeq - 1;
+}
+
+// Bind a new connection to the user's session, replaying missed frames when possible.
+// Returns { session, resumed, replayFrames } - the caller sends connection_established first,
+// then the replay frames, so the client knows how to treat them.
+function attachSession(ws, userId, req) {
+  const requestedId = req.headers[SESSION_HEADER];
+  const lastSeq = parseInt(req.headers[LAST_SEQ_HEADER], 10);
+
+  let session = sessions.get(userId);
+  if (!session || !requestedId || session.id !== requestedId) {
+    session = createSession(userId);
+    sessions.set(userId, session);
+  }
+  if (session.expiryTimer) {
+    clearTimeout(session.expiryTimer);
+    session.expiryTimer = null;
+  }
+
+  let resumed = false;
+  let replayFrames = [];
+  if (requestedId === session.id && canReplayFrom(session, lastSeq)) {
+    resumed = true;
+    replayFrames = session.frames.filter(frame => frame.seq > lastSeq).map(frame => frame.data);
+    stats.resumed++;
+    stats.framesReplayed += replayFrames.length;
+    stats.bytesReplayed += replayFrames.reduce((total, frame) => total + frame.length, 0);
+  } else if (requestedId) {
+    stats.snapshots++;
+  }
+
+  installSequencing(ws, session);
+  session.ws = ws;
+  ws.session = session;
+  return { session, resumed, replayFrames };
+}
+
+// Wrap ws.send so every JSON text frame is sequenced; ws.sendUnsequenced bypasses it
+// for session control frames such as connection_established
+function installSequencing(ws, session) {
+  const rawSend = ws.send.bind(ws);
+  ws.sendUnsequenced = rawSend;
+  ws.send = (data, options, cb) => {
+    if (typeof data === 'string' && data.charAt(0) === '{') {
+      return rawSend(sequenceFrame(session, data), options, cb);
+    }
+    return rawSend(data, options, cb);
+  };
+}
+
+// Send a frame to whichever socket currently serves the session. While the user is offline the
+// frame is only sequenced and buffered so a resume can deliver it later.
+function sendToSession(session, data) {
+  const ws = session.ws;
+  if (ws && ws.readyState === WebSocket.OPEN) {
+    ws.send(data);
+    return true;
+  }
+  if (typeof data === 'string' && data.charAt(0) === '{') {
+    sequenceFrame(session, data);
+  }
+  return false;
+}
+
+// Called when a socket closes; the session is kept for SESSION_TTL_MS so the user can resume.
+// lobbyIds are the lobbies the user was in, restored on resume.
+function detachSession(ws, lobbyIds) {
+  const session = ws.session;
+  if (!session || session.ws !== ws) {
+    // A newer connection already took over this session
+    return;
+  }
+  session.ws = null;
+  session.lobbyIds = lobbyIds;
+  session.expiryTimer = setTimeout(() => {
+    if (sessions.get(session.userId) === session && !session.ws) {
+      sessions.delete(session.userId);
+    }
+  }, SESSION_TTL_MS);
+}
+
+function sessionStats() {
+  return `sessions=${sessions.size} resumed=${stats.resumed} snapshots=${stats.snapshots} ` +
+    `replayedFrames=${stats.framesReplayed} replayedBytes=${stats.bytesReplayed}`;
+}
+
+module.exports = {
+  attachSession,
+  detachSession,
+  sendToSession,
+  sessionStats
+};